@@ -0,0 +1,218 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+/**
+ * Interval controller which uses AIMD (additive increase, multiplicative decrease
+ * of the frame rate). <br>
+ * <br>
+ * The execution time is smoothed using an exponential moving average, and the
+ * required interval is the smoothed execution time multiplied by the headroom.
+ * The interval is only changed if the required interval leaves the hysteresis
+ * band around the current interval, or if a cycle overran while the required
+ * interval is close to the current interval:
+ * <ul>
+ *   <li> If a cycle overran, then the interval is multiplied by the increase factor. </li>
+ *   <li> If the cycles do not fit in the interval, then the interval is set to the
+ *        required interval. </li>
+ *   <li> If the cycles fit easily in the interval, then the interval is decreased
+ *        by one ms during the back-off after an increase, and with the decrease
+ *        factor afterwards. </li>
+ * </ul>
+ * After a change, the interval is at least the required interval plus the hysteresis,
+ * so a stable load does not cause the interval to oscillate. Single overruns caused by
+ * bursts are tolerated if the smoothed execution time fits in the interval. <br>
+ * The interval always stays within the bounds, and never drops below the target interval.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class AimdIntervalController
+        implements IntervalController {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default ratio between the interval and the smoothed execution time. */
+    public static final double DEFAULT_HEADROOM = 1.1;
+    /** The default weight of a new sample in the moving average. */
+    public static final double DEFAULT_SMOOTHING = 0.1;
+    /** The default relative width of the hysteresis band. */
+    public static final double DEFAULT_HYSTERESIS = 0.05;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The minimal interval in ms. */
+    private final long minInterval;
+    /** The maximal interval in ms. */
+    private final long maxInterval;
+    /** The ratio between the interval and the smoothed execution time. */
+    private final double headroom;
+    /** The weight of a new sample in the moving average. */
+    private final double smoothing;
+    /** The relative width of the hysteresis band. */
+    private final double hysteresis;
+    /** The factor used for increasing the interval. */
+    private final double increaseFactor;
+    /** The factor used for decreasing the interval after the back-off. */
+    private final double decreaseFactor;
+    /** The number of cycles to decrease slowly after an increase. */
+    private final int backoffCycles;
+    
+    /** The smoothed execution time, or a negative value if there are no samples. */
+    private double avgExeTime = -1;
+    /** The remaining number of cycles to decrease slowly. */
+    private int backoff = 0;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new AIMD controller with the default settings and without bounds.
+     */
+    public AimdIntervalController() {
+        this(1, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Creates a new AIMD controller with the default settings.
+     * 
+     * @param minInterval The minimal interval in ms.
+     * @param maxInterval The maximal interval in ms.
+     * 
+     * @throws IllegalArgumentException If {@code minInterval <= 0} or
+     *     {@code maxInterval < minInterval}.
+     */
+    public AimdIntervalController(long minInterval, long maxInterval)
+            throws IllegalArgumentException {
+        this(minInterval, maxInterval, DEFAULT_HEADROOM, DEFAULT_SMOOTHING,
+                DEFAULT_HYSTERESIS, 1.1, 0.95, 10);
+    }
+    
+    /**
+     * Creates a new AIMD controller.
+     * 
+     * @param minInterval The minimal interval in ms.
+     * @param maxInterval The maximal interval in ms.
+     * @param headroom The ratio between the interval and the smoothed execution time
+     *     to aim for. Must be at least {@code 1}.
+     * @param smoothing The weight of a new sample in the moving average.
+     *     Must be in the range {@code (0, 1]}.
+     * @param hysteresis The relative width of the hysteresis band.
+     *     Must be in the range {@code [0, 1)}.
+     * @param increaseFactor The factor used for increasing the interval.
+     *     Must be larger than {@code 1}.
+     * @param decreaseFactor The factor used for decreasing the interval.
+     *     Must be in the range {@code (0, 1)}.
+     * @param backoffCycles The number of cycles to only decrease the interval
+     *     slowly after an increase.
+     * 
+     * @throws IllegalArgumentException If one of the arguments is out of range.
+     */
+    public AimdIntervalController(long minInterval, long maxInterval, double headroom,
+            double smoothing, double hysteresis, double increaseFactor,
+            double decreaseFactor, int backoffCycles)
+            throws IllegalArgumentException {
+        if (minInterval <= 0) {
+            throw new IllegalArgumentException("minInterval(" + minInterval + ") <= 0");
+        }
+        if (maxInterval < minInterval) {
+            throw new IllegalArgumentException("maxInterval(" + maxInterval
+                    + ") < minInterval(" + minInterval + ")");
+        }
+        if (!(headroom >= 1)) {
+            throw new IllegalArgumentException("headroom(" + headroom + ") < 1");
+        }
+        if (!(smoothing > 0 && smoothing <= 1)) {
+            throw new IllegalArgumentException("smoothing(" + smoothing + ") is out of range");
+        }
+        if (!(hysteresis >= 0 && hysteresis < 1)) {
+            throw new IllegalArgumentException("hysteresis(" + hysteresis + ") is out of range");
+        }
+        if (!(increaseFactor > 1)) {
+            throw new IllegalArgumentException("increaseFactor(" + increaseFactor + ") <= 1");
+        }
+        if (!(decreaseFactor > 0 && decreaseFactor < 1)) {
+            throw new IllegalArgumentException("decreaseFactor(" + decreaseFactor
+                    + ") is out of range");
+        }
+        if (backoffCycles < 0) {
+            throw new IllegalArgumentException("backoffCycles(" + backoffCycles + ") < 0");
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.headroom = headroom;
+        this.smoothing = smoothing;
+        this.hysteresis = hysteresis;
+        this.increaseFactor = increaseFactor;
+        this.decreaseFactor = decreaseFactor;
+        this.backoffCycles = backoffCycles;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    @Override
+    public long nextInterval(long interval, long targetInterval, double exeTime,
+            boolean overrun) {
+        if (avgExeTime < 0) avgExeTime = exeTime;
+        else avgExeTime += smoothing * (exeTime - avgExeTime);
+        
+        long lower = Math.max(minInterval, targetInterval);
+        double required = avgExeTime * headroom;
+        // The interval to settle on, which is in the middle of the hysteresis band.
+        long settle = (long) Math.ceil(required * (1 + hysteresis));
+        long next = interval;
+        if (overrun && required > interval * (1 - hysteresis)) {
+            // Multiplicative decrease of the frame rate.
+            backoff = backoffCycles;
+            next = Math.max((long) Math.ceil(interval * increaseFactor), settle);
+            
+        } else if (required > interval * (1 + hysteresis)) {
+            // Move to the required interval at once.
+            backoff = backoffCycles;
+            next = settle;
+            
+        } else if (interval > lower && required < interval * (1 - hysteresis)) {
+            if (backoff > 0) {
+                // Additive increase of the frame rate.
+                backoff--;
+                next = interval - 1;
+                
+            } else {
+                // Multiplicative increase of the frame rate.
+                next = (long) (interval * decreaseFactor);
+            }
+            next = Math.max(next, settle);
+        }
+        return Math.min(maxInterval, Math.max(lower, next));
+    }
+    
+    @Override
+    public void reset() {
+        avgExeTime = -1;
+        backoff = 0;
+    }
+    
+    
+}
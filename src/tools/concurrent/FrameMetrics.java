@@ -0,0 +1,166 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+/**
+ * Immutable snapshot of the metrics of a {@link GameLoop}. <br>
+ * All durations are in nanoseconds.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see GameLoop#getMetrics()
+ */
+public final class FrameMetrics {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The histogram of the time between the starts of two successive renders. */
+    private final LatencyHistogram.Snapshot frameTime;
+    /** The histogram of the execution times of the update ticks. */
+    private final LatencyHistogram.Snapshot updateTime;
+    /** The histogram of the execution times of the renders. */
+    private final LatencyHistogram.Snapshot renderTime;
+    /** The number of executed update ticks. */
+    private final long updates;
+    /** The number of started renders. */
+    private final long renders;
+    /** The number of skipped renders. */
+    private final long skippedRenders;
+    /** The number of dropped update ticks. */
+    private final long droppedUpdates;
+    /** The number of renders per second. */
+    private final double fps;
+    /** The number of update ticks per second. */
+    private final double ups;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new metrics snapshot.
+     * 
+     * @param frameTime The histogram of the frame times.
+     * @param updateTime The histogram of the update times.
+     * @param renderTime The histogram of the render times.
+     * @param updates The number of executed update ticks.
+     * @param renders The number of started renders.
+     * @param skippedRenders The number of skipped renders.
+     * @param droppedUpdates The number of dropped update ticks.
+     * @param fps The number of renders per second.
+     * @param ups The number of update ticks per second.
+     */
+    FrameMetrics(LatencyHistogram.Snapshot frameTime, LatencyHistogram.Snapshot updateTime,
+            LatencyHistogram.Snapshot renderTime, long updates, long renders,
+            long skippedRenders, long droppedUpdates, double fps, double ups) {
+        this.frameTime = frameTime;
+        this.updateTime = updateTime;
+        this.renderTime = renderTime;
+        this.updates = updates;
+        this.renders = renders;
+        this.skippedRenders = skippedRenders;
+        this.droppedUpdates = droppedUpdates;
+        this.fps = fps;
+        this.ups = ups;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return The histogram of the time between the starts of two successive renders.
+     */
+    public LatencyHistogram.Snapshot getFrameTime() {
+        return frameTime;
+    }
+    
+    /**
+     * @return The histogram of the execution times of the update ticks.
+     */
+    public LatencyHistogram.Snapshot getUpdateTime() {
+        return updateTime;
+    }
+    
+    /**
+     * @return The histogram of the execution times of the renders.
+     */
+    public LatencyHistogram.Snapshot getRenderTime() {
+        return renderTime;
+    }
+    
+    /**
+     * @return The number of executed update ticks.
+     */
+    public long getUpdates() {
+        return updates;
+    }
+    
+    /**
+     * @return The number of started renders.
+     */
+    public long getRenders() {
+        return renders;
+    }
+    
+    /**
+     * @return The number of renders which were skipped, either because the loop
+     *     was catching up with the update ticks, or because the previous render
+     *     was still running.
+     */
+    public long getSkippedRenders() {
+        return skippedRenders;
+    }
+    
+    /**
+     * @return The number of update ticks which were dropped because the loop
+     *     fell too far behind.
+     */
+    public long getDroppedUpdates() {
+        return droppedUpdates;
+    }
+    
+    /**
+     * @return The number of renders per second, measured over the last full second.
+     */
+    public double getFPS() {
+        return fps;
+    }
+    
+    /**
+     * @return The number of update ticks per second, measured over the last full second.
+     */
+    public double getUPS() {
+        return ups;
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[updates=" + updates + ",renders=" + renders
+                + ",skipped=" + skippedRenders + ",dropped=" + droppedUpdates
+                + ",fps=" + fps + ",ups=" + ups
+                + ",frame(p50=" + frameTime.getP50() + ",p99=" + frameTime.getP99()
+                + ",p999=" + frameTime.getP999() + ")"
+                + ",update(p50=" + updateTime.getP50() + ",p99=" + updateTime.getP99() + ")"
+                + ",render(p50=" + renderTime.getP50() + ",p99=" + renderTime.getP99() + ")]";
+    }
+    
+    
+}
@@ -0,0 +1,571 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleConsumer;
+
+
+// Tools imports
+import tools.event.KeyPressedDetector;
+import tools.log.Logger;
+
+
+/**
+ * Fixed time step game loop which decouples the update ticks from the renders. <br>
+ * <br>
+ * The update ticks are executed with a fixed interval, and are never executed
+ * concurrently. If a {@link KeyPressedDetector} is given, then it is updated at the
+ * start of every update tick, so the key state stays constant during a tick. <br>
+ * The renders are executed at most once per frame interval, and receive the
+ * interpolation factor in the range {@code [0, 1]}, which denotes how far the
+ * current time is between the last update tick and the next one. A renderer
+ * should interpolate between the previous and the current state using this
+ * factor, for example using {@link #lerp(double, double, double)}. <br>
+ * <br>
+ * If the loop falls behind, then the renders are skipped until the update ticks
+ * have caught up. If more than {@link #getMaxUpdatesPerFrame()} update ticks are
+ * needed to catch up, then the remaining update ticks are dropped. <br>
+ * The renders are executed on the loop thread, or on the given {@link Scheduler}.
+ * In the latter case, a render is skipped if the previous render is still running,
+ * and the renderer must not access state which is modified by the update ticks
+ * without synchronization. <br>
+ * <br>
+ * The loop thread parks until shortly before the next deadline, and spins the
+ * remaining time to obtain sub-millisecond accuracy. Unlike {@link ThreadTimer},
+ * which waits with millisecond precision, the time steps are specified in
+ * nanoseconds. <br>
+ * <br>
+ * The frame times, update times and render times are recorded in lock-free
+ * histograms. Use {@link #getMetrics()} to obtain a snapshot of the metrics. <br>
+ * <br>
+ * This class is thread safe.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class GameLoop {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default maximal number of update ticks executed between two renders. */
+    public static final int DEFAULT_MAX_UPDATES_PER_FRAME = 5;
+    /** The default time in nanoseconds to spin before a deadline. */
+    public static final long DEFAULT_SPIN_NANOS = 500_000L;
+    /** The counter used to generate the loop ID's. */
+    private static final AtomicInteger LOOP_ID_COUNTER = new AtomicInteger(0);
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The ID of this loop. */
+    private final int loopId;
+    /** The interval between two update ticks in nanoseconds. */
+    private final long updateNanos;
+    /** The task executed every update tick. */
+    private final Runnable update;
+    /** The task executed every render. */
+    private final DoubleConsumer render;
+    /** The key detector to update, or {@code null}. */
+    private final KeyPressedDetector keys;
+    /** The scheduler used for rendering, or {@code null}. */
+    private final Scheduler renderSched;
+    
+    /** The interval between two renders in nanoseconds. */
+    private volatile long frameNanos;
+    /** The maximal number of update ticks between two renders. */
+    private volatile int maxUpdatesPerFrame = DEFAULT_MAX_UPDATES_PER_FRAME;
+    /** The time in nanoseconds to spin before a deadline. */
+    private volatile long spinNanos = DEFAULT_SPIN_NANOS;
+    
+    /** The loop thread, or {@code null} if the loop is not running. */
+    private Thread loopThread;
+    /** Whether the loop should keep running. */
+    private volatile boolean running = false;
+    /** Whether a render is running on the scheduler. */
+    private final AtomicBoolean rendering = new AtomicBoolean(false);
+    
+    /* Metric variables. */
+    /** Whether the metrics should be restarted by the loop thread. */
+    private volatile boolean restartMetric = true;
+    /** The histogram of the frame times. */
+    private final LatencyHistogram frameHistogram = new LatencyHistogram();
+    /** The histogram of the update times. */
+    private final LatencyHistogram updateHistogram = new LatencyHistogram();
+    /** The histogram of the render times. */
+    private final LatencyHistogram renderHistogram = new LatencyHistogram();
+    /** The number of executed update ticks. */
+    private final AtomicLong metricUpdates = new AtomicLong(0);
+    /** The number of started renders. */
+    private final AtomicLong metricRenders = new AtomicLong(0);
+    /** The number of skipped renders. */
+    private final AtomicLong metricSkipped = new AtomicLong(0);
+    /** The number of dropped update ticks. */
+    private final AtomicLong metricDropped = new AtomicLong(0);
+    /** The start time of the previous render, or {@code 0} if there is none. */
+    private long metricPrevRender;
+    /** The start of the current measure window. */
+    private long metricWindowStart;
+    /** The number of renders in the current measure window. */
+    private int metricWindowRenders;
+    /** The number of update ticks in the current measure window. */
+    private int metricWindowUpdates;
+    /** The number of renders per second of the last window. */
+    private volatile double metricFPS = 0;
+    /** The number of update ticks per second of the last window. */
+    private volatile double metricUPS = 0;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new game loop which renders on the loop thread.
+     * 
+     * @param ups The number of update ticks per second.
+     * @param fps The maximal number of renders per second, or {@code 0} to render
+     *     as often as possible.
+     * @param update The task to execute every update tick.
+     * @param render The task to execute every render, which receives the
+     *     interpolation factor.
+     * 
+     * @throws IllegalArgumentException If {@code ups <= 0} or {@code fps < 0}.
+     * @throws NullPointerException If {@code update == null} or {@code render == null}.
+     */
+    public GameLoop(double ups, double fps, Runnable update, DoubleConsumer render)
+            throws IllegalArgumentException, NullPointerException {
+        this(toNanos(ups, "ups"), toNanos(fps, "fps"), null, null, update, render);
+    }
+    
+    /**
+     * Creates a new game loop.
+     * 
+     * @param updateNanos The interval between two update ticks in nanoseconds.
+     * @param frameNanos The minimal interval between two renders in nanoseconds,
+     *     or {@code 0} to render as often as possible.
+     * @param keys The key detector to update at the start of every update tick,
+     *     or {@code null}.
+     * @param renderSched The scheduler to render on, or {@code null} to render
+     *     on the loop thread.
+     * @param update The task to execute every update tick.
+     * @param render The task to execute every render, which receives the
+     *     interpolation factor.
+     * 
+     * @throws IllegalArgumentException If {@code updateNanos <= 0} or {@code frameNanos < 0}.
+     * @throws NullPointerException If {@code update == null} or {@code render == null}.
+     */
+    public GameLoop(long updateNanos, long frameNanos, KeyPressedDetector keys,
+            Scheduler renderSched, Runnable update, DoubleConsumer render)
+            throws IllegalArgumentException, NullPointerException {
+        if (updateNanos <= 0) {
+            throw new IllegalArgumentException("updateNanos(" + updateNanos + ") <= 0");
+        }
+        if (frameNanos < 0) {
+            throw new IllegalArgumentException("frameNanos(" + frameNanos + ") < 0");
+        }
+        if (update == null || render == null) throw new NullPointerException();
+        this.loopId = LOOP_ID_COUNTER.getAndIncrement();
+        this.updateNanos = updateNanos;
+        this.frameNanos = frameNanos;
+        this.keys = keys;
+        this.renderSched = renderSched;
+        this.update = update;
+        this.render = render;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Static functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Converts a frequency to an interval in nanoseconds.
+     * 
+     * @param freq The frequency, or {@code 0} for no interval.
+     * @param name The name of the argument.
+     * 
+     * @return The interval in nanoseconds.
+     * 
+     * @throws IllegalArgumentException If {@code freq < 0}.
+     */
+    private static long toNanos(double freq, String name)
+            throws IllegalArgumentException {
+        if (!(freq >= 0)) {
+            throw new IllegalArgumentException(name + "(" + freq + ") < 0");
+        }
+        if (freq == 0) return 0;
+        return Math.max(1, Math.round(1e9 / freq));
+    }
+    
+    /**
+     * Linearly interpolates between two values.
+     * 
+     * @param prev The previous value.
+     * @param cur The current value.
+     * @param alpha The interpolation factor.
+     * 
+     * @return {@code prev + alpha * (cur - prev)}.
+     */
+    public static double lerp(double prev, double cur, double alpha) {
+        return prev + alpha * (cur - prev);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Control flow functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Starts the loop. <br>
+     * Does nothing if the loop is already running.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        restartMetric();
+        loopThread = new Thread(this::loop, "GameLoop-thread-" + loopId);
+        loopThread.start();
+    }
+    
+    /**
+     * Stops the loop, and waits until the loop thread has finished. A render
+     * running on the scheduler is not waited for. <br>
+     * Does nothing if the loop is not running. When invoked from an update tick
+     * or render, the loop stops after the current iteration without waiting.
+     * 
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    public void stop()
+            throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            thread = loopThread;
+            loopThread = null;
+        }
+        LockSupport.unpark(thread);
+        if (thread != Thread.currentThread()) thread.join();
+    }
+    
+    /**
+     * @return {@code true} if the loop is running. {@code false} otherwise.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Settings functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return The interval between two update ticks in nanoseconds.
+     */
+    public long getUpdateNanos() {
+        return updateNanos;
+    }
+    
+    /**
+     * Sets the minimal interval between two renders.
+     * 
+     * @param frameNanos The new interval in nanoseconds, or {@code 0} to render
+     *     as often as possible.
+     * 
+     * @throws IllegalArgumentException If {@code frameNanos < 0}.
+     */
+    public void setFrameNanos(long frameNanos)
+            throws IllegalArgumentException {
+        if (frameNanos < 0) {
+            throw new IllegalArgumentException("frameNanos(" + frameNanos + ") < 0");
+        }
+        this.frameNanos = frameNanos;
+    }
+    
+    /**
+     * @return The minimal interval between two renders in nanoseconds.
+     */
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+    
+    /**
+     * Sets the maximal number of update ticks executed to catch up before a render.
+     * 
+     * @param max The new maximum.
+     * 
+     * @throws IllegalArgumentException If {@code max <= 0}.
+     */
+    public void setMaxUpdatesPerFrame(int max)
+            throws IllegalArgumentException {
+        if (max <= 0) throw new IllegalArgumentException("max(" + max + ") <= 0");
+        maxUpdatesPerFrame = max;
+    }
+    
+    /**
+     * @return The maximal number of update ticks executed to catch up before a render.
+     */
+    public int getMaxUpdatesPerFrame() {
+        return maxUpdatesPerFrame;
+    }
+    
+    /**
+     * Sets the time to spin before a deadline instead of parking. A larger value
+     * gives more accurate deadlines, but costs more processor time.
+     * 
+     * @param spinNanos The new spin time in nanoseconds.
+     * 
+     * @throws IllegalArgumentException If {@code spinNanos < 0}.
+     */
+    public void setSpinNanos(long spinNanos)
+            throws IllegalArgumentException {
+        if (spinNanos < 0) {
+            throw new IllegalArgumentException("spinNanos(" + spinNanos + ") < 0");
+        }
+        this.spinNanos = spinNanos;
+    }
+    
+    /**
+     * @return The time in nanoseconds to spin before a deadline.
+     */
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Metric functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return A snapshot of the metrics of the loop.
+     */
+    public FrameMetrics getMetrics() {
+        return new FrameMetrics(frameHistogram.snapshot(), updateHistogram.snapshot(),
+                renderHistogram.snapshot(), metricUpdates.get(), metricRenders.get(),
+                metricSkipped.get(), metricDropped.get(), metricFPS, metricUPS);
+    }
+    
+    /**
+     * Re-initializes the metric values. The values are cleared at
+     * the start of the next iteration of the loop.
+     */
+    public void restartMetric() {
+        restartMetric = true;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Loop functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Function for the loop thread.
+     */
+    private void loop() {
+        long nextUpdate = System.nanoTime();
+        long nextRender = nextUpdate;
+        while (running) {
+            long now = System.nanoTime();
+            if (restartMetric) clearMetric(now);
+            
+            // Execute the update ticks, and skip the renders until caught up.
+            int max = maxUpdatesPerFrame;
+            for (int i = 0; i < max && now - nextUpdate >= 0 && running; i++) {
+                runUpdate();
+                nextUpdate += updateNanos;
+                now = System.nanoTime();
+            }
+            if (now - nextUpdate >= 0) {
+                // Drop the update ticks which cannot be caught up with.
+                long missed = (now - nextUpdate) / updateNanos + 1;
+                metricDropped.addAndGet(missed);
+                nextUpdate += missed * updateNanos;
+            }
+            if (!running) break;
+            
+            // Render if needed.
+            long frame = frameNanos;
+            if (frame == 0) {
+                // If the previous render is still running, then wait for the next
+                // update tick instead of retrying immediately.
+                if (!render(now, nextUpdate)) waitUntil(nextUpdate);
+                continue;
+            }
+            if (now - nextRender >= 0) {
+                long missed = (now - nextRender) / frame;
+                if (missed > 0) metricSkipped.addAndGet(missed);
+                nextRender += (missed + 1) * frame;
+                render(now, nextUpdate);
+            }
+            
+            // Wait for the next deadline.
+            waitUntil(nextRender - nextUpdate < 0 ? nextRender : nextUpdate);
+        }
+    }
+    
+    /**
+     * Executes a single update tick.
+     */
+    private void runUpdate() {
+        if (keys != null) keys.update();
+        long start = System.nanoTime();
+        try {
+            update.run();
+            
+        } catch (Exception e) {
+            Logger.write(new Object[] {"Uncaught exception in update tick:", e},
+                    Logger.Type.ERROR);
+        }
+        long end = System.nanoTime();
+        updateHistogram.record(end - start);
+        metricUpdates.incrementAndGet();
+        metricWindowUpdates++;
+        updateWindow(end);
+    }
+    
+    /**
+     * Starts a render on the loop thread or on the scheduler.
+     * 
+     * @param now The current time in nanoseconds.
+     * @param nextUpdate The time of the next update tick in nanoseconds.
+     * 
+     * @return {@code false} if the render was skipped because the previous render
+     *     is still running. {@code true} otherwise.
+     */
+    private boolean render(long now, long nextUpdate) {
+        double alpha = (double) (now - nextUpdate + updateNanos) / updateNanos;
+        alpha = Math.max(0, Math.min(1, alpha));
+        if (renderSched == null) {
+            startRender(now);
+            runRender(alpha);
+            return true;
+        }
+        
+        if (!rendering.compareAndSet(false, true)) {
+            metricSkipped.incrementAndGet();
+            return false;
+        }
+        startRender(now);
+        double a = alpha;
+        try {
+            renderSched.scheduleTask(() -> {
+                try {
+                    runRender(a);
+                    
+                } finally {
+                    rendering.set(false);
+                }
+            });
+            
+        } catch (Exception e) {
+            Logger.write(e);
+            rendering.set(false);
+        }
+        return true;
+    }
+    
+    /**
+     * Updates the frame metrics at the start of a render.
+     * 
+     * @param now The current time in nanoseconds.
+     */
+    private void startRender(long now) {
+        if (metricPrevRender != 0) frameHistogram.record(now - metricPrevRender);
+        metricPrevRender = now;
+        metricRenders.incrementAndGet();
+        metricWindowRenders++;
+    }
+    
+    /**
+     * Executes a single render.
+     * 
+     * @param alpha The interpolation factor.
+     */
+    private void runRender(double alpha) {
+        long start = System.nanoTime();
+        try {
+            render.accept(alpha);
+            
+        } catch (Exception e) {
+            Logger.write(new Object[] {"Uncaught exception in render:", e},
+                    Logger.Type.ERROR);
+        }
+        renderHistogram.record(System.nanoTime() - start);
+    }
+    
+    /**
+     * Clears the metrics. Is only invoked by the loop thread.
+     * 
+     * @param now The current time in nanoseconds.
+     */
+    private void clearMetric(long now) {
+        restartMetric = false;
+        frameHistogram.reset();
+        updateHistogram.reset();
+        renderHistogram.reset();
+        metricUpdates.set(0);
+        metricRenders.set(0);
+        metricSkipped.set(0);
+        metricDropped.set(0);
+        metricPrevRender = 0;
+        metricWindowStart = now;
+        metricWindowRenders = 0;
+        metricWindowUpdates = 0;
+    }
+    
+    /**
+     * Updates the rates if the current measure window is full.
+     * 
+     * @param now The current time in nanoseconds.
+     */
+    private void updateWindow(long now) {
+        long windowTime = now - metricWindowStart;
+        if (windowTime < 1000_000_000L) return;
+        metricFPS = metricWindowRenders * 1e9 / windowTime;
+        metricUPS = metricWindowUpdates * 1e9 / windowTime;
+        metricWindowStart = now;
+        metricWindowRenders = 0;
+        metricWindowUpdates = 0;
+    }
+    
+    /**
+     * Waits until the given deadline. The thread is parked until the spin
+     * time before the deadline, and spins afterwards.
+     * 
+     * @param deadline The deadline in terms of {@link System#nanoTime()}.
+     */
+    private void waitUntil(long deadline) {
+        while (running) {
+            long rem = deadline - System.nanoTime();
+            if (rem <= 0) return;
+            long spin = spinNanos;
+            if (rem > spin) LockSupport.parkNanos(this, rem - spin);
+            else Thread.onSpinWait();
+        }
+    }
+    
+    
+}
@@ -0,0 +1,57 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+/**
+ * Interface for controllers which adjust the interval of a timer in {@link FPSState#AUTO}
+ * mode. <br>
+ * <br>
+ * The controller is invoked once every update cycle, and should return the interval
+ * for the next update cycles. It should aim for the target interval, but increase
+ * the interval if the update cycles cannot keep up with it. <br>
+ * A controller is invoked by at most one thread at a time, and keeps state about the
+ * previous update cycles. An instance should therefore not be shared between timers.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see AimdIntervalController
+ * @see PidIntervalController
+ * @see ThreadTimer#setIntervalController(IntervalController)
+ * @see TimerTool#setIntervalController(IntervalController)
+ */
+public interface IntervalController {
+    
+    /**
+     * Determines the interval for the next update cycles.
+     * 
+     * @param interval The current interval in ms.
+     * @param targetInterval The interval in ms the timer should aim for.
+     * @param exeTime The execution time in ms of the last finished update cycle.
+     * @param overrun Whether the last update cycle did not finish in time.
+     * 
+     * @return The new interval in ms.
+     */
+    long nextInterval(long interval, long targetInterval, double exeTime, boolean overrun);
+    
+    /**
+     * Resets the state of the controller. Is invoked when the target
+     * interval is changed.
+     */
+    default void reset() {
+    }
+    
+    
+}
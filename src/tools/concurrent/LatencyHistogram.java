@@ -0,0 +1,312 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Lock-free histogram for recording durations, like execution times and latencies. <br>
+ * <br>
+ * The buckets of the histogram are log-linear, similar to the HDR histogram. The range
+ * of values is divided into powers of two, and every power of two is divided into a
+ * fixed number of linear sub-buckets. Values below {@code 2 * 2^precisionBits} are
+ * recorded exactly, and larger values with a relative error of at most
+ * {@code 2^-precisionBits}. Values larger than the maximal value are recorded as
+ * the maximal value. <br>
+ * <br>
+ * Recording a value consists of a few atomic increments, so any number of threads
+ * can record values concurrently. A {@link Snapshot} is used to read the values.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class LatencyHistogram {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default number of bits of precision. */
+    public static final int DEFAULT_PRECISION_BITS = 6;
+    /** The default maximal value, which is slightly over one minute in nanoseconds. */
+    public static final long DEFAULT_MAX_VALUE = 1L << 36;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Immutable snapshot of a histogram.
+     */
+    public static final class Snapshot {
+        /** The number of bits of precision of the histogram. */
+        private final int precisionBits;
+        /** The number of recorded values per bucket. */
+        private final long[] counts;
+        /** The number of recorded values. */
+        private final long count;
+        /** The sum of the recorded values. */
+        private final long sum;
+        /** The smallest recorded value. */
+        private final long min;
+        /** The largest recorded value. */
+        private final long max;
+        
+        /**
+         * Creates a new snapshot.
+         * 
+         * @param precisionBits The number of bits of precision of the histogram.
+         * @param counts The number of recorded values per bucket.
+         * @param sum The sum of the recorded values.
+         * @param min The smallest recorded value.
+         * @param max The largest recorded value.
+         */
+        private Snapshot(int precisionBits, long[] counts, long sum, long min, long max) {
+            long c = 0;
+            for (long bucket : counts) {
+                c += bucket;
+            }
+            this.precisionBits = precisionBits;
+            this.counts = counts;
+            this.count = c;
+            this.sum = sum;
+            this.min = (c == 0 ? 0 : min);
+            this.max = (c == 0 ? 0 : max);
+        }
+        
+        /**
+         * @return The number of recorded values.
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        /**
+         * @return The smallest recorded value, or {@code 0} if no values were recorded.
+         */
+        public long getMin() {
+            return min;
+        }
+        
+        /**
+         * @return The largest recorded value, or {@code 0} if no values were recorded.
+         */
+        public long getMax() {
+            return max;
+        }
+        
+        /**
+         * @return The mean of the recorded values, or {@code 0} if no values were recorded.
+         */
+        public double getMean() {
+            return (count == 0 ? 0 : (double) sum / count);
+        }
+        
+        /**
+         * Returns the value at the given percentile. This is the largest value which
+         * is equivalent to the smallest recorded value for which at least the given
+         * percentage of the recorded values are smaller or equal.
+         * 
+         * @param percentile The percentile. Must be between {@code 0} and {@code 100}.
+         * 
+         * @return The value at the given percentile, or {@code 0} if no values were recorded.
+         * 
+         * @throws IllegalArgumentException If the percentile is out of range.
+         */
+        public long getValueAtPercentile(double percentile)
+                throws IllegalArgumentException {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("percentile(" + percentile + ") is out of range");
+            }
+            if (count == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.max(min, Math.min(max, highestEquivalent(i, precisionBits)));
+                }
+            }
+            return max;
+        }
+        
+        /**
+         * @return The median of the recorded values.
+         */
+        public long getP50() {
+            return getValueAtPercentile(50);
+        }
+        
+        /**
+         * @return The 99th percentile of the recorded values.
+         */
+        public long getP99() {
+            return getValueAtPercentile(99);
+        }
+        
+        /**
+         * @return The 99.9th percentile of the recorded values.
+         */
+        public long getP999() {
+            return getValueAtPercentile(99.9);
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The number of bits of precision. */
+    private final int precisionBits;
+    /** The maximal value which can be recorded. */
+    private final long maxValue;
+    /** The number of recorded values per bucket. */
+    private final AtomicLongArray counts;
+    /** The sum of the recorded values. */
+    private final AtomicLong sum = new AtomicLong(0);
+    /** The smallest recorded value. */
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    /** The largest recorded value. */
+    private final AtomicLong max = new AtomicLong(0);
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new histogram with the default precision and maximal value.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS, DEFAULT_MAX_VALUE);
+    }
+    
+    /**
+     * Creates a new histogram.
+     * 
+     * @param precisionBits The number of bits of precision. Must be between
+     *     {@code 1} and {@code 16} (both inclusive).
+     * @param maxValue The maximal value which can be recorded.
+     * 
+     * @throws IllegalArgumentException If the precision is out of range, or
+     *     if {@code maxValue <= 0}.
+     */
+    public LatencyHistogram(int precisionBits, long maxValue)
+            throws IllegalArgumentException {
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("precisionBits(" + precisionBits + ") is out of range");
+        }
+        if (maxValue <= 0) {
+            throw new IllegalArgumentException("maxValue(" + maxValue + ") <= 0");
+        }
+        this.precisionBits = precisionBits;
+        this.maxValue = maxValue;
+        this.counts = new AtomicLongArray(indexOf(maxValue, precisionBits) + 1);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @param value The value to get the bucket index of. Must be non-negative.
+     * @param precisionBits The number of bits of precision.
+     * 
+     * @return The index of the bucket of the given value.
+     */
+    private static int indexOf(long value, int precisionBits) {
+        if (value < (2L << precisionBits)) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+        return (int) ((shift << precisionBits) + (value >>> shift));
+    }
+    
+    /**
+     * @param index The index of the bucket.
+     * @param precisionBits The number of bits of precision.
+     * 
+     * @return The largest value in the bucket with the given index.
+     */
+    private static long highestEquivalent(int index, int precisionBits) {
+        if (index < (2 << precisionBits)) return index;
+        int shift = (index >>> precisionBits) - 1;
+        long top = index - ((long) shift << precisionBits);
+        return ((top + 1) << shift) - 1;
+    }
+    
+    /**
+     * Records the given value. Negative values are recorded as {@code 0}, and values
+     * larger than the maximal value are recorded as the maximal value.
+     * 
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        value = Math.max(0, Math.min(maxValue, value));
+        counts.incrementAndGet(indexOf(value, precisionBits));
+        sum.addAndGet(value);
+        if (value < min.get()) min.accumulateAndGet(value, Math::min);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+    
+    /**
+     * Removes all recorded values. Values which are recorded concurrently
+     * might be partially removed.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+    
+    /**
+     * Creates a snapshot of the histogram. Values which are recorded concurrently
+     * might be partially included.
+     * 
+     * @return A snapshot of the current values.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(precisionBits, copy, sum.get(), min.get(), max.get());
+    }
+    
+    /**
+     * @return The number of bits of precision.
+     */
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+    
+    /**
+     * @return The maximal value which can be recorded.
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+    
+    
+}
@@ -0,0 +1,161 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Unbounded lock-free multi-producer single-consumer queue. <br>
+ * <br>
+ * Any thread can add elements to the queue using {@link #offer(Object)}, which consists
+ * of a single atomic swap. Only a single thread, the consumer, is allowed to invoke
+ * {@link #poll()}, {@link #isEmpty()} and {@link #clear()}. <br>
+ * <br>
+ * Note that an element which is being added might not be visible to the consumer
+ * for a short moment after it was swapped in, as the link from the previous element
+ * is set afterwards. The consumer should therefore keep track of the number of added
+ * elements itself if it needs to know for sure whether the queue is empty.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @param <E> The type of the elements.
+ */
+final class MpscQueue<E> {
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Node class for the linked list of the queue.
+     * 
+     * @param <E> The type of the element.
+     */
+    private static final class Node<E> {
+        /** The element of the node. */
+        private E value;
+        /** The next node in the queue. */
+        private volatile Node<E> next;
+        
+        /**
+         * Creates a new node.
+         * 
+         * @param value The element of the node.
+         */
+        private Node(E value) {
+            this.value = value;
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The last added node. Is updated by the producers. */
+    private final AtomicReference<Node<E>> tail;
+    /** The node before the first element. Is only accessed by the consumer. */
+    private Node<E> head;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new empty queue.
+     */
+    MpscQueue() {
+        head = new Node<>(null);
+        tail = new AtomicReference<>(head);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Adds the given element at the end of the queue. Can be invoked by any thread.
+     * 
+     * @param e The element to add.
+     */
+    void offer(E e) {
+        Node<E> node = new Node<>(e);
+        tail.getAndSet(node).next = node;
+    }
+    
+    /**
+     * Removes the first element of the queue. May only be invoked by the consumer.
+     * 
+     * @return The first element of the queue, or {@code null} if no element is visible.
+     */
+    E poll() {
+        Node<E> next = head.next;
+        if (next == null) return null;
+        E value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+    
+    /**
+     * Moves at most {@code max} elements from the queue to the given array,
+     * starting at index {@code 0}. May only be invoked by the consumer.
+     * 
+     * @param target The array to store the elements in.
+     * @param max The maximum number of elements to move.
+     * 
+     * @return The number of moved elements.
+     */
+    int drain(E[] target, int max) {
+        int n = 0;
+        while (n < max) {
+            E e = poll();
+            if (e == null) break;
+            target[n++] = e;
+        }
+        return n;
+    }
+    
+    /**
+     * Checks whether the queue has no visible elements. May only be invoked by the consumer.
+     * 
+     * @return {@code true} if no element is visible. {@code false} otherwise.
+     */
+    boolean isEmpty() {
+        return head.next == null;
+    }
+    
+    /**
+     * Removes all visible elements. May only be invoked by the consumer.
+     * 
+     * @return The number of removed elements.
+     */
+    int clear() {
+        int n = 0;
+        while (poll() != null) {
+            n++;
+        }
+        return n;
+    }
+    
+    
+}
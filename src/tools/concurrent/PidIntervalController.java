@@ -0,0 +1,181 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+/**
+ * Interval controller which uses a PID controller on the utilization of the interval. <br>
+ * <br>
+ * The utilization is the smoothed execution time divided by the interval, and the
+ * controller aims for a utilization of {@code 1 / headroom}. The controller uses
+ * the velocity form, so every cycle the relative change of the interval is determined
+ * by the change of the error (proportional), the error itself (integral) and the
+ * change of the slope of the error (derivative). Since the controller keeps no
+ * accumulated error, it does not wind up while the interval is at one of its bounds.
+ * Errors within the hysteresis band are ignored, so small fluctuations do not
+ * change the interval. An overrun while the utilization is close to its target
+ * counts as an error of at least twice the hysteresis. <br>
+ * The interval always stays within the bounds, and never drops below the target interval.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class PidIntervalController
+        implements IntervalController {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The minimal interval in ms. */
+    private final long minInterval;
+    /** The maximal interval in ms. */
+    private final long maxInterval;
+    /** The ratio between the interval and the smoothed execution time. */
+    private final double headroom;
+    /** The weight of a new sample in the moving average. */
+    private final double smoothing;
+    /** The width of the hysteresis band of the utilization. */
+    private final double hysteresis;
+    /** The proportional gain. */
+    private final double kp;
+    /** The integral gain. */
+    private final double ki;
+    /** The derivative gain. */
+    private final double kd;
+    
+    /** The smoothed execution time, or a negative value if there are no samples. */
+    private double avgExeTime = -1;
+    /** The error of the previous cycle. */
+    private double prevError = 0;
+    /** The error of the cycle before the previous cycle. */
+    private double prevError2 = 0;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new PID controller with the default settings and without bounds.
+     */
+    public PidIntervalController() {
+        this(1, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Creates a new PID controller with the default settings.
+     * 
+     * @param minInterval The minimal interval in ms.
+     * @param maxInterval The maximal interval in ms.
+     * 
+     * @throws IllegalArgumentException If {@code minInterval <= 0} or
+     *     {@code maxInterval < minInterval}.
+     */
+    public PidIntervalController(long minInterval, long maxInterval)
+            throws IllegalArgumentException {
+        this(minInterval, maxInterval, AimdIntervalController.DEFAULT_HEADROOM,
+                AimdIntervalController.DEFAULT_SMOOTHING,
+                AimdIntervalController.DEFAULT_HYSTERESIS, 0.1, 0.2, 0.02);
+    }
+    
+    /**
+     * Creates a new PID controller.
+     * 
+     * @param minInterval The minimal interval in ms.
+     * @param maxInterval The maximal interval in ms.
+     * @param headroom The ratio between the interval and the smoothed execution time
+     *     to aim for. Must be at least {@code 1}.
+     * @param smoothing The weight of a new sample in the moving average.
+     *     Must be in the range {@code (0, 1]}.
+     * @param hysteresis The width of the hysteresis band of the utilization.
+     *     Must be in the range {@code [0, 1)}.
+     * @param kp The proportional gain.
+     * @param ki The integral gain.
+     * @param kd The derivative gain.
+     * 
+     * @throws IllegalArgumentException If one of the arguments is out of range.
+     */
+    public PidIntervalController(long minInterval, long maxInterval, double headroom,
+            double smoothing, double hysteresis, double kp, double ki, double kd)
+            throws IllegalArgumentException {
+        if (minInterval <= 0) {
+            throw new IllegalArgumentException("minInterval(" + minInterval + ") <= 0");
+        }
+        if (maxInterval < minInterval) {
+            throw new IllegalArgumentException("maxInterval(" + maxInterval
+                    + ") < minInterval(" + minInterval + ")");
+        }
+        if (!(headroom >= 1)) {
+            throw new IllegalArgumentException("headroom(" + headroom + ") < 1");
+        }
+        if (!(smoothing > 0 && smoothing <= 1)) {
+            throw new IllegalArgumentException("smoothing(" + smoothing + ") is out of range");
+        }
+        if (!(hysteresis >= 0 && hysteresis < 1)) {
+            throw new IllegalArgumentException("hysteresis(" + hysteresis + ") is out of range");
+        }
+        if (kp < 0 || ki < 0 || kd < 0) {
+            throw new IllegalArgumentException("Expected non-negative gains, but found: "
+                    + kp + ", " + ki + ", " + kd);
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.headroom = headroom;
+        this.smoothing = smoothing;
+        this.hysteresis = hysteresis;
+        this.kp = kp;
+        this.ki = ki;
+        this.kd = kd;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    @Override
+    public long nextInterval(long interval, long targetInterval, double exeTime,
+            boolean overrun) {
+        if (avgExeTime < 0) avgExeTime = exeTime;
+        else avgExeTime += smoothing * (exeTime - avgExeTime);
+        
+        long lower = Math.max(minInterval, targetInterval);
+        double error = avgExeTime * headroom / interval - 1;
+        if (Math.abs(error) <= hysteresis) error = 0;
+        // React directly to an overrun close to the required interval,
+        // without waiting for the average to catch up.
+        if (overrun && error >= -hysteresis) error = Math.max(error, 2 * hysteresis);
+        
+        double change = kp * (error - prevError) + ki * error
+                + kd * (error - 2 * prevError + prevError2);
+        prevError2 = prevError;
+        prevError = error;
+        
+        // Limit the change to a factor 2 per cycle.
+        change = Math.max(-0.5, Math.min(1, change));
+        long next = Math.round(interval * (1 + change));
+        if (next == interval && error != 0) next += (long) Math.signum(error);
+        return Math.min(maxInterval, Math.max(lower, next));
+    }
+    
+    @Override
+    public void reset() {
+        avgExeTime = -1;
+        prevError = 0;
+        prevError2 = 0;
+    }
+    
+    
+}
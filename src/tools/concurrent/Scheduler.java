@@ -17,6 +17,7 @@ package tools.concurrent;
 // Java imports
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -39,14 +40,63 @@ import tools.observer.ToolObserver;
  * All functions of any scheduler implementation must be thread-safe. <br>
  * <br>
  * If a task throws an exception, the this exception must be logged using the
- * {@link tools.log.Logger} class.
+ * {@link tools.log.Logger} class. <br>
+ * <br>
+ * Observers can be registered with an interest mask, which denotes the events
+ * they should receive. Implementations should only create and fire events using
+ * {@link #fireEvent(SchedulerEvent)}, which uses a preallocated immutable event object
+ * per event type and does nothing if no observer is interested in the event.
+ * Observers can also be registered with a dispatcher, in which case they are
+ * notified on the dispatcher instead of on the thread which fired the event.
  * 
- * @version 1.0
+ * @version 1.2
  * @author Kaj Wortel
  */
 public abstract class Scheduler
         implements ObsInterface<Scheduler, SchedulerEventObject> {
     
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The interest mask denoting all events. */
+    public static final int ALL_EVENTS = -1;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class containing the registration of an observer.
+     */
+    private static final class Registration {
+        /** The registered observer. */
+        private final ToolObserver<Scheduler, SchedulerEventObject> observer;
+        /** The interest mask of the observer. */
+        private final int mask;
+        /** The dispatcher used to notify the observer, or {@code null}. */
+        private final Executor dispatcher;
+        
+        /**
+         * Creates a new registration.
+         * 
+         * @param observer The registered observer.
+         * @param mask The interest mask of the observer.
+         * @param dispatcher The dispatcher used to notify the observer, or {@code null}
+         *     to notify the observer directly.
+         */
+        private Registration(ToolObserver<Scheduler, SchedulerEventObject> observer,
+                int mask, Executor dispatcher) {
+            this.observer = observer;
+            this.mask = mask;
+            this.dispatcher = dispatcher;
+        }
+        
+        
+    }
+    
+    
     /* -------------------------------------------------------------------------
      * Variables.
      * -------------------------------------------------------------------------
@@ -55,17 +105,36 @@ public abstract class Scheduler
     protected final ReentrantLock lock = new ReentrantLock();
     
     /**
-     * List containing all observers. The CopyOnWriteArrayList is used
+     * List containing all observer registrations. The CopyOnWriteArrayList is used
      * because it automatically achieves synchronization by copying the
      * array when modified.
      */
-    private final List<ToolObserver<Scheduler, SchedulerEventObject>> obs
-            = new CopyOnWriteArrayList<>();
+    private final List<Registration> obs = new CopyOnWriteArrayList<>();
+    /** The union of the interest masks of all observers. */
+    private volatile int interest = 0;
+    /** The preallocated event objects of this scheduler, indexed by event ordinal. */
+    private final SchedulerEventObject[] eventObjects;
     
     /** Whether there was a modification. */
     protected boolean modified = false;
     
     
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Initializes the event objects of the scheduler.
+     */
+    protected Scheduler() {
+        SchedulerEvent[] events = SchedulerEvent.values();
+        eventObjects = new SchedulerEventObject[events.length];
+        for (int i = 0; i < events.length; i++) {
+            eventObjects[i] = new SchedulerEventObject(this, events[i]);
+        }
+    }
+    
+    
     /* -------------------------------------------------------------------------
      * Functions.
      * -------------------------------------------------------------------------
@@ -87,6 +156,45 @@ public abstract class Scheduler
     public abstract void scheduleTask(Runnable task)
             throws IllegalStateException, NullPointerException;
     
+    /**
+     * Schedules a task for execution with the given priority. A higher value denotes
+     * a higher priority, and {@code 0} is the normal priority.
+     * 
+     * @implSpec
+     * The default implementation ignores the priority and invokes
+     * {@link #scheduleTask(Runnable)}.
+     * 
+     * @param task The task to execute.
+     * @param priority The priority of the task.
+     * 
+     * @throws IllegalStateException If the scheduler was not yet started
+     *     or if it is terminated.
+     * @throws NullPointerException If {@code task == null}.
+     */
+    public void scheduleTask(Runnable task, int priority)
+            throws IllegalStateException, NullPointerException {
+        scheduleTask(task);
+    }
+    
+    /**
+     * Schedules a task for execution which should be started before the given deadline.
+     * 
+     * @implSpec
+     * The default implementation ignores the deadline and invokes
+     * {@link #scheduleTask(Runnable)}.
+     * 
+     * @param task The task to execute.
+     * @param deadlineNanos The deadline of the task in terms of {@link System#nanoTime()}.
+     * 
+     * @throws IllegalStateException If the scheduler was not yet started
+     *     or if it is terminated.
+     * @throws NullPointerException If {@code task == null}.
+     */
+    public void scheduleTask(Runnable task, long deadlineNanos)
+            throws IllegalStateException, NullPointerException {
+        scheduleTask(task);
+    }
+    
     /**
      * @return the queueSize of the current request queue.
      * 
@@ -266,18 +374,127 @@ public abstract class Scheduler
             throws InterruptedException;
     
     
+    /* -------------------------------------------------------------------------
+     * Event functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Returns the preallocated event object of this scheduler for the given event.
+     * The returned object has no cause.
+     * 
+     * @param event The event type.
+     * 
+     * @return The event object of the given event.
+     */
+    protected final SchedulerEventObject eventObject(SchedulerEvent event) {
+        return eventObjects[event.ordinal()];
+    }
+    
+    /**
+     * Checks whether any observer is interested in the given event. This function
+     * can be used to avoid work which is only needed to notify the observers.
+     * 
+     * @param event The event to check.
+     * 
+     * @return {@code true} if at least one observer is interested in the event.
+     *     {@code false} otherwise.
+     */
+    protected final boolean hasObservers(SchedulerEvent event) {
+        return (interest & event.mask()) != 0;
+    }
+    
+    /**
+     * Notifies the interested observers of the given event using the
+     * preallocated event object. Does nothing if no observer is interested.
+     * 
+     * @param event The event to fire.
+     */
+    protected final void fireEvent(SchedulerEvent event) {
+        if ((interest & event.mask()) != 0) forceNotifyObservers(eventObjects[event.ordinal()]);
+    }
+    
+    /**
+     * Recomputes the union of the interest masks. Must be invoked while
+     * holding the monitor of {@link #obs}.
+     */
+    private void updateInterest() {
+        int mask = 0;
+        for (Registration r : obs) {
+            mask |= r.mask;
+        }
+        interest = mask;
+    }
+    
+    
     /* -------------------------------------------------------------------------
      * ToolObserver functions.
      * -------------------------------------------------------------------------
      */
+    /**
+     * {@inheritDoc}
+     * 
+     * The observer is notified of all events on the thread which fires the event.
+     * 
+     * @see #addObserver(ToolObserver, int)
+     * @see #addObserver(ToolObserver, int, Executor)
+     */
     @Override
     public void addObserver(ToolObserver<Scheduler, SchedulerEventObject> o) {
-        obs.add(o);
+        addObserver(o, ALL_EVENTS, null);
+    }
+    
+    /**
+     * Adds the given observer, which is only notified of the events in the given mask.
+     * The observer is notified on the thread which fires the event.
+     * 
+     * @param o The observer to add.
+     * @param mask The interest mask of the observer.
+     * 
+     * @see SchedulerEvent#maskOf(SchedulerEvent...)
+     * @see #ALL_EVENTS
+     */
+    public void addObserver(ToolObserver<Scheduler, SchedulerEventObject> o, int mask) {
+        addObserver(o, mask, null);
+    }
+    
+    /**
+     * Adds the given observer, which is only notified of the events in the given mask.
+     * If a dispatcher is given, then the observer is notified by executing a task
+     * on the dispatcher. The order in which the events arrive is then determined
+     * by the dispatcher. <br>
+     * A scheduler can be used as dispatcher using {@code scheduler::scheduleTask}.
+     * 
+     * @param o The observer to add.
+     * @param mask The interest mask of the observer.
+     * @param dispatcher The dispatcher used to notify the observer, or {@code null}
+     *     to notify the observer on the thread which fires the event.
+     * 
+     * @throws NullPointerException If {@code o == null}.
+     * 
+     * @see SchedulerEvent#maskOf(SchedulerEvent...)
+     * @see #ALL_EVENTS
+     */
+    public void addObserver(ToolObserver<Scheduler, SchedulerEventObject> o, int mask,
+            Executor dispatcher)
+            throws NullPointerException {
+        if (o == null) throw new NullPointerException();
+        synchronized (obs) {
+            obs.add(new Registration(o, mask, dispatcher));
+            updateInterest();
+        }
     }
     
     @Override
     public void deleteObserver(ToolObserver<Scheduler, SchedulerEventObject> o) {
-        obs.remove(o);
+        synchronized (obs) {
+            for (Registration r : obs) {
+                if (r.observer == o) {
+                    obs.remove(r);
+                    break;
+                }
+            }
+            updateInterest();
+        }
     }
     
     @Override
@@ -318,18 +535,36 @@ public abstract class Scheduler
     
     /**
      * Forces the notification of the observers.
-     * The modification flag is not checked nor modified,
-     * and all observers are notified regardles.
+     * The modification flag is not checked nor modified, and all observers
+     * which are interested in the event of the argument are notified regardles.
+     * If the argument or its event is {@code null}, then all observers are notified.
      * 
      * @param arg The argument for the observers.
      */
     public void forceNotifyObservers(SchedulerEventObject arg) {
-        obs.forEach(observer -> observer.update(this, arg));
+        int mask = (arg == null || arg.getEvent() == null ? ALL_EVENTS : arg.getEvent().mask());
+        for (Registration r : obs) {
+            if ((r.mask & mask) == 0) continue;
+            if (r.dispatcher == null) {
+                r.observer.update(this, arg);
+                
+            } else {
+                try {
+                    r.dispatcher.execute(() -> r.observer.update(this, arg));
+                    
+                } catch (RuntimeException e) {
+                    Logger.write(e, Logger.Type.WARNING);
+                }
+            }
+        }
     }
     
     @Override
     public void deleteObservers() {
-        obs.clear();
+        synchronized (obs) {
+            obs.clear();
+            interest = 0;
+        }
     }
     
     @Override
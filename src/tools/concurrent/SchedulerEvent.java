@@ -20,9 +20,14 @@ package tools.concurrent;
  * The general structure of the argument for the observers is:<br>
  * "{@code new Object[] {Event, args}}"<br>
  * or<br>
- * "{@code Event}"
+ * "{@code Event}" <br>
+ * <br>
+ * Each event has a bit in an interest mask, which can be used to register
+ * observers for a subset of the events.
  * 
- * @version 1.0
+ * @see Scheduler#addObserver(tools.observer.ToolObserver, int)
+ * 
+ * @version 1.1
  * @author Kaj Wortel
  */
 public enum SchedulerEvent {
@@ -79,4 +84,27 @@ public enum SchedulerEvent {
     OTHER;
     
     
+    /**
+     * @return The bit of this event in an interest mask.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+    
+    /**
+     * Creates an interest mask containing the given events.
+     * 
+     * @param events The events to add to the mask.
+     * 
+     * @return The interest mask of the given events.
+     */
+    public static int maskOf(SchedulerEvent... events) {
+        int mask = 0;
+        for (SchedulerEvent event : events) {
+            mask |= event.mask();
+        }
+        return mask;
+    }
+    
+    
 }
\ No newline at end of file
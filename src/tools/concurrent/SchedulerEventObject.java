@@ -16,9 +16,11 @@ package tools.concurrent;
 
 
 /**
- * Data object for notifying events for the scheduler classes.
+ * Immutable data object for notifying events for the scheduler classes. <br>
+ * Event objects without a cause are preallocated by every scheduler, and are
+ * therefore shared between all notifications of the same event.
  * 
- * @version 1.0
+ * @version 1.1
  * @author Kaj Wortel
  */
 public class SchedulerEventObject {
@@ -18,13 +18,19 @@ package tools.concurrent;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.locks.Condition;
 
 
 // Tools imports
+import tools.log.Logger;
 import tools.observer.ToolObserver;
 
 
@@ -34,6 +40,19 @@ import tools.observer.ToolObserver;
  * If none available, then it queue's the task and schedules the task for
  * the first scheduler which comes available.
  * <br>
+ * Alternatively, the scheduler set can be created in work-stealing mode. In this mode,
+ * every scheduler has its own task deque. New tasks are added to the deque of the
+ * scheduler which executes the current task, or to the deque of the next scheduler
+ * in a round-robin fashion when scheduled from another thread. Each scheduler
+ * executes a single long running worker task which takes the most recently added task
+ * from the back of its own deque, and steals the oldest tasks from the front of the
+ * deques of the other schedulers when its own deque is empty. The owner thereby keeps
+ * working on the tasks it just forked, while the thieves take the older, usually larger,
+ * tasks which are furthest away from the owner. If no tasks are left, then the worker
+ * task finishes.
+ * Scheduling a task requires no global lock, and does not depend on the events
+ * of the schedulers. <br>
+ * <br>
  * Has support for easy scheduler creation using reflection.
  * 
  * @todo testing
@@ -42,12 +61,24 @@ import tools.observer.ToolObserver;
  * This class assumes that the added schedulers implement the observer functions
  * correctly and use the right format, as described in {@link SchedulerEvent}.
  * 
- * @version 1.0
+ * @version 1.4
  * @author Kaj Wortel
  */
 public class SchedulerSet<S extends Scheduler>
         extends Scheduler {
     
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The events the scheduler observer is interested in. */
+    private static final int OBSERVED_EVENTS = SchedulerEvent.maskOf(SchedulerEvent.TERMINATED,
+            SchedulerEvent.TASK_FINISHED, SchedulerEvent.ALL_TASKS_FINISHED, SchedulerEvent.OTHER);
+    /** The events the scheduler observer is interested in when in work-stealing mode. */
+    private static final int STEALING_OBSERVED_EVENTS = SchedulerEvent.maskOf(
+            SchedulerEvent.TERMINATED, SchedulerEvent.OTHER);
+    
+    
     /* -------------------------------------------------------------------------
      * Variables.
      * -------------------------------------------------------------------------
@@ -63,11 +94,30 @@ public class SchedulerSet<S extends Scheduler>
     private Condition allTerminated = lock.newCondition();
     
     /** Whether the scheduler set was started. */
-    private boolean started = false;
+    private volatile boolean started = false;
     /** Whether there are no more tasks available. */
     private boolean isFinished = false;
     /** Whether the scheduler set was terminated. */
-    private boolean terminated = true;
+    private volatile boolean terminated = false;
+    
+    /** Whether the work-stealing mode is used. */
+    private final boolean workStealing;
+    /** The task deques of the schedulers in work-stealing mode. */
+    private final Deque<Runnable>[] deques;
+    /** The worker tasks of the schedulers in work-stealing mode. */
+    private final Runnable[] workers;
+    /** Whether the worker task of a scheduler is scheduled ({@code 1}) or not ({@code 0}). */
+    private final AtomicIntegerArray active;
+    /** The number of queued tasks in work-stealing mode. */
+    private final AtomicInteger queued = new AtomicInteger(0);
+    /** The number of queued and running tasks in work-stealing mode. */
+    private final AtomicInteger pending = new AtomicInteger(0);
+    /** The index of the next deque for tasks scheduled from outside the workers. */
+    private final AtomicInteger next = new AtomicInteger(0);
+    /** The index of the worker executing on the current thread. */
+    private final ThreadLocal<Integer> currentWorker = new ThreadLocal<>();
+    /** Whether the scheduler set is being terminated. */
+    private volatile boolean stopping = false;
     
     /**
      * The Observer used for observing when a scehduler has finished it's tasks.
@@ -79,12 +129,13 @@ public class SchedulerSet<S extends Scheduler>
         SchedulerEvent event = e.getEvent();
         
         // Ignore events.
-        if (event == null || event == SchedulerEvent.STARTED)  {
+        if (event == null || event == SchedulerEvent.STARTED
+                || event == SchedulerEvent.TASK_STARTED) {
             return;
         }
         
         if (event == SchedulerEvent.OTHER) {
-            forceNotifyObservers(new SchedulerEventObject(this, e));
+            if (hasObservers(event)) forceNotifyObservers(new SchedulerEventObject(this, e));
             
         } else if (event == SchedulerEvent.TERMINATED) {
             lock.lock();
@@ -95,11 +146,12 @@ public class SchedulerSet<S extends Scheduler>
                 
                 terminated = true;
                 allTerminated.signalAll();
+                tasksFinished.signalAll();
                 
             } finally {
                 lock.unlock();
             }
-            forceNotifyObservers(new SchedulerEventObject(this, SchedulerEvent.TERMINATED));
+            fireEvent(SchedulerEvent.TERMINATED);
             
         } else if (event == SchedulerEvent.TASK_FINISHED || event == SchedulerEvent.ALL_TASKS_FINISHED) {
             boolean isDone = false;
@@ -119,9 +171,10 @@ public class SchedulerSet<S extends Scheduler>
             } finally {
                 lock.unlock();
             }
-            forceNotifyObservers(new SchedulerEventObject(this, (isDone
+            SchedulerEvent fire = (isDone
                     ? SchedulerEvent.ALL_TASKS_FINISHED
-                    : SchedulerEvent.TASK_FINISHED), e));
+                    : SchedulerEvent.TASK_FINISHED);
+            if (hasObservers(fire)) forceNotifyObservers(new SchedulerEventObject(this, fire, e));
             
         } else {
             throw new IllegalStateException();
@@ -148,7 +201,26 @@ public class SchedulerSet<S extends Scheduler>
      */
     public SchedulerSet(Class<S> clazz, int amt)
             throws IllegalArgumentException {
-        this(clazz, amt, null, null);
+        this(clazz, amt, null, null, false);
+    }
+    
+    /**
+     * Creates a scheduler set with {@code amt} schedulers
+     * of type {@code clazz}.
+     * 
+     * @param clazz The class of the schedulers to create.
+     * @param amt The amount of schedulers to create.
+     * @param workStealing Whether to use the work-stealing mode.
+     * 
+     * @throws IllegalArgumentException If some exception occured during
+     *     the creation of the schedulers, or if the amount is less or equal
+     *     to {@code 0}.
+     * 
+     * @see #SchedulerSet(Class, int, Class[], Object[], boolean)
+     */
+    public SchedulerSet(Class<S> clazz, int amt, boolean workStealing)
+            throws IllegalArgumentException {
+        this(clazz, amt, null, null, workStealing);
     }
     
     /**
@@ -167,6 +239,31 @@ public class SchedulerSet<S extends Scheduler>
      */
     public SchedulerSet(Class<S> clazz, int amt, Class<?>[] types, Object[] args)
             throws IllegalArgumentException {
+        this(clazz, amt, types, args, false);
+    }
+    
+    /**
+     * Creates a scheduler set with {@code amt} schedulers
+     * of type {@code clazz}. Uses the constructor specified by {@code types}
+     * and uses the arguments {@code args} to create the schedulers.
+     * 
+     * @param clazz The class of the schedulers to create.
+     * @param amt The amount of schedulers to create. Must be at least {@code 1}.
+     * @param types The type values of the constructor to use.
+     * @param args The arguments to use in the constructor.
+     * @param workStealing Whether to use the work-stealing mode.
+     * 
+     * @throws IllegalArgumentException If some exception occured during
+     *     the creation of the schedulers, or if the amount is less or equal
+     *     to {@code 0}.
+     */
+    public SchedulerSet(Class<S> clazz, int amt, Class<?>[] types, Object[] args,
+            boolean workStealing)
+            throws IllegalArgumentException {
+        this.workStealing = workStealing;
+        this.deques = (workStealing ? newDeques(amt) : null);
+        this.workers = (workStealing ? new Runnable[amt] : null);
+        this.active = (workStealing ? new AtomicIntegerArray(amt) : null);
         if (amt <= 0) {
             throw new IllegalArgumentException(
                     "Expected an amount > 1, but found: " + amt);
@@ -176,13 +273,13 @@ public class SchedulerSet<S extends Scheduler>
             Constructor<S> c = clazz.getDeclaredConstructor(types);
             for (int i = 0; i < amt; i++) {
                 schedulers[i] = c.newInstance(args);
-                schedulers[i].addObserver(schedulerObserver);
             }
             
         } catch (IllegalAccessException | InstantiationException |
             InvocationTargetException | NoSuchMethodException e) {
             throw new IllegalArgumentException(e);
         }
+        init();
     }
     
     /**
@@ -198,8 +295,31 @@ public class SchedulerSet<S extends Scheduler>
      * @throws NullPointerException If the provided array or one of its
      *     elements is {@code null}.
      */
+    @SafeVarargs
     public SchedulerSet(S... schedulers)
             throws IllegalStateException, NullPointerException {
+        this(false, schedulers);
+    }
+    
+    /**
+     * Creates a scheduler set of the given schedulers.
+     * 
+     * @apiNote
+     * The array is cloned to prevent accidental outside modifications.
+     * 
+     * @param workStealing Whether to use the work-stealing mode.
+     * @param schedulers The schedulers for this scheduler set.
+     *     All elements must be non-null. Must have a length of at least 1.
+     * 
+     * @throws IllegalStateException If the length of the array is {@code 0}.
+     * @throws NullPointerException If the provided array or one of its
+     *     elements is {@code null}.
+     */
+    // The array is only read and copied, and the copy has the same component type.
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public SchedulerSet(boolean workStealing, S... schedulers)
+            throws IllegalStateException, NullPointerException {
         // Error checking.
         if (schedulers == null) {
             throw new NullPointerException("Schedulers array was null!");
@@ -209,19 +329,50 @@ public class SchedulerSet<S extends Scheduler>
                     "Expected a length > 0, but found: " + schedulers.length);
         }
         
+        this.workStealing = workStealing;
+        this.deques = (workStealing ? newDeques(schedulers.length) : null);
+        this.workers = (workStealing ? new Runnable[schedulers.length] : null);
+        this.active = (workStealing ? new AtomicIntegerArray(schedulers.length) : null);
+        
         // Copy schedulers.
-        schedulers = (S[]) new Scheduler[schedulers.length];
+        this.schedulers = Arrays.copyOf(schedulers, schedulers.length);
         for (int i = 0; i < schedulers.length; i++) {
             // Error checking.
             if (schedulers[i] == null) {
                 throw new NullPointerException(
                         "Scheduler " + (i + 0) + " was null!");
             }
-            
-            // Compy scheduler.
-            this.schedulers[i] = schedulers[i];
-            // Add observer.
-            schedulers[i].addObserver(schedulerObserver);
+        }
+        init();
+    }
+    
+    /**
+     * Creates an array for the task deques of the schedulers.
+     * 
+     * @param amt The length of the array.
+     * 
+     * @return An array of the given length.
+     */
+    // Generic arrays cannot be created directly. The array is only filled with
+    // deques of runnables, and is never exposed.
+    @SuppressWarnings("unchecked")
+    private static Deque<Runnable>[] newDeques(int amt) {
+        return (Deque<Runnable>[]) new Deque<?>[amt];
+    }
+    
+    /**
+     * Adds the observer to the schedulers and initializes the worker tasks
+     * if the work-stealing mode is used.
+     */
+    private void init() {
+        for (int i = 0; i < schedulers.length; i++) {
+            schedulers[i].addObserver(schedulerObserver,
+                    (workStealing ? STEALING_OBSERVED_EVENTS : OBSERVED_EVENTS));
+            if (workStealing) {
+                int index = i;
+                deques[i] = new ConcurrentLinkedDeque<>();
+                workers[i] = () -> work(index);
+            }
         }
     }
     
@@ -230,9 +381,135 @@ public class SchedulerSet<S extends Scheduler>
      * Functions.
      * -------------------------------------------------------------------------
      */
+    /**
+     * Executes the tasks of the scheduler with the given index, and steals tasks
+     * from the other schedulers when no tasks are left. Returns when no tasks
+     * are left, or when the scheduler set is being terminated.
+     * 
+     * @param index The index of the scheduler.
+     */
+    private void work(int index) {
+        currentWorker.set(index);
+        try {
+            while (!stopping) {
+                Runnable r = deques[index].pollLast();
+                if (r == null) r = steal(index);
+                if (r == null) {
+                    active.set(index, 0);
+                    // Recheck to prevent missing a task which was just added.
+                    if (queued.get() == 0 || !active.compareAndSet(index, 0, 1)) return;
+                    Thread.onSpinWait();
+                    continue;
+                }
+                queued.decrementAndGet();
+                
+                fireEvent(SchedulerEvent.TASK_STARTED);
+                try {
+                    r.run();
+                    
+                } catch (Exception e) {
+                    if (!stopping) {
+                        Logger.write(new Object[] {
+                            "Uncaught exception in " + Thread.currentThread().getName() + ":",
+                            e
+                        }, Logger.Type.ERROR);
+                    }
+                }
+                
+                if (pending.decrementAndGet() == 0) {
+                    lock.lock();
+                    try {
+                        tasksFinished.signalAll();
+                        
+                    } finally {
+                        lock.unlock();
+                    }
+                    fireEvent(SchedulerEvent.ALL_TASKS_FINISHED);
+                    
+                } else {
+                    fireEvent(SchedulerEvent.TASK_FINISHED);
+                }
+            }
+            
+        } finally {
+            currentWorker.remove();
+            if (stopping) active.set(index, 0);
+        }
+    }
+    
+    /**
+     * Steals a task from the front of the deque of another scheduler.
+     * 
+     * @param index The index of the stealing scheduler.
+     * 
+     * @return The stolen task, or {@code null} if no task could be stolen.
+     */
+    private Runnable steal(int index) {
+        int n = deques.length;
+        if (n == 1) return null;
+        int start = ThreadLocalRandom.current().nextInt(n);
+        for (int i = 0; i < n; i++) {
+            int j = (start + i) % n;
+            if (j == index) continue;
+            Runnable r = deques[j].pollFirst();
+            if (r != null) return r;
+        }
+        return null;
+    }
+    
+    /**
+     * Ensures that the worker task of the given scheduler is scheduled. If it is
+     * already running, then the worker task of an idle scheduler is scheduled
+     * instead, which will steal the task.
+     * 
+     * @param index The index of the scheduler the task was added to.
+     */
+    private void signalWork(int index) {
+        int n = schedulers.length;
+        for (int i = 0; i < n; i++) {
+            int j = (index + i) % n;
+            if (active.get(j) == 0 && active.compareAndSet(j, 0, 1)) {
+                try {
+                    schedulers[j].scheduleTask(workers[j]);
+                    
+                } catch (IllegalStateException e) {
+                    active.set(j, 0);
+                    throw e;
+                }
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Schedules a task in work-stealing mode.
+     * 
+     * @param task The task to schedule.
+     * 
+     * @throws IllegalStateException If the scheduler set was not yet started
+     *     or if it is terminated.
+     */
+    private void scheduleStealing(Runnable task)
+            throws IllegalStateException {
+        if (!started) throw new IllegalStateException("Not yet started!");
+        if (stopping || terminated) throw new IllegalStateException("Already terminated!");
+        Integer cur = currentWorker.get();
+        int index = (cur != null
+                ? cur
+                : Math.floorMod(next.getAndIncrement(), deques.length));
+        pending.incrementAndGet();
+        queued.incrementAndGet();
+        deques[index].addLast(task);
+        signalWork(index);
+    }
+    
     @Override
     public void scheduleTask(Runnable task) {
         if (task == null) throw new NullPointerException();
+        if (workStealing) {
+            scheduleStealing(task);
+            return;
+        }
         lock.lock();
         try {
             isFinished = false;
@@ -256,6 +533,7 @@ public class SchedulerSet<S extends Scheduler>
     
     @Override
     public int queueSize() {
+        if (workStealing) return queued.get();
         lock.lock();
         try {
             int sum = 0;
@@ -282,42 +560,54 @@ public class SchedulerSet<S extends Scheduler>
         } finally {
             started = true;
             lock.unlock();
-            forceNotifyObservers(new SchedulerEventObject(this, SchedulerEvent.STARTED));
+            fireEvent(SchedulerEvent.STARTED);
         }
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * Waits until the threads of all schedulers have finished. In work-stealing
+     * mode, this includes the worker tasks, which might still be running after
+     * {@link #waitUntilDone()} returned.
+     */
     @Override
     public void terminate()
             throws InterruptedException {
-        lock.lock();
-        try {
-            for (S s : schedulers) {
-                s.tryTerminate();
-            }
-            allTerminated.await();
-            
-        } finally {
-            terminated = true;
-            lock.unlock();
-        }
+        terminate(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * Waits until the threads of all schedulers have finished, or until the
+     * timeout has passed.
+     */
     @Override
     public boolean terminate(long timeout, TimeUnit tu)
             throws InterruptedException {
         boolean rtn = true;
+        stopping = true;
+        long start = System.nanoTime();
+        long nanos = tu.toNanos(timeout);
+        
+        // Notify all schedulers to terminate, such that they terminate concurrently.
+        for (S s : schedulers) {
+            s.tryTerminate();
+        }
+        // Wait for the threads of the schedulers to finish.
+        for (S s : schedulers) {
+            long rem = nanos - (System.nanoTime() - start);
+            if (!s.terminate(Math.max(0L, rem), TimeUnit.NANOSECONDS)) rtn = false;
+        }
         
         lock.lock();
         try {
-            // Notify all schedulers to terminate.
-            for (S s : schedulers) {
-                s.tryTerminate();
-            }
-            
-            allTerminated.await(timeout, tu);
+            terminated = true;
+            allTerminated.signalAll();
+            tasksFinished.signalAll();
             
         } finally {
-            terminated = true;
             lock.unlock();
         }
         
@@ -327,6 +617,7 @@ public class SchedulerSet<S extends Scheduler>
     @Override
     public void forceTerminate()
             throws InterruptedException {
+        stopping = true;
         lock.lock();
         try {
             // Notify all schedulers to terminate.
@@ -341,6 +632,7 @@ public class SchedulerSet<S extends Scheduler>
     
     @Override
     public boolean tryTerminate() {
+        stopping = true;
         lock.lock();
         try {
             boolean directTerm = false;
@@ -378,6 +670,7 @@ public class SchedulerSet<S extends Scheduler>
     
     @Override
     public boolean isDone() {
+        if (workStealing) return pending.get() == 0;
         lock.lock();
         try {
             if (isFinished) return true;
@@ -397,7 +690,7 @@ public class SchedulerSet<S extends Scheduler>
             throws InterruptedException {
         lock.lock();
         try {
-            while (!isDone()) {
+            while (!isDone() && !(workStealing && (stopping || terminated))) {
                 tasksFinished.await();
             }
             
@@ -406,6 +699,13 @@ public class SchedulerSet<S extends Scheduler>
         }
     }
     
+    /**
+     * @return {@code true} if the work-stealing mode is used. {@code false} otherwise.
+     */
+    public boolean isWorkStealing() {
+        return workStealing;
+    }
+    
     /**
      * @return an array containing the schedulers of this scheduler set.
      */
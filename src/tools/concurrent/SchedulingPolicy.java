@@ -0,0 +1,46 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+/**
+ * Enum for the order in which a scheduler executes its queued tasks.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see ThreadScheduler#ThreadScheduler(int, SchedulingPolicy, long)
+ */
+public enum SchedulingPolicy {
+    
+    /**
+     * The tasks are executed in the order in which they were scheduled.
+     * The priorities and deadlines of the tasks are ignored.
+     */
+    FIFO,
+    
+    /**
+     * The task with the earliest deadline is executed first. Tasks which were
+     * scheduled with a deadline use this deadline. Tasks which were scheduled
+     * with a priority get a virtual deadline, which is the time they were scheduled
+     * minus the priority times the aging interval. A task with a low priority
+     * therefore waits at most the difference in priority times the aging interval
+     * for tasks with a higher priority which were scheduled later, which prevents
+     * starvation. Tasks with equal deadlines are executed in the order in which
+     * they were scheduled.
+     */
+    PRIORITY;
+    
+    
+}
@@ -17,9 +17,16 @@ package tools.concurrent;
 // Java imports
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
 
 
 // Tools imports
@@ -27,11 +34,27 @@ import tools.log.Logger;
 
 
 /**
- * Scheduler implementation using a separate thread to execute the tasks.
+ * Scheduler implementation using a separate thread to execute the tasks. <br>
+ * <br>
+ * By default, the tasks are stored in a queue which is guarded by the lock of the
+ * scheduler. Alternatively, the scheduler can be created in lock-free mode. In this
+ * mode, the tasks are stored in a lock-free multi-producer single-consumer queue,
+ * and the update thread parks itself when there are no tasks. The update thread then
+ * takes up to {@link #getBatchSize()} tasks from the queue at once, and only
+ * acquires the lock when it becomes idle. This reduces the overhead of scheduling
+ * many small tasks. <br>
+ * <br>
+ * The task events are only fired if an observer is interested in them, so
+ * executing a task without observers does not allocate any event objects. <br>
+ * <br>
+ * If the scheduler is created with the {@link SchedulingPolicy#PRIORITY} policy,
+ * then the tasks are stored in a priority heap instead, and the priorities and
+ * deadlines given to {@link #scheduleTask(Runnable, int)} and
+ * {@link #scheduleTask(Runnable, long)} determine the order of execution.
  * 
  * @todo testing
  * 
- * @version 1.0
+ * @version 1.4
  * @author Kaj Wortel
  */
 public class ThreadScheduler
@@ -44,6 +67,57 @@ public class ThreadScheduler
     /** The ID counter used for keeping track of multiple thread schedulers
      *  for debugging and benchmarking. */
     private static final AtomicInteger ID = new AtomicInteger(0);
+    /** The default maximal number of tasks taken from the queue at once in lock-free mode. */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    /** The default aging interval per priority level in nanoseconds. */
+    public static final long DEFAULT_AGING_NANOS = 10_000_000L;
+    /** The priority of tasks scheduled without priority. */
+    public static final int NORM_TASK_PRIORITY = 0;
+    /** The maximal distance of a virtual deadline from the current time. */
+    private static final long MAX_OFFSET = Long.MAX_VALUE / 4;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class for tasks in the priority heap.
+     */
+    private static final class PriorityTask
+            implements Comparable<PriorityTask> {
+        /** The task to execute. */
+        private final Runnable task;
+        /** The (virtual) deadline of the task in terms of {@link System#nanoTime()}. */
+        private final long deadline;
+        /** The sequence number of the task. */
+        private final long seq;
+        /** The priority of the task, or {@code null} if the task has a deadline. */
+        private final Integer priority;
+        
+        /**
+         * Creates a new priority task.
+         * 
+         * @param task The task to execute.
+         * @param deadline The (virtual) deadline of the task.
+         * @param seq The sequence number of the task.
+         * @param priority The priority of the task, or {@code null} if the task has a deadline.
+         */
+        private PriorityTask(Runnable task, long deadline, long seq, Integer priority) {
+            this.task = task;
+            this.deadline = deadline;
+            this.seq = seq;
+            this.priority = priority;
+        }
+        
+        @Override
+        public int compareTo(PriorityTask pt) {
+            int c = Long.compare(deadline - pt.deadline, 0);
+            return (c != 0 ? c : Long.compare(seq, pt.seq));
+        }
+        
+        
+    }
     
     
     /* -------------------------------------------------------------------------
@@ -67,6 +141,30 @@ public class ThreadScheduler
     /** Denotes whether the scheduler is done. */
     protected volatile boolean isDone = true;
     
+    /** Whether the lock-free queue is used instead of {@link #requestQueue}. */
+    protected final boolean lockFree;
+    /** The lock-free queue used for the tasks in lock-free mode. */
+    private final MpscQueue<Runnable> taskQueue;
+    /** The number of tasks which are queued, but not yet started in lock-free mode. */
+    private final AtomicInteger queued = new AtomicInteger(0);
+    /** The buffer for the tasks taken from the lock-free queue at once. */
+    private final Runnable[] batch;
+    /** Whether the update thread is parked, or is about to park. */
+    private volatile boolean parked = false;
+    
+    /** The scheduling policy of this scheduler. */
+    protected final SchedulingPolicy policy;
+    /** The aging interval per priority level in nanoseconds. */
+    private final long agingNanos;
+    /** The priority heap used for the tasks in {@link SchedulingPolicy#PRIORITY} mode. */
+    private final PriorityBlockingQueue<PriorityTask> priorityQueue;
+    /** The sequence number of the next task in the priority heap. */
+    private final AtomicLong sequence = new AtomicLong(0);
+    /** The number of queued tasks per priority. */
+    private final Map<Integer, AtomicInteger> depths = new ConcurrentHashMap<>();
+    /** The number of queued tasks with a deadline. */
+    private final AtomicInteger deadlineDepth = new AtomicInteger(0);
+    
     
     /* -------------------------------------------------------------------------
      * Constructors.
@@ -93,13 +191,129 @@ public class ThreadScheduler
      * @see Thread#MAX_PRIORITY
      */
     public ThreadScheduler(int priority) {
+        this(priority, false, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Creates a new scheduler with an update thread and the default batch size. <br>
+     * Use {@link #start()} to start the thread and
+     * {@link #scheduleTask(Runnable)} to schedule a task on this thread.<br>
+     * Use {@link #terminate()} to terminate the update thread and clean-up.
+     * 
+     * @param priority The priority of the thread. Must be a value between
+     *     {@code 1} and {@code 10} (both inclusive).
+     * @param lockFree Whether to use the lock-free task queue.
+     * 
+     * @see Thread#MIN_PRIORITY
+     * @see Thread#NORM_PRIORITY
+     * @see Thread#MAX_PRIORITY
+     */
+    public ThreadScheduler(int priority, boolean lockFree) {
+        this(priority, lockFree, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Creates a new scheduler with an update thread. <br>
+     * Use {@link #start()} to start the thread and
+     * {@link #scheduleTask(Runnable)} to schedule a task on this thread.<br>
+     * Use {@link #terminate()} to terminate the update thread and clean-up.
+     * 
+     * @param priority The priority of the thread. Must be a value between
+     *     {@code 1} and {@code 10} (both inclusive).
+     * @param lockFree Whether to use the lock-free task queue.
+     * @param batchSize The maximal number of tasks which are taken from the
+     *     queue at once in lock-free mode.
+     * 
+     * @throws IllegalArgumentException If {@code batchSize <= 0}.
+     * 
+     * @see Thread#MIN_PRIORITY
+     * @see Thread#NORM_PRIORITY
+     * @see Thread#MAX_PRIORITY
+     */
+    public ThreadScheduler(int priority, boolean lockFree, int batchSize) {
+        this(priority, lockFree, batchSize, SchedulingPolicy.FIFO, DEFAULT_AGING_NANOS);
+    }
+    
+    /**
+     * Creates a new scheduler with an update thread and the default aging interval. <br>
+     * Use {@link #start()} to start the thread and
+     * {@link #scheduleTask(Runnable)} to schedule a task on this thread.<br>
+     * Use {@link #terminate()} to terminate the update thread and clean-up.
+     * 
+     * @param priority The priority of the thread. Must be a value between
+     *     {@code 1} and {@code 10} (both inclusive).
+     * @param policy The scheduling policy.
+     * 
+     * @see Thread#MIN_PRIORITY
+     * @see Thread#NORM_PRIORITY
+     * @see Thread#MAX_PRIORITY
+     */
+    public ThreadScheduler(int priority, SchedulingPolicy policy) {
+        this(priority, false, 1, policy, DEFAULT_AGING_NANOS);
+    }
+    
+    /**
+     * Creates a new scheduler with an update thread. <br>
+     * Use {@link #start()} to start the thread and
+     * {@link #scheduleTask(Runnable)} to schedule a task on this thread.<br>
+     * Use {@link #terminate()} to terminate the update thread and clean-up.
+     * 
+     * @param priority The priority of the thread. Must be a value between
+     *     {@code 1} and {@code 10} (both inclusive).
+     * @param policy The scheduling policy.
+     * @param agingNanos The aging interval per priority level in nanoseconds.
+     * 
+     * @throws IllegalArgumentException If {@code agingNanos <= 0}.
+     * 
+     * @see Thread#MIN_PRIORITY
+     * @see Thread#NORM_PRIORITY
+     * @see Thread#MAX_PRIORITY
+     * @see SchedulingPolicy#PRIORITY
+     */
+    public ThreadScheduler(int priority, SchedulingPolicy policy, long agingNanos) {
+        this(priority, false, 1, policy, agingNanos);
+    }
+    
+    /**
+     * Creates a new scheduler with an update thread.
+     * 
+     * @param priority The priority of the thread.
+     * @param lockFree Whether to use the lock-free task queue.
+     * @param batchSize The maximal number of tasks which are taken from the
+     *     queue at once in lock-free mode.
+     * @param policy The scheduling policy.
+     * @param agingNanos The aging interval per priority level in nanoseconds.
+     * 
+     * @throws IllegalArgumentException If {@code batchSize <= 0}, if {@code agingNanos <= 0},
+     *     or if the lock-free mode is combined with the priority policy.
+     */
+    private ThreadScheduler(int priority, boolean lockFree, int batchSize,
+            SchedulingPolicy policy, long agingNanos) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize(" + batchSize + ") <= 0");
+        }
+        if (agingNanos <= 0) {
+            throw new IllegalArgumentException("agingNanos(" + agingNanos + ") <= 0");
+        }
+        if (lockFree && policy != SchedulingPolicy.FIFO) {
+            throw new IllegalArgumentException("The lock-free mode only supports FIFO scheduling.");
+        }
+        this.policy = policy;
+        this.agingNanos = agingNanos;
+        this.priorityQueue = (policy == SchedulingPolicy.PRIORITY
+                ? new PriorityBlockingQueue<>()
+                : null);
+        this.lockFree = lockFree;
+        this.taskQueue = (lockFree ? new MpscQueue<>() : null);
+        this.batch = (lockFree ? new Runnable[batchSize] : null);
         int threadID = ID.getAndIncrement();
         
         thread = new Thread("Update-thread-" + threadID) {
             @Override
             public void run() {
                 try {
-                    while (threadTask()) { }
+                    if (lockFree) while (lockFreeTask()) { }
+                    else while (threadTask()) { }
                     
                 } catch (Exception e) {
                     Logger.write(e);
@@ -129,33 +343,35 @@ public class ThreadScheduler
         lock.lock();
         try {
             // If the queue is empty, wait for a task.
-            if (requestQueue.isEmpty()) {
+            if (queueIsEmpty()) {
                 isDone = true;
-                lock.unlock();
-                try {
-                    forceNotifyObservers(new SchedulerEventObject(
-                            ThreadScheduler.this,
-                            SchedulerEvent.ALL_TASKS_FINISHED));
-                    
-                } finally {
-                    lock.lock();
+                if (hasObservers(SchedulerEvent.ALL_TASKS_FINISHED)) {
+                    lock.unlock();
+                    try {
+                        fireEvent(SchedulerEvent.ALL_TASKS_FINISHED);
+                        
+                    } finally {
+                        lock.lock();
+                    }
                 }
             }
             
-            if (requestQueue.isEmpty()) {
+            if (queueIsEmpty()) {
                 waitForEmpty.signalAll();
-                addedToQueue.await();
-                
-            } else {
-                isDone = false;
+                // Re-check the termination flag, since the scheduler might have been
+                // terminated while the previous task was running.
+                while (queueIsEmpty() && !terminated) {
+                    addedToQueue.await();
+                }
             }
+            if (!queueIsEmpty()) isDone = false;
             
             if (terminated || Thread.currentThread().isInterrupted()) {
                 return false;
             }
             
             // Obtain and remove the task from the queue.
-            r = requestQueue.pollFirst();
+            r = pollTask();
             
         } catch (InterruptedException e) {
             if (terminated || Thread.currentThread().isInterrupted()) {
@@ -173,8 +389,7 @@ public class ThreadScheduler
         }
         
         /* Execute the task. */
-        forceNotifyObservers(new SchedulerEventObject(ThreadScheduler.this,
-                SchedulerEvent.TASK_STARTED));
+        fireEvent(SchedulerEvent.TASK_STARTED);
         try {
             if (r != null)r.run();
             
@@ -193,15 +408,185 @@ public class ThreadScheduler
             }
         }
         
-        forceNotifyObservers(new SchedulerEventObject(ThreadScheduler.this,
-                (requestQueue.isEmpty()
-                        ? SchedulerEvent.ALL_TASKS_FINISHED
-                        : SchedulerEvent.TASK_FINISHED)));
+        fireEvent(queueIsEmpty()
+                ? SchedulerEvent.ALL_TASKS_FINISHED
+                : SchedulerEvent.TASK_FINISHED);
+        
+        
+        return !(terminated || Thread.currentThread().isInterrupted());
+    }
+    
+    /**
+     * This function regulates running scheduled tasks, notifying observers,
+     * and notifying waiting threads in lock-free mode. At most one batch of
+     * tasks is executed per invocation.
+     * 
+     * @return {@code true} if the cycle should be repeated. {@code false} otherwise.
+     */
+    private boolean lockFreeTask() {
+        int n = taskQueue.drain(batch, batch.length);
+        if (n == 0) {
+            if (queued.get() != 0) {
+                // A task is being added, but not yet linked in the queue.
+                Thread.onSpinWait();
+                
+            } else {
+                idle();
+            }
+            return !(terminated || Thread.currentThread().isInterrupted());
+        }
+        
+        for (int i = 0; i < n; i++) {
+            Runnable r = batch[i];
+            batch[i] = null;
+            if (terminated || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            queued.decrementAndGet();
+            
+            fireEvent(SchedulerEvent.TASK_STARTED);
+            try {
+                r.run();
+                
+            } catch (Exception e) {
+                if (!terminated) {
+                    Logger.write(new Object[] {
+                        "Uncaught exception in " + Thread.currentThread().getName() + ":",
+                        e
+                    }, Logger.Type.ERROR);
+                }
+            }
             
+            fireEvent(queued.get() == 0
+                    ? SchedulerEvent.ALL_TASKS_FINISHED
+                    : SchedulerEvent.TASK_FINISHED);
+        }
         
         return !(terminated || Thread.currentThread().isInterrupted());
     }
     
+    /**
+     * @return {@code true} if there are no queued tasks. {@code false} otherwise.
+     */
+    private boolean queueIsEmpty() {
+        if (priorityQueue != null) return priorityQueue.isEmpty();
+        return requestQueue.isEmpty();
+    }
+    
+    /**
+     * Removes the next task from the queue. Is not invoked in lock-free mode.
+     * 
+     * @return The next task, or {@code null} if there are no queued tasks.
+     */
+    private Runnable pollTask() {
+        if (priorityQueue == null) return requestQueue.pollFirst();
+        PriorityTask pt = priorityQueue.poll();
+        if (pt == null) return null;
+        if (pt.priority == null) deadlineDepth.decrementAndGet();
+        else depths.get(pt.priority).decrementAndGet();
+        return pt.task;
+    }
+    
+    /**
+     * Adds the given task to the priority heap.
+     * 
+     * @param task The task to add.
+     * @param offset The offset of the (virtual) deadline of the task relative to
+     *     the current time.
+     * @param priority The priority of the task, or {@code null} if the task has a deadline.
+     * 
+     * @throws IllegalStateException If the scheduler was not yet started
+     *     or if it is terminated.
+     * @throws NullPointerException If {@code task == null}.
+     */
+    private void schedulePriorityTask(Runnable task, long offset, Integer priority)
+            throws IllegalStateException, NullPointerException {
+        if (task == null) throw new NullPointerException();
+        offset = Math.max(-MAX_OFFSET, Math.min(MAX_OFFSET, offset));
+        lock.lock();
+        try {
+            if (!started) throw new IllegalStateException("Not yet started!");
+            if (terminated) throw new IllegalStateException("Already terminated!");
+            isDone = false;
+            priorityQueue.add(new PriorityTask(task, System.nanoTime() + offset,
+                    sequence.getAndIncrement(), priority));
+            if (priority == null) deadlineDepth.incrementAndGet();
+            else depths.computeIfAbsent(priority, p -> new AtomicInteger()).incrementAndGet();
+            addedToQueue.signalAll();
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * If the {@link SchedulingPolicy#PRIORITY} policy is not used,
+     * then the priority is ignored.
+     */
+    @Override
+    public void scheduleTask(Runnable task, int priority)
+            throws IllegalStateException, NullPointerException {
+        if (priorityQueue == null) {
+            scheduleTask(task);
+            return;
+        }
+        long offset;
+        if (Math.abs((long) priority) > MAX_OFFSET / agingNanos) {
+            offset = (priority > 0 ? -MAX_OFFSET : MAX_OFFSET);
+            
+        } else {
+            offset = -(long) priority * agingNanos;
+        }
+        schedulePriorityTask(task, offset, priority);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * If the {@link SchedulingPolicy#PRIORITY} policy is not used,
+     * then the deadline is ignored.
+     */
+    @Override
+    public void scheduleTask(Runnable task, long deadlineNanos)
+            throws IllegalStateException, NullPointerException {
+        if (priorityQueue == null) {
+            scheduleTask(task);
+            return;
+        }
+        schedulePriorityTask(task, deadlineNanos - System.nanoTime(), null);
+    }
+    
+    /**
+     * Marks the scheduler as done, wakes up the threads waiting for this,
+     * and parks the update thread until a new task is scheduled. Is only
+     * invoked in lock-free mode.
+     */
+    private void idle() {
+        isDone = true;
+        if (queued.get() != 0) {
+            isDone = false;
+            return;
+        }
+        
+        lock.lock();
+        try {
+            waitForEmpty.signalAll();
+            
+        } finally {
+            lock.unlock();
+        }
+        
+        parked = true;
+        try {
+            if (queued.get() == 0 && !terminated) LockSupport.park(this);
+            
+        } finally {
+            parked = false;
+        }
+    }
+    
     /**
      * Internal cleanup when terminated.
      */
@@ -211,13 +596,29 @@ public class ThreadScheduler
         try {
             generateEvent = !terminated;
             terminated = true;
-            requestQueue.clear();
+            if (lockFree) {
+                // Only the update thread may remove tasks from the lock-free queue.
+                if (Thread.currentThread() == thread || !thread.isAlive()) {
+                    taskQueue.clear();
+                    queued.set(0);
+                }
+                LockSupport.unpark(thread);
+                
+            } else if (priorityQueue != null) {
+                priorityQueue.clear();
+                depths.clear();
+                deadlineDepth.set(0);
+                
+            } else {
+                requestQueue.clear();
+            }
             waitForEmpty.signalAll();
+            addedToQueue.signalAll();
             
         } finally {
             lock.unlock();
             if (generateEvent) {
-                forceNotifyObservers(new SchedulerEventObject(this, SchedulerEvent.TERMINATED));
+                fireEvent(SchedulerEvent.TERMINATED);
             }
         }
     }
@@ -226,6 +627,19 @@ public class ThreadScheduler
     public void scheduleTask(Runnable task)
             throws IllegalStateException {
         if (task == null) throw new NullPointerException();
+        if (priorityQueue != null) {
+            scheduleTask(task, NORM_TASK_PRIORITY);
+            return;
+        }
+        if (lockFree) {
+            if (!started) throw new IllegalStateException("Not yet started!");
+            if (terminated) throw new IllegalStateException("Already terminated!");
+            queued.incrementAndGet();
+            isDone = false;
+            taskQueue.offer(task);
+            if (parked) LockSupport.unpark(thread);
+            return;
+        }
         
         lock.lock();
         try {
@@ -242,6 +656,8 @@ public class ThreadScheduler
     
     @Override
     public int queueSize() {
+        if (lockFree) return queued.get();
+        if (priorityQueue != null) return priorityQueue.size();
         return requestQueue.size();
     }
     
@@ -261,7 +677,7 @@ public class ThreadScheduler
             lock.unlock();
         }
         
-        forceNotifyObservers(new SchedulerEventObject(this, SchedulerEvent.STARTED));
+        fireEvent(SchedulerEvent.STARTED);
     }
     
     @Override
@@ -290,7 +706,7 @@ public class ThreadScheduler
         }
         
         thread.join(Math.max(1L, tu.toMillis(timeout)));
-        return thread.isAlive();
+        return !thread.isAlive();
     }
     
     /**
@@ -352,6 +768,7 @@ public class ThreadScheduler
     
     @Override
     public boolean isDone() {
+        if (lockFree) return isDone;
         lock.lock();
         try {
             return isDone;
@@ -368,13 +785,84 @@ public class ThreadScheduler
         lock.lock();
         try {
             if (terminated || isDone) return;
-            waitForEmpty.await();
+            if (lockFree) {
+                while (!terminated && !isDone) {
+                    waitForEmpty.await();
+                }
+                
+            } else {
+                waitForEmpty.await();
+            }
             
         } finally {
             lock.unlock();
         }
     }
     
+    /**
+     * @return {@code true} if the lock-free task queue is used. {@code false} otherwise.
+     */
+    public boolean isLockFree() {
+        return lockFree;
+    }
+    
+    /**
+     * @return The maximal number of tasks which are taken from the queue
+     *     at once in lock-free mode.
+     */
+    public int getBatchSize() {
+        return (lockFree ? batch.length : 1);
+    }
+    
+    /**
+     * @return The scheduling policy of this scheduler.
+     */
+    public SchedulingPolicy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * @return The aging interval per priority level in nanoseconds.
+     */
+    public long getAgingNanos() {
+        return agingNanos;
+    }
+    
+    /**
+     * Returns the number of queued tasks per priority. Only priorities with at least
+     * one queued task are included. Tasks with a deadline are not included.
+     * If the {@link SchedulingPolicy#PRIORITY} policy is not used, then the map is empty.
+     * 
+     * @return A snapshot of the number of queued tasks per priority.
+     * 
+     * @see #getDeadlineQueueDepth()
+     */
+    public SortedMap<Integer, Integer> getQueueDepths() {
+        SortedMap<Integer, Integer> map = new TreeMap<>();
+        for (Map.Entry<Integer, AtomicInteger> e : depths.entrySet()) {
+            int depth = e.getValue().get();
+            if (depth > 0) map.put(e.getKey(), depth);
+        }
+        return map;
+    }
+    
+    /**
+     * @param priority The priority to get the queue depth of.
+     * 
+     * @return The number of queued tasks with the given priority.
+     */
+    public int getQueueDepth(int priority) {
+        AtomicInteger depth = depths.get(priority);
+        return (depth == null ? 0 : depth.get());
+    }
+    
+    /**
+     * @return The number of queued tasks which were scheduled with a deadline.
+     */
+    public int getDeadlineQueueDepth() {
+        return deadlineDepth.get();
+    }
+    
     /**
      * @param priority The new priority of the update thread.
      * 
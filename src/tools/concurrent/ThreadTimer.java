@@ -15,7 +15,9 @@ package tools.concurrent;
 
 
 // Java imports
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -43,14 +45,24 @@ import tools.log.Logger;
  *        interval is set and the updates occur after every interval time.
  *        If the previous update was still running, then the current update is
  *        ignored. <br>
- *        In automatic mode, a target interval is set and AIMD is used to prevent
- *        clashing update cycles. </li>
+ *        In automatic mode, a target interval is set and an {@link IntervalController}
+ *        is used to prevent clashing update cycles. </li>
  *   <li> Starting a timer which is already started does nothing.</li>
  *   <li> Resuming a timer which is already started or canceled does nothing.</li>
  *   <li> Pausing a timer which is already paused or canceled does nothing.</li>
  *   <li> Canceling a timer which is already canceled does nothing.</li>
  * </ul>
  * 
+ * By default, every timer uses its own update thread. Alternatively, a {@link TimingWheel}
+ * can be provided, in which case the timer has no thread of its own. The timing wheel
+ * then signals the updates, which are executed on the scheduler of the timer. The
+ * deadlines of the updates are derived from the deadline of the previous update
+ * using {@link System#nanoTime()}, so the timer does not drift. If an update is
+ * missed because the timer fell behind, then it is skipped. <br>
+ * <br>
+ * The execution time and jitter of every update cycle are recorded in lock-free
+ * histograms. Use {@link #getMetrics()} to obtain a snapshot of the metrics. <br>
+ * <br>
  * This class is thread safe.
  * 
  * @todo
@@ -58,7 +70,7 @@ import tools.log.Logger;
  * - Improve performance.
  * - Extensive testing.
  * 
- * @version 1.0
+ * @version 1.3
  * @author Kaj Wortel
  */
 public class ThreadTimer {
@@ -69,8 +81,8 @@ public class ThreadTimer {
      */
     /** Counter to keep track of the timer id's of {@code ThreadTimer}s. */
     private static final AtomicInteger TIMER_ID_COUNTER = new AtomicInteger(0);
-    /** The amount of metric data kept in memory. */
-    private final static int METRIC_SIZE = 20;
+    /** The scheduler shared by the timers which use a timing wheel without a scheduler. */
+    private static volatile Scheduler sharedScheduler;
     
     
     /* -------------------------------------------------------------------------
@@ -119,9 +131,8 @@ public class ThreadTimer {
      *  this iteration then it is equal to {@link #startTime}. */
     private volatile long pauseTime;
     
-    /**  Keeps track of how many cycles must pass before the
-     *  additative increase is replaced by multiplicative increase. */
-    private int waitMul = 0;
+    /** The controller used to adjust the interval when using {@link FPSState#AUTO}. */
+    private volatile IntervalController controller = new AimdIntervalController();
     
     /** Denotes the thread priority for this timer. */
     private int priority = Thread.NORM_PRIORITY;
@@ -129,20 +140,51 @@ public class ThreadTimer {
     /** The scheduler used for executing the tasks. */
     private final Scheduler sched;
     
+    /*
+     * Timing wheel variables.
+     */
+    /** The timing wheel used for the updates, or {@code null} if an update thread is used. */
+    private final TimingWheel wheel;
+    /** The tasks wrapped to keep track of the end of the update cycle. */
+    private final Runnable[] wheelTasks;
+    /** The timeout of the next update. */
+    private TimingWheel.Timeout timeout;
+    /** The deadline of the next update in terms of {@link System#nanoTime()}. */
+    private long deadline;
+    /** The deadline of the previous update in terms of {@link System#nanoTime()}. */
+    private long prevDeadline;
+    /** Whether an update occured since the timer was started. */
+    private boolean updated = false;
+    /** The pause timestamp of the timer in terms of {@link System#nanoTime()}. */
+    private long pauseNanos;
+    /** Whether an update cycle is currently being executed. */
+    private final AtomicBoolean cycleRunning = new AtomicBoolean(false);
+    /** The number of tasks of the current update cycle which are not yet finished. */
+    private final AtomicInteger cycleRemaining = new AtomicInteger(0);
+    /** The start timestamp of the current update cycle in terms of {@link System#nanoTime()}. */
+    private volatile long cycleStart;
+    
     /*
      * Metric variables.
      */
-    private final Lock metricLock = new ReentrantLock();
     /** Whether to restart the metrics on the next cycle. */
-    private boolean restartMetric = true;
-    /** The timestamp used for calculating time metrics. */
-    private long metricTimeStamp = System.currentTimeMillis();
-    /** The average interval time of the timer. */
-    private float metricAvgSpeed = 0.0f;
-    /** The number of time the metrics were calculated this second. */
-    private int metricCompleted = 0;
+    private volatile boolean restartMetric = true;
+    /** The histogram of the execution times in nanoseconds. */
+    private final LatencyHistogram exeHistogram = new LatencyHistogram();
+    /** The histogram of the jitter in nanoseconds. */
+    private final LatencyHistogram jitterHistogram = new LatencyHistogram();
+    /** The number of executed update cycles. */
+    private final AtomicLong metricTicks = new AtomicLong(0);
+    /** The number of missed update cycles. */
+    private final AtomicLong metricDropped = new AtomicLong(0);
+    /** The start timestamp of the previous update cycle in nanoseconds. */
+    private long metricPrevStart;
+    /** The start timestamp of the current FPS measurement window in nanoseconds. */
+    private long metricWindowStart;
+    /** The number of update cycles in the current FPS measurement window. */
+    private int metricWindowCount;
     /** The FPS rate metric. */
-    private int metricFPS = 0;
+    private volatile double metricFPS = 0;
     
     
     /* -------------------------------------------------------------------------
@@ -235,6 +277,54 @@ public class ThreadTimer {
      * @throws NullPointerException If {@code rs == null}.
      */
     public ThreadTimer(long delay, long interval, Scheduler sched, Runnable... rs) {
+        this(delay, interval, sched, null, rs);
+    }
+    
+    /**
+     * Creates a new timer which uses the given timing wheel to execute the given
+     * functions once every interval on the given scheduler.
+     * 
+     * @param interval The time in ms which is between two executions of the tasks.
+     * @param sched The scheduler used for scheduling tasks. If {@code null}, then
+     *     a scheduler which is shared by all timers is used as default.
+     * @param wheel The timing wheel used to time the updates. If {@code null}, then
+     *     a separate thread is used instead.
+     * @param rs The tasks that will be executed on every interval.
+     * 
+     * @throws IllegalArgumentException If {@code interval <= 0}.
+     * @throws NullPointerException If {@code rs == null}.
+     * 
+     * @see #ThreadTimer(long, long, Scheduler, TimingWheel, Runnable...)
+     */
+    public ThreadTimer(long interval, Scheduler sched, TimingWheel wheel, Runnable... rs) {
+        this(interval, interval, sched, wheel, rs);
+    }
+    
+    /**
+     * Creates a new timer which uses the given timing wheel to execute the given
+     * functions once every interval on the given scheduler. After starting, first
+     * waits until the initial delay has past. <br>
+     * The timing wheel only signals the updates, and the tasks are executed on the
+     * scheduler. Note that if a {@link SelfScheduler} is used, then the tasks are
+     * executed on the thread of the timing wheel, which delays all other timers
+     * of the timing wheel.
+     * 
+     * @param delay The time in ms before the first exectution of the tasks.
+     * @param interval The time in ms which is between two executions of the tasks.
+     * @param sched The scheduler used for scheduling tasks. If {@code null}, then
+     *     {@link SelfScheduler} is used as default if no timing wheel is used, and
+     *     a scheduler which is shared by all timers otherwise.
+     * @param wheel The timing wheel used to time the updates. If {@code null}, then
+     *     a separate thread is used instead.
+     * @param rs The tasks that will be executed on every interval.
+     * 
+     * @throws IllegalArgumentException If {@code interval <= 0} or {@code delay <= 0}.
+     * @throws NullPointerException If {@code rs == null}.
+     * 
+     * @see TimingWheel#getDefault()
+     */
+    public ThreadTimer(long delay, long interval, Scheduler sched, TimingWheel wheel,
+            Runnable... rs) {
         if (rs == null) throw new NullPointerException("Runnable was null!");
         if (interval <= 0){
             throw new IllegalArgumentException(
@@ -250,12 +340,35 @@ public class ThreadTimer {
         // Set the initial values.
         this.initialDelay = this.delay = delay;
         this.interval = interval;
-        if (sched == null) {
+        this.wheel = wheel;
+        if (sched != null) {
+            this.sched = sched;
+            
+        } else if (wheel != null) {
+            this.sched = getSharedScheduler();
+            
+        } else {
             this.sched = new SelfScheduler();
             this.sched.start();
-            
-        } else this.sched = sched;
+        }
         this.tasks = rs;
+        if (wheel == null) {
+            wheelTasks = null;
+            
+        } else {
+            wheelTasks = new Runnable[rs.length];
+            for (int i = 0; i < rs.length; i++) {
+                Runnable task = rs[i];
+                wheelTasks[i] = () -> {
+                    try {
+                        task.run();
+                        
+                    } finally {
+                        taskFinished();
+                    }
+                };
+            }
+        }
         
         // By default, set the target interval to the given interval.
         targetInterval = interval;
@@ -267,105 +380,80 @@ public class ThreadTimer {
      * -------------------------------------------------------------------------
      */
     /**
-     * Updates the metrics and adjusts the interval is needed.
+     * Updates the metrics and adjusts the interval is needed. Is invoked by
+     * at most one thread at a time.
      * 
-     * @param timeStamp The timestamp before execution of the method to calculate
-     *     the metrics of.
-     * @param exeTime The execution time of the method to calculate the metrics of.
+     * @param cycleStart The timestamp in nanoseconds at the start of the update
+     *     cycle to calculate the metrics of.
+     * @param exeNanos The execution time of the update cycle in nanoseconds.
      */
-    private void updateMetric(long timeStamp, long exeTime) {
+    private void updateMetric(long cycleStart, long exeNanos) {
         // Update metrics.
-        metricLock.lock();
-        try {
-            if (restartMetric) {
-                metricCompleted = 0;
-                metricFPS = (int) getFPS();
-                metricAvgSpeed = exeTime;
-                metricTimeStamp = System.currentTimeMillis() + getInterval() / 2;
-                restartMetric = false;
-                return;
-            }
-            
-            // Update metrics.
-            metricCompleted++;
-            metricAvgSpeed = (metricAvgSpeed * (METRIC_SIZE - 1) + exeTime) / METRIC_SIZE;
-            while (timeStamp > metricTimeStamp + 1000) {
-                metricFPS = (int) (metricCompleted * 1000 / (metricTimeStamp - timeStamp));
-                metricCompleted = 0;
-                metricTimeStamp += 1000;
-            }
+        if (restartMetric) {
+            restartMetric = false;
+            exeHistogram.reset();
+            jitterHistogram.reset();
+            metricTicks.set(0);
+            metricDropped.set(0);
+            metricWindowStart = cycleStart;
+            metricWindowCount = 0;
+            metricFPS = getFPS();
             
-        } finally {
-            metricLock.unlock();
+        } else {
+            long intervalNanos = interval * 1000_000L;
+            long gap = cycleStart - metricPrevStart;
+            jitterHistogram.record(Math.abs(gap - intervalNanos));
+            long missed = Math.round((double) gap / intervalNanos) - 1;
+            if (missed > 0) metricDropped.addAndGet(missed);
+        }
+        metricPrevStart = cycleStart;
+        exeHistogram.record(exeNanos);
+        metricTicks.incrementAndGet();
+        metricWindowCount++;
+        long windowTime = cycleStart - metricWindowStart;
+        if (windowTime >= 1000_000_000L) {
+            metricFPS = metricWindowCount * 1e9 / windowTime;
+            metricWindowStart = cycleStart;
+            metricWindowCount = 0;
         }
         
         // Change interval if needed.
         if (fpsState == FPSState.AUTO) {
-            int diff = (int) (interval - exeTime);
-            if (diff < 0) {
-                // Multiplicative decrease (= increase interval fast).
-                waitMul += 10;
-                double add = Math.max(interval * 0.05, 1);
-                setInterval((long) Math.ceil((interval + add)));
-                
-            } else {
-                if (interval > targetInterval) {
-                    if (--waitMul <= 0) {
-                        // Multiplicative increase (= decrease interval fast).
-                        waitMul = 0;
-                        long sub = Math.max((long) Math.ceil(interval * 0.05), 1);
-                        setInterval(Math.max((long) (interval - sub), targetInterval));
-
-                    } else {
-                        // Additative increase (= decrease interval slow).
-                        setInterval(interval - 1);
-                    }
-                    
-                } else if (interval < targetInterval) {
-                    // Cap interval at the target interval.
-                    setInterval(targetInterval);
-                }
-            }
+            long cur = interval;
+            long next = controller.nextInterval(cur, targetInterval, exeNanos / 1000_000.0,
+                    exeNanos > cur * 1000_000L);
+            if (next != cur) setInterval(next);
         }
     }
     
     /**
-     * @return the average time it takes to complete one update cycle.
+     * @return the average time in ms it takes to complete one update cycle.
      */
     public float getAverageExecutionTime() {
-        metricLock.lock();
-        try {
-            return metricAvgSpeed;
-            
-        } finally {
-            metricLock.unlock();
-        }
+        return (float) (exeHistogram.snapshot().getMean() / 1000_000.0);
     }
     
     /**
-     * @return the frames per second measured by the metrics.
+     * @return the frames per second measured by the metrics, rounded to the nearest integer.
      */
     public int getMetricFPS() {
-        metricLock.lock();
-        try {
-            return metricFPS;
-            
-        } finally {
-            metricLock.unlock();
-        }
+        return (int) Math.round(metricFPS);
     }
     
     /**
-     * Re-initializes the metric values.
+     * @return A snapshot of the metrics of the timer.
+     */
+    public TimerMetrics getMetrics() {
+        return new TimerMetrics(exeHistogram.snapshot(), jitterHistogram.snapshot(),
+                metricTicks.get(), metricDropped.get(), metricFPS);
+    }
+    
+    /**
+     * Re-initializes the metric values. The values are cleared at
+     * the end of the next update cycle.
      */
     public void restartMetric() {
-        metricLock.lock();
-        try {
-            restartMetric = true;
-            
-        } finally {
-            metricLock.unlock();
-        }
+        restartMetric = true;
     }
     
     /* -------------------------------------------------------------------------
@@ -389,9 +477,16 @@ public class ThreadTimer {
             // Update the timeState.
             timerState = TimerState.RUNNING;
             
-            // Set and start update thread.
-            updateThread = createUpdateThread(++threadId);
-            updateThread.start();
+            if (wheel != null) {
+                // Schedule the first update.
+                updated = false;
+                scheduleUpdate(System.nanoTime() + delay * 1000_000L, ++threadId);
+                
+            } else {
+                // Set and start update thread.
+                updateThread = createUpdateThread(++threadId);
+                updateThread.start();
+            }
             
         } finally {
             lock.unlock();
@@ -415,6 +510,10 @@ public class ThreadTimer {
             
             // Set the pause time stamp.
             pauseTime = System.currentTimeMillis();
+            if (wheel != null) {
+                pauseNanos = System.nanoTime();
+                timeout.cancel();
+            }
             
             // Update the timeState.
             timerState = TimerState.PAUSED;
@@ -437,6 +536,14 @@ public class ThreadTimer {
             if (timerState == TimerState.RUNNING ||
                     timerState == TimerState.CANCELED) return;
             
+            if (wheel != null) {
+                // Schedule the next update as if the timer wasn't paused.
+                long next = (updated ? prevDeadline + interval * 1000_000L : deadline);
+                scheduleUpdate(System.nanoTime() + Math.max(0, next - pauseNanos), threadId);
+                timerState = TimerState.RUNNING;
+                return;
+            }
+            
             // Update time stamps.
             long timePaused = System.currentTimeMillis() - pauseTime;
             long timeWaited = pauseTime - startTime;
@@ -457,13 +564,7 @@ public class ThreadTimer {
             lock.unlock();
         }
         
-        metricLock.lock();
-        try {
-            restartMetric();
-
-        } finally {
-            metricLock.unlock();
-        }
+        restartMetric();
     }
     
     /**
@@ -478,6 +579,7 @@ public class ThreadTimer {
             // Kill the current timer if needed.
             if (timerState == TimerState.RUNNING) {
                 threadId++;
+                if (wheel != null) timeout.cancel();
             }
             
             // Update the timeState.
@@ -506,6 +608,7 @@ public class ThreadTimer {
         try {
             this.interval = Math.max(1L, interval);
             wait.signalAll();
+            rescheduleUpdate();
             
         } finally {
             lock.unlock();
@@ -538,7 +641,9 @@ public class ThreadTimer {
         try {
             targetInterval = interval;
             this.interval = interval;
+            controller.reset();
             wait.signalAll();
+            rescheduleUpdate();
             
         } finally {
             lock.unlock();
@@ -584,6 +689,26 @@ public class ThreadTimer {
         return fpsState;
     }
     
+    /**
+     * Sets the controller used to adjust the interval when using {@link FPSState#AUTO}.
+     * The controller should not be shared with other timers.
+     * 
+     * @param controller the new interval controller.
+     * 
+     * @throws NullPointerException If {@code controller == null}.
+     */
+    public void setIntervalController(IntervalController controller) {
+        if (controller == null) throw new NullPointerException();
+        this.controller = controller;
+    }
+    
+    /**
+     * @return the controller used to adjust the interval when using {@link FPSState#AUTO}.
+     */
+    public IntervalController getIntervalController() {
+        return controller;
+    }
+    
     /**
      * @param priority the new update thread priority.
      * 
@@ -611,6 +736,14 @@ public class ThreadTimer {
         return timerState;
     }
     
+    /**
+     * @return The timing wheel used for the updates, or {@code null}
+     *     if an update thread is used.
+     */
+    public TimingWheel getTimingWheel() {
+        return wheel;
+    }
+    
     
     /* -------------------------------------------------------------------------
      * Private functions.
@@ -695,14 +828,8 @@ public class ThreadTimer {
         }
         
         
-        metricLock.lock();
-        try {
-            restartMetric = true;
-            
-        } finally {
-            metricLock.unlock();
-        }
-            
+        restartMetric();
+        
         do {
             // tmp TODO
             //System.out.println("Thread id: " + threadId);
@@ -716,6 +843,7 @@ public class ThreadTimer {
                     "Interrupt was ignored!"
                 }, Logger.Type.WARNING);
             }
+            long cycleStart = System.nanoTime();
             
             // Run the tasks on the scheduler.
             for (Runnable task : tasks) {
@@ -741,15 +869,8 @@ public class ThreadTimer {
             }
             
             // Update metrics.
-            long timeStamp = System.currentTimeMillis();
-            long exeTime = timeStamp - startTime;
-            metricLock.lock();
-            try {
-                updateMetric(timeStamp, exeTime);
-                
-            } finally {
-                metricLock.unlock();
-            }
+            long exeTime = System.currentTimeMillis() - startTime;
+            updateMetric(cycleStart, System.nanoTime() - cycleStart);
             
             lock.lock();
             try {
@@ -757,7 +878,7 @@ public class ThreadTimer {
                 //System.out.println("interval: " + interval + ", exe: " + exeTime);
                 //System.out.println(interval - exeTime);
                 waitTime((interval - exeTime) * 1000_000L, tId);
-
+                
                 // Update start time stamp.
                 if (tId == threadId) {
                     startTime += interval;
@@ -770,6 +891,98 @@ public class ThreadTimer {
         } while (tId == threadId);
     }
     
+    /**
+     * @return The scheduler which is shared by the timers using a timing wheel
+     *     without a scheduler.
+     */
+    private static Scheduler getSharedScheduler() {
+        if (sharedScheduler == null) {
+            synchronized (ThreadTimer.class) {
+                if (sharedScheduler == null) {
+                    Scheduler s = new VirtualThreadScheduler();
+                    s.start();
+                    sharedScheduler = s;
+                }
+            }
+        }
+        return sharedScheduler;
+    }
+    
+    /**
+     * Schedules the next update on the timing wheel. Must be invoked while
+     * holding the lock.
+     * 
+     * @param deadline The deadline of the update in terms of {@link System#nanoTime()}.
+     * @param tId The ID of the current run of the timer.
+     */
+    private void scheduleUpdate(long deadline, int tId) {
+        this.deadline = deadline;
+        timeout = wheel.schedule(() -> wheelUpdate(tId), deadline);
+    }
+    
+    /**
+     * Moves the next update after the interval was changed. Must be invoked while
+     * holding the lock. Does nothing if no timing wheel is used, if the timer is
+     * not running, or if the initial delay has not yet past.
+     */
+    private void rescheduleUpdate() {
+        if (wheel == null || timerState != TimerState.RUNNING || !updated) return;
+        long next = prevDeadline + interval * 1000_000L;
+        if (next == deadline || !timeout.cancel()) return;
+        scheduleUpdate(next, threadId);
+    }
+    
+    /**
+     * Function which is executed by the timing wheel for every update. Schedules
+     * the next update and starts a new update cycle.
+     * 
+     * @param tId The ID of the run of the timer which scheduled the update.
+     */
+    private void wheelUpdate(int tId) {
+        lock.lock();
+        try {
+            if (tId != threadId) return;
+            long intervalNanos = interval * 1000_000L;
+            long next = deadline + intervalNanos;
+            long now = System.nanoTime();
+            if (next - now <= 0) {
+                // Skip the missed updates instead of executing them all at once.
+                next += ((now - next) / intervalNanos + 1) * intervalNanos;
+            }
+            prevDeadline = deadline;
+            updated = true;
+            scheduleUpdate(next, tId);
+            
+        } finally {
+            lock.unlock();
+        }
+        
+        // Ignore the update if the previous update is still running.
+        if (!cycleRunning.compareAndSet(false, true)) return;
+        cycleStart = System.nanoTime();
+        cycleRemaining.set(wheelTasks.length + 1);
+        for (Runnable task : wheelTasks) {
+            try {
+                sched.scheduleTask(task);
+                
+            } catch (Exception e) {
+                Logger.write(e);
+                taskFinished();
+            }
+        }
+        taskFinished();
+    }
+    
+    /**
+     * Marks a task of the current update cycle as finished, and
+     * updates the metrics if the update cycle is finished.
+     */
+    private void taskFinished() {
+        if (cycleRemaining.decrementAndGet() != 0) return;
+        updateMetric(cycleStart, System.nanoTime() - cycleStart);
+        cycleRunning.set(false);
+    }
+    
     /**
      * @param tId The ID of the update thread to create.
      * 
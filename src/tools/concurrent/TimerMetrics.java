@@ -0,0 +1,122 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+/**
+ * Immutable snapshot of the metrics of a {@link ThreadTimer}. <br>
+ * All durations are in nanoseconds.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see ThreadTimer#getMetrics()
+ */
+public final class TimerMetrics {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The histogram of the execution times of the update cycles. */
+    private final LatencyHistogram.Snapshot executionTime;
+    /** The histogram of the deviations between the actual and the set interval. */
+    private final LatencyHistogram.Snapshot jitter;
+    /** The number of executed update cycles. */
+    private final long ticks;
+    /** The number of missed update cycles. */
+    private final long droppedTicks;
+    /** The number of update cycles per second. */
+    private final double fps;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new metrics snapshot.
+     * 
+     * @param executionTime The histogram of the execution times.
+     * @param jitter The histogram of the interval deviations.
+     * @param ticks The number of executed update cycles.
+     * @param droppedTicks The number of missed update cycles.
+     * @param fps The number of update cycles per second.
+     */
+    TimerMetrics(LatencyHistogram.Snapshot executionTime, LatencyHistogram.Snapshot jitter,
+            long ticks, long droppedTicks, double fps) {
+        this.executionTime = executionTime;
+        this.jitter = jitter;
+        this.ticks = ticks;
+        this.droppedTicks = droppedTicks;
+        this.fps = fps;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return The histogram of the execution times of the update cycles.
+     */
+    public LatencyHistogram.Snapshot getExecutionTime() {
+        return executionTime;
+    }
+    
+    /**
+     * The jitter of an update cycle is the absolute difference between the time
+     * passed since the start of the previous update cycle and the set interval.
+     * 
+     * @return The histogram of the jitter of the update cycles.
+     */
+    public LatencyHistogram.Snapshot getJitter() {
+        return jitter;
+    }
+    
+    /**
+     * @return The number of executed update cycles.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+    
+    /**
+     * @return The number of update cycles which should have occurred, but were
+     *     skipped because the timer fell behind.
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+    
+    /**
+     * @return The number of update cycles which were executed per second,
+     *     measured over the last full second.
+     */
+    public double getFPS() {
+        return fps;
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[ticks=" + ticks + ",dropped=" + droppedTicks
+                + ",fps=" + fps
+                + ",exe(p50=" + executionTime.getP50() + ",p99=" + executionTime.getP99()
+                + ",p999=" + executionTime.getP999() + ")"
+                + ",jitter(p50=" + jitter.getP50() + ",p99=" + jitter.getP99()
+                + ",p999=" + jitter.getP999() + ")]";
+    }
+    
+    
+}
@@ -15,12 +15,22 @@ package tools.concurrent;
 
 
 // Java imports
+import java.util.Objects;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 
+// Tools imports
+import tools.log.Logger;
+
+
 /**
  * Class which adds extra functionallity to the default
  * {@link java.util.Timer} class. The added functionalities are:
@@ -39,23 +49,44 @@ import java.util.concurrent.locks.ReentrantLock;
  *        interval is set and the updates occur after every interval time.
  *        If the previous update was still running, then the current update is
  *        ignored. <br>
- *        In automatic mode, a target interval is set and AIMD is used to prevent
- *        clashing update cycles. </li>
+ *        In automatic mode, a target interval is set and an {@link IntervalController}
+ *        is used to prevent clashing update cycles. </li>
  *   <li> Starting a timer which is already started does nothing. </li>
  *   <li> Resuming a timer which is already started or canceled does nothing. </li>
  *   <li> Pausing a timer which is already paused or canceled does nothing. </li>
  *   <li> Canceling a timer which is already canceled does nothing. </li>
  * </ul>
  * 
+ * By default, every timer uses its own {@link Timer}. Alternatively, a
+ * {@link ScheduledExecutorService} can be provided, which can be shared by many timers.
+ * The tasks are then executed on the threads of the executor, and a slow timer only
+ * occupies one of these threads. Every timer uses a single reusable task which
+ * schedules the next update after the current update has finished, so updates
+ * never overlap and pausing, resuming or changing the interval only cancels or
+ * schedules that task. The {@link RateMode} determines whether the updates are
+ * scheduled relative to the start of the previous update or to the end of it, and
+ * the {@link MissedTickPolicy} determines whether missed updates in fixed rate mode
+ * are executed directly after each other or skipped. <br>
+ * <br>
  * This class is suitable for concurrent access.
  * 
  * @todo Comments + refactoring + testing
  * 
- * @version 1.0
+ * @version 1.3
  * @author Kaj Wortel
  */
 public class TimerTool {
     
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The counter used to name the threads of the shared executor. */
+    private static final AtomicInteger EXECUTOR_THREAD_COUNTER = new AtomicInteger(0);
+    /** The executor which can be shared by all timers. */
+    private static volatile ScheduledExecutorService sharedExecutor;
+    
+    
     /* -------------------------------------------------------------------------
      * Variables.
      * -------------------------------------------------------------------------
@@ -91,9 +122,31 @@ public class TimerTool {
     /** Whether the execution is still being performed. */
     private boolean running = false;
     
-    /** Keeps track of how many cycles must pass before the
-     *  additative increase is replaced multiplicative increase. */
-    private int waitMul = 0;
+    /** The controller used to adjust the interval when using {@link FPSState#AUTO}. */
+    private volatile IntervalController controller = new AimdIntervalController();
+    /** The execution time in ms of the last finished update cycle. */
+    private volatile double exeTime = 0;
+    
+    /* Executor variables. */
+    /** The executor used to schedule the updates, or {@code null} if a
+     *  {@link Timer} is used. */
+    private final ScheduledExecutorService executor;
+    /** The task which executes an update and schedules the next update. */
+    private final Runnable tick = this::tick;
+    /** The scheduled next update, or {@code null} if none is scheduled. */
+    private ScheduledFuture<?> future;
+    /** The deadline of the next update in terms of {@link System#nanoTime()}. */
+    private long deadline;
+    /** The time in nanoseconds until the next update when the timer was paused. */
+    private long remaining;
+    /** Whether an update is being executed. */
+    private boolean executing = false;
+    /** The number of skipped updates. */
+    private long skippedTicks = 0;
+    /** Whether the updates are scheduled at a fixed rate or with a fixed delay. */
+    private volatile RateMode rateMode = RateMode.FIXED_RATE;
+    /** How missed updates are handled in fixed rate mode. */
+    private volatile MissedTickPolicy missedTickPolicy = MissedTickPolicy.SKIP;
     
     
     /* -------------------------------------------------------------------------
@@ -115,6 +168,31 @@ public class TimerTool {
         CANCELED
     }
     
+    /**
+     * Enum denoting how the updates of a timer using an executor are scheduled.
+     */
+    public enum RateMode {
+        /** Denotes that an update is scheduled one interval after the deadline of
+         *  the previous update. */
+        FIXED_RATE,
+        /** Denotes that an update is scheduled one interval after the previous
+         *  update has finished. */
+        FIXED_DELAY
+    }
+    
+    /**
+     * Enum denoting how a timer using an executor at a fixed rate handles
+     * updates which were missed because the previous update took too long.
+     */
+    public enum MissedTickPolicy {
+        /** Denotes that the missed updates are executed directly after each other
+         *  until the timer has caught up. */
+        CATCH_UP,
+        /** Denotes that the missed updates are skipped, and that the next update
+         *  is scheduled at the first deadline which has not yet passed. */
+        SKIP
+    }
+    
     
     /* -------------------------------------------------------------------------
      * Constructors.
@@ -161,12 +239,48 @@ public class TimerTool {
      * @param isDaemon Whether the created times will be daemon or not. The default is {@code true}.
      */
     public TimerTool(long delay, long interval, boolean isDaemon, Runnable... rs) {
+        this(delay, interval, isDaemon, null, rs);
+    }
+    
+    /**
+     * Creates a new timer with the given delay and interval, which will run
+     * the given runnables as tasks on the given executor.
+     * 
+     * @param delay The time in ms before the first exectution of {@code r.run()}.
+     * @param interval The time in ms which is between two executions of {@code r.run()}.
+     * @param executor The executor to run the tasks on. Use {@link #getSharedExecutor()}
+     *     to share an executor with other timers.
+     * @param rs The actions that will be executed when the timer ends.
+     * 
+     * @throws NullPointerException If {@code executor == null}.
+     */
+    public TimerTool(long delay, long interval, ScheduledExecutorService executor,
+            Runnable... rs)
+            throws NullPointerException {
+        this(delay, interval, true, Objects.requireNonNull(executor, "executor"), rs);
+    }
+    
+    /**
+     * Creates a new timer with the given delay and interval, which will run
+     * the given runnables as tasks.
+     * 
+     * @param delay The time in ms before the first exectution of {@code r.run()}.
+     * @param interval The time in ms which is between two executions of {@code r.run()}.
+     * @param isDaemon Whether the created times will be daemon or not.
+     * @param executor The executor to run the tasks on, or {@code null} to use
+     *     a {@link Timer}.
+     * @param rs The actions that will be executed when the timer ends.
+     */
+    private TimerTool(long delay, long interval, boolean isDaemon,
+            ScheduledExecutorService executor, Runnable... rs) {
         this.tasks = rs;
         this.delay = delay;
         this.interval = interval;
+        this.isDaemon = isDaemon;
+        this.executor = executor;
         
         // Create new timer.
-        timer = new Timer(this.isDaemon = isDaemon);
+        if (executor == null) timer = new Timer(isDaemon);
         
         this.delay = delay;
         
@@ -180,6 +294,112 @@ public class TimerTool {
     }
     
     
+    /* -------------------------------------------------------------------------
+     * Executor functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return An executor which can be shared by all timers.
+     */
+    public static ScheduledExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            synchronized (TimerTool.class) {
+                if (sharedExecutor == null) {
+                    ScheduledThreadPoolExecutor e = new ScheduledThreadPoolExecutor(
+                            Math.max(2, Runtime.getRuntime().availableProcessors()), (r) -> {
+                                Thread t = new Thread(r, "TimerTool-executor-"
+                                        + EXECUTOR_THREAD_COUNTER.getAndIncrement());
+                                t.setDaemon(true);
+                                return t;
+                            });
+                    e.setRemoveOnCancelPolicy(true);
+                    sharedExecutor = e;
+                }
+            }
+        }
+        return sharedExecutor;
+    }
+    
+    /**
+     * Schedules the next update on the executor. Must be invoked while holding the lock.
+     * 
+     * @param deadline The deadline of the update in terms of {@link System#nanoTime()}.
+     */
+    private void scheduleTick(long deadline) {
+        this.deadline = deadline;
+        future = executor.schedule(tick, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Cancels the scheduled update, if any. Must be invoked while holding the lock.
+     */
+    private void cancelTick() {
+        if (future == null) return;
+        future.cancel(false);
+        future = null;
+    }
+    
+    /**
+     * Function which is executed by the executor for every update. Executes the
+     * tasks, and schedules the next update afterwards if the timer is still running.
+     */
+    private void tick() {
+        lock.lock();
+        try {
+            if (timerState != TimerState.RUNNING || executing) return;
+            executing = true;
+            future = null;
+            if (rateMode == RateMode.FIXED_RATE) deadline += interval * 1000_000L;
+            startTime = pauseTime = System.currentTimeMillis();
+            
+        } finally {
+            lock.unlock();
+        }
+        
+        long start = System.nanoTime();
+        if (tasks != null) {
+            for (Runnable r : tasks) {
+                try {
+                    r.run();
+                    
+                } catch (Exception e) {
+                    Logger.write(new Object[] {"Uncaught exception in timer task:", e},
+                            Logger.Type.ERROR);
+                }
+            }
+        }
+        long end = System.nanoTime();
+        exeTime = (end - start) / 1000_000.0;
+        
+        if (fpsState == FPSState.AUTO) {
+            long cur = interval;
+            long next = controller.nextInterval(cur, targetInterval, exeTime,
+                    end - start > cur * 1000_000L);
+            if (next != cur) setInterval(next);
+        }
+        
+        lock.lock();
+        try {
+            executing = false;
+            if (timerState != TimerState.RUNNING) return;
+            long intervalNanos = interval * 1000_000L;
+            long next = (rateMode == RateMode.FIXED_RATE ? deadline : end + intervalNanos);
+            long now = System.nanoTime();
+            if (next - now < 0 && rateMode == RateMode.FIXED_RATE &&
+                    missedTickPolicy == MissedTickPolicy.SKIP) {
+                // Skip to the first deadline which has not yet passed.
+                long missed = (now - next) / intervalNanos + 1;
+                skippedTicks += missed;
+                next += missed * intervalNanos;
+            }
+            scheduleTick(next);
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    
     /* -------------------------------------------------------------------------
      * Functions.
      * -------------------------------------------------------------------------
@@ -188,11 +408,9 @@ public class TimerTool {
      * Create a new timer task from the given runnable.
      * Also updates the start time and the pause time. <br>
      * <br>
-     * Handles the fps rate using M/AIMD (multiplicative/additative increase,
-     * multiplicative decrease). Decreases when the executing task cannot
-     * keep up with the speed of the timer. Increases when the
-     * executing task can keep up with the speed of the timer and the
-     * targetInterval has not yet been reached.
+     * Handles the fps rate using the interval controller. The controller is
+     * invoked every cycle with the execution time of the last finished cycle,
+     * and whether the previous cycle was still running.
      * 
      * @param rs The tasks to be executed. Is allowed to be null,
      *     but this is not effective.
@@ -215,41 +433,24 @@ public class TimerTool {
                     lock.unlock();
                 }
                 
-                if (wasRunning) {
-                    if (fpsState == FPSState.AUTO) {
-                        waitMul += 10;
-                        setInterval((long) Math.ceil((interval * 1.05)));
-                    }
-                    
-                    return;
-                    
-                } else {
-                    if (fpsState == FPSState.AUTO) {
-                        if (interval > targetInterval) {
-                            if (--waitMul <= 0) {
-                                waitMul = 0;
-                                setInterval(Math.max((
-                                        long) (interval * 0.95),
-                                        targetInterval));
-                            } else {
-                                setInterval(interval - 1);
-                            }
-                            
-                        } else if (interval < targetInterval) {
-                            setInterval(targetInterval);
-                        }
-                    }
+                if (fpsState == FPSState.AUTO) {
+                    long cur = interval;
+                    long next = controller.nextInterval(cur, targetInterval, exeTime, wasRunning);
+                    if (next != cur) setInterval(next);
                 }
+                if (wasRunning) return;
                 
                 // Run the function(s) on a new thread.
                 new Thread() {
                     @Override
                     public void run() {
+                        long start = System.nanoTime();
                         if (rs != null) {
                             for (Runnable r : rs) {
                                 r.run();
                             }
                         }
+                        exeTime = (System.nanoTime() - start) / 1000_000.0;
                         
                         lock.lock();
                         try {
@@ -278,13 +479,21 @@ public class TimerTool {
             startTime = System.currentTimeMillis();
             pauseTime = System.currentTimeMillis();
             
+            // Update the timeState
+            timerState = TimerState.RUNNING;
+            
+            if (executor != null) {
+                // Schedule the first update, unless the last update is still
+                // running, which then schedules it.
+                deadline = System.nanoTime() + delay * 1000_000L;
+                if (!executing) scheduleTick(deadline);
+                return;
+            }
+            
             timer = new Timer(isDaemon);
             
             timer.scheduleAtFixedRate(createTimerTask(tasks), delay, interval);
             
-            // Update the timeState
-            timerState = TimerState.RUNNING;
-            
         } finally {
             lock.unlock();
         }
@@ -300,12 +509,24 @@ public class TimerTool {
             if (timerState == TimerState.PAUSED ||
                     timerState == TimerState.CANCELED) return;
             
-            timer.cancel();
-            timer.purge();
-            
             // Set the pause time stamp
             pauseTime = System.currentTimeMillis();
             
+            if (executor != null) {
+                // Remember the time until the next update.
+                cancelTick();
+                if (executing && rateMode == RateMode.FIXED_DELAY) {
+                    remaining = interval * 1000_000L;
+                    
+                } else {
+                    remaining = Math.max(0, deadline - System.nanoTime());
+                }
+                
+            } else {
+                timer.cancel();
+                timer.purge();
+            }
+            
             // Update the timeState
             timerState = TimerState.PAUSED;
             
@@ -324,6 +545,14 @@ public class TimerTool {
             if (timerState == TimerState.RUNNING ||
                     timerState == TimerState.CANCELED) return;
             
+            if (executor != null) {
+                // Schedule the next update as if the timer wasn't paused.
+                timerState = TimerState.RUNNING;
+                deadline = System.nanoTime() + remaining;
+                if (!executing) scheduleTick(deadline);
+                return;
+            }
+            
             // The current time.
             long curTime = System.currentTimeMillis();
             
@@ -357,7 +586,10 @@ public class TimerTool {
             if (timerState == TimerState.CANCELED) return;
             
             // Kill the current timer.
-            if (timerState == TimerState.RUNNING) {
+            if (executor != null) {
+                cancelTick();
+                
+            } else if (timerState == TimerState.RUNNING) {
                 timer.cancel();
                 timer.purge();
             }
@@ -381,6 +613,23 @@ public class TimerTool {
             // If the interval is equal, return immediately.
             if (interval == this.interval) return;
             
+            if (executor != null) {
+                // Move the deadline of the next update.
+                long diff = (interval - this.interval) * 1000_000L;
+                this.interval = interval;
+                if (timerState == TimerState.PAUSED) {
+                    remaining = Math.max(0, remaining + diff);
+                    
+                } else if (timerState == TimerState.RUNNING) {
+                    deadline += diff;
+                    if (future != null) {
+                        cancelTick();
+                        scheduleTick(Math.max(deadline, System.nanoTime()));
+                    }
+                }
+                return;
+            }
+            
             // Update the interval
             this.interval = interval;
             
@@ -435,6 +684,7 @@ public class TimerTool {
         try {
             targetInterval = interval;
             this.interval = interval;
+            controller.reset();
             
         } finally {
             lock.unlock();
@@ -486,6 +736,87 @@ public class TimerTool {
         return fpsState;
     }
     
+    /**
+     * Sets the controller used to adjust the interval when using {@link FPSState#AUTO}.
+     * The controller should not be shared with other timers.
+     * 
+     * @param controller The new interval controller.
+     * 
+     * @throws NullPointerException If {@code controller == null}.
+     */
+    public void setIntervalController(IntervalController controller) {
+        if (controller == null) throw new NullPointerException();
+        this.controller = controller;
+    }
+    
+    /**
+     * @return The controller used to adjust the interval when using {@link FPSState#AUTO}.
+     */
+    public IntervalController getIntervalController() {
+        return controller;
+    }
+    
+    /**
+     * Sets whether the updates are scheduled at a fixed rate or with a fixed delay.
+     * Only has effect if the timer uses an executor.
+     * 
+     * @param mode The new rate mode.
+     * 
+     * @throws NullPointerException If {@code mode == null}.
+     */
+    public void setRateMode(RateMode mode) {
+        if (mode == null) throw new NullPointerException();
+        rateMode = mode;
+    }
+    
+    /**
+     * @return Whether the updates are scheduled at a fixed rate or with a fixed delay.
+     */
+    public RateMode getRateMode() {
+        return rateMode;
+    }
+    
+    /**
+     * Sets how missed updates are handled in fixed rate mode.
+     * Only has effect if the timer uses an executor.
+     * 
+     * @param policy The new policy.
+     * 
+     * @throws NullPointerException If {@code policy == null}.
+     */
+    public void setMissedTickPolicy(MissedTickPolicy policy) {
+        if (policy == null) throw new NullPointerException();
+        missedTickPolicy = policy;
+    }
+    
+    /**
+     * @return How missed updates are handled in fixed rate mode.
+     */
+    public MissedTickPolicy getMissedTickPolicy() {
+        return missedTickPolicy;
+    }
+    
+    /**
+     * @return The number of updates which were skipped using {@link MissedTickPolicy#SKIP}.
+     */
+    public long getSkippedTicks() {
+        lock.lock();
+        try {
+            return skippedTicks;
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return The executor used by this timer, or {@code null} if the timer
+     *     uses a {@link Timer}.
+     */
+    public ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+    
     /**
      * @return The current state of the timer.
      */
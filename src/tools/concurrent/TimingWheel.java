@@ -0,0 +1,478 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+
+// Tools imports
+import tools.log.Logger;
+
+
+/**
+ * Hashed timing wheel which executes many timeouts using a single ticker thread. <br>
+ * <br>
+ * Time is divided into ticks of a fixed duration, and every tick is mapped to
+ * one of the buckets of the wheel. Scheduling and canceling a timeout takes
+ * constant time, and every tick only the timeouts in a single bucket are inspected.
+ * The deadlines are measured using {@link System#nanoTime()}. <br>
+ * <br>
+ * The ticks are aligned to the start time of the ticker thread instead of to the end
+ * of the previous tick, so oversleeping does not accumulate. If the ticker thread
+ * falls behind, then the missed ticks are processed directly after each other.
+ * A timeout is therefore executed at most one tick after its deadline, unless
+ * the ticker thread is delayed. <br>
+ * <br>
+ * The timeouts are executed on the ticker thread, so they should only perform
+ * a short action, like scheduling a task on a {@link Scheduler}. <br>
+ * The ticker thread is a daemon thread which is started when the first timeout
+ * is scheduled, and is parked while there are no timeouts.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see ThreadTimer#ThreadTimer(long, long, Scheduler, TimingWheel, Runnable...)
+ */
+public class TimingWheel {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default duration of a tick in nanoseconds. */
+    public static final long DEFAULT_TICK_NANOS = 1_000_000L;
+    /** The default number of buckets of the wheel. */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    /** The maximal number of new timeouts which are added to the wheel per tick. */
+    private static final int MAX_TRANSFER = 100_000;
+    /** The ID counter used for naming the ticker threads. */
+    private static final AtomicInteger ID = new AtomicInteger(0);
+    /** The state of a timeout which is waiting to be executed. */
+    private static final int WAITING = 0;
+    /** The state of a canceled timeout. */
+    private static final int CANCELED = 1;
+    /** The state of an executed timeout. */
+    private static final int EXPIRED = 2;
+    
+    /** The default timing wheel. */
+    private static volatile TimingWheel defaultWheel;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+        /** The wheel this timeout was scheduled on. */
+        private final TimingWheel wheel;
+        /** The task to execute. */
+        private final Runnable task;
+        /** The deadline of the timeout in terms of {@link System#nanoTime()}. */
+        private final long deadline;
+        /** The state of the timeout. */
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        
+        /** The number of remaining revolutions of the wheel. Only used by the ticker thread. */
+        private long rounds;
+        /** The bucket containing this timeout, or {@code -1}. Only used by the ticker thread. */
+        private int bucket = -1;
+        /** The previous timeout in the bucket. Only used by the ticker thread. */
+        private Timeout prev;
+        /** The next timeout in the bucket. Only used by the ticker thread. */
+        private Timeout next;
+        
+        /**
+         * Creates a new timeout.
+         * 
+         * @param wheel The wheel the timeout is scheduled on.
+         * @param task The task to execute.
+         * @param deadline The deadline of the timeout.
+         */
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+        
+        /**
+         * Cancels the timeout. Does nothing if the timeout was already
+         * canceled or executed.
+         * 
+         * @return {@code true} if the timeout was canceled by this invocation.
+         *     {@code false} otherwise.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELED)) return false;
+            wheel.count.decrementAndGet();
+            wheel.canceled.offer(this);
+            return true;
+        }
+        
+        /**
+         * @return {@code true} if the timeout was canceled. {@code false} otherwise.
+         */
+        public boolean isCanceled() {
+            return state.get() == CANCELED;
+        }
+        
+        /**
+         * @return {@code true} if the timeout was executed. {@code false} otherwise.
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+        
+        /**
+         * @return The deadline of the timeout in terms of {@link System#nanoTime()}.
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The duration of a tick in nanoseconds. */
+    private final long tickNanos;
+    /** The mask used to map a tick to a bucket. */
+    private final int mask;
+    /** The first timeout of every bucket. Only used by the ticker thread. */
+    private final Timeout[] heads;
+    /** The last timeout of every bucket. Only used by the ticker thread. */
+    private final Timeout[] tails;
+    
+    /** The newly scheduled timeouts which are not yet added to the wheel. */
+    private final MpscQueue<Timeout> added = new MpscQueue<>();
+    /** The canceled timeouts which should be removed from the wheel. */
+    private final MpscQueue<Timeout> canceled = new MpscQueue<>();
+    /** The number of scheduled timeouts which are not yet canceled or executed. */
+    private final AtomicInteger count = new AtomicInteger(0);
+    
+    /** The ticker thread. */
+    private volatile Thread thread;
+    /** The start time of the ticker thread. */
+    private long startTime;
+    /** The current tick. Only used by the ticker thread. */
+    private long tick = 0;
+    
+    /** Whether the ticker thread is parked, or is about to park. */
+    private volatile boolean parked = false;
+    /** Denotes whether the wheel was stopped. */
+    private volatile boolean stopped = false;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new timing wheel with the default tick duration and wheel size.
+     */
+    public TimingWheel() {
+        this(DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+    
+    /**
+     * Creates a new timing wheel.
+     * 
+     * @param tickNanos The duration of a tick in nanoseconds.
+     * @param wheelSize The number of buckets of the wheel. Is rounded up
+     *     to the next power of two.
+     * 
+     * @throws IllegalArgumentException If {@code tickNanos <= 0}, or if
+     *     {@code wheelSize <= 0} or {@code wheelSize > 2^30}.
+     */
+    public TimingWheel(long tickNanos, int wheelSize) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tickNanos(" + tickNanos + ") <= 0");
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize(" + wheelSize + ") is out of range");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) size <<= 1;
+        this.tickNanos = tickNanos;
+        this.mask = size - 1;
+        this.heads = new Timeout[size];
+        this.tails = new Timeout[size];
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return The timing wheel which is shared by default. It uses the default
+     *     tick duration and wheel size, and is never stopped.
+     */
+    public static TimingWheel getDefault() {
+        if (defaultWheel == null) {
+            synchronized (TimingWheel.class) {
+                if (defaultWheel == null) defaultWheel = new TimingWheel();
+            }
+        }
+        return defaultWheel;
+    }
+    
+    /**
+     * Schedules the given task to be executed on the ticker thread at the given deadline.
+     * If the deadline has already passed, then the task is executed on the next tick.
+     * 
+     * @param task The task to execute.
+     * @param deadlineNanos The deadline of the task in terms of {@link System#nanoTime()}.
+     * 
+     * @return The handle of the scheduled task.
+     * 
+     * @throws IllegalStateException If the wheel was stopped.
+     * @throws NullPointerException If {@code task == null}.
+     */
+    public Timeout schedule(Runnable task, long deadlineNanos)
+            throws IllegalStateException, NullPointerException {
+        if (task == null) throw new NullPointerException();
+        Timeout timeout = new Timeout(this, task, deadlineNanos);
+        // The state is checked while holding the same lock as stop(), so every
+        // added timeout is either visible to the ticker thread when it drops the remaining
+        // timeouts, or is rejected here.
+        synchronized (this) {
+            if (stopped) throw new IllegalStateException("Already terminated!");
+            if (thread == null) startThread();
+            count.incrementAndGet();
+            added.offer(timeout);
+        }
+        if (parked) LockSupport.unpark(thread);
+        return timeout;
+    }
+    
+    /**
+     * Starts the ticker thread if it was not yet started.
+     */
+    private synchronized void startThread() {
+        if (thread != null) return;
+        startTime = System.nanoTime();
+        Thread t = new Thread(this::run, "Timing-wheel-" + ID.getAndIncrement());
+        t.setDaemon(true);
+        t.setPriority(Thread.MAX_PRIORITY);
+        thread = t;
+        t.start();
+    }
+    
+    /**
+     * Stops the ticker thread. The timeouts which were not yet executed are dropped.
+     * Does nothing if the wheel was already stopped.
+     */
+    public void stop() {
+        if (stopped) return;
+        synchronized (this) {
+            stopped = true;
+            if (thread != null) LockSupport.unpark(thread);
+        }
+    }
+    
+    /**
+     * @return {@code true} if the wheel was stopped. {@code false} otherwise.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    /**
+     * @return The number of timeouts which were not yet canceled or executed.
+     */
+    public int pendingTimeouts() {
+        return count.get();
+    }
+    
+    /**
+     * @return The duration of a tick in nanoseconds.
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+    
+    /**
+     * @return The number of buckets of the wheel.
+     */
+    public int getWheelSize() {
+        return heads.length;
+    }
+    
+    /**
+     * The function of the ticker thread.
+     */
+    private void run() {
+        while (!stopped) {
+            if (count.get() == 0) idle();
+            if (stopped) break;
+            long now = waitForNextTick();
+            if (stopped) break;
+            removeCanceled();
+            transferAdded();
+            expire(now);
+            tick++;
+        }
+        
+        // Drop the remaining timeouts. The timeouts which are canceled concurrently
+        // are already discounted by the canceling thread.
+        Timeout t;
+        while ((t = added.poll()) != null) {
+            drop(t);
+        }
+        for (int i = 0; i < heads.length; i++) {
+            for (t = heads[i]; t != null; t = t.next) {
+                drop(t);
+            }
+            heads[i] = tails[i] = null;
+        }
+        canceled.clear();
+    }
+    
+    /**
+     * Drops the given timeout if it is still waiting.
+     * 
+     * @param t The timeout to drop.
+     */
+    private void drop(Timeout t) {
+        if (t.state.compareAndSet(WAITING, CANCELED)) count.decrementAndGet();
+    }
+    
+    /**
+     * Parks the ticker thread until a new timeout is scheduled. Afterwards,
+     * the current tick is advanced to the current time.
+     */
+    private void idle() {
+        parked = true;
+        try {
+            while (count.get() == 0 && !stopped) {
+                LockSupport.park(this);
+            }
+            
+        } finally {
+            parked = false;
+        }
+        
+        // All timeouts in the wheel are canceled, so the idle ticks can be skipped.
+        tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+    }
+    
+    /**
+     * Waits until the end of the current tick. The end of the tick is determined
+     * relative to the start time, so the waiting overhead does not accumulate.
+     * 
+     * @return The current time in terms of {@link System#nanoTime()}.
+     */
+    private long waitForNextTick() {
+        long deadline = startTime + (tick + 1) * tickNanos;
+        while (true) {
+            long now = System.nanoTime();
+            long sleep = deadline - now;
+            if (sleep <= 0 || stopped) return now;
+            LockSupport.parkNanos(this, sleep);
+        }
+    }
+    
+    /**
+     * Removes the canceled timeouts from their bucket.
+     */
+    private void removeCanceled() {
+        Timeout t;
+        while ((t = canceled.poll()) != null) {
+            remove(t);
+        }
+    }
+    
+    /**
+     * Adds the newly scheduled timeouts to their bucket.
+     */
+    private void transferAdded() {
+        for (int i = 0; i < MAX_TRANSFER; i++) {
+            Timeout t = added.poll();
+            if (t == null) return;
+            if (t.state.get() != WAITING) continue;
+            
+            long ticks = Math.max(0, t.deadline - startTime) / tickNanos;
+            t.rounds = Math.max(0, ticks - tick) / heads.length;
+            int index = (int) (Math.max(ticks, tick) & mask);
+            
+            t.bucket = index;
+            t.prev = tails[index];
+            t.next = null;
+            if (tails[index] == null) heads[index] = t;
+            else tails[index].next = t;
+            tails[index] = t;
+        }
+    }
+    
+    /**
+     * Executes the timeouts in the bucket of the current tick whose deadline has passed.
+     * 
+     * @param now The current time.
+     */
+    private void expire(long now) {
+        Timeout t = heads[(int) (tick & mask)];
+        while (t != null) {
+            Timeout next = t.next;
+            if (t.rounds > 0) {
+                t.rounds--;
+                
+            } else if (t.deadline - now <= 0) {
+                remove(t);
+                if (t.state.compareAndSet(WAITING, EXPIRED)) {
+                    count.decrementAndGet();
+                    try {
+                        t.task.run();
+                        
+                    } catch (Exception e) {
+                        Logger.write(new Object[] {
+                            "Uncaught exception in " + Thread.currentThread().getName() + ":",
+                            e
+                        }, Logger.Type.ERROR);
+                    }
+                }
+            }
+            t = next;
+        }
+    }
+    
+    /**
+     * Removes the given timeout from its bucket. Does nothing if the
+     * timeout is not in a bucket.
+     * 
+     * @param t The timeout to remove.
+     */
+    private void remove(Timeout t) {
+        int index = t.bucket;
+        if (index < 0) return;
+        if (t.prev == null) heads[index] = t.next;
+        else t.prev.next = t.next;
+        if (t.next == null) tails[index] = t.prev;
+        else t.next.prev = t.prev;
+        t.bucket = -1;
+        t.prev = null;
+        t.next = null;
+    }
+    
+    
+}
@@ -0,0 +1,400 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+
+
+// Tools imports
+import tools.log.Logger;
+
+
+/**
+ * Scheduler implementation which executes every task on its own virtual thread. <br>
+ * <br>
+ * This scheduler is intended for tasks which mostly block, like I/O tasks, as the
+ * number of tasks in flight is not limited by a fixed number of threads. The virtual
+ * threads are created using {@code Executors.newVirtualThreadPerTaskExecutor()}, which
+ * is looked up using reflection. If virtual threads are not supported by the current
+ * runtime, then a cached pool of daemon platform threads is used instead. <br>
+ * <br>
+ * Optionally, the number of concurrently executing tasks can be limited. Tasks which
+ * exceed this limit are queued, and are started as soon as another task finishes.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see #isVirtualThreadsSupported()
+ */
+public class VirtualThreadScheduler
+        extends Scheduler {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The ID counter used for naming the fallback threads. */
+    private static final AtomicInteger ID = new AtomicInteger(0);
+    /** The factory function for virtual thread executors, or {@code null} if not supported. */
+    private static final Method VIRTUAL_FACTORY;
+    
+    static {
+        Method m;
+        try {
+            m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            
+        } catch (NoSuchMethodException | SecurityException e) {
+            m = null;
+        }
+        VIRTUAL_FACTORY = m;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The maximal number of concurrently executing tasks, or {@code 0} if unlimited. */
+    private final int maxConcurrency;
+    /** The semaphore limiting the number of executing tasks, or {@code null} if unlimited. */
+    private final Semaphore limiter;
+    /** The tasks waiting for a permit of the limiter. */
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    /** The executor used to execute the tasks. */
+    private volatile ExecutorService executor;
+    
+    /** The number of tasks which were scheduled, but not yet started. */
+    private final AtomicInteger queued = new AtomicInteger(0);
+    /** The number of tasks which were scheduled, but not yet finished. */
+    private final AtomicLong pending = new AtomicLong(0);
+    /** Condition which is signaled when all tasks are finished or when terminated. */
+    private final Condition waitForEmpty = lock.newCondition();
+    
+    /** Denotes whether the scheduler was started. */
+    private volatile boolean started = false;
+    /** Denotes whether the scheduler was terminated. */
+    private volatile boolean terminated = false;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new scheduler without a concurrency limit.
+     */
+    public VirtualThreadScheduler() {
+        this(0);
+    }
+    
+    /**
+     * Creates a new scheduler. <br>
+     * Use {@link #start()} to start the scheduler and
+     * {@link #scheduleTask(Runnable)} to schedule a task.<br>
+     * Use {@link #terminate()} to terminate the scheduler and clean-up.
+     * 
+     * @param maxConcurrency The maximal number of concurrently executing tasks,
+     *     or {@code 0} for no limit.
+     * 
+     * @throws IllegalArgumentException If {@code maxConcurrency < 0}.
+     */
+    public VirtualThreadScheduler(int maxConcurrency) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("maxConcurrency(" + maxConcurrency + ") < 0");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.limiter = (maxConcurrency == 0 ? null : new Semaphore(maxConcurrency));
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return {@code true} if the current runtime supports virtual threads.
+     *     {@code false} if platform threads are used instead.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_FACTORY != null;
+    }
+    
+    /**
+     * Creates the executor used to execute the tasks.
+     * 
+     * @return A virtual thread per task executor if supported, or a cached
+     *     thread pool with daemon threads otherwise.
+     */
+    private static ExecutorService createExecutor() {
+        if (VIRTUAL_FACTORY != null) {
+            try {
+                return (ExecutorService) VIRTUAL_FACTORY.invoke(null);
+                
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                Logger.write(e, Logger.Type.WARNING);
+            }
+        }
+        
+        int id = ID.getAndIncrement();
+        AtomicInteger count = new AtomicInteger(0);
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "Virtual-fallback-" + id + "-" + count.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+    
+    /**
+     * Executes the given task and starts the next waiting task afterwards.
+     * 
+     * @param task The task to execute.
+     */
+    private void execute(Runnable task) {
+        try {
+            queued.decrementAndGet();
+            if (terminated) return;
+            fireEvent(SchedulerEvent.TASK_STARTED);
+            try {
+                task.run();
+                
+            } catch (Exception e) {
+                if (!terminated) {
+                    Logger.write(new Object[] {
+                        "Uncaught exception in " + Thread.currentThread().getName() + ":",
+                        e
+                    }, Logger.Type.ERROR);
+                }
+            }
+            
+        } finally {
+            if (limiter != null) {
+                limiter.release();
+                drain();
+            }
+            finished();
+        }
+    }
+    
+    /**
+     * Marks a task as finished, and notifies the observers and waiting threads.
+     */
+    private void finished() {
+        if (pending.decrementAndGet() == 0) {
+            lock.lock();
+            try {
+                waitForEmpty.signalAll();
+                
+            } finally {
+                lock.unlock();
+            }
+            if (!terminated) fireEvent(SchedulerEvent.ALL_TASKS_FINISHED);
+            
+        } else if (!terminated) {
+            fireEvent(SchedulerEvent.TASK_FINISHED);
+        }
+    }
+    
+    /**
+     * Starts waiting tasks as long as the limiter has permits available.
+     */
+    private void drain() {
+        while (!waiting.isEmpty() && limiter.tryAcquire()) {
+            Runnable task = waiting.poll();
+            if (task == null) {
+                limiter.release();
+                continue;
+            }
+            submit(task);
+        }
+    }
+    
+    /**
+     * Submits the given task to the executor.
+     * 
+     * @param task The task to submit.
+     */
+    private void submit(Runnable task) {
+        try {
+            executor.execute(() -> execute(task));
+            
+        } catch (RejectedExecutionException e) {
+            // The scheduler was terminated concurrently.
+            queued.decrementAndGet();
+            if (limiter != null) limiter.release();
+            finished();
+        }
+    }
+    
+    @Override
+    public void scheduleTask(Runnable task)
+            throws IllegalStateException, NullPointerException {
+        if (task == null) throw new NullPointerException();
+        if (!started) throw new IllegalStateException("Not yet started!");
+        if (terminated) throw new IllegalStateException("Already terminated!");
+        pending.incrementAndGet();
+        queued.incrementAndGet();
+        if (limiter == null) {
+            submit(task);
+            
+        } else {
+            waiting.add(task);
+            drain();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * This includes the tasks which are waiting because of the concurrency limit.
+     */
+    @Override
+    public int queueSize() {
+        return queued.get();
+    }
+    
+    /**
+     * @return The number of tasks which are currently being executed.
+     */
+    public int activeCount() {
+        return (int) Math.max(0, pending.get() - queued.get());
+    }
+    
+    /**
+     * @return The maximal number of concurrently executing tasks, or {@code 0} if unlimited.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    @Override
+    public void start()
+            throws IllegalStateException {
+        if (started) return;
+        lock.lock();
+        try {
+            if (terminated) {
+                throw new IllegalStateException("Already terminated!");
+            }
+            executor = createExecutor();
+            started = true;
+            
+        } finally {
+            lock.unlock();
+        }
+        
+        fireEvent(SchedulerEvent.STARTED);
+    }
+    
+    /**
+     * Marks the scheduler as terminated and removes all waiting tasks.
+     * 
+     * @return {@code true} if the scheduler was not yet terminated.
+     *     {@code false} otherwise.
+     */
+    private boolean shutdown() {
+        lock.lock();
+        try {
+            if (terminated) return false;
+            terminated = true;
+            while (waiting.poll() != null) {
+                queued.decrementAndGet();
+                pending.decrementAndGet();
+            }
+            if (executor != null) executor.shutdown();
+            waitForEmpty.signalAll();
+            return true;
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public boolean terminate(long timeout, TimeUnit tu)
+            throws InterruptedException {
+        boolean generateEvent = shutdown();
+        boolean done = (executor == null || executor.awaitTermination(timeout, tu));
+        if (generateEvent) fireEvent(SchedulerEvent.TERMINATED);
+        return done;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @apiNote
+     * Does not terminate if an executing task is infinitely blocking
+     * and does not does not check the interrupted flag of its thread.
+     */
+    @Override
+    public void forceTerminate()
+            throws InterruptedException {
+        boolean generateEvent = shutdown();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        if (generateEvent) fireEvent(SchedulerEvent.TERMINATED);
+    }
+    
+    @Override
+    public boolean tryTerminate() {
+        boolean generateEvent = shutdown();
+        if (generateEvent) fireEvent(SchedulerEvent.TERMINATED);
+        return executor == null || executor.isTerminated();
+    }
+    
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        return terminated;
+    }
+    
+    @Override
+    public boolean isDone() {
+        return pending.get() == 0;
+    }
+    
+    @Override
+    public void waitUntilDone()
+            throws InterruptedException {
+        if (terminated || pending.get() == 0) return;
+        lock.lock();
+        try {
+            while (!terminated && pending.get() != 0) {
+                waitForEmpty.await();
+            }
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    
+}
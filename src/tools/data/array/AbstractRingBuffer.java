@@ -0,0 +1,313 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.array;
+
+
+// Java imports
+import java.util.NoSuchElementException;
+
+
+/**
+ * Base class for fixed-capacity circular buffers. <br>
+ * The elements are stored in a single backening array which is allocated
+ * once on construction. Elements can be added and removed at both the head
+ * and the tail in constant time, without allocating any objects. <br>
+ * <br>
+ * This class only maintains the head and the size of the buffer, and maps the
+ * logical indices to indices in the backening array. The sub-classes contain the
+ * typed backening array and the typed access functions. <br>
+ * <br>
+ * All buffers share the same contract for accessing the head and the tail:
+ * the {@code poll} and {@code peek} functions throw a {@link NoSuchElementException}
+ * if the buffer is empty, since the primitive buffers have no value to denote
+ * an absent element. Use {@link #isEmpty()} to check beforehand. <br>
+ * <br>
+ * This class is not thread safe.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see RingBuffer
+ * @see IntRingBuffer
+ * @see LongRingBuffer
+ * @see DoubleRingBuffer
+ */
+public abstract class AbstractRingBuffer {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The capacity of the buffer. */
+    protected final int capacity;
+    /** The index in the backening array of the first element. */
+    protected int head = 0;
+    /** The number of elements in the buffer. */
+    protected int size = 0;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new ring buffer with the given capacity.
+     * 
+     * @param capacity The capacity of the buffer.
+     * 
+     * @throws IllegalArgumentException If {@code capacity <= 0}.
+     */
+    protected AbstractRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Expected a positive capacity, but found: "
+                    + capacity);
+        }
+        this.capacity = capacity;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return The backening array of the buffer.
+     */
+    protected abstract Object data();
+    
+    /**
+     * Moves the element at index {@code from} in the backening array
+     * to the index {@code to} in the backening array.
+     * 
+     * @param from The source index.
+     * @param to The destination index.
+     */
+    protected abstract void move(int from, int to);
+    
+    /**
+     * Clears the elements in the backening array from index {@code from}
+     * (inclusive) to index {@code to} (exclusive). This function is invoked when
+     * elements are removed from the buffer, and can be used to release references.
+     * The default implementation does nothing.
+     * 
+     * @param from The first index to clear.
+     * @param to The index after the last index to clear.
+     */
+    protected void clear(int from, int to) {
+    }
+    
+    /**
+     * Converts the given logical index to an index in the backening array.
+     * 
+     * @param index The logical index. Must be in the range {@code [0, capacity]}.
+     * 
+     * @return The index in the backening array.
+     */
+    protected final int physical(int index) {
+        int i = head + index;
+        return (i >= capacity ? i - capacity : i);
+    }
+    
+    /**
+     * Checks whether the given logical index refers to an element of the buffer.
+     * 
+     * @param index The index to check.
+     * 
+     * @return The index in the backening array.
+     * 
+     * @throws IndexOutOfBoundsException If {@code index < 0 || index >= size()}.
+     */
+    protected final int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index(" + index + "), size(" + size + ")");
+        }
+        return physical(index);
+    }
+    
+    /**
+     * Reserves a new slot at the tail of the buffer. The buffer must not be full.
+     * 
+     * @return The index in the backening array of the new last element.
+     */
+    protected final int addLastIndex() {
+        return physical(size++);
+    }
+    
+    /**
+     * Reserves a new slot at the head of the buffer. The buffer must not be full.
+     * 
+     * @return The index in the backening array of the new first element.
+     */
+    protected final int addFirstIndex() {
+        head = (head == 0 ? capacity : head) - 1;
+        size++;
+        return head;
+    }
+    
+    /**
+     * Removes the first element of the buffer.
+     * 
+     * @return The index in the backening array of the removed element.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    protected final int removeFirstIndex() {
+        if (size == 0) throw new NoSuchElementException("The buffer is empty.");
+        int i = head;
+        head = (head + 1 == capacity ? 0 : head + 1);
+        size--;
+        return i;
+    }
+    
+    /**
+     * Removes the last element of the buffer.
+     * 
+     * @return The index in the backening array of the removed element.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    protected final int removeLastIndex() {
+        if (size == 0) throw new NoSuchElementException("The buffer is empty.");
+        return physical(--size);
+    }
+    
+    /**
+     * @return The index in the backening array of the first element.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    protected final int firstIndex() {
+        if (size == 0) throw new NoSuchElementException("The buffer is empty.");
+        return head;
+    }
+    
+    /**
+     * @return The index in the backening array of the last element.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    protected final int lastIndex() {
+        if (size == 0) throw new NoSuchElementException("The buffer is empty.");
+        return physical(size - 1);
+    }
+    
+    /**
+     * Copies at most {@code max} elements from the head of the buffer to the given
+     * array. The elements are copied with at most two bulk copies.
+     * 
+     * @param dest The destination array.
+     * @param destLength The length of the destination array.
+     * @param off The index to start copying to.
+     * @param max The maximum number of elements to copy.
+     * @param remove Whether the copied elements should be removed from the buffer.
+     * 
+     * @return The number of copied elements.
+     * 
+     * @throws IndexOutOfBoundsException If the range is not valid for the array.
+     */
+    protected final int copyTo(Object dest, int destLength, int off, int max, boolean remove) {
+        if (off < 0 || max < 0 || off > destLength) {
+            throw new IndexOutOfBoundsException("off(" + off + "), max(" + max
+                    + "), length(" + destLength + ")");
+        }
+        int n = Math.min(size, Math.min(max, destLength - off));
+        int first = Math.min(n, capacity - head);
+        System.arraycopy(data(), head, dest, off, first);
+        System.arraycopy(data(), 0, dest, off + first, n - first);
+        if (remove) {
+            clear(head, head + first);
+            clear(0, n - first);
+            head = physical(n);
+            size -= n;
+        }
+        return n;
+    }
+    
+    /**
+     * Rotates the buffer {@code k} positions to the left. Afterwards, the element which
+     * was at index {@code k} is at index {@code 0}. A negative value of {@code k}
+     * rotates the buffer to the right. <br>
+     * If the buffer is full, then this function runs in constant time. Otherwise at most
+     * {@code min(k, size() - k)} elements are moved.
+     * 
+     * @param k The number of positions to rotate.
+     */
+    public void rotate(int k) {
+        if (size == 0) return;
+        k %= size;
+        if (k < 0) k += size;
+        if (k == 0) return;
+        if (size == capacity) {
+            head = physical(k);
+            
+        } else if (k <= size - k) {
+            for (int i = 0; i < k; i++) {
+                int from = head;
+                move(from, physical(size));
+                clear(from, from + 1);
+                head = (head + 1 == capacity ? 0 : head + 1);
+            }
+            
+        } else {
+            for (int i = k; i < size; i++) {
+                int from = physical(size - 1);
+                head = (head == 0 ? capacity : head) - 1;
+                move(from, head);
+                clear(from, from + 1);
+            }
+        }
+    }
+    
+    /**
+     * @return The number of elements in the buffer.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @return The maximum number of elements in the buffer.
+     */
+    public int capacity() {
+        return capacity;
+    }
+    
+    /**
+     * @return {@code true} if the buffer contains no elements. {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * @return {@code true} if the buffer cannot contain any more elements.
+     *     {@code false} otherwise.
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+    
+    /**
+     * Removes all elements from the buffer.
+     */
+    public void clear() {
+        int first = Math.min(size, capacity - head);
+        clear(head, head + first);
+        clear(0, size - first);
+        head = 0;
+        size = 0;
+    }
+    
+    
+}
@@ -14,6 +14,11 @@
 package tools.data.array;
 
 
+// Java imports
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
 // Tools imports
 import tools.data.Wrapper;
 
@@ -32,14 +37,26 @@ import tools.data.Wrapper;
  * cycle.get(1) == cycle.get(4) == cycle.get(-2) == cycle.get(1 + 3n) == 1
  * cycle.get(1) == cycle.get(5) == cycle.get(-1) == cycle.get(2 + 3n) == 2
  * }</pre></blockquote>
+ * The array can be rotated in constant time using {@link #rotate(int)}.
+ * This only changes the offset of the indices, and not the backening array.
+ * Hence the copy and list functions still operate on the backening array. <br>
+ * For a fixed-capacity queue with a head and a tail, see {@link RingBuffer}.
  * 
- * @version 1.1
+ * @version 1.2
  * @author Kaj Wortel
  */
 public class CycleArray<V>
         extends AttributedArray<V>
         implements ReadWriteArray<V> {
     
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The index in the backening array of the element at index {@code 0}. */
+    private int offset = 0;
+    
+    
     /* -------------------------------------------------------------------------
      * Constructors.
      * -------------------------------------------------------------------------
@@ -81,12 +98,50 @@ public class CycleArray<V>
      */
     @Override
     public V get(int index) {
-        return super.get(mod(index));
+        return super.get(mod(offset + (long) index));
     }
     
     @Override
     public V set(V value, int index) {
-        return super.set(value, mod(index));
+        return super.set(value, mod(offset + (long) index));
+    }
+    
+    /**
+     * Rotates the array {@code k} positions to the left in constant time.
+     * Afterwards, the element which was at index {@code k} is at index {@code 0}.
+     * A negative value of {@code k} rotates the array to the right. <br>
+     * The backening array is not modified.
+     * 
+     * @param k The number of positions to rotate.
+     */
+    public void rotate(int k) {
+        if (length() == 0) return;
+        offset = mod(offset + (long) k);
+    }
+    
+    /**
+     * @return The index in the backening array of the element at index {@code 0}.
+     */
+    public int getOffset() {
+        return offset;
+    }
+    
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int index = 0;
+            
+            @Override
+            public boolean hasNext() {
+                return index < length();
+            }
+            
+            @Override
+            public V next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return get(index++);
+            }
+        };
     }
     
     /**
@@ -96,15 +151,17 @@ public class CycleArray<V>
      * 
      * @return The index modulo the length of the array.
      */
-    private int mod(int index) {
-        int i = index % length();
+    private int mod(long index) {
+        int i = (int) (index % length());
         if (i < 0) i += length();
         return i;
     }
     
     @Override
-    public CycleArray clone() {
-        return new CycleArray(array);
+    public CycleArray<V> clone() {
+        CycleArray<V> clone = new CycleArray<>(array);
+        clone.offset = offset;
+        return clone;
     }
     
     
@@ -0,0 +1,236 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.array;
+
+
+// Java imports
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+
+/**
+ * Fixed-capacity circular buffer for {@code double} values.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see AbstractRingBuffer
+ */
+public class DoubleRingBuffer
+        extends AbstractRingBuffer {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The backening array. */
+    private final double[] data;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new empty ring buffer with the given capacity.
+     * 
+     * @param capacity The capacity of the buffer.
+     */
+    public DoubleRingBuffer(int capacity) {
+        super(capacity);
+        data = new double[capacity];
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    @Override
+    protected Object data() {
+        return data;
+    }
+    
+    @Override
+    protected void move(int from, int to) {
+        data[to] = data[from];
+    }
+    
+    /**
+     * Gets the value at the given index, where index {@code 0} is the head of the buffer.
+     * 
+     * @param index The index of the value to return.
+     * 
+     * @return The value at the given index.
+     * 
+     * @throws IndexOutOfBoundsException If {@code index < 0 || index >= size()}.
+     */
+    public double get(int index) {
+        return data[checkIndex(index)];
+    }
+    
+    /**
+     * Sets the value at the given index, where index {@code 0} is the head of the buffer.
+     * 
+     * @param value The new value.
+     * @param index The index of the value to set.
+     * 
+     * @return The previous value at the given index.
+     * 
+     * @throws IndexOutOfBoundsException If {@code index < 0 || index >= size()}.
+     */
+    public double set(double value, int index) {
+        int i = checkIndex(index);
+        double old = data[i];
+        data[i] = value;
+        return old;
+    }
+    
+    /**
+     * Adds the value at the tail of the buffer, if the buffer is not full.
+     * 
+     * @param value The value to add.
+     * 
+     * @return {@code true} if the value was added. {@code false} if the buffer is full.
+     */
+    public boolean offerLast(double value) {
+        if (size == capacity) return false;
+        data[addLastIndex()] = value;
+        return true;
+    }
+    
+    /**
+     * Adds the value at the head of the buffer, if the buffer is not full.
+     * 
+     * @param value The value to add.
+     * 
+     * @return {@code true} if the value was added. {@code false} if the buffer is full.
+     */
+    public boolean offerFirst(double value) {
+        if (size == capacity) return false;
+        data[addFirstIndex()] = value;
+        return true;
+    }
+    
+    /**
+     * Adds the value at the tail of the buffer. If the buffer is full,
+     * then the value at the head is removed first. This is useful for sliding windows.
+     * 
+     * @param value The value to add.
+     */
+    public void pushLast(double value) {
+        if (size == capacity) removeFirstIndex();
+        data[addLastIndex()] = value;
+    }
+    
+    /**
+     * Removes and returns the value at the head of the buffer.
+     * 
+     * @return The first value of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    public double pollFirst() {
+        return data[removeFirstIndex()];
+    }
+    
+    /**
+     * Removes and returns the value at the tail of the buffer.
+     * 
+     * @return The last value of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    public double pollLast() {
+        return data[removeLastIndex()];
+    }
+    
+    /**
+     * @return The value at the head of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    public double peekFirst() {
+        return data[firstIndex()];
+    }
+    
+    /**
+     * @return The value at the tail of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    public double peekLast() {
+        return data[lastIndex()];
+    }
+    
+    /**
+     * Removes all values from the buffer and stores them in the given array.
+     * 
+     * @param dest The destination array.
+     * 
+     * @return The number of removed values.
+     * 
+     * @see #drainTo(double[], int, int)
+     */
+    public int drainTo(double[] dest) {
+        return drainTo(dest, 0, dest.length);
+    }
+    
+    /**
+     * Removes at most {@code max} values from the head of the buffer and stores them
+     * in the given array, starting at index {@code off}. No more values are removed
+     * than fit in the array.
+     * 
+     * @param dest The destination array.
+     * @param off The index to store the first value at.
+     * @param max The maximum number of values to remove.
+     * 
+     * @return The number of removed values.
+     */
+    public int drainTo(double[] dest, int off, int max) {
+        if (dest == null) throw new NullPointerException();
+        return copyTo(dest, dest.length, off, max, true);
+    }
+    
+    /**
+     * @return An array containing all values in the buffer from head to tail.
+     */
+    public double[] toArray() {
+        double[] arr = new double[size];
+        copyTo(arr, arr.length, 0, size, false);
+        return arr;
+    }
+    
+    /**
+     * @return An iterator over the values in the buffer from head to tail.
+     */
+    public PrimitiveIterator.OfDouble iterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private int index = 0;
+            
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+            
+            @Override
+            public double nextDouble() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return data[physical(index++)];
+            }
+        };
+    }
+    
+    
+}
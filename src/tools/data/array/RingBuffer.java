@@ -0,0 +1,269 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.array;
+
+
+// Java imports
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Fixed-capacity circular buffer for objects. <br>
+ * Removed elements are cleared from the backening array, so the buffer
+ * does not keep references to removed elements.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @param <V> The type of the elements.
+ * 
+ * @see AbstractRingBuffer
+ */
+public class RingBuffer<V>
+        extends AbstractRingBuffer
+        implements ReadWriteArray<V>, Iterable<V> {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The backening array. */
+    private final Object[] data;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new empty ring buffer with the given capacity.
+     * 
+     * @param capacity The capacity of the buffer.
+     */
+    public RingBuffer(int capacity) {
+        super(capacity);
+        data = new Object[capacity];
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    @Override
+    protected Object data() {
+        return data;
+    }
+    
+    @Override
+    protected void move(int from, int to) {
+        data[to] = data[from];
+    }
+    
+    @Override
+    protected void clear(int from, int to) {
+        Arrays.fill(data, from, to, null);
+    }
+    
+    /**
+     * Gets the element at the given index, where index {@code 0} is the head of the buffer.
+     * 
+     * @param index The index of the element to return.
+     * 
+     * @return The element at the given index.
+     * 
+     * @throws IndexOutOfBoundsException If {@code index < 0 || index >= size()}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+        return (V) data[checkIndex(index)];
+    }
+    
+    /**
+     * Sets the element at the given index, where index {@code 0} is the head of the buffer.
+     * 
+     * @param value The new element.
+     * @param index The index of the element to set.
+     * 
+     * @return The previous element at the given index.
+     * 
+     * @throws IndexOutOfBoundsException If {@code index < 0 || index >= size()}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V set(V value, int index) {
+        int i = checkIndex(index);
+        V old = (V) data[i];
+        data[i] = value;
+        return old;
+    }
+    
+    /**
+     * Adds the element at the tail of the buffer, if the buffer is not full.
+     * 
+     * @param value The element to add.
+     * 
+     * @return {@code true} if the element was added. {@code false} if the buffer is full.
+     */
+    public boolean offerLast(V value) {
+        if (size == capacity) return false;
+        data[addLastIndex()] = value;
+        return true;
+    }
+    
+    /**
+     * Adds the element at the head of the buffer, if the buffer is not full.
+     * 
+     * @param value The element to add.
+     * 
+     * @return {@code true} if the element was added. {@code false} if the buffer is full.
+     */
+    public boolean offerFirst(V value) {
+        if (size == capacity) return false;
+        data[addFirstIndex()] = value;
+        return true;
+    }
+    
+    /**
+     * Adds the element at the tail of the buffer. If the buffer is full,
+     * then the element at the head is removed first.
+     * 
+     * @param value The element to add.
+     * 
+     * @return The removed element, or {@code null} if the buffer was not full.
+     */
+    @SuppressWarnings("unchecked")
+    public V pushLast(V value) {
+        V removed = null;
+        if (size == capacity) {
+            int i = removeFirstIndex();
+            removed = (V) data[i];
+            data[i] = null;
+        }
+        data[addLastIndex()] = value;
+        return removed;
+    }
+    
+    /**
+     * Removes and returns the element at the head of the buffer.
+     * 
+     * @return The first element of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public V pollFirst() {
+        int i = removeFirstIndex();
+        V value = (V) data[i];
+        data[i] = null;
+        return value;
+    }
+    
+    /**
+     * Removes and returns the element at the tail of the buffer.
+     * 
+     * @return The last element of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public V pollLast() {
+        int i = removeLastIndex();
+        V value = (V) data[i];
+        data[i] = null;
+        return value;
+    }
+    
+    /**
+     * @return The element at the head of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public V peekFirst() {
+        return (V) data[firstIndex()];
+    }
+    
+    /**
+     * @return The element at the tail of the buffer.
+     * 
+     * @throws NoSuchElementException If the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public V peekLast() {
+        return (V) data[lastIndex()];
+    }
+    
+    /**
+     * Removes all elements from the buffer and stores them in the given array.
+     * 
+     * @param dest The destination array.
+     * 
+     * @return The number of removed elements.
+     * 
+     * @see #drainTo(Object[], int, int)
+     */
+    public int drainTo(V[] dest) {
+        return drainTo(dest, 0, dest.length);
+    }
+    
+    /**
+     * Removes at most {@code max} elements from the head of the buffer and stores them
+     * in the given array, starting at index {@code off}. No more elements are removed
+     * than fit in the array.
+     * 
+     * @param dest The destination array.
+     * @param off The index to store the first element at.
+     * @param max The maximum number of elements to remove.
+     * 
+     * @return The number of removed elements.
+     */
+    public int drainTo(V[] dest, int off, int max) {
+        if (dest == null) throw new NullPointerException();
+        return copyTo(dest, dest.length, off, max, true);
+    }
+    
+    /**
+     * @return An array containing all elements in the buffer from head to tail.
+     */
+    public Object[] toArray() {
+        Object[] arr = new Object[size];
+        copyTo(arr, arr.length, 0, size, false);
+        return arr;
+    }
+    
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int index = 0;
+            
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+            
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return (V) data[physical(index++)];
+            }
+        };
+    }
+    
+    
+}
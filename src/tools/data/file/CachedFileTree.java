@@ -0,0 +1,213 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.FileVisitOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * File tree which caches the contents of the files of another file tree. <br>
+ * <br>
+ * The contents of the files are read through a {@link FileContentCache}, which is
+ * used by {@link #getInputStream(TreeFile)}, {@link #readAllBytes(TreeFile)} and
+ * {@link #readBuffer(TreeFile)}. All other functions are delegated to the wrapped
+ * tree. This tree has the same base path as the wrapped tree, so the paths of both
+ * trees can be used interchangeably. <br>
+ * <br>
+ * This tree is read-only, even if the wrapped tree is a {@link WritableFileTree}.
+ * Files should be modified using the wrapped tree, see {@link #getWrappedTree()}.
+ * Modified files are read again on the next access if the wrapped tree updates
+ * {@link FileTree#lastModified(TreeFile)}. Otherwise the cache should be
+ * invalidated using {@link FileContentCache#invalidate(FileTree, TreeFile)}.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class CachedFileTree
+        extends FileTree {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The token used to identify this file tree. */
+    private final FileTreeToken<CachedFileTree, List<Object>> token;
+    /** The wrapped file tree. */
+    private final FileTree tree;
+    /** The cache used for the contents of the files. */
+    private final FileContentCache cache;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new cached file tree.
+     * 
+     * @param token The token of the tree.
+     * @param tree The tree to wrap.
+     * @param cache The cache to use.
+     */
+    protected CachedFileTree(FileTreeToken<CachedFileTree, List<Object>> token,
+            FileTree tree, FileContentCache cache) {
+        this.token = token;
+        this.tree = tree;
+        this.cache = cache;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructor functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Returns the given file tree wrapped using the default cache.
+     * 
+     * @param tree The tree to wrap.
+     * 
+     * @return The cached file tree.
+     * 
+     * @see #getTree(FileTree, FileContentCache)
+     * @see FileContentCache#getDefault()
+     */
+    public static CachedFileTree getTree(FileTree tree) {
+        return getTree(tree, FileContentCache.getDefault());
+    }
+    
+    /**
+     * Returns the given file tree wrapped using the given cache. <br>
+     * If the tree was already wrapped with the given cache, then the old file tree
+     * is returned. The reference count of the tree is increased. The reference count
+     * of the wrapped tree is not changed. <br>
+     * <br>
+     * This function replaces the constructor.
+     * 
+     * @param tree The tree to wrap.
+     * @param cache The cache to use.
+     * 
+     * @return The cached file tree.
+     */
+    public static CachedFileTree getTree(FileTree tree, FileContentCache cache) {
+        FileTreeToken<CachedFileTree, List<Object>> token = new FileTreeToken<>(
+                CachedFileTree.class, Arrays.asList(tree.getToken(), cache));
+        try {
+            return getOrCreateTree(token, () -> new CachedFileTree(token, tree, cache));
+            
+        } catch (IOException e) {
+            // Cannot occur, as the constructor throws no exception.
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return The wrapped file tree.
+     */
+    public FileTree getWrappedTree() {
+        return tree;
+    }
+    
+    /**
+     * @return The cache used by this tree.
+     */
+    public FileContentCache getCache() {
+        return cache;
+    }
+    
+    @Override
+    public String getBasePath() {
+        return tree.getBasePath();
+    }
+    
+    @Override
+    public FileTreeToken<CachedFileTree, List<Object>> getToken() {
+        return token;
+    }
+    
+    @Override
+    public Iterator<TreeFile> walk(TreeFile file, FileVisitOption... options)
+            throws IOException {
+        return tree.walk(file, options);
+    }
+    
+    @Override
+    public long size(TreeFile file) {
+        return tree.size(file);
+    }
+    
+    @Override
+    public long lastModified(TreeFile file) {
+        return tree.lastModified(file);
+    }
+    
+    @Override
+    public boolean exists(TreeFile file) {
+        return tree.exists(file);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Files which are too large to be cached are streamed from the wrapped tree.
+     */
+    @Override
+    public InputStream getInputStream(TreeFile file)
+            throws IOException, SecurityException {
+        return cache.getInputStream(tree, file);
+    }
+    
+    @Override
+    public byte[] readAllBytes(TreeFile file)
+            throws IOException, OutOfMemoryError, SecurityException {
+        return cache.getShared(tree, file).clone();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * The returned buffer is a view of the cached contents, and is not copied.
+     */
+    @Override
+    public ByteBuffer readBuffer(TreeFile file)
+            throws IOException, OutOfMemoryError, SecurityException {
+        return cache.get(tree, file);
+    }
+    
+    @Override
+    public boolean isDirectory(TreeFile file)
+            throws IOException {
+        return tree.isDirectory(file);
+    }
+    
+    @Override
+    public TreeFile[] list(TreeFile file)
+            throws IOException {
+        return tree.list(file);
+    }
+    
+    
+}
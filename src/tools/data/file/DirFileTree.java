@@ -25,9 +25,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 // Tools imports
@@ -41,12 +43,12 @@ import tools.iterators.GeneratorIterator;
 /**
  * File tree implementation for a file tree starting at a root directory.
  * 
- * @version 1.1
+ * @version 1.4
  * @author Kaj Wortel
  */
 public class DirFileTree
         extends WritableFileTree {
-     
+    
     /* -------------------------------------------------------------------------
      * Variables.
      * -------------------------------------------------------------------------
@@ -93,7 +95,7 @@ public class DirFileTree
     /**
      * Returns a {@link DirFileTree} of the root directory of the given file. <br>
      * If a file tree was already created with the given path, then the
-     * old file tree is returned. <br>
+     * old file tree is returned. The reference count of the tree is increased. <br>
      * <br>
      * This function replaces the constructor.
      * 
@@ -108,12 +110,7 @@ public class DirFileTree
             throws IllegalArgumentException, IOException {
         FileTreeToken<DirFileTree, TreeFile> token = new FileTreeToken<>(
                 DirFileTree.class, file);
-        DirFileTree tree = (DirFileTree) FILE_TREE_MAP.get(token);
-        if (tree == null) {
-            tree = new DirFileTree(file);
-            FILE_TREE_MAP.put(token, tree);
-        }
-        return tree;
+        return getOrCreateTree(token, () -> new DirFileTree(file));
     }
     
     /**
@@ -190,6 +187,29 @@ public class DirFileTree
         else return 0;
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * The stamp combines the modification time of the file in nanoseconds with
+     * the size of the file, since the modification time alone might not change
+     * for two writes shortly after each other. If the file doesn't exist,
+     * then {@code 0} is returned.
+     */
+    @Override
+    public long lastModified(TreeFile file) {
+        BasicFileAttributes attr;
+        try {
+            attr = Files.readAttributes(getAbsFile(file).toPath(), BasicFileAttributes.class);
+            
+        } catch (IOException e) {
+            return 0;
+        }
+        long stamp = attr.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        stamp = 31 * stamp + attr.size();
+        // A stamp of 0 denotes an unknown modification time.
+        return (stamp == 0 ? 1 : stamp);
+    }
+    
     @Override
     public boolean exists(TreeFile file) {
         return getAbsFile(file).exists();
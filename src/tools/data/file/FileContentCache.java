@@ -0,0 +1,496 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Tools imports
+import tools.MultiTool;
+
+
+/**
+ * Cache for the contents of files in file trees. <br>
+ * <br>
+ * The files are identified by the {@link FileTreeToken} of their tree and their
+ * local path, so a single cache can be shared by several trees. The cache is bounded
+ * by the total number of cached bytes. If the bound is exceeded, then the least
+ * recently used files are evicted. Files which are larger than the maximum entry
+ * size are never cached. <br>
+ * <br>
+ * A cached file is validated on every access using {@link FileTree#lastModified(TreeFile)}.
+ * If the stamp differs from the stamp at the time the file was read, then the file is
+ * read again. For trees which have no modification stamp, such as a {@link JarFileTree},
+ * the contents are assumed to never change. <br>
+ * <br>
+ * This class is thread safe. The files are read without holding the lock of the
+ * cache, so a file can be read several times if it is requested concurrently.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see CachedFileTree
+ */
+public class FileContentCache {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default maximum number of cached bytes. */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+    /** The default cache used by {@link CachedFileTree#getTree(FileTree)}. */
+    private static final FileContentCache DEFAULT = new FileContentCache(DEFAULT_MAX_SIZE);
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class used as key for a cached file.
+     */
+    private static final class Key {
+        /** The token of the tree of the file. */
+        private final FileTreeToken<?, ?> token;
+        /** The normalized local path of the file. */
+        private final String path;
+        
+        /**
+         * Creates a new key for the given file.
+         * 
+         * @param tree The tree of the file.
+         * @param file The file.
+         */
+        private Key(FileTree tree, TreeFile file) {
+            this.token = unwrap(tree).getToken();
+            this.path = FileLockManager.normalize(tree.toLocalPath(file.getPathName()));
+        }
+        
+        @Override
+        public int hashCode() {
+            return MultiTool.calcHashCode(new Object[] {token, path});
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key key = (Key) obj;
+            return Objects.equals(key.token, token) && key.path.equals(path);
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Class containing the cached contents of a file.
+     */
+    private static final class Entry {
+        /** The contents of the file. Is never modified. */
+        private final byte[] data;
+        /** The modification stamp of the file when it was read. */
+        private final long modified;
+        
+        /**
+         * Creates a new cache entry.
+         * 
+         * @param data The contents of the file.
+         * @param modified The modification stamp of the file when it was read.
+         */
+        private Entry(byte[] data, long modified) {
+            this.data = data;
+            this.modified = modified;
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Class containing a snapshot of the statistics of a cache.
+     */
+    public static final class Statistics {
+        /** The number of requests which were served from the cache. */
+        private final long hits;
+        /** The number of requests which required reading the file. */
+        private final long misses;
+        /** The number of files which were evicted because the cache was full. */
+        private final long evictions;
+        /** The number of cached files which were modified. */
+        private final long invalidations;
+        /** The number of cached files. */
+        private final int files;
+        /** The number of cached bytes. */
+        private final long size;
+        
+        /**
+         * Creates a new statistics snapshot.
+         * 
+         * @param hits The number of requests which were served from the cache.
+         * @param misses The number of requests which required reading the file.
+         * @param evictions The number of files which were evicted because the cache was full.
+         * @param invalidations The number of cached files which were modified.
+         * @param files The number of cached files.
+         * @param size The number of cached bytes.
+         */
+        private Statistics(long hits, long misses, long evictions, long invalidations,
+                int files, long size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.files = files;
+            this.size = size;
+        }
+        
+        /**
+         * @return The number of requests which were served from the cache.
+         */
+        public long getHits() {
+            return hits;
+        }
+        
+        /**
+         * @return The number of requests which required reading the file.
+         */
+        public long getMisses() {
+            return misses;
+        }
+        
+        /**
+         * @return The number of files which were evicted because the cache was full.
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+        
+        /**
+         * @return The number of cached files which were read again because
+         *     they were modified.
+         */
+        public long getInvalidations() {
+            return invalidations;
+        }
+        
+        /**
+         * @return The number of cached files.
+         */
+        public int getFileCount() {
+            return files;
+        }
+        
+        /**
+         * @return The number of cached bytes.
+         */
+        public long getSize() {
+            return size;
+        }
+        
+        /**
+         * @return The fraction of the requests which were served from the cache.
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return (total == 0 ? 0 : (double) hits / total);
+        }
+        
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[hits=" + hits + ",misses=" + misses
+                    + ",evictions=" + evictions + ",invalidations=" + invalidations
+                    + ",files=" + files + ",size=" + size + "]";
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The maximum number of cached bytes. */
+    private final long maxSize;
+    /** The maximum size of a single cached file. */
+    private final long maxEntrySize;
+    /** The cached files in access order. Guarded by {@code this}. */
+    private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+    /** The number of cached bytes. Guarded by {@code this}. */
+    private long size = 0;
+    
+    /** The number of requests which were served from the cache. */
+    private final LongAdder hits = new LongAdder();
+    /** The number of requests which required reading the file. */
+    private final LongAdder misses = new LongAdder();
+    /** The number of files which were evicted because the cache was full. */
+    private final LongAdder evictions = new LongAdder();
+    /** The number of cached files which were modified. */
+    private final LongAdder invalidations = new LongAdder();
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new cache. Files larger than a quarter of the cache are not cached.
+     * 
+     * @param maxSize The maximum number of cached bytes.
+     * 
+     * @throws IllegalArgumentException If {@code maxSize <= 0}.
+     */
+    public FileContentCache(long maxSize) {
+        this(maxSize, maxSize / 4);
+    }
+    
+    /**
+     * Creates a new cache.
+     * 
+     * @param maxSize The maximum number of cached bytes.
+     * @param maxEntrySize The maximum size of a single cached file.
+     * 
+     * @throws IllegalArgumentException If {@code maxSize <= 0}, or if
+     *     {@code maxEntrySize < 0 || maxEntrySize > maxSize}.
+     */
+    public FileContentCache(long maxSize, long maxEntrySize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize(" + maxSize + ") <= 0");
+        if (maxEntrySize < 0 || maxEntrySize > maxSize) {
+            throw new IllegalArgumentException("maxEntrySize(" + maxEntrySize
+                    + ") is not in the range [0, " + maxSize + "].");
+        }
+        this.maxSize = maxSize;
+        this.maxEntrySize = maxEntrySize;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return The default cache, which can cache {@link #DEFAULT_MAX_SIZE} bytes.
+     */
+    public static FileContentCache getDefault() {
+        return DEFAULT;
+    }
+    
+    /**
+     * Returns the tree which contains the files of the given tree. This is the
+     * wrapped tree for a {@link CachedFileTree}, and the tree itself otherwise.
+     * Hence the files of a cached tree and its wrapped tree share their entries.
+     * 
+     * @param tree The tree to unwrap.
+     * 
+     * @return The tree containing the files.
+     */
+    private static FileTree unwrap(FileTree tree) {
+        while (tree instanceof CachedFileTree) {
+            tree = ((CachedFileTree) tree).getWrappedTree();
+        }
+        return tree;
+    }
+    
+    /**
+     * Returns the contents of the given file. The returned array is shared
+     * with the cache, and should therefore not be modified.
+     * 
+     * @param tree The tree of the file.
+     * @param file The file to read.
+     * 
+     * @return The contents of the file.
+     * 
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    byte[] getShared(FileTree tree, TreeFile file)
+            throws IOException {
+        Key key = new Key(tree, file);
+        long modified = tree.lastModified(file);
+        synchronized (this) {
+            Entry entry = map.get(key);
+            if (entry != null) {
+                if (entry.modified == modified) {
+                    hits.increment();
+                    return entry.data;
+                }
+                invalidations.increment();
+                remove(key);
+            }
+        }
+        
+        misses.increment();
+        byte[] data = tree.readAllBytes(file);
+        if (data.length <= maxEntrySize) {
+            synchronized (this) {
+                Entry old = map.put(key, new Entry(data, modified));
+                if (old != null) size -= old.data.length;
+                size += data.length;
+                evict();
+            }
+        }
+        return data;
+    }
+    
+    /**
+     * Returns an input stream over the contents of the given file. If the file is
+     * larger than the maximum entry size, then it cannot be cached, and the stream
+     * is directly obtained from the tree instead of reading the whole file.
+     * 
+     * @param tree The tree of the file.
+     * @param file The file to read.
+     * 
+     * @return An input stream over the contents of the file.
+     * 
+     * @throws IOException If an I/O error occurs while opening the file.
+     */
+    InputStream getInputStream(FileTree tree, TreeFile file)
+            throws IOException {
+        if (tree.size(file) > maxEntrySize) {
+            misses.increment();
+            return tree.getInputStream(file);
+        }
+        return new ByteArrayInputStream(getShared(tree, file));
+    }
+    
+    /**
+     * Returns the contents of the given file as a read-only buffer.
+     * The buffer is a view of the cached contents.
+     * 
+     * @param tree The tree of the file.
+     * @param file The file to read.
+     * 
+     * @return A read-only buffer containing the contents of the file.
+     * 
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public ByteBuffer get(FileTree tree, TreeFile file)
+            throws IOException {
+        return ByteBuffer.wrap(getShared(tree, file)).asReadOnlyBuffer();
+    }
+    
+    /**
+     * Evicts the least recently used files until the cache is within its bound.
+     * The lock of the cache must be held.
+     */
+    private void evict() {
+        Iterator<Entry> it = map.values().iterator();
+        while (size > maxSize && it.hasNext()) {
+            size -= it.next().data.length;
+            it.remove();
+            evictions.increment();
+        }
+    }
+    
+    /**
+     * Removes the entry with the given key. The lock of the cache must be held.
+     * 
+     * @param key The key of the entry to remove.
+     */
+    private void remove(Key key) {
+        Entry entry = map.remove(key);
+        if (entry != null) size -= entry.data.length;
+    }
+    
+    /**
+     * Removes the given file from the cache.
+     * 
+     * @param tree The tree of the file. Can also be a {@link CachedFileTree} using this cache.
+     * @param file The file to remove.
+     */
+    public synchronized void invalidate(FileTree tree, TreeFile file) {
+        remove(new Key(tree, file));
+    }
+    
+    /**
+     * Removes all files of the given tree from the cache.
+     * 
+     * @param tree The tree to remove the files of.
+     */
+    public synchronized void invalidate(FileTree tree) {
+        FileTreeToken<?, ?> token = unwrap(tree).getToken();
+        Iterator<Map.Entry<Key, Entry>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (Objects.equals(e.getKey().token, token)) {
+                size -= e.getValue().data.length;
+                it.remove();
+            }
+        }
+    }
+    
+    /**
+     * Removes all files from the cache.
+     */
+    public synchronized void clear() {
+        map.clear();
+        size = 0;
+    }
+    
+    /**
+     * @return The maximum number of cached bytes.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * @return The maximum size of a single cached file.
+     */
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+    
+    /**
+     * @return The number of cached bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+    
+    /**
+     * @return A snapshot of the statistics of this cache.
+     */
+    public Statistics getStatistics() {
+        int files;
+        long curSize;
+        synchronized (this) {
+            files = map.size();
+            curSize = size;
+        }
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(),
+                invalidations.sum(), files, curSize);
+    }
+    
+    /**
+     * Resets the hit, miss, eviction and invalidation counters.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        invalidations.reset();
+    }
+    
+    
+}
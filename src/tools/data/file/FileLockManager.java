@@ -0,0 +1,653 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Hierarchical lock manager for paths. <br>
+ * <br>
+ * A path can be locked in {@link Mode#SHARED shared} or {@link Mode#EXCLUSIVE exclusive}
+ * mode. Locking a path implicitly locks all paths below it. To detect conflicts between
+ * a path and its descendants, all ancestors of a locked path are locked using an
+ * intention mode. The root, denoted by the empty path or {@code "/"}, is an ancestor
+ * of every other path, so locking the root locks all paths. The compatibility of the modes is given by:
+ * <table border="1">
+ *   <tr><th></th><th>IS</th><th>IX</th><th>S</th><th>X</th></tr>
+ *   <tr><th>IS</th><td>yes</td><td>yes</td><td>yes</td><td>no</td></tr>
+ *   <tr><th>IX</th><td>yes</td><td>yes</td><td>no</td><td>no</td></tr>
+ *   <tr><th>S</th><td>yes</td><td>no</td><td>yes</td><td>no</td></tr>
+ *   <tr><th>X</th><td>no</td><td>no</td><td>no</td><td>no</td></tr>
+ * </table>
+ * Locks are acquired from the root towards the locked path, so threads which lock paths
+ * in this manager cannot deadlock on each other, unless a thread upgrades a shared lock
+ * to an exclusive lock. All locks are reentrant, and locks held by the current thread
+ * never conflict with each other. <br>
+ * <br>
+ * The state of each path is guarded by one of a fixed number of striped locks, and
+ * every path has its own condition. Only threads waiting for a path are woken up
+ * when that path is released. The state of a path is removed when it is not used
+ * anymore.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see FileTree#lock(FileTree, TreeFile, Mode)
+ */
+public class FileLockManager {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default number of stripes. */
+    public static final int DEFAULT_STRIPES = 64;
+    
+    /** The index of the intention shared mode. */
+    private static final int IS = 0;
+    /** The index of the intention exclusive mode. */
+    private static final int IX = 1;
+    /** The index of the shared mode. */
+    private static final int S = 2;
+    /** The index of the exclusive mode. */
+    private static final int X = 3;
+    /** The compatibility matrix of the modes. */
+    private static final boolean[][] COMPATIBLE = new boolean[][] {
+        {true,  true,  true,  false},
+        {true,  true,  false, false},
+        {true,  false, true,  false},
+        {false, false, false, false}
+    };
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Enum denoting the lock modes.
+     */
+    public enum Mode {
+        /** The mode for read access. Multiple threads can hold a shared lock. */
+        SHARED,
+        /** The mode for write access. Only one thread can hold an exclusive lock. */
+        EXCLUSIVE;
+    }
+    
+    
+    /**
+     * Class containing the lock state of a single path.
+     */
+    private static final class Node {
+        /** The condition used to wait for this path. */
+        private final Condition cond;
+        /** The number of holds for each mode. */
+        private final int[] counts = new int[4];
+        /** The number of holds for each mode per thread. */
+        private final Map<Thread, int[]> owners = new HashMap<>(4);
+        /** The number of threads waiting for this path. */
+        private int waiters = 0;
+        
+        /**
+         * Creates a new node.
+         * 
+         * @param cond The condition used to wait for this path.
+         */
+        private Node(Condition cond) {
+            this.cond = cond;
+        }
+        
+        /**
+         * @return {@code true} if the path is not locked and no thread is waiting for it.
+         */
+        private boolean isUnused() {
+            return owners.isEmpty() && waiters == 0;
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Class containing a snapshot of the lock statistics.
+     */
+    public static final class Statistics {
+        /** The number of acquired path locks, including intention locks. */
+        private final long acquisitions;
+        /** The number of path locks which had to wait. */
+        private final long contended;
+        /** The number of lock attempts which timed out. */
+        private final long timeouts;
+        /** The total time spent waiting in nanoseconds. */
+        private final long totalWait;
+        /** The maximum time spent waiting for a single path in nanoseconds. */
+        private final long maxWait;
+        
+        /**
+         * Creates a new statistics snapshot.
+         * 
+         * @param acquisitions The number of acquired path locks.
+         * @param contended The number of path locks which had to wait.
+         * @param timeouts The number of lock attempts which timed out.
+         * @param totalWait The total time spent waiting in nanoseconds.
+         * @param maxWait The maximum time spent waiting in nanoseconds.
+         */
+        private Statistics(long acquisitions, long contended, long timeouts,
+                long totalWait, long maxWait) {
+            this.acquisitions = acquisitions;
+            this.contended = contended;
+            this.timeouts = timeouts;
+            this.totalWait = totalWait;
+            this.maxWait = maxWait;
+        }
+        
+        /**
+         * @return The number of acquired path locks, including intention locks on ancestors.
+         */
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+        
+        /**
+         * @return The number of path locks which could not be acquired immediately.
+         */
+        public long getContended() {
+            return contended;
+        }
+        
+        /**
+         * @return The number of lock attempts which timed out.
+         */
+        public long getTimeouts() {
+            return timeouts;
+        }
+        
+        /**
+         * @return The total time spent waiting in nanoseconds.
+         */
+        public long getTotalWaitNanos() {
+            return totalWait;
+        }
+        
+        /**
+         * @return The maximum time spent waiting for a single path in nanoseconds.
+         */
+        public long getMaxWaitNanos() {
+            return maxWait;
+        }
+        
+        /**
+         * @return The average time spent waiting for a contended path in nanoseconds.
+         */
+        public double getAverageWaitNanos() {
+            return (contended == 0 ? 0 : (double) totalWait / contended);
+        }
+        
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[acquisitions=" + acquisitions
+                    + ",contended=" + contended + ",timeouts=" + timeouts
+                    + ",totalWaitNanos=" + totalWait + ",maxWaitNanos=" + maxWait + "]";
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The striped locks guarding the nodes. */
+    private final ReentrantLock[] stripes;
+    /** The map containing the state of all used paths. */
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    
+    /** The number of acquired path locks. */
+    private final LongAdder acquisitions = new LongAdder();
+    /** The number of path locks which had to wait. */
+    private final LongAdder contended = new LongAdder();
+    /** The number of lock attempts which timed out. */
+    private final LongAdder timeouts = new LongAdder();
+    /** The total time spent waiting in nanoseconds. */
+    private final LongAdder totalWait = new LongAdder();
+    /** The maximum time spent waiting in nanoseconds. */
+    private final AtomicLong maxWait = new AtomicLong();
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new lock manager with the default number of stripes.
+     */
+    public FileLockManager() {
+        this(DEFAULT_STRIPES);
+    }
+    
+    /**
+     * Creates a new lock manager.
+     * 
+     * @param stripes The number of stripes. Is rounded up to a power of two.
+     * 
+     * @throws IllegalArgumentException If {@code stripes <= 0}.
+     */
+    public FileLockManager(int stripes) {
+        if (stripes <= 0) throw new IllegalArgumentException("stripes(" + stripes + ") <= 0");
+        int n = Integer.highestOneBit(stripes);
+        if (n < stripes) n <<= 1;
+        this.stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Normalizes the given path. All file separators are replaced by {@code '/'},
+     * and leading, trailing and double separators are removed.
+     * 
+     * @param path The path to normalize.
+     * 
+     * @return The normalized path.
+     */
+    static String normalize(String path) {
+        StringBuilder sb = new StringBuilder(path.length());
+        boolean sep = false;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '/' || c == '\\') {
+                sep = true;
+                
+            } else {
+                if (sep && sb.length() != 0) sb.append('/');
+                sep = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Determines the normalized path and all its ancestors, ordered from the
+     * root to the path itself. The root is denoted by the empty path, and is
+     * the first element of every returned list. Hence the root itself has
+     * exactly one element.
+     * 
+     * @param path The path to get the elements of.
+     * 
+     * @return The normalized path and all its ancestors.
+     */
+    private static List<String> getPaths(String path) {
+        String norm = normalize(path);
+        List<String> paths = new ArrayList<>();
+        paths.add("");
+        if (norm.isEmpty()) return paths;
+        int i = 0;
+        while ((i = norm.indexOf('/', i + 1)) != -1) {
+            paths.add(norm.substring(0, i));
+        }
+        paths.add(norm);
+        return paths;
+    }
+    
+    /**
+     * @param path The normalized path.
+     * 
+     * @return The stripe guarding the given path.
+     */
+    private ReentrantLock stripe(String path) {
+        int h = path.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+    
+    /**
+     * Checks whether the given mode conflicts with the modes held by other threads.
+     * 
+     * @param node The node to check.
+     * @param thread The requesting thread.
+     * @param mode The requested mode.
+     * 
+     * @return {@code true} if the mode conflicts. {@code false} otherwise.
+     */
+    private static boolean conflicts(Node node, Thread thread, int mode) {
+        int[] own = node.owners.get(thread);
+        for (int m = 0; m < 4; m++) {
+            int other = node.counts[m] - (own == null ? 0 : own[m]);
+            if (other > 0 && !COMPATIBLE[mode][m]) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Acquires the given mode on a single path.
+     * 
+     * @param path The normalized path.
+     * @param mode The mode to acquire.
+     * @param timed Whether the wait is bounded by {@code deadline}.
+     * @param deadline The deadline in terms of {@link System#nanoTime()}.
+     * 
+     * @return {@code true} if the mode was acquired. {@code false} if the deadline passed.
+     * 
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    private boolean acquire(String path, int mode, boolean timed, long deadline)
+            throws InterruptedException {
+        ReentrantLock stripe = stripe(path);
+        Thread thread = Thread.currentThread();
+        stripe.lock();
+        try {
+            Node node = nodes.computeIfAbsent(path, (p) -> new Node(stripe.newCondition()));
+            if (conflicts(node, thread, mode)) {
+                if (timed && deadline - System.nanoTime() <= 0) {
+                    timeouts.increment();
+                    if (node.isUnused()) nodes.remove(path);
+                    return false;
+                }
+                
+                contended.increment();
+                long start = System.nanoTime();
+                boolean available = false;
+                node.waiters++;
+                try {
+                    while (conflicts(node, thread, mode)) {
+                        if (!timed) {
+                            node.cond.await();
+                            
+                        } else {
+                            long rem = deadline - System.nanoTime();
+                            if (rem <= 0) {
+                                timeouts.increment();
+                                return false;
+                            }
+                            node.cond.awaitNanos(rem);
+                        }
+                    }
+                    available = true;
+                    
+                } finally {
+                    node.waiters--;
+                    long wait = System.nanoTime() - start;
+                    totalWait.add(wait);
+                    maxWait.accumulateAndGet(wait, Math::max);
+                    if (!available && node.isUnused()) nodes.remove(path);
+                }
+            }
+            
+            node.counts[mode]++;
+            node.owners.computeIfAbsent(thread, (t) -> new int[4])[mode]++;
+            acquisitions.increment();
+            return true;
+            
+        } finally {
+            stripe.unlock();
+        }
+    }
+    
+    /**
+     * Releases the given mode on a single path.
+     * 
+     * @param path The normalized path.
+     * @param mode The mode to release.
+     * 
+     * @throws IllegalMonitorStateException If the current thread doesn't
+     *     hold the mode on the path.
+     */
+    private void release(String path, int mode)
+            throws IllegalMonitorStateException {
+        ReentrantLock stripe = stripe(path);
+        Thread thread = Thread.currentThread();
+        stripe.lock();
+        try {
+            Node node = nodes.get(path);
+            int[] own = (node == null ? null : node.owners.get(thread));
+            if (own == null || own[mode] == 0) {
+                throw new IllegalMonitorStateException("Path is not locked: " + path);
+            }
+            own[mode]--;
+            node.counts[mode]--;
+            if (own[0] + own[1] + own[2] + own[3] == 0) node.owners.remove(thread);
+            if (node.waiters > 0) node.cond.signalAll();
+            else if (node.isUnused()) nodes.remove(path);
+            
+        } finally {
+            stripe.unlock();
+        }
+    }
+    
+    /**
+     * Releases the given intention mode on the first {@code amt} ancestors,
+     * in reverse order.
+     * 
+     * @param paths The paths to release.
+     * @param amt The number of paths to release.
+     * @param mode The mode to release.
+     */
+    private void releaseAll(List<String> paths, int amt, int mode) {
+        for (int i = amt - 1; i >= 0; i--) {
+            release(paths.get(i), mode);
+        }
+    }
+    
+    /**
+     * Acquires the given mode on the path and the intention mode on all ancestors.
+     * 
+     * @param path The path to lock.
+     * @param mode The mode to lock the path with.
+     * @param timed Whether the wait is bounded by {@code deadline}.
+     * @param deadline The deadline in terms of {@link System#nanoTime()}.
+     * 
+     * @return {@code true} if the lock was acquired. {@code false} if the deadline passed.
+     * 
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    private boolean lock(String path, Mode mode, boolean timed, long deadline)
+            throws InterruptedException {
+        List<String> paths = getPaths(path);
+        int target = (mode == Mode.EXCLUSIVE ? X : S);
+        int intention = (mode == Mode.EXCLUSIVE ? IX : IS);
+        int last = paths.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            boolean acquired;
+            try {
+                acquired = acquire(paths.get(i), (i == last ? target : intention), timed, deadline);
+                
+            } catch (InterruptedException e) {
+                releaseAll(paths, i, intention);
+                throw e;
+            }
+            if (!acquired) {
+                releaseAll(paths, i, intention);
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Locks the given path, waiting until it is available. <br>
+     * An exclusive lock waits until no other thread holds a lock on the path,
+     * any of its descendants, or a shared or exclusive lock on any of its ancestors.
+     * A shared lock only waits for exclusive locks.
+     * 
+     * @param path The path to lock.
+     * @param mode The mode to lock the path with.
+     * 
+     * @throws IllegalStateException If the thread was interrupted while waiting.
+     */
+    public void lock(String path, Mode mode) {
+        try {
+            lock(path, mode, false, 0L);
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Locks the given path, but only if it is available.
+     * 
+     * @param path The path to lock.
+     * @param mode The mode to lock the path with.
+     * 
+     * @return {@code true} if the lock was acquired. {@code false} otherwise.
+     */
+    public boolean tryLock(String path, Mode mode) {
+        try {
+            return lock(path, mode, true, System.nanoTime());
+            
+        } catch (InterruptedException e) {
+            // Cannot occur, since the thread never waits.
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Locks the given path, waiting at most the given time.
+     * 
+     * @param path The path to lock.
+     * @param mode The mode to lock the path with.
+     * @param timeout The maximum time to wait.
+     * @param unit The unit of the timeout.
+     * 
+     * @return {@code true} if the lock was acquired. {@code false} if the time passed.
+     * 
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    public boolean tryLock(String path, Mode mode, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return lock(path, mode, true, System.nanoTime() + unit.toNanos(timeout));
+    }
+    
+    /**
+     * Releases the most restrictive lock the current thread holds on the given path.
+     * 
+     * @param path The path to unlock.
+     * 
+     * @throws IllegalMonitorStateException If the current thread doesn't hold a lock
+     *     on the path.
+     */
+    public void unlock(String path)
+            throws IllegalMonitorStateException {
+        List<String> paths = getPaths(path);
+        String target = paths.get(paths.size() - 1);
+        
+        boolean exclusive;
+        ReentrantLock stripe = stripe(target);
+        stripe.lock();
+        try {
+            Node node = nodes.get(target);
+            int[] own = (node == null ? null : node.owners.get(Thread.currentThread()));
+            if (own == null || own[X] + own[S] == 0) {
+                throw new IllegalMonitorStateException("Path is not locked: " + path);
+            }
+            exclusive = own[X] > 0;
+            
+        } finally {
+            stripe.unlock();
+        }
+        
+        release(target, (exclusive ? X : S));
+        releaseAll(paths, paths.size() - 1, (exclusive ? IX : IS));
+    }
+    
+    /**
+     * Checks whether the given path or any of its ancestors is locked
+     * in shared or exclusive mode by any thread.
+     * 
+     * @param path The path to check.
+     * 
+     * @return {@code true} if the path is locked. {@code false} otherwise.
+     */
+    public boolean isLocked(String path) {
+        for (String p : getPaths(path)) {
+            ReentrantLock stripe = stripe(p);
+            stripe.lock();
+            try {
+                Node node = nodes.get(p);
+                if (node != null && node.counts[S] + node.counts[X] > 0) return true;
+                
+            } finally {
+                stripe.unlock();
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Checks whether the current thread holds a shared or exclusive lock on
+     * the given path or any of its ancestors.
+     * 
+     * @param path The path to check.
+     * 
+     * @return {@code true} if the current thread holds the lock. {@code false} otherwise.
+     */
+    public boolean isHeldByCurrentThread(String path) {
+        Thread thread = Thread.currentThread();
+        for (String p : getPaths(path)) {
+            ReentrantLock stripe = stripe(p);
+            stripe.lock();
+            try {
+                Node node = nodes.get(p);
+                int[] own = (node == null ? null : node.owners.get(thread));
+                if (own != null && own[S] + own[X] > 0) return true;
+                
+            } finally {
+                stripe.unlock();
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @return A snapshot of the lock statistics.
+     */
+    public Statistics getStatistics() {
+        return new Statistics(acquisitions.sum(), contended.sum(), timeouts.sum(),
+                totalWait.sum(), maxWait.get());
+    }
+    
+    /**
+     * Resets the lock statistics.
+     */
+    public void resetStatistics() {
+        acquisitions.reset();
+        contended.reset();
+        timeouts.reset();
+        totalWait.reset();
+        maxWait.set(0);
+    }
+    
+    
+}
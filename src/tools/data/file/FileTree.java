@@ -17,12 +17,17 @@ package tools.data.file;
 // Java imports
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.file.FileVisitOption;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.locks.Condition;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 
@@ -32,7 +37,29 @@ import tools.Var;
 
 /**
  * A file tree describes a part of a file system.
- * Every file tree has a single root file/directory.
+ * Every file tree has a single root file/directory. <br>
+ * <br>
+ * File trees are stored in a concurrent registry, so at most one file tree is created
+ * for each {@link FileTreeToken}. <br>
+ * <br>
+ * Every function which returns a registered tree (the {@code getTree} functions,
+ * {@link #getFileTree(FileTreeToken)} and {@link #getLocalFileTree()}) acquires a
+ * reference to the returned tree. The caller owns this reference and must give it
+ * back using {@link #release()} or {@link #close()} once it is done using the tree,
+ * so short-lived usages are best written as a try-with-resources statement:
+ * <pre>{@code
+ * try (FileTree tree = FileTree.getLocalFileTree()) {
+ *     ...
+ * }
+ * }</pre>
+ * Objects which keep using a tree for their entire lifetime simply keep the reference.
+ * Trees which wrap other trees (e.g. {@link CachedFileTree} and {@link OverlayFileTree})
+ * do not acquire references to the wrapped trees, so the caller should keep its
+ * references to them for as long as the wrapping tree is used. <br>
+ * When the reference count drops to zero, the tree may release its resources
+ * (e.g. close its jar file). These resources are acquired again when needed.
+ * Trees without references remain registered until {@link #evictIdleTrees()}
+ * is invoked.
  * 
  * @todo
  * - Implement equals and hash code functions.
@@ -40,10 +67,11 @@ import tools.Var;
  * - Add implementation for virtual files.
  * - Add methods to get a file tree which return {@code null} upon failure instead of an exception.
  * 
- * @version 1.1
+ * @version 1.7
  * @author Kaj Wortel
  */
-public abstract class FileTree {
+public abstract class FileTree
+        implements AutoCloseable {
     
     /* -------------------------------------------------------------------------
      * Constants.
@@ -51,18 +79,51 @@ public abstract class FileTree {
      */
     /** The map containing all file trees. */
     protected static final Map<FileTreeToken<? extends FileTree, ?>, FileTree> FILE_TREE_MAP
-            = new HashMap<>();
-    /** Set containing all current file locks. */
-    private static final Map<String, ReentrantLock> LOCKED_MAP = new HashMap<>();
-    /** The lock used for concurrent access for (un-)locking files. */
-    private static final ReentrantLock FILE_LOCK = new ReentrantLock(true);
-    /** The condition used to wait and signal that a file is in use/became free. */
-    private static final Condition FILE_IN_USE = FILE_LOCK.newCondition();
+            = new ConcurrentHashMap<>();
+    /** The map containing the tasks which create the file trees which are not yet registered. */
+    private static final Map<FileTreeToken<? extends FileTree, ?>, FutureTask<FileTree>> PENDING_MAP
+            = new ConcurrentHashMap<>();
+    /** The lock manager used for locking files. */
+    private static final FileLockManager LOCK_MANAGER = new FileLockManager();
     
     /** The lock used for concurrent access for creating file trees. */
     protected static final ReentrantLock TREE_LOCK = new ReentrantLock();
     
     
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The number of references to this tree. */
+    private final AtomicInteger refCount = new AtomicInteger(0);
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Functional interface for creating a file tree.
+     * 
+     * @param <C> The type of the file tree.
+     */
+    @FunctionalInterface
+    protected static interface TreeFactory<C extends FileTree> {
+        
+        /**
+         * Creates a new file tree.
+         * 
+         * @return A new file tree.
+         * 
+         * @throws IOException If the file tree could not be created.
+         */
+        C create()
+                throws IOException;
+        
+        
+    }
+    
+    
     /* -------------------------------------------------------------------------
      * Static functions.
      * -------------------------------------------------------------------------
@@ -76,6 +137,8 @@ public abstract class FileTree {
      * Only creates a new file tree if needed. <br>
      * <br>
      * The root directory will be the root class path of the class (e.g. the execution directory).
+     * <br>
+     * The reference count of the returned tree is increased.
      * 
      * @return The local file tree of this class.
      * 
@@ -95,6 +158,8 @@ public abstract class FileTree {
      * Only creates a new file tree if needed. <br>
      * <br>
      * The root directory will be the root class path of the class  (e.g. the execution directory).
+     * <br>
+     * The reference count of the returned tree is increased.
      * 
      * @return The local file tree for the given class.
      * 
@@ -102,7 +167,6 @@ public abstract class FileTree {
      */
     public static FileTree getLocalFileTree(Class<?> c)
             throws IllegalArgumentException {
-        TREE_LOCK.lock();
         try {
             String path = getProjectSourceFile(c);
             if (path.endsWith(".jar")) {
@@ -111,11 +175,9 @@ public abstract class FileTree {
             } else {
                 return DirFileTree.getTree(new TreeFile(path));
             }
+            
         } catch (IOException e) {
             throw new IllegalStateException(e);
-            
-        } finally {
-            TREE_LOCK.unlock();
         }
     }
     
@@ -124,7 +186,8 @@ public abstract class FileTree {
      * exists, then {@code null} is returned. <br>
      * <br>
      * The token implementation is different and undefined for each file tree class.
-     * A token should be obtained via the {@link FileTree#getToken()} function.
+     * A token should be obtained via the {@link FileTree#getToken()} function. <br>
+     * The reference count of the returned tree is increased.
      * 
      * @param <C> The type of the file tree to return.
      * 
@@ -133,8 +196,126 @@ public abstract class FileTree {
      * @return The file tree with the given token, or {@code null} if no such
      *     file tree exists.
      */
+    // The type of the tree is guaranteed by the token it was registered with.
+    @SuppressWarnings("unchecked")
     public static <C extends FileTree> C getFileTree(FileTreeToken<C, ?> token) {
-        return (C) FILE_TREE_MAP.get(token);
+        // The reference count is increased atomically with the lookup,
+        // so the tree cannot be evicted in between.
+        return (C) FILE_TREE_MAP.computeIfPresent(token, (t, tree) -> {
+            tree.refCount.incrementAndGet();
+            return tree;
+        });
+    }
+    
+    /**
+     * Returns the file tree with the given token, or creates and registers a new
+     * file tree if no such tree exists. The factory is invoked at most once for
+     * each token by concurrent invocations of this function. <br>
+     * The factory is invoked without holding any lock of the registry, so it may
+     * perform blocking I/O and obtain other file trees. <br>
+     * The reference count of the returned tree is increased.
+     * 
+     * @param <C> The type of the file tree to return.
+     * 
+     * @param token The token of the file tree.
+     * @param factory The factory used to create the file tree.
+     * 
+     * @return The file tree with the given token.
+     * 
+     * @throws IOException If the file tree could not be created, or if the thread
+     *     was interrupted while waiting for another thread to create it.
+     */
+    protected static <C extends FileTree> C getOrCreateTree(FileTreeToken<C, ?> token,
+            TreeFactory<C> factory)
+            throws IOException {
+        while (true) {
+            C tree = getFileTree(token);
+            if (tree != null) return tree;
+            
+            // Only the thread which publishes the task creates the tree. The created tree
+            // is registered by the task itself, so the other threads find it afterwards.
+            FutureTask<FileTree> task = new FutureTask<>(() -> {
+                FileTree created = factory.create();
+                FileTree old = FILE_TREE_MAP.putIfAbsent(token, created);
+                return (old == null ? created : old);
+            });
+            FutureTask<FileTree> pending = PENDING_MAP.putIfAbsent(token, task);
+            if (pending == null) {
+                try {
+                    task.run();
+                    FileTree created = await(task);
+                    // The tree might have been evicted before the reference was acquired.
+                    FileTree result = FILE_TREE_MAP.compute(token, (t, old) -> {
+                        FileTree r = (old == null ? created : old);
+                        r.refCount.incrementAndGet();
+                        return r;
+                    });
+                    // The tree was either created by the factory or registered with the
+                    // same token, so it has type C.
+                    @SuppressWarnings("unchecked")
+                    C c = (C) result;
+                    return c;
+                    
+                } finally {
+                    PENDING_MAP.remove(token, task);
+                }
+                
+            } else {
+                await(pending);
+            }
+        }
+    }
+    
+    /**
+     * Waits for the given task to finish and returns its result.
+     * 
+     * @param task The task to wait for.
+     * 
+     * @return The tree created by the task.
+     * 
+     * @throws IOException If the task failed to create the tree, or if the thread
+     *     was interrupted while waiting.
+     */
+    private static FileTree await(FutureTask<FileTree> task)
+            throws IOException {
+        try {
+            return task.get();
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ex = new InterruptedIOException();
+            ex.initCause(e);
+            throw ex;
+            
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+    
+    /**
+     * Removes all file trees which have no references from the registry. Trees which
+     * are obtained afterwards using a {@code getTree} function are created again. <br>
+     * The removed trees remain usable by anyone still holding them, but are not
+     * returned by {@link #getFileTree(FileTreeToken)} anymore.
+     * 
+     * @return The number of removed trees.
+     */
+    public static int evictIdleTrees() {
+        int count = 0;
+        for (FileTreeToken<? extends FileTree, ?> token : FILE_TREE_MAP.keySet()) {
+            boolean[] removed = new boolean[1];
+            FILE_TREE_MAP.computeIfPresent(token, (t, tree) -> {
+                if (tree.refCount.get() != 0) return tree;
+                removed[0] = true;
+                return null;
+            });
+            if (removed[0]) count++;
+        }
+        return count;
     }
     
     /**
@@ -210,79 +391,52 @@ public abstract class FileTree {
     }
     
     /**
-     * Generates the path used in the {@link #LOCKED_MAP}.
+     * Locks the given file exclusively.
      * 
-     * @param path The path to parse.
-     * 
-     * @return The path as it would be stored in {@link #LOCKED_MAP}.
+     * @param file The file to lock.
      */
-    private static String getLockPath(String path) {
-        if (path == null) return null;
-        if (path.length() == 0) {
-            return path;
-            
-        } else if (path.length() >= 2) {
-            return path.substring((path.startsWith(Var.FS) ? 1 : 0),
-                    path.length() - (path.endsWith(Var.FS) ? 1 : 0));
-                    
-        } else if (path.length() == Var.FS.length()) {
-            if (path.equals(Var.FS)) return "";
-            else return path;
-            
-        } else {
-            return path;
-        }
+    public void lock(TreeFile file) {
+        lock(this, file);
     }
     
     /**
-     * Locks the given file.
+     * Locks the given file with the given mode.
      * 
      * @param file The file to lock.
+     * @param mode The lock mode.
      */
-    public void lock(TreeFile file) {
-        lock(this, file);
+    public void lock(TreeFile file, FileLockManager.Mode mode) {
+        lock(this, file, mode);
     }
     
     /**
-     * Locks the file relative to the given tree.
+     * Locks the file relative to the given tree exclusively.
      * 
      * @param tree The file tree used as basis path for local files.
      * @param file The file to lock.
+     * 
+     * @see #lock(FileTree, TreeFile, FileLockManager.Mode)
      */
     public static void lock(FileTree tree, TreeFile file) {
-        final TreeFile abs = tree.toAbsoluteFile(file);
-        TreeFile f = abs;
-        FILE_LOCK.lock();
-        try {
-            String path = getLockPath(f.getPathName());
-            while (path != null && path.length() != 0 && !Var.FS.equals(path)) {
-                boolean reset = false;
-                ReentrantLock lock;
-                while ((lock = LOCKED_MAP.get(path)) != null) {
-                    if (lock.isLocked() && !lock.isHeldByCurrentThread()) {
-                        reset = true;
-                        FILE_IN_USE.await();
-                    }
-                }
-                
-                if (reset) f = abs;
-                else f = tree.getParent(f);
-                path = getLockPath(f.getPathName());
-            }
-            
-            path = getLockPath(abs.getPathName());
-            ReentrantLock lock = LOCKED_MAP.get(path);
-            if (lock == null) {
-                LOCKED_MAP.put(path, lock = new ReentrantLock());
-            }
-            lock.lock();
-            
-        } catch (InterruptedException e) {
-            throw new IllegalStateException(e);
-            
-        } finally {
-            FILE_LOCK.unlock();
-        }
+        lock(tree, file, FileLockManager.Mode.EXCLUSIVE);
+    }
+    
+    /**
+     * Locks the file relative to the given tree with the given mode. <br>
+     * Locking a directory also locks all files in that directory. An exclusive lock
+     * waits until no other thread holds a lock on the file, on a file in the directory,
+     * or on any parent directory. A shared lock only waits for exclusive locks.
+     * 
+     * @param tree The file tree used as basis path for local files.
+     * @param file The file to lock.
+     * @param mode The lock mode.
+     * 
+     * @throws IllegalStateException If the thread was interrupted while waiting.
+     * 
+     * @see FileLockManager
+     */
+    public static void lock(FileTree tree, TreeFile file, FileLockManager.Mode mode) {
+        LOCK_MANAGER.lock(tree.toAbsolutePath(file.getPathName()), mode);
     }
     
     /**
@@ -306,23 +460,7 @@ public abstract class FileTree {
      * @return {@code true} if the file is locked. {@code false} otherwise.
      */
     public static boolean isLocked(FileTree tree, TreeFile file) {
-        TreeFile f = tree.toAbsoluteFile(file);
-        FILE_LOCK.lock();
-        try {
-            String path = getLockPath(f.getPathName());
-            while (path.length() != 0 && !Var.FS.equals(path)) {
-                path = getLockPath(f.getPathName());
-                ReentrantLock lock = LOCKED_MAP.get(path);
-                if (lock != null) {
-                    if (lock.isLocked()) return true;
-                }
-                f = tree.getParent(f);
-            }
-            return false;
-            
-        } finally {
-            FILE_LOCK.unlock();
-        }
+        return LOCK_MANAGER.isLocked(tree.toAbsolutePath(file.getPathName()));
     }
     
     /**
@@ -335,7 +473,8 @@ public abstract class FileTree {
     }
     
     /**
-     * Unlocks the file relative to the given tree.
+     * Unlocks the file relative to the given tree. If the current thread holds
+     * both an exclusive and a shared lock, then the exclusive lock is released.
      * 
      * @param tree The file tree used as basis path for local files.
      * @param file The file to unlock.
@@ -344,28 +483,11 @@ public abstract class FileTree {
      */
     public static void unlock(FileTree tree, TreeFile file)
             throws IllegalMonitorStateException {
-        String path = getLockPath(tree.toAbsolutePath(file.getPathName()));
-        FILE_LOCK.lock();
-        try {
-            ReentrantLock lock = LOCKED_MAP.get(path);
-            if (lock == null) {
-                throw new IllegalMonitorStateException();
-            }
-            lock.unlock();
-            if (!lock.isLocked()) {
-                FILE_IN_USE.signal();
-                if (!LOCKED_MAP.remove(path, lock)) {
-                    throw new IllegalStateException();
-                }
-            }
-            
-        } finally {
-            FILE_LOCK.unlock();
-        }
+        LOCK_MANAGER.unlock(tree.toAbsolutePath(file.getPathName()));
     }
     
     /**
-     * Obtains the lock for the given file, but only if it is not locked.
+     * Obtains the exclusive lock for the given file, but only if it is not locked.
      * 
      * @param tree The file tree used as basis path for local files.
      * @param file The file to unlock.
@@ -373,17 +495,34 @@ public abstract class FileTree {
      * @return {@code true} if the lock was obtained. {@code false} otherwise.
      */
     public static boolean tryLock(FileTree tree, TreeFile file) {
-        FILE_LOCK.lock();
-        try {
-            if (isLocked(tree, file)) return false;
-            else {
-                lock(tree, file);
-                return true;
-            }
-            
-        } finally {
-            FILE_LOCK.unlock();
-        }
+        return LOCK_MANAGER.tryLock(tree.toAbsolutePath(file.getPathName()),
+                FileLockManager.Mode.EXCLUSIVE);
+    }
+    
+    /**
+     * Obtains the lock for the given file, waiting at most the given time.
+     * 
+     * @param tree The file tree used as basis path for local files.
+     * @param file The file to lock.
+     * @param mode The lock mode.
+     * @param timeout The maximum time to wait.
+     * @param unit The unit of the timeout.
+     * 
+     * @return {@code true} if the lock was obtained. {@code false} if the time passed.
+     * 
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    public static boolean tryLock(FileTree tree, TreeFile file, FileLockManager.Mode mode,
+            long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return LOCK_MANAGER.tryLock(tree.toAbsolutePath(file.getPathName()), mode, timeout, unit);
+    }
+    
+    /**
+     * @return A snapshot of the lock contention statistics of all file trees.
+     */
+    public static FileLockManager.Statistics getLockStatistics() {
+        return LOCK_MANAGER.getStatistics();
     }
     
     
@@ -391,6 +530,54 @@ public abstract class FileTree {
      * Functions.
      * -------------------------------------------------------------------------
      */
+    /**
+     * Releases a reference to this tree, which was obtained using a {@code getTree},
+     * {@link #getFileTree(FileTreeToken)} or {@link #getLocalFileTree()} function. If no references remain, then {@link #onIdle()} is invoked. <br>
+     * The tree remains usable after it has been released.
+     * 
+     * @throws IllegalStateException If the tree has been released more often
+     *     than it has been obtained.
+     */
+    public void release() {
+        int count = refCount.decrementAndGet();
+        if (count < 0) {
+            refCount.incrementAndGet();
+            throw new IllegalStateException("The tree has been released more often "
+                    + "than it has been obtained!");
+        }
+        if (count == 0) onIdle();
+    }
+    
+    /**
+     * Releases a reference to this tree. Equivalent to {@link #release()}, which allows
+     * obtained trees to be used in a try-with-resources statement.
+     * 
+     * @throws IllegalStateException If the tree has been released more often
+     *     than it has been obtained.
+     * 
+     * @see #release()
+     */
+    @Override
+    public void close() {
+        release();
+    }
+    
+    /**
+     * @return The number of references to this tree.
+     */
+    public int getReferenceCount() {
+        return refCount.get();
+    }
+    
+    /**
+     * Function which is invoked when the reference count of this tree drops to zero.
+     * Implementations can release their resources here, but should check the reference
+     * count again while holding their own lock, as the tree might have been obtained
+     * again in the mean time. <br>
+     * By default, this function does nothing.
+     */
+    protected void onIdle() { }
+    
     /**
      * Converts a local or absolute path to an absolute path.
      * 
@@ -508,6 +695,36 @@ public abstract class FileTree {
      */
     public abstract long size(TreeFile file);
     
+    /**
+     * Returns a stamp of the last modification of the given file.
+     * 
+     * @param path The path of the file.
+     * 
+     * @return The modification stamp of the file.
+     * 
+     * @see #lastModified(TreeFile)
+     */
+    public long lastModified(String path) {
+        return lastModified(new TreeFile(path));
+    }
+    
+    /**
+     * Returns a stamp of the last modification of the given file. <br>
+     * The stamp changes whenever the contents of the file are modified. A stamp of
+     * {@code 0} denotes that the modification time is unknown, in which case
+     * the file is assumed to never change.
+     * 
+     * @implNote
+     * The default implementation always returns {@code 0}.
+     * 
+     * @param file The file.
+     * 
+     * @return The modification stamp of the file.
+     */
+    public long lastModified(TreeFile file) {
+        return 0;
+    }
+    
     /**
      * Checks whether the given file exists.
      * 
@@ -589,6 +806,46 @@ public abstract class FileTree {
      */
     public abstract byte[] readAllBytes(TreeFile file)
             throws IOException, OutOfMemoryError, SecurityException;
+    
+    /**
+     * Reads all bytes from the given file into a read-only buffer.
+     * 
+     * @param path The path of the file to read.
+     * 
+     * @return A read-only buffer containing all bytes of the file.
+     * 
+     * @throws IOException If an I/O error occurs while reading from the stream.
+     * @throws OutOfMemoryError If the buffer of the required size cannot be allocated.
+     * @throws SecurityException If the security manager denies reading access of the file.
+     * 
+     * @see #readBuffer(TreeFile)
+     */
+    public ByteBuffer readBuffer(String path)
+            throws IOException, OutOfMemoryError, SecurityException {
+        return readBuffer(new TreeFile(path));
+    }
+    
+    /**
+     * Reads all bytes from the given file into a read-only buffer. <br>
+     * Implementations which keep the contents in memory may return a view of the
+     * stored contents instead of a copy.
+     * 
+     * @implNote
+     * The default implementation wraps the result of {@link #readAllBytes(TreeFile)}.
+     * 
+     * @param file The file to read.
+     * 
+     * @return A read-only buffer containing all bytes of the file.
+     * 
+     * @throws IOException If an I/O error occurs while reading from the stream.
+     * @throws OutOfMemoryError If the buffer of the required size cannot be allocated.
+     * @throws SecurityException If the security manager denies reading access of the file.
+     */
+    public ByteBuffer readBuffer(TreeFile file)
+            throws IOException, OutOfMemoryError, SecurityException {
+        return ByteBuffer.wrap(readAllBytes(file)).asReadOnlyBuffer();
+    }
+    
     /**
      * Checks whether the given path denotes a directory.
      * 
@@ -19,10 +19,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileVisitOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -30,23 +34,62 @@ import java.util.jar.JarFile;
 // Tools imports
 import tools.Var;
 import tools.iterators.GeneratorIterator;
+import tools.log.Logger;
 
 
 /**
- * File tree implementation for a file tree from a jar file.
+ * File tree implementation for a file tree from a jar file. <br>
+ * <br>
+ * When the tree is created, an index is built which maps every path in the jar
+ * file to its entry and children. Directories which have no entry of their own in
+ * the jar file are added to the index as well. All queries about the structure
+ * of the tree are answered from this index, and the index is never modified
+ * afterwards. <br>
+ * <br>
+ * The jar file is closed when the reference count of the tree drops to zero,
+ * and opened again when data is read from it.
  * 
- * @version 1.1
+ * @version 1.4
  * @author Kaj Wortel
  */
 public class JarFileTree
         extends FileTree {
     
     /* -------------------------------------------------------------------------
-     * Constants.
+     * Inner classes.
      * -------------------------------------------------------------------------
      */
-    /** The regex used in {@link #list(TreeFile)}. */
-    private final static String REGEX = ".+" + Var.FS + ".+";
+    /**
+     * Class for a node in the index.
+     */
+    private static class Node {
+        /** The local file of the node. Directories end with a {@code '/'}. */
+        private final TreeFile file;
+        /** The entry of the node, or {@code null} if the jar file has no such entry. */
+        private JarEntry entry;
+        /** Whether the node is a directory. */
+        private final boolean dir;
+        /** The children of the node while building the index. */
+        private List<Node> childList;
+        /** The children of the node. */
+        private Node[] children = new Node[0];
+        
+        /**
+         * Creates a new node.
+         * 
+         * @param name The name of the entry.
+         * @param entry The entry of the node, or {@code null} if there is no such entry.
+         * @param dir Whether the node is a directory.
+         */
+        private Node(String name, JarEntry entry, boolean dir) {
+            this.file = new TreeFile(name);
+            this.entry = entry;
+            this.dir = dir;
+            if (dir) childList = new ArrayList<>();
+        }
+        
+        
+    }
     
     
     /* -------------------------------------------------------------------------
@@ -55,8 +98,16 @@ public class JarFileTree
      */
     /** The token used to identify this file tree. */
     private final FileTreeToken<JarFileTree, TreeFile> token;
-    /** The jar file instance used to access data. */
-    private final JarFile jarFile;
+    /** The path of the jar file. */
+    private final String jarPath;
+    /** The lock used for opening and closing the jar file. */
+    private final Object jarLock = new Object();
+    /** The jar file instance used to access data, or {@code null} if it is closed. */
+    private JarFile jarFile;
+    /** The index mapping every path without trailing {@code '/'} to its node. */
+    private final Map<String, Node> index = new HashMap<>();
+    /** The root node of the index. */
+    private final Node root;
     
     
     /* -------------------------------------------------------------------------
@@ -72,8 +123,12 @@ public class JarFileTree
      */
     protected JarFileTree(TreeFile file)
             throws IOException {
-        jarFile = new JarFile(file.getPathName());
+        jarPath = file.getPathName();
+        jarFile = new JarFile(jarPath);
         token = new FileTreeToken<>(JarFileTree.class, file);
+        root = new Node("", null, true);
+        index.put("", root);
+        buildIndex();
     }
     
     
@@ -85,7 +140,7 @@ public class JarFileTree
     /**
      * Returns a {@link JarFileTree} of the given jar file. <br>
      * If a file tree was already created with the given file, then the old
-     * file tree is returned. <br>
+     * file tree is returned. The reference count of the tree is increased. <br>
      * <br>
      * This function replaces the constructor.
      * 
@@ -98,12 +153,7 @@ public class JarFileTree
     public static JarFileTree getTree(TreeFile file)
             throws IOException {
         FileTreeToken<JarFileTree, TreeFile> token = new FileTreeToken<>(JarFileTree.class, file);
-        JarFileTree tree = (JarFileTree) FILE_TREE_MAP.get(token);
-        if (tree == null) {
-            FILE_TREE_MAP.put(token, tree = new JarFileTree(file));
-        }
-        
-        return tree;
+        return getOrCreateTree(token, () -> new JarFileTree(file));
     }
     
     /**
@@ -135,7 +185,106 @@ public class JarFileTree
      */
     @Override
     public String getBasePath() {
-        return jarFile.getName() + "!" + Var.FS;
+        return jarPath + "!" + Var.FS;
+    }
+    
+    /**
+     * Builds the index from the entries in the jar file.
+     */
+    private void buildIndex() {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            String key = (entry.isDirectory() ? name.substring(0, name.length() - 1) : name);
+            Node node = index.get(key);
+            if (node != null) {
+                if (node.entry == null) node.entry = entry;
+                continue;
+            }
+            addNode(key, new Node(name, entry, entry.isDirectory()));
+        }
+        
+        for (Node node : index.values()) {
+            if (node.dir) {
+                node.children = node.childList.toArray(new Node[node.childList.size()]);
+                node.childList = null;
+            }
+        }
+    }
+    
+    /**
+     * Adds the node to the index, and adds it as a child of its parent directory.
+     * Parent directories which are not yet in the index are created.
+     * 
+     * @param key The key of the node.
+     * @param node The node to add.
+     */
+    private void addNode(String key, Node node) {
+        index.put(key, node);
+        int i = key.lastIndexOf('/');
+        String parentKey = (i == -1 ? "" : key.substring(0, i));
+        Node parent = index.get(parentKey);
+        if (parent == null) {
+            parent = new Node(parentKey + "/", null, true);
+            addNode(parentKey, parent);
+        }
+        if (parent.dir) parent.childList.add(node);
+    }
+    
+    /**
+     * Returns the opened jar file. If the jar file was closed because
+     * the tree was idle, then it is opened again.
+     * 
+     * @return The opened jar file.
+     * 
+     * @throws IOException If the jar file could not be opened.
+     */
+    private JarFile getJarFile()
+            throws IOException {
+        synchronized (jarLock) {
+            if (jarFile == null) jarFile = new JarFile(jarPath);
+            return jarFile;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Closes the jar file. The index is kept, and the jar file is opened
+     * again when an input stream is requested. Streams which are still open
+     * become unusable.
+     */
+    @Override
+    protected void onIdle() {
+        synchronized (jarLock) {
+            if (jarFile == null || getReferenceCount() != 0) return;
+            try {
+                jarFile.close();
+                
+            } catch (IOException e) {
+                Logger.write(e, Logger.Type.WARNING);
+                
+            } finally {
+                jarFile = null;
+            }
+        }
+    }
+    
+    /**
+     * Obtains the node with the given local or absolute path.
+     * 
+     * @param path The local or absolute path of the node.
+     * 
+     * @return The node with the given path, or {@code null} if no such node exists.
+     */
+    private Node getNode(String path) {
+        String key = toLocalPath(path).replace('\\', '/');
+        int start = 0;
+        int end = key.length();
+        while (start < end && key.charAt(start) == '/') start++;
+        while (end > start && key.charAt(end - 1) == '/') end--;
+        return index.get(key.substring(start, end));
     }
     
     /**
@@ -143,19 +292,17 @@ public class JarFileTree
      * 
      * @param path The local or absolute path of the entry.
      * 
-     * @return The entry with the given path, or {@code null} if the path matches the root directory.
+     * @return The entry with the given path.
      * 
      * @throws FileNotFoundException If the entry does not exists.
      */
     private JarEntry getEntry(String path)
             throws IOException {
-        String localPath = toLocalPath(path).replaceAll(Var.FILE_REGEX, "/");
-        if ("".equals(localPath)) return null;
-        JarEntry entry = jarFile.getJarEntry(localPath);
-        if (entry == null) {
-            throw new FileNotFoundException("'" + path + "', '" + localPath + "'.");
+        Node node = getNode(path);
+        if (node == null || node.entry == null) {
+            throw new FileNotFoundException("'" + path + "'.");
         }
-        return entry;
+        return node.entry;
     }
     
     @Override
@@ -166,80 +313,92 @@ public class JarFileTree
     @Override
     public Iterator<TreeFile> walk(TreeFile file, FileVisitOption... options)
             throws IOException {
-        JarEntry entry = getEntry(file.getPathName());
-        final String entryPath = (entry == null ? "" : entry.getName());
+        Node start = getNode(file.getPathName());
+        if (start == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        final Deque<Node> stack = new ArrayDeque<>();
+        if (start == root) pushChildren(stack, root);
+        else stack.push(start);
         
-        final Enumeration<JarEntry> entries = jarFile.entries();
         return new GeneratorIterator<TreeFile>() {
             @Override
             protected TreeFile generateNext() {
-                while (entries.hasMoreElements()) {
-                    JarEntry entry = entries.nextElement();
-                    String name = entry.getName();
-                    if (name.startsWith(entryPath)) {
-                        if (entry.isDirectory()) {
-                            return new TreeFile(toAbsolutePath(name));
-                        } else {
-                            return new TreeFile(toAbsolutePath(name));
-                        }
-                    }
+                if (stack.isEmpty()) {
+                    done();
+                    return null;
                 }
-                done();
-                return null;
+                Node node = stack.pop();
+                pushChildren(stack, node);
+                return new TreeFile(toAbsolutePath(node.file.getPathName()));
             }
         };
     }
     
+    /**
+     * Pushes the children of the given node on the stack, such that
+     * the first child is on top.
+     * 
+     * @param stack The stack to push the children on.
+     * @param node The node to push the children of.
+     */
+    private static void pushChildren(Deque<Node> stack, Node node) {
+        for (int i = node.children.length - 1; i >= 0; i--) {
+            stack.push(node.children[i]);
+        }
+    }
+    
     @Override
     public long size(TreeFile file) {
-        JarEntry entry = jarFile.getJarEntry(toLocalPath(file.getPathName()));
-        if (entry == null) return 0;
-        return entry.getSize();
+        Node node = getNode(file.getPathName());
+        if (node == null || node.entry == null) return 0;
+        return node.entry.getSize();
     }
     
     @Override
     public boolean exists(TreeFile file) {
-        String localPath = toLocalPath(file.getPathName());
-        if ("".equals(localPath)) return true;
-        return jarFile.getJarEntry(localPath) != null;
+        return getNode(file.getPathName()) != null;
     }
     
     @Override
     public InputStream getInputStream(TreeFile file)
             throws IOException, SecurityException {
-        JarEntry entry = getEntry(toLocalPath(file.getPathName()));
-        return jarFile.getInputStream(entry);
+        JarEntry entry = getEntry(file.getPathName());
+        JarFile jf = getJarFile();
+        JarEntry current = jf.getJarEntry(entry.getName());
+        if (current == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        return jf.getInputStream(current);
     }
     
     @Override
     public byte[] readAllBytes(TreeFile file)
             throws IOException, OutOfMemoryError, SecurityException {
-        return getInputStream(file).readAllBytes();
+        try (InputStream is = getInputStream(file)) {
+            return is.readAllBytes();
+        }
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws FileNotFoundException If the file does not exist.
+     */
     @Override
     public boolean isDirectory(TreeFile file)
             throws IOException {
-        return getEntry(toLocalPath(file.getPathName())).isDirectory();
+        Node node = getNode(file.getPathName());
+        if (node == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        return node.dir;
     }
     
     @Override
     public TreeFile[] list(TreeFile file)
             throws IOException {
-        List<TreeFile> children = new ArrayList<>();
-        JarEntry entry = getEntry(file.getPathName());
-        String entryPath = (entry == null ? "" : entry.getName());
-        
-        Enumeration<JarEntry> entries = jarFile.entries();
-        while (entries.hasMoreElements()) {
-            String name = entries.nextElement().getName();
-            if (name.startsWith(entryPath) && name.length() > entryPath.length() &&
-                    !name.substring(entryPath.length() + 1).matches(REGEX)) {
-                children.add(new TreeFile(name));
-            }
+        Node node = getNode(file.getPathName());
+        if (node == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        TreeFile[] children = new TreeFile[node.children.length];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = node.children[i].file;
         }
-        
-        return children.toArray(new TreeFile[children.size()]);
+        return children;
     }
     
     
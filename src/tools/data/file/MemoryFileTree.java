@@ -0,0 +1,562 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.FileVisitOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+// Tools imports
+import tools.Var;
+
+
+/**
+ * File tree implementation which keeps all files in memory. <br>
+ * <br>
+ * Every path is stored in an index which maps the path to its node, so all lookups
+ * take constant time. The contents of a file are never modified in place. Instead,
+ * writing to a file replaces its contents when the stream is closed. Therefore
+ * {@link #readBuffer(TreeFile)} returns a read-only view of the contents without
+ * copying, which remains valid after the file is changed. <br>
+ * <br>
+ * The paths in this tree use {@code '/'} as separator, and the paths of directories
+ * end with a {@code '/'}. This class is thread safe.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class MemoryFileTree
+        extends WritableFileTree {
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class for a file or directory in the tree.
+     */
+    private static class Node {
+        /** The local file of the node. */
+        private final TreeFile file;
+        /** The children of the directory sorted on name, or {@code null} for files. */
+        private final Map<String, Node> children;
+        /** The contents of the file. Is never modified. */
+        private volatile byte[] data = new byte[0];
+        /** The modification stamp of the file. */
+        private volatile long modified = 0;
+        
+        /**
+         * Creates a new node.
+         * 
+         * @param key The key of the node.
+         * @param dir Whether the node is a directory.
+         */
+        private Node(String key, boolean dir) {
+            this.file = new TreeFile(key + (dir && !key.isEmpty() ? "/" : ""));
+            this.children = (dir ? new TreeMap<>() : null);
+        }
+        
+        /**
+         * @return {@code true} if this node is a directory.
+         */
+        private boolean isDir() {
+            return children != null;
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The token used to identify this file tree. */
+    private final FileTreeToken<MemoryFileTree, String> token;
+    /** The name of this tree. */
+    private final String name;
+    /** The index mapping every path without trailing {@code '/'} to its node. */
+    private final Map<String, Node> index = new HashMap<>();
+    /** The lock guarding the structure of the tree. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** The last used modification stamp. Guarded by the write lock. */
+    private long version = 0;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new empty in-memory file tree.
+     * 
+     * @param name The name of the tree.
+     */
+    protected MemoryFileTree(String name) {
+        this.name = name;
+        this.token = new FileTreeToken<>(MemoryFileTree.class, name);
+        index.put("", new Node("", true));
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructor functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Returns the in-memory file tree with the given name. <br>
+     * If a file tree was already created with the given name, then the old file tree
+     * is returned. The reference count of the tree is increased. <br>
+     * <br>
+     * This function replaces the constructor.
+     * 
+     * @param name The name of the tree.
+     * 
+     * @return The in-memory file tree with the given name.
+     */
+    public static MemoryFileTree getTree(String name) {
+        FileTreeToken<MemoryFileTree, String> token = new FileTreeToken<>(
+                MemoryFileTree.class, name);
+        try {
+            return getOrCreateTree(token, () -> new MemoryFileTree(name));
+            
+        } catch (IOException e) {
+            // Cannot occur, as the constructor throws no exception.
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    @Override
+    public String getBasePath() {
+        return "memory:" + name + "!" + Var.FS;
+    }
+    
+    @Override
+    public FileTreeToken<MemoryFileTree, String> getToken() {
+        return token;
+    }
+    
+    /**
+     * Converts the given local or absolute path to a key in the index.
+     * 
+     * @param path The path to convert.
+     * 
+     * @return The key of the path.
+     */
+    private String toKey(String path) {
+        String key = toLocalPath(path).replace('\\', '/');
+        int start = 0;
+        int end = key.length();
+        while (start < end && key.charAt(start) == '/') start++;
+        while (end > start && key.charAt(end - 1) == '/') end--;
+        return key.substring(start, end);
+    }
+    
+    /**
+     * @param key The key of a path.
+     * 
+     * @return The key of the parent of the path.
+     */
+    private static String parentKey(String key) {
+        int i = key.lastIndexOf('/');
+        return (i == -1 ? "" : key.substring(0, i));
+    }
+    
+    /**
+     * @param key The key of a path.
+     * 
+     * @return The name of the path.
+     */
+    private static String nameOf(String key) {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+    
+    /**
+     * Obtains the node of the given file.
+     * 
+     * @param file The file to get the node of.
+     * 
+     * @return The node of the file, or {@code null} if it doesn't exist.
+     */
+    private Node getNode(TreeFile file) {
+        String key = toKey(file.getPathName());
+        lock.readLock().lock();
+        try {
+            return index.get(key);
+            
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Obtains the node of the given file, which must not be a directory.
+     * 
+     * @param file The file to get the node of.
+     * 
+     * @return The node of the file.
+     * 
+     * @throws FileNotFoundException If the file doesn't exist or is a directory.
+     */
+    private Node getFileNode(TreeFile file)
+            throws FileNotFoundException {
+        Node node = getNode(file);
+        if (node == null || node.isDir()) {
+            throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        }
+        return node;
+    }
+    
+    /**
+     * Creates the directory with the given key, and optionally all its parents.
+     * The write lock must be held.
+     * 
+     * @param key The key of the directory.
+     * @param parents Whether to create the parent directories.
+     * 
+     * @return The directory node, or {@code null} if it could not be created.
+     */
+    private Node createDir(String key, boolean parents) {
+        Node node = index.get(key);
+        if (node != null) return (node.isDir() ? node : null);
+        Node parent = index.get(parentKey(key));
+        if (parent == null && parents) parent = createDir(parentKey(key), true);
+        if (parent == null || !parent.isDir()) return null;
+        
+        node = new Node(key, true);
+        parent.children.put(nameOf(key), node);
+        index.put(key, node);
+        return node;
+    }
+    
+    /**
+     * Removes the node with the given key and all its children from the index.
+     * The write lock must be held.
+     * 
+     * @param key The key of the node.
+     * @param node The node to remove.
+     */
+    private void remove(String key, Node node) {
+        if (node.isDir()) {
+            for (Node child : node.children.values()) {
+                remove(toKey(child.file.getPathName()), child);
+            }
+        }
+        index.remove(key);
+    }
+    
+    /**
+     * Replaces the contents of the given file. The file and its parent directories
+     * are created if needed.
+     * 
+     * @param file The file to write to.
+     * @param append Whether to append to the current contents.
+     * @param data The new data.
+     * @param len The number of bytes to use from {@code data}.
+     * 
+     * @throws IOException If the file is a directory, or if the parent cannot be created.
+     */
+    private void store(TreeFile file, boolean append, byte[] data, int len)
+            throws IOException {
+        String key = toKey(file.getPathName());
+        if (key.isEmpty()) throw new IOException("Cannot write to the root directory!");
+        lock.writeLock().lock();
+        try {
+            Node node = index.get(key);
+            if (node == null) {
+                Node parent = createDir(parentKey(key), true);
+                if (parent == null) {
+                    throw new IOException("Could not create the parent of '" + file + "'.");
+                }
+                node = new Node(key, false);
+                parent.children.put(nameOf(key), node);
+                index.put(key, node);
+                
+            } else if (node.isDir()) {
+                throw new IOException("'" + file + "' is a directory!");
+            }
+            
+            byte[] old = node.data;
+            byte[] result;
+            if (append && old.length != 0) {
+                result = new byte[old.length + len];
+                System.arraycopy(old, 0, result, 0, old.length);
+                System.arraycopy(data, 0, result, old.length, len);
+                
+            } else {
+                result = (len == data.length ? data : Arrays.copyOf(data, len));
+            }
+            node.data = result;
+            node.modified = ++version;
+            
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replaces the contents of the given file with the given data.
+     * The file and its parent directories are created if needed.
+     * 
+     * @param file The file to write to.
+     * @param data The new contents. The array is copied.
+     * 
+     * @throws IOException If the file is a directory.
+     */
+    public void writeFile(TreeFile file, byte[] data)
+            throws IOException {
+        store(file, false, data.clone(), data.length);
+    }
+    
+    @Override
+    public Iterator<TreeFile> walk(TreeFile file, FileVisitOption... options)
+            throws IOException {
+        Node start = getNode(file);
+        if (start == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        List<TreeFile> files = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        lock.readLock().lock();
+        try {
+            if (start.file.getPathName().isEmpty()) pushChildren(stack, start);
+            else stack.push(start);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                files.add(new TreeFile(toAbsolutePath(node.file.getPathName())));
+                pushChildren(stack, node);
+            }
+            
+        } finally {
+            lock.readLock().unlock();
+        }
+        return files.iterator();
+    }
+    
+    /**
+     * Pushes the children of the given node on the stack, such that the first
+     * child is on top. The read lock must be held.
+     * 
+     * @param stack The stack to push the children on.
+     * @param node The node to push the children of.
+     */
+    private static void pushChildren(Deque<Node> stack, Node node) {
+        if (!node.isDir()) return;
+        Node[] children = node.children.values().toArray(new Node[node.children.size()]);
+        for (int i = children.length - 1; i >= 0; i--) {
+            stack.push(children[i]);
+        }
+    }
+    
+    @Override
+    public long size(TreeFile file) {
+        Node node = getNode(file);
+        if (node == null || node.isDir()) return 0;
+        return node.data.length;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * The stamp is a counter which is increased on every write to this tree.
+     */
+    @Override
+    public long lastModified(TreeFile file) {
+        Node node = getNode(file);
+        return (node == null ? 0 : node.modified);
+    }
+    
+    @Override
+    public boolean exists(TreeFile file) {
+        return getNode(file) != null;
+    }
+    
+    @Override
+    public InputStream getInputStream(TreeFile file)
+            throws IOException, SecurityException {
+        return new ByteArrayInputStream(getFileNode(file).data);
+    }
+    
+    @Override
+    public byte[] readAllBytes(TreeFile file)
+            throws IOException, OutOfMemoryError, SecurityException {
+        return getFileNode(file).data.clone();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * The returned buffer is a view of the stored contents, and is not copied.
+     */
+    @Override
+    public ByteBuffer readBuffer(TreeFile file)
+            throws IOException, SecurityException {
+        return ByteBuffer.wrap(getFileNode(file).data).asReadOnlyBuffer();
+    }
+    
+    @Override
+    public boolean isDirectory(TreeFile file)
+            throws IOException {
+        Node node = getNode(file);
+        return node != null && node.isDir();
+    }
+    
+    @Override
+    public TreeFile[] list(TreeFile file)
+            throws IOException {
+        Node node = getNode(file);
+        if (node == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        if (!node.isDir()) return new TreeFile[0];
+        lock.readLock().lock();
+        try {
+            TreeFile[] children = new TreeFile[node.children.size()];
+            int i = 0;
+            for (Node child : node.children.values()) {
+                children[i++] = child.file;
+            }
+            return children;
+            
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public boolean mkdir(TreeFile file)
+            throws IOException {
+        String key = toKey(file.getPathName());
+        lock.writeLock().lock();
+        try {
+            if (index.containsKey(key)) return false;
+            return createDir(key, false) != null;
+            
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public boolean mkdirs(TreeFile file)
+            throws IOException {
+        String key = toKey(file.getPathName());
+        lock.writeLock().lock();
+        try {
+            if (index.containsKey(key)) return false;
+            return createDir(key, true) != null;
+            
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void writeFile(TreeFile file, boolean append, InputStream data)
+            throws IOException {
+        byte[] bytes = data.readAllBytes();
+        store(file, append, bytes, bytes.length);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * The data is stored when the stream is closed.
+     */
+    @Override
+    public OutputStream getOutputStream(TreeFile file, boolean append)
+            throws IOException {
+        String key = toKey(file.getPathName());
+        Node node = getNode(file);
+        if (node != null && node.isDir()) throw new IOException("'" + file + "' is a directory!");
+        if (key.isEmpty()) throw new IOException("Cannot write to the root directory!");
+        return new ByteArrayOutputStream() {
+            private boolean closed = false;
+            
+            @Override
+            public void close()
+                    throws IOException {
+                if (closed) return;
+                closed = true;
+                store(file, append, buf, count);
+            }
+        };
+    }
+    
+    @Override
+    public boolean deleteFile(TreeFile file)
+            throws IOException, IllegalArgumentException {
+        String key = toKey(file.getPathName());
+        lock.writeLock().lock();
+        try {
+            Node node = index.get(key);
+            if (node == null) return true;
+            if (node.isDir()) throw new IllegalArgumentException("Expected a non-directory file.");
+            index.get(parentKey(key)).children.remove(nameOf(key));
+            index.remove(key);
+            return true;
+            
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public boolean deleteDir(TreeFile file, boolean deleteChildren)
+            throws IOException, IllegalArgumentException {
+        String key = toKey(file.getPathName());
+        lock.writeLock().lock();
+        try {
+            Node node = index.get(key);
+            if (node == null) return true;
+            if (!node.isDir()) throw new IllegalArgumentException("Expected a directory file.");
+            if (!deleteChildren && !node.children.isEmpty()) return false;
+            if (key.isEmpty()) {
+                for (Node child : node.children.values()) {
+                    remove(toKey(child.file.getPathName()), child);
+                }
+                node.children.clear();
+                return true;
+            }
+            index.get(parentKey(key)).children.remove(nameOf(key));
+            remove(key, node);
+            return true;
+            
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    
+}
@@ -0,0 +1,416 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.FileVisitOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+// Tools imports
+import tools.Var;
+
+
+/**
+ * File tree which combines several file trees into a single tree. <br>
+ * <br>
+ * The layers are ordered from top to bottom. If a path exists in several layers,
+ * then the top-most layer determines the file. Directories which exist in several
+ * layers are merged, unless they are hidden by a file in a higher layer. For example,
+ * an overlay of a {@link MemoryFileTree} over a {@link DirFileTree} over a
+ * {@link JarFileTree} allows replacing resources of a jar without modifying it. <br>
+ * <br>
+ * The contents of all layers are indexed once when the tree is created, so a lookup
+ * never has to probe the layers. Files which are added to or removed from a layer
+ * afterwards are only visible after invoking {@link #refresh()}. Changes to the
+ * contents of an indexed file are visible immediately. <br>
+ * <br>
+ * The paths in this tree use {@code '/'} as separator, and the paths of directories
+ * end with a {@code '/'}. This class is thread safe.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class OverlayFileTree
+        extends FileTree {
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class for a file or directory in the index.
+     */
+    private static class Node {
+        /** The local file of the node in this tree. */
+        private final TreeFile file;
+        /** The layer which provides the node. */
+        private final FileTree layer;
+        /** The file of the node in the layer. */
+        private final TreeFile source;
+        /** The children of the directory sorted on name, or {@code null} for files. */
+        private final Map<String, Node> children;
+        
+        /**
+         * Creates a new node.
+         * 
+         * @param key The key of the node.
+         * @param layer The layer which provides the node.
+         * @param source The file of the node in the layer.
+         * @param dir Whether the node is a directory.
+         */
+        private Node(String key, FileTree layer, TreeFile source, boolean dir) {
+            this.file = new TreeFile(key + (dir && !key.isEmpty() ? "/" : ""));
+            this.layer = layer;
+            this.source = source;
+            this.children = (dir ? new TreeMap<>() : null);
+        }
+        
+        /**
+         * @return {@code true} if this node is a directory.
+         */
+        private boolean isDir() {
+            return children != null;
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The token used to identify this file tree. */
+    private final FileTreeToken<OverlayFileTree, List<FileTreeToken<?, ?>>> token;
+    /** The layers of this tree, from top to bottom. */
+    private final FileTree[] layers;
+    /** The base path of this tree. */
+    private final String basePath;
+    /** The index mapping every path without trailing {@code '/'} to its node. */
+    private volatile Map<String, Node> index;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new overlay file tree.
+     * 
+     * @param token The token of the tree.
+     * @param layers The layers of the tree, from top to bottom.
+     * 
+     * @throws IOException If some I/O error occured while indexing the layers.
+     */
+    protected OverlayFileTree(FileTreeToken<OverlayFileTree, List<FileTreeToken<?, ?>>> token,
+            FileTree[] layers)
+            throws IOException {
+        this.token = token;
+        this.layers = layers;
+        StringBuilder sb = new StringBuilder("overlay:");
+        for (int i = 0; i < layers.length; i++) {
+            if (i != 0) sb.append('|');
+            sb.append(layers[i].getBasePath());
+        }
+        basePath = sb.append('!').append(Var.FS).toString();
+        index = buildIndex();
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructor functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Returns the overlay of the given file trees. <br>
+     * If an overlay was already created with the same layers in the same order,
+     * then the old file tree is returned. The reference count of the tree is increased.
+     * The reference counts of the layers are not changed. <br>
+     * <br>
+     * This function replaces the constructor.
+     * 
+     * @param layers The layers of the tree, from top to bottom.
+     * 
+     * @return The overlay of the given file trees.
+     * 
+     * @throws IllegalArgumentException If no layers were given.
+     * @throws IOException If some I/O error occured while indexing the layers.
+     */
+    public static OverlayFileTree getTree(FileTree... layers)
+            throws IOException {
+        if (layers.length == 0) {
+            throw new IllegalArgumentException("layers.length(" + layers.length + ") == 0");
+        }
+        FileTree[] copy = layers.clone();
+        List<FileTreeToken<?, ?>> tokens = new ArrayList<>(copy.length);
+        for (FileTree layer : copy) {
+            tokens.add(layer.getToken());
+        }
+        FileTreeToken<OverlayFileTree, List<FileTreeToken<?, ?>>> token
+                = new FileTreeToken<>(OverlayFileTree.class, tokens);
+        return getOrCreateTree(token, () -> new OverlayFileTree(token, copy));
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Rebuilds the index of this tree. This function should be invoked after
+     * files were added to or removed from one of the layers.
+     * 
+     * @throws IOException If some I/O error occured while indexing the layers.
+     */
+    public void refresh()
+            throws IOException {
+        index = buildIndex();
+    }
+    
+    /**
+     * @return The layers of this tree, from top to bottom.
+     */
+    public FileTree[] getLayers() {
+        return layers.clone();
+    }
+    
+    /**
+     * Builds the index by listing the layers from top to bottom.
+     * 
+     * @return The new index.
+     * 
+     * @throws IOException If some I/O error occured.
+     */
+    private Map<String, Node> buildIndex()
+            throws IOException {
+        Map<String, Node> map = new HashMap<>();
+        Node root = new Node("", layers[0], new TreeFile(""), true);
+        map.put("", root);
+        for (FileTree layer : layers) {
+            addChildren(map, root, layer, new TreeFile(""));
+        }
+        return map;
+    }
+    
+    /**
+     * Adds the children of the given directory of a layer to the index.
+     * Paths which are already in the index are only merged if both are directories.
+     * 
+     * @param map The index to add the children to.
+     * @param parent The node of the directory.
+     * @param layer The layer to list the directory of.
+     * @param dir The directory in the layer.
+     * 
+     * @throws IOException If some I/O error occured.
+     */
+    private void addChildren(Map<String, Node> map, Node parent, FileTree layer, TreeFile dir)
+            throws IOException {
+        String parentKey = toKey(parent.file.getPathName());
+        for (TreeFile child : layer.list(dir)) {
+            String local = layer.toLocalPath(child.getPathName()).replace('\\', '/');
+            boolean isDir = local.endsWith("/");
+            String key = toKey(local);
+            if (key.isEmpty()) continue;
+            String name = key.substring(key.lastIndexOf('/') + 1);
+            if (!parentKey.isEmpty()) key = parentKey + "/" + name;
+            
+            Node node = map.get(key);
+            if (node == null) {
+                node = new Node(key, layer, child, isDir);
+                map.put(key, node);
+                parent.children.put(name, node);
+                
+            } else if (!node.isDir() || !isDir) {
+                // Hidden by a higher layer.
+                continue;
+            }
+            if (isDir) addChildren(map, node, layer, child);
+        }
+    }
+    
+    /**
+     * Converts the given local or absolute path to a key in the index.
+     * 
+     * @param path The path to convert.
+     * 
+     * @return The key of the path.
+     */
+    private String toKey(String path) {
+        String key = toLocalPath(path).replace('\\', '/');
+        int start = 0;
+        int end = key.length();
+        while (start < end && key.charAt(start) == '/') start++;
+        while (end > start && key.charAt(end - 1) == '/') end--;
+        return key.substring(start, end);
+    }
+    
+    /**
+     * Obtains the node of the given file.
+     * 
+     * @param file The file to get the node of.
+     * 
+     * @return The node of the file, or {@code null} if it doesn't exist.
+     */
+    private Node getNode(TreeFile file) {
+        return index.get(toKey(file.getPathName()));
+    }
+    
+    /**
+     * Obtains the node of the given file, which must not be a directory.
+     * 
+     * @param file The file to get the node of.
+     * 
+     * @return The node of the file.
+     * 
+     * @throws FileNotFoundException If the file doesn't exist or is a directory.
+     */
+    private Node getFileNode(TreeFile file)
+            throws FileNotFoundException {
+        Node node = getNode(file);
+        if (node == null || node.isDir()) {
+            throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        }
+        return node;
+    }
+    
+    /**
+     * Determines the layer which provides the given file.
+     * 
+     * @param file The file to get the layer of.
+     * 
+     * @return The layer of the file, or {@code null} if the file doesn't exist.
+     */
+    public FileTree getLayer(TreeFile file) {
+        Node node = getNode(file);
+        return (node == null ? null : node.layer);
+    }
+    
+    @Override
+    public String getBasePath() {
+        return basePath;
+    }
+    
+    @Override
+    public FileTreeToken<OverlayFileTree, List<FileTreeToken<?, ?>>> getToken() {
+        return token;
+    }
+    
+    @Override
+    public Iterator<TreeFile> walk(TreeFile file, FileVisitOption... options)
+            throws IOException {
+        Node start = getNode(file);
+        if (start == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        List<TreeFile> files = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        if (start.file.getPathName().isEmpty()) pushChildren(stack, start);
+        else stack.push(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            files.add(new TreeFile(toAbsolutePath(node.file.getPathName())));
+            pushChildren(stack, node);
+        }
+        return files.iterator();
+    }
+    
+    /**
+     * Pushes the children of the given node on the stack, such that the first
+     * child is on top.
+     * 
+     * @param stack The stack to push the children on.
+     * @param node The node to push the children of.
+     */
+    private static void pushChildren(Deque<Node> stack, Node node) {
+        if (!node.isDir()) return;
+        Node[] children = node.children.values().toArray(new Node[node.children.size()]);
+        for (int i = children.length - 1; i >= 0; i--) {
+            stack.push(children[i]);
+        }
+    }
+    
+    @Override
+    public long size(TreeFile file) {
+        Node node = getNode(file);
+        if (node == null || node.isDir()) return 0;
+        return node.layer.size(node.source);
+    }
+    
+    @Override
+    public long lastModified(TreeFile file) {
+        Node node = getNode(file);
+        return (node == null ? 0 : node.layer.lastModified(node.source));
+    }
+    
+    @Override
+    public boolean exists(TreeFile file) {
+        return getNode(file) != null;
+    }
+    
+    @Override
+    public InputStream getInputStream(TreeFile file)
+            throws IOException, SecurityException {
+        Node node = getFileNode(file);
+        return node.layer.getInputStream(node.source);
+    }
+    
+    @Override
+    public byte[] readAllBytes(TreeFile file)
+            throws IOException, OutOfMemoryError, SecurityException {
+        Node node = getFileNode(file);
+        return node.layer.readAllBytes(node.source);
+    }
+    
+    @Override
+    public ByteBuffer readBuffer(TreeFile file)
+            throws IOException, OutOfMemoryError, SecurityException {
+        Node node = getFileNode(file);
+        return node.layer.readBuffer(node.source);
+    }
+    
+    @Override
+    public boolean isDirectory(TreeFile file)
+            throws IOException {
+        Node node = getNode(file);
+        return node != null && node.isDir();
+    }
+    
+    @Override
+    public TreeFile[] list(TreeFile file)
+            throws IOException {
+        Node node = getNode(file);
+        if (node == null) throw new FileNotFoundException("'" + file.getPathName() + "'.");
+        if (!node.isDir()) return new TreeFile[0];
+        TreeFile[] children = new TreeFile[node.children.size()];
+        int i = 0;
+        for (Node child : node.children.values()) {
+            children[i++] = child.file;
+        }
+        return children;
+    }
+    
+    
+    
+}
@@ -22,7 +22,7 @@ import tools.data.file.FileTree;
 /**
  * This class is a default implementation of a GUI image sheet which uses custom images.
  * 
- * @version 1.1
+ * @version 1.2
  * @author Kaj Wortel
  */
 public class DefaultGUIImageSheet
@@ -51,7 +51,9 @@ public class DefaultGUIImageSheet
      * -------------------------------------------------------------------------
      */
     /**
-     * Creates an image sheet using the default custom images.
+     * Creates an image sheet using the default custom images. <br>
+     * The sheet keeps the reference to the local file tree for its entire lifetime,
+     * since the images are loaded from it when needed.
      */
     public DefaultGUIImageSheet() {
         super(FileTree.getLocalFileTree(), OVERLAY, BUTTON_DEF, BUTTON_OVER,
@@ -33,9 +33,14 @@ import javax.swing.SwingUtilities;
  * Afterwards, all key-processing functions should use this class to check for
  * certain key events. It is guaranteed that the key events of this class remain
  * constant in the same cycle, assuming {@link #update()} is noly invoked at the
- * beginning of the cycle.
+ * beginning of the cycle. <br>
+ * <br>
+ * The key events may be received on a different thread than the thread which
+ * updates the detector, so all functions are thread safe. The history set is never
+ * modified after it has been published by {@link #update()} or {@link #reset()},
+ * so it can be read without locking.
  * 
- * @version 1.0
+ * @version 1.2
  * @author Kaj Wortel
  */
 public class KeyPressedDetector
@@ -53,7 +58,7 @@ public class KeyPressedDetector
     
     /** List containing all keys that were pressed between the last two updates.
      *  This list is only updated by the update method, and not via events. */
-    private Set<Key> keysPressedHistory = new HashSet<Key>();
+    private volatile Set<Key> keysPressedHistory = new HashSet<Key>();
     
     
     /* -------------------------------------------------------------------------
@@ -82,14 +87,14 @@ public class KeyPressedDetector
      * -------------------------------------------------------------------------
      */
     @Override
-    public void keyPressed(KeyEvent e) {
+    public synchronized void keyPressed(KeyEvent e) {
         Key key = new Key(e);
         keysCurPressed.add(key);
         keysPressedSinceLastUpdate.add(key);
     }
     
     @Override
-    public void keyReleased(KeyEvent e) {
+    public synchronized void keyReleased(KeyEvent e) {
         keysCurPressed.remove(new Key(e));
     }
     
@@ -122,16 +127,17 @@ public class KeyPressedDetector
      * Clears the key pressed and released history of the previous and current cycle.
      * Note that this does <b>NOT</b> include resetting the keys which were already pressed.
      */
-    public void reset() {
+    public synchronized void reset() {
         keysPressedSinceLastUpdate.clear();
-        keysPressedHistory.clear();
+        // The history set might be read concurrently, so it is replaced instead of cleared.
+        keysPressedHistory = new HashSet<Key>();
     }
     
     /**
      * Updates the lists to their new status. <br>
      * This function should be invoked at the start of each cycle.
      */
-    public void update() {
+    public synchronized void update() {
         keysPressedHistory = keysPressedSinceLastUpdate;
         keysPressedSinceLastUpdate = new HashSet<Key>(keysCurPressed);
     }
@@ -40,7 +40,7 @@ import tools.data.file.TreeFile;
 /**
  * Auto-loads all the nessecary FONTS for the application at start-up.
  * 
- * @version 1.0
+ * @version 1.1
  * @author Kaj Wortel
  */
 public final class FontLoader {
@@ -329,7 +329,9 @@ public final class FontLoader {
         }, Logger.Type.INFO);
         try {
             Logger.write("load file tree");
-            loadFileTree(FileTree.getLocalFileTree(), Var.L_FONT_DIR);
+            try (FileTree tree = FileTree.getLocalFileTree()) {
+                loadFileTree(tree, Var.L_FONT_DIR);
+            }
             
         } catch (RuntimeException e) {
             Logger.write(e);
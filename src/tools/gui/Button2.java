@@ -123,10 +123,7 @@ public class Button2
     
     public Button2(int sizeX, int sizeY, int barSize)
             throws IOException {
-        this(sizeX, sizeY, barSize,
-             ImageSheetLoader.ensureLoadedAndGetImage(FileTree.getLocalFileTree(),
-                     Var.L_IMG_DIR + "button2_img_TYPE_001.png", 16, 16),
-             Button2.TYPE_TURNED);
+        this(sizeX, sizeY, barSize, loadDefaultImage(), Button2.TYPE_TURNED);
     }
     
     public Button2(int sizeX, int sizeY, int barSize, char character)
@@ -136,10 +133,22 @@ public class Button2
     
     public Button2(int sizeX, int sizeY, int barSize, String text)
         throws IOException {
-        this(sizeX, sizeY, barSize,
-                ImageSheetLoader.ensureLoadedAndGetImage(FileTree.getLocalFileTree(),
-                        Var.L_IMG_DIR + "button2_img_TYPE_001.png", 16, 16),
-                Button2.TYPE_TURNED, text);
+        this(sizeX, sizeY, barSize, loadDefaultImage(), Button2.TYPE_TURNED, text);
+    }
+    
+    /**
+     * Loads the default button images from the local file tree.
+     * 
+     * @return The default button images.
+     * 
+     * @throws IOException If some I/O error occured.
+     */
+    private static Image[][] loadDefaultImage()
+            throws IOException {
+        try (FileTree tree = FileTree.getLocalFileTree()) {
+            return ImageSheetLoader.ensureLoadedAndGetImage(tree,
+                    Var.L_IMG_DIR + "button2_img_TYPE_001.png", 16, 16);
+        }
     }
     
     public Button2(int barSize, Image[][] img) {
@@ -49,7 +49,7 @@ import tools.io.ImageSheetLoader;
  * - implement "good" rescaling images by rescaling them in the repaint
  *   method instead of the setBounds.
  * 
- * @version 0.0
+ * @version 0.1
  * @author Kaj Wortel
  * 
  * @deprecated Ancient class. Should be thrown away.
@@ -117,35 +117,17 @@ public class Slider
      *     or LOWERED_BUTTON.
      */
     public Slider(final int st, final int bt) throws IOException {
-        this(   // leftEnd
-                ImageSheetLoader.ensureLoadedAndGetImage(FileTree.getLocalFileTree(),
-                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png", // File loc
-                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png_left_right_end", // Name
-                        0, 0,   // Start X/Y
-                        12, 48, // End X/Y
-                        12, 24  // Size X/Y per image
-                )[0][0],
-                // middle
-                ImageSheetLoader.ensureLoadedAndGetImage(
-                        FileTree.getLocalFileTree(),
-                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png",  // File loc
-                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png_middle_bar", // Name
-                        12, 0,  // Start X/Y
-                        36, 24, // End X/Y
-                        24, 24  // Size X/Y per image
-                )[0][0],
-                // rightEnd
-                ImageSheetLoader.ensureLoadedAndGetImage(FileTree.getLocalFileTree(),
-                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png_left_right_end")[0][1], // Name
-                // button
-                ImageSheetLoader.ensureLoadedAndGetImage(FileTree.getLocalFileTree(),
-                        Var.L_IMG_DIR + "slider_img_TYPE_00" + bt + ".png", // File loc
-                        Var.L_IMG_DIR + "slider_img_TYPE_00" + bt + ".png_middle_button", // name
-                        12, 24,  // Start X/Y
-                        36, 48, // End X/Y
-                        24, 24  // Size X/Y per image
-                )[0][0]
-        );
+        this(loadImages(st, bt));
+    }
+    
+    /**
+     * Creates a Slider with the given images.
+     * 
+     * @param img The images of resp. the left end, the middle part,
+     *     the right end and the button of the slider.
+     */
+    private Slider(Image[] img) {
+        this(img[0], img[1], img[2], img[3]);
     }
     
     /**
@@ -188,6 +170,52 @@ public class Slider
         
     }
     
+    /**
+     * Loads the images of the predefined image sheet from the local file tree.
+     * 
+     * @param st denotes the slider type.
+     * @param bt denotes the button type.
+     * 
+     * @return The images of resp. the left end, the middle part,
+     *     the right end and the button of the slider.
+     * 
+     * @throws IOException If some I/O error occured.
+     */
+    private static Image[] loadImages(int st, int bt)
+            throws IOException {
+        try (FileTree tree = FileTree.getLocalFileTree()) {
+            return new Image[] {
+                // leftEnd
+                ImageSheetLoader.ensureLoadedAndGetImage(tree,
+                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png", // File loc
+                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png_left_right_end", // Name
+                        0, 0,   // Start X/Y
+                        12, 48, // End X/Y
+                        12, 24  // Size X/Y per image
+                )[0][0],
+                // middle
+                ImageSheetLoader.ensureLoadedAndGetImage(tree,
+                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png",  // File loc
+                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png_middle_bar", // Name
+                        12, 0,  // Start X/Y
+                        36, 24, // End X/Y
+                        24, 24  // Size X/Y per image
+                )[0][0],
+                // rightEnd
+                ImageSheetLoader.ensureLoadedAndGetImage(tree,
+                        Var.L_IMG_DIR + "slider_img_TYPE_00" + st + ".png_left_right_end")[0][1], // Name
+                // button
+                ImageSheetLoader.ensureLoadedAndGetImage(tree,
+                        Var.L_IMG_DIR + "slider_img_TYPE_00" + bt + ".png", // File loc
+                        Var.L_IMG_DIR + "slider_img_TYPE_00" + bt + ".png_middle_button", // name
+                        12, 24,  // Start X/Y
+                        36, 48, // End X/Y
+                        24, 24  // Size X/Y per image
+                )[0][0]
+            };
+        }
+    }
+    
     /* -------------------------------------------------------------------------
      * Set functions
      * -------------------------------------------------------------------------
@@ -0,0 +1,331 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+
+
+// Tools imports
+import tools.Var;
+
+
+/**
+ * Writer which encodes text directly into a set of reusable buffers. <br>
+ * The text is encoded using a {@link CharsetEncoder} into a fixed number of direct
+ * {@link ByteBuffer}s. Once all buffers are full, they are written to the file
+ * using a single gathering write on a {@link FileChannel}, after which the buffers
+ * are reused. Unmappable and malformed characters are replaced, similar to
+ * {@link java.io.FileWriter}. <br>
+ * <br>
+ * If the file is opened in append mode, then all data is written at the end
+ * of the file, and the last line of a non-empty file is assumed to be unterminated. Otherwise the file is truncated when it is opened. <br>
+ * <br>
+ * This class is not thread safe.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see FileTools#writeFile(File, String[], boolean, Charset)
+ */
+public class BatchLineWriter
+        implements Closeable, Flushable {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default size of a buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    /** The default number of buffers. */
+    public static final int DEFAULT_BUFFER_COUNT = 8;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The channel to write to. */
+    private final FileChannel channel;
+    /** The encoder used to encode the text. */
+    private final CharsetEncoder encoder;
+    /** The buffers to encode the text into. */
+    private final ByteBuffer[] buffers;
+    /** Buffer used to store a high surrogate at the end of the previous text. */
+    private final CharBuffer carry = CharBuffer.allocate(2);
+    /** The index of the buffer currently being filled. */
+    private int cur = 0;
+    /** Whether the writer has been closed. */
+    private boolean closed = false;
+    /** Whether a line separator is needed before the next line of {@link #writeLines(String[])}. */
+    private boolean needSep = false;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new writer with the default buffer size and count.
+     * 
+     * @param file The file to write to.
+     * @param append Whether to append to the file instead of truncating it.
+     * @param charset The character set used to encode the text.
+     * 
+     * @throws IOException If the file could not be opened.
+     */
+    public BatchLineWriter(File file, boolean append, Charset charset)
+            throws IOException {
+        this(file, append, charset, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+    }
+    
+    /**
+     * Creates a new writer.
+     * 
+     * @param file The file to write to.
+     * @param append Whether to append to the file instead of truncating it.
+     * @param charset The character set used to encode the text.
+     * @param bufferSize The size of a buffer.
+     * @param bufferCount The number of buffers.
+     * 
+     * @throws IllegalArgumentException If {@code bufferSize < 16 || bufferCount <= 0}.
+     * @throws IOException If the file could not be opened.
+     */
+    public BatchLineWriter(File file, boolean append, Charset charset,
+            int bufferSize, int bufferCount)
+            throws IOException {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize(" + bufferSize + ") < 16");
+        }
+        if (bufferCount <= 0) {
+            throw new IllegalArgumentException("bufferCount(" + bufferCount + ") <= 0");
+        }
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        buffers = new ByteBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(bufferSize);
+        }
+        carry.flip();
+        
+        if (append) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // The last line of the file is not terminated by a line separator.
+            needSep = channel.size() > 0;
+        } else {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Checks whether the writer is still open.
+     * 
+     * @throws IOException If the writer has been closed.
+     */
+    private void checkOpen()
+            throws IOException {
+        if (closed) throw new IOException("The stream has been closed!");
+    }
+    
+    /**
+     * Writes the given text.
+     * 
+     * @param text The text to write.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    public void write(CharSequence text)
+            throws IOException {
+        checkOpen();
+        CharBuffer in = CharBuffer.wrap(text);
+        while (carry.hasRemaining() && in.hasRemaining()) {
+            carry.compact();
+            carry.put(in.get());
+            carry.flip();
+            encode(carry, false);
+        }
+        encode(in, false);
+        if (in.hasRemaining()) {
+            carry.compact();
+            carry.put(in);
+            carry.flip();
+        }
+        int len = text.length();
+        if (len != 0) {
+            char last = text.charAt(len - 1);
+            needSep = (last != '\n' && last != '\r');
+        }
+    }
+    
+    /**
+     * Writes the given text, followed by a line separator.
+     * 
+     * @param line The line to write.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    public void writeLine(CharSequence line)
+            throws IOException {
+        write(line);
+        write(Var.LS);
+    }
+    
+    /**
+     * Writes the given lines, separated by a line separator.
+     * No line separator is written after the last line. If the previously written
+     * text, or the existing file in append mode, does not end with a line separator,
+     * then a line separator is written before the first line. Hence appending lines
+     * to a file written by this function results in the concatenation of the lines.
+     * 
+     * @param lines The lines to write.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    public void writeLines(String[] lines)
+            throws IOException {
+        for (String line : lines) {
+            if (needSep) write(Var.LS);
+            write(line);
+            needSep = true;
+        }
+    }
+    
+    /**
+     * Encodes the given characters into the buffers. All buffers are written
+     * to the channel when they are full.
+     * 
+     * @param in The characters to encode.
+     * @param endOfInput Whether there is no more input.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void encode(CharBuffer in, boolean endOfInput)
+            throws IOException {
+        while (true) {
+            CoderResult cr = encoder.encode(in, buffers[cur], endOfInput);
+            if (cr.isUnderflow()) return;
+            if (cr.isOverflow()) nextBuffer();
+            else cr.throwException();
+        }
+    }
+    
+    /**
+     * Moves to the next buffer, and writes all buffers if they are all full.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void nextBuffer()
+            throws IOException {
+        if (++cur < buffers.length) return;
+        writeBuffers();
+    }
+    
+    /**
+     * Writes the filled buffers to the channel using a gathering write,
+     * and clears them afterwards.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void writeBuffers()
+            throws IOException {
+        int n = Math.min(cur + 1, buffers.length);
+        long remaining = 0;
+        for (int i = 0; i < n; i++) {
+            buffers[i].flip();
+            remaining += buffers[i].remaining();
+        }
+        try {
+            while (remaining > 0) {
+                remaining -= channel.write(buffers, 0, n);
+            }
+            
+        } finally {
+            for (int i = 0; i < n; i++) {
+                buffers[i].clear();
+            }
+            cur = 0;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Writes all buffered data to the file. An unpaired high surrogate at the end
+     * of the written text is kept until more text is written. Note that the data
+     * is not forced to the storage device.
+     */
+    @Override
+    public void flush()
+            throws IOException {
+        checkOpen();
+        writeBuffers();
+    }
+    
+    /**
+     * Writes all buffered data to the file and forces it to the storage device.
+     * 
+     * @param metaData Whether the meta data of the file should be forced as well.
+     * 
+     * @throws IOException If some IO error occured.
+     * 
+     * @see FileChannel#force(boolean)
+     */
+    public void sync(boolean metaData)
+            throws IOException {
+        flush();
+        channel.force(metaData);
+    }
+    
+    @Override
+    public void close()
+            throws IOException {
+        if (closed) return;
+        try {
+            encode(carry, true);
+            while (true) {
+                CoderResult cr = encoder.flush(buffers[cur]);
+                if (cr.isUnderflow()) break;
+                if (cr.isOverflow()) nextBuffer();
+                else cr.throwException();
+            }
+            writeBuffers();
+            
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+    
+    
+}
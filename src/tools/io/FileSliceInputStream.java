@@ -0,0 +1,308 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Seekable input stream over a region of a file. <br>
+ * The data is read using positional reads on a {@link FileChannel}, so the stream
+ * keeps its own position and never changes the position of the channel. Therefore
+ * multiple slices of the same channel can be read concurrently, as long as every
+ * slice is only used by one thread at a time. <br>
+ * <br>
+ * Small reads are served from an internal buffer, while large reads are read
+ * directly into the destination array. Closing the stream does not close the channel.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see SlicedFile
+ */
+public class FileSliceInputStream
+        extends InputStream {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default size of the internal buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The channel to read the data from. */
+    private final FileChannel channel;
+    /** The offset of the slice in the file. */
+    private final long start;
+    /** The length of the slice. */
+    private final long length;
+    /** The buffer containing the bytes from {@link #pos} onwards. */
+    private final ByteBuffer buf;
+    /** The position of the next byte to read, relative to the start of the slice. */
+    private long pos = 0;
+    /** The marked position, relative to the start of the slice. */
+    private long mark = 0;
+    /** Whether the stream has been closed. */
+    private boolean closed = false;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new stream over a slice of the given channel with the default buffer size.
+     * 
+     * @param channel The channel to read from.
+     * @param start The offset of the slice in the file.
+     * @param length The length of the slice.
+     */
+    public FileSliceInputStream(FileChannel channel, long start, long length) {
+        this(channel, start, length, DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * Creates a new stream over a slice of the given channel.
+     * 
+     * @param channel The channel to read from.
+     * @param start The offset of the slice in the file.
+     * @param length The length of the slice.
+     * @param bufferSize The size of the internal buffer.
+     * 
+     * @throws IllegalArgumentException If {@code start < 0 || length < 0 || bufferSize <= 0}.
+     */
+    public FileSliceInputStream(FileChannel channel, long start, long length, int bufferSize) {
+        if (channel == null) throw new NullPointerException();
+        if (start < 0) throw new IllegalArgumentException("start(" + start + ") < 0");
+        if (length < 0) throw new IllegalArgumentException("length(" + length + ") < 0");
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize(" + bufferSize + ") <= 0");
+        }
+        this.channel = channel;
+        this.start = start;
+        this.length = length;
+        this.buf = ByteBuffer.allocate((int) Math.min(bufferSize, Math.max(1, length)));
+        buf.limit(0);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Checks whether the stream is still open.
+     * 
+     * @throws IOException If the stream has been closed.
+     */
+    private void checkStream()
+            throws IOException {
+        if (closed) throw new IOException("The stream has been closed!");
+    }
+    
+    /**
+     * Refills the internal buffer from the current position.
+     * 
+     * @return {@code true} if data is available in the buffer. {@code false} otherwise.
+     * 
+     * @throws IOException If an IO error occurs.
+     */
+    private boolean fill()
+            throws IOException {
+        buf.clear();
+        buf.limit((int) Math.min(buf.capacity(), length - pos));
+        int read = 0;
+        while (buf.hasRemaining()) {
+            int r = channel.read(buf, start + pos + buf.position());
+            if (r < 0) break;
+            read += r;
+        }
+        buf.flip();
+        return read > 0;
+    }
+    
+    @Override
+    public int read()
+            throws IOException {
+        checkStream();
+        if (pos >= length) return -1;
+        if (!buf.hasRemaining() && !fill()) return -1;
+        pos++;
+        return buf.get() & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len)
+            throws IOException {
+        checkStream();
+        if (b == null) throw new NullPointerException();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException("off(" + off + "), len(" + len
+                    + "), b.length(" + b.length + ")");
+        }
+        if (len == 0) return 0;
+        if (pos >= length) return -1;
+        
+        if (!buf.hasRemaining()) {
+            if (len >= buf.capacity()) {
+                ByteBuffer dst = ByteBuffer.wrap(b, off, (int) Math.min(len, length - pos));
+                int read = channel.read(dst, start + pos);
+                if (read < 0) return -1;
+                buf.limit(0);
+                pos += read;
+                return read;
+            }
+            if (!fill()) return -1;
+        }
+        int read = Math.min(len, buf.remaining());
+        buf.get(b, off, read);
+        pos += read;
+        return read;
+    }
+    
+    /**
+     * Reads bytes from the given position of the slice into the given buffer.
+     * This function does not use or modify the position of this stream.
+     * 
+     * @param dst The buffer to store the data in.
+     * @param position The position relative to the start of the slice.
+     * 
+     * @return The number of bytes read, or {@code -1} if the position is at or
+     *     beyond the end of the slice.
+     * 
+     * @throws IOException If an IO error occurs.
+     */
+    public int read(ByteBuffer dst, long position)
+            throws IOException {
+        checkStream();
+        if (position < 0) throw new IllegalArgumentException("position(" + position + ") < 0");
+        if (position >= length) return -1;
+        int limit = dst.limit();
+        long rem = length - position;
+        if (dst.remaining() > rem) dst.limit(dst.position() + (int) rem);
+        try {
+            return channel.read(dst, start + position);
+            
+        } finally {
+            dst.limit(limit);
+        }
+    }
+    
+    /**
+     * Sets the position of the stream. Bytes which are still
+     * in the internal buffer are not read again.
+     * 
+     * @param position The new position relative to the start of the slice.
+     * 
+     * @throws IOException If the stream has been closed.
+     * @throws IllegalArgumentException If {@code position < 0 || position > length()}.
+     */
+    public void seek(long position)
+            throws IOException {
+        checkStream();
+        if (position < 0 || position > length) {
+            throw new IllegalArgumentException("position(" + position + "), length("
+                    + length + ")");
+        }
+        long delta = position - pos;
+        if (-buf.position() <= delta && delta <= buf.remaining()) {
+            buf.position(buf.position() + (int) delta);
+        } else {
+            buf.limit(0);
+        }
+        pos = position;
+    }
+    
+    /**
+     * @return The current position relative to the start of the slice.
+     */
+    public long position() {
+        return pos;
+    }
+    
+    /**
+     * @return The length of the slice.
+     */
+    public long length() {
+        return length;
+    }
+    
+    /**
+     * @return The offset of the slice in the file.
+     */
+    public long getStart() {
+        return start;
+    }
+    
+    @Override
+    public long skip(long n)
+            throws IOException {
+        checkStream();
+        if (n <= 0) return 0;
+        long target = Math.min(length, pos + n);
+        long skipped = target - pos;
+        seek(target);
+        return skipped;
+    }
+    
+    @Override
+    public int available()
+            throws IOException {
+        checkStream();
+        return (int) Math.min(Integer.MAX_VALUE, length - pos);
+    }
+    
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * The read limit is ignored, since any position can be restored.
+     */
+    @Override
+    public void mark(int readlimit) {
+        mark = pos;
+    }
+    
+    @Override
+    public void reset()
+            throws IOException {
+        seek(mark);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Note that this function does not close the underlying channel.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+    
+    
+}
@@ -0,0 +1,329 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+// Tools imports
+import tools.Var;
+
+
+/**
+ * Lazy spliterator over all files in a directory tree. <br>
+ * <br>
+ * The directories are read using {@link Files#newDirectoryStream(Path)}, and the
+ * attributes of each entry are read exactly once using
+ * {@link Files#readAttributes(Path, Class, java.nio.file.LinkOption...)}. Only one
+ * directory is open at a time per spliterator, and entries are only read when they
+ * are requested. <br>
+ * <br>
+ * The returned files follow the naming scheme of {@link FileTools#getFileList(File, boolean)}:
+ * the directory of each {@link PartFile} is the root, and the relative path of
+ * a directory ends with a file separator. When traversed sequentially, it holds that:
+ * <ul>
+ *   <li> A directory is listed before its contents. </li>
+ *   <li> The files of a directory are listed before its sub-directories. </li>
+ *   <li> A sub-directory is listed only after all contents of the previously
+ *        listed sub-directory of the same parent. </li>
+ * </ul>
+ * <br>
+ * When splitting, the unvisited sub-directories are divided over the spliterators.
+ * If there are none, then the next directory is read eagerly to find new
+ * sub-directories. The order of the elements is therefore not preserved
+ * when traversing in parallel. <br>
+ * <br>
+ * Each spliterator only closes its own directory stream when {@link #close()} is
+ * invoked, since the split-off spliterators are usually traversed by other threads.
+ * To ensure that no directory remains open when a split-off spliterator is abandoned,
+ * split-off spliterators read each directory completely as soon as it is opened,
+ * and close it directly afterwards. Entries which are removed while traversing are skipped. Other IO errors are thrown as
+ * {@link UncheckedIOException}.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see FileTools#streamFileList(File, boolean)
+ */
+public class FileSpliterator
+        implements Spliterator<PartFile>, Closeable {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The root directory. */
+    private final File root;
+    /** Whether to list the directories. */
+    private final boolean listDirs;
+    /** Whether to read each directory completely directly after opening it. */
+    private final boolean eager;
+    
+    /** Stack containing the sub-directories which have not been opened yet. */
+    private final Deque<PartFile> dirs = new ArrayDeque<>();
+    /** Queue containing the entries which have been read, but not returned. */
+    private final Deque<PartFile> buffer = new ArrayDeque<>();
+    /** The sub-directories found in the currently opened directory. */
+    private final Deque<PartFile> newDirs = new ArrayDeque<>();
+    
+    /** The stream of the currently opened directory. */
+    private volatile DirectoryStream<Path> stream;
+    /** The iterator of the currently opened directory. */
+    private Iterator<Path> it;
+    /** The directory currently being read. */
+    private PartFile current;
+    /** Whether the spliterator has been closed. */
+    private volatile boolean closed = false;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new spliterator over all files in the given root.
+     * If {@code root} is a file, then only {@code root} will be returned.
+     * If {@code root} doesn't exist, then no files are returned.
+     * 
+     * @param root The root directory.
+     * @param listDirs Whether to list the directories.
+     */
+    public FileSpliterator(File root, boolean listDirs) {
+        this.root = root;
+        this.listDirs = listDirs;
+        this.eager = false;
+        
+        PartFile rootFile = new PartFile(root, "");
+        if (root.isDirectory()) dirs.push(rootFile);
+        else if (root.exists()) buffer.add(rootFile);
+    }
+    
+    /**
+     * Creates a new spliterator which was split from the given spliterator.
+     * 
+     * @param parent The spliterator to split from.
+     */
+    private FileSpliterator(FileSpliterator parent) {
+        this.root = parent.root;
+        this.listDirs = parent.listDirs;
+        this.eager = true;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new lazy stream over all files in the given root.
+     * The returned stream should be closed after use.
+     * 
+     * @param root The root directory.
+     * @param listDirs Whether to list the directories.
+     * @param parallel Whether the stream should be parallel.
+     * 
+     * @return A stream over all files in the given root.
+     * 
+     * @see #FileSpliterator(File, boolean)
+     */
+    public static Stream<PartFile> stream(File root, boolean listDirs, boolean parallel) {
+        FileSpliterator split = new FileSpliterator(root, listDirs);
+        return StreamSupport.stream(split, parallel).onClose(split::close);
+    }
+    
+    /**
+     * Opens the given directory. If {@code listDirs}, then the directory
+     * is added to the buffer.
+     * 
+     * @param dir The directory to open.
+     * 
+     * @return {@code true} if the directory was opened. {@code false} if the
+     *     directory doesn't exist anymore.
+     * 
+     * @throws UncheckedIOException If some IO error occured.
+     */
+    private boolean open(PartFile dir) {
+        try {
+            stream = Files.newDirectoryStream(dir.toPath());
+            
+        } catch (NoSuchFileException e) {
+            return false;
+            
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        it = stream.iterator();
+        current = dir;
+        if (listDirs) buffer.add(dir);
+        return true;
+    }
+    
+    /**
+     * Reads the next entry of the current directory. Files are added to the buffer,
+     * and directories are remembered until the current directory has been read. <br>
+     * If the end of the directory has been reached, then the directory is closed
+     * and the found directories are pushed on the stack.
+     * 
+     * @throws UncheckedIOException If some IO error occured.
+     */
+    private void readNext() {
+        if (closed || !it.hasNext()) {
+            closeCurrent();
+            while (!newDirs.isEmpty()) {
+                dirs.push(newDirs.pollLast());
+            }
+            return;
+        }
+        
+        Path path = it.next();
+        BasicFileAttributes attr;
+        try {
+            attr = Files.readAttributes(path, BasicFileAttributes.class);
+            
+        } catch (NoSuchFileException e) {
+            return;
+            
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        String name = current.getRelativeFileName() + path.getFileName().toString();
+        if (attr.isDirectory()) newDirs.add(new PartFile(root, name + Var.FS));
+        else buffer.add(new PartFile(root, name));
+    }
+    
+    /**
+     * Reads all remaining entries of the current directory.
+     * 
+     * @throws UncheckedIOException If some IO error occured.
+     */
+    private void readAll() {
+        while (it != null) {
+            readNext();
+        }
+    }
+    
+    /**
+     * Closes the currently opened directory, if any.
+     * 
+     * @throws UncheckedIOException If some IO error occured.
+     */
+    private void closeCurrent() {
+        if (stream == null) return;
+        try {
+            stream.close();
+            
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+            
+        } finally {
+            stream = null;
+            it = null;
+            current = null;
+        }
+    }
+    
+    @Override
+    public boolean tryAdvance(Consumer<? super PartFile> action) {
+        while (buffer.isEmpty()) {
+            if (closed) return false;
+            if (it != null) readNext();
+            else if (dirs.isEmpty()) return false;
+            else if (open(dirs.pop()) && eager) readAll();
+        }
+        action.accept(buffer.poll());
+        return true;
+    }
+    
+    @Override
+    public void forEachRemaining(Consumer<? super PartFile> action) {
+        while (tryAdvance(action)) { }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * The unvisited sub-directories which are furthest from the top of the
+     * stack are given to the new spliterator, as these are most likely
+     * to contain the most files.
+     */
+    @Override
+    public Spliterator<PartFile> trySplit() {
+        if (closed) return null;
+        if (dirs.size() == 1 && it == null && buffer.isEmpty()) {
+            // Read the only directory to find new sub-directories.
+            if (!open(dirs.pop())) return null;
+            readAll();
+        }
+        
+        boolean hasWork = it != null || !buffer.isEmpty();
+        int amt = (hasWork ? dirs.size() + 1 : dirs.size()) / 2;
+        if (amt == 0) return null;
+        
+        FileSpliterator split = new FileSpliterator(this);
+        for (int i = 0; i < amt; i++) {
+            split.dirs.push(dirs.pollLast());
+        }
+        return split;
+    }
+    
+    @Override
+    public long estimateSize() {
+        return (dirs.isEmpty() && it == null ? buffer.size() : Long.MAX_VALUE);
+    }
+    
+    @Override
+    public int characteristics() {
+        return DISTINCT | NONNULL;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Closes the currently opened directory of this spliterator. The spliterators
+     * split from this spliterator are not affected. Any remaining entries are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        DirectoryStream<Path> ds = stream;
+        if (ds == null) return;
+        try {
+            ds.close();
+            
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    
+}
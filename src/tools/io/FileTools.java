@@ -16,12 +16,11 @@ package tools.io;
 
 // Java imports
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.nio.file.CopyOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -30,12 +29,17 @@ import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 // Tools imports
 import tools.BoolEvaluator;
 import tools.Var;
+import tools.concurrent.Scheduler;
 import tools.data.BlockByteBuffer;
 
 
@@ -118,27 +122,116 @@ public class FileTools {
         }
     }
     
+    /**
+     * Reads a file and parses it into an array using a {@link MappedLineReader}.
+     * The data in the file is split on new line character in the array.
+     * 
+     * @param file The file to read from.
+     * @param charset The character set of the file.
+     * @param scheduler The scheduler used to decode the file in parallel,
+     *     or {@code null} to decode the file on the calling thread.
+     * 
+     * @return An array representing the file.
+     * 
+     * @throws IOException if there occured an exception during the IO operations.
+     * 
+     * @see MappedLineReader#readFile(File)
+     */
+    public static String[] readFile(File file, Charset charset, Scheduler scheduler)
+            throws IOException {
+        return new MappedLineReader(scheduler, charset).readFile(file);
+    }
+    
+    /**
+     * Passes each line of a file to a consumer using a {@link MappedLineReader}.
+     * If not {@code ordered}, then the consumer is invoked concurrently
+     * and must be thread safe.
+     * 
+     * @param file The file to read from.
+     * @param charset The character set of the file.
+     * @param action The consumer to give the lines to.
+     * @param ordered Whether the lines should be passed in order.
+     * @param scheduler The scheduler used to decode the file in parallel,
+     *     or {@code null} to decode the file on the calling thread.
+     * 
+     * @throws IOException if there occured an exception during the IO operations.
+     * 
+     * @see MappedLineReader#forEach(File, Consumer, boolean)
+     */
+    public static void forEach(File file, Charset charset, Consumer<String> action,
+            boolean ordered, Scheduler scheduler)
+            throws IOException {
+        new MappedLineReader(scheduler, charset).forEach(file, action, ordered);
+    }
+    
     /**
      * Parses the data and writes it into a file.
      * Each element in {@code data} is written on a separate line.
+     * The data is encoded using the default character set.
      * 
      * @param file The file to write to.
      * @param data The data to parse.
+     * @param append Whether to append the data to the file instead of replacing it.
      * 
      * @throws IOException Iif there occured an exception during the IO operations.
      */
     public static void writeFile(File file, String[] data, boolean append)
             throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
-            boolean first = true;
-            for (String line : data) {
-                if (first) first = false;
-                else bw.write(Var.LS);
-                bw.write(line);
-            }
+        writeFile(file, data, append, Charset.defaultCharset());
+    }
+    
+    /**
+     * Parses the data and writes it into a file using a {@link BatchLineWriter}.
+     * Each element in {@code data} is written on a separate line.
+     * 
+     * @param file The file to write to.
+     * @param data The data to parse.
+     * @param append Whether to append the data to the file instead of replacing it.
+     * @param charset The character set used to encode the data.
+     * 
+     * @throws IOException Iif there occured an exception during the IO operations.
+     */
+    public static void writeFile(File file, String[] data, boolean append, Charset charset)
+            throws IOException {
+        try (BatchLineWriter writer = new BatchLineWriter(file, append, charset)) {
+            writer.writeLines(data);
         }
     }
     
+    /**
+     * Parses the data and writes it into a file on the given scheduler.
+     * Each element in {@code data} is written on a separate line.
+     * The data array should not be modified until the returned future has completed.
+     * 
+     * @param file The file to write to.
+     * @param data The data to parse.
+     * @param append Whether to append the data to the file instead of replacing it.
+     * @param charset The character set used to encode the data.
+     * @param scheduler The scheduler used to write the data, or {@code null}
+     *     to use the {@link ForkJoinPool#commonPool() common pool}.
+     * 
+     * @return A future which is completed when all data has been written,
+     *     or completed exceptionally if the data could not be written.
+     * 
+     * @see #writeFile(File, String[], boolean, Charset)
+     */
+    public static CompletableFuture<Void> writeFileAsync(File file, String[] data,
+            boolean append, Charset charset, Scheduler scheduler) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                writeFile(file, data, append, charset);
+                future.complete(null);
+                
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (scheduler == null) ForkJoinPool.commonPool().execute(task);
+        else scheduler.scheduleTask(task);
+        return future;
+    }
+    
     /**
      * Lists all files in the given root directory. <br>
      * Furthermore, it holds for any entry that:
@@ -161,36 +254,44 @@ public class FileTools {
      * @return A list containing all files in the given root directory.
      */
     public static List<PartFile> getFileList(File root, boolean listDirs) {
-        if (!root.exists()) return new ArrayList(0);
-        
-        List<PartFile> output = new ArrayList<>();
-        if (root.isFile()) {
-           output.add(new PartFile(root, ""));
-           return output;
-        }
-        
-        Stack<PartFile> dirStack = new Stack<>();
-        dirStack.push(new PartFile(root, ""));
-        
-        while (!dirStack.isEmpty()) {
-            PartFile pf = dirStack.pop();
-            if (pf.isFile()) {
-                output.add(pf);
-                
-            } else {
-                if (listDirs) output.add(pf);
-                for (File f : pf.listFiles()) {
-                    if (f.isFile()) {
-                        output.add(new PartFile(root, pf.getRelativeFileName() + f.getName()));
-                        
-                    } else {
-                        dirStack.push(new PartFile(root, pf.getRelativeFileName() + f.getName() + Var.FS));
-                    }
-                }
-            }
+        try (Stream<PartFile> stream = streamFileList(root, listDirs)) {
+            return stream.collect(Collectors.toCollection(ArrayList::new));
         }
-        
-        return output;
+    }
+    
+    /**
+     * Lazily lists all files in the given root directory. <br>
+     * The files are listed in the same order and with the same names as
+     * {@link #getFileList(File, boolean)}, but the directories are only read
+     * when the files are requested. The returned stream should be closed after use.
+     * 
+     * @param root The root directory to start listing from.
+     * @param listDirs Whether to list the directories.
+     * 
+     * @return A sequential stream over all files in the given root directory.
+     * 
+     * @see FileSpliterator
+     */
+    public static Stream<PartFile> streamFileList(File root, boolean listDirs) {
+        return FileSpliterator.stream(root, listDirs, false);
+    }
+    
+    /**
+     * Lazily lists all files in the given root directory. <br>
+     * If {@code parallel}, then the sub-directories are traversed in parallel
+     * and no assumptions about the order of the files can be made.
+     * The returned stream should be closed after use.
+     * 
+     * @param root The root directory to start listing from.
+     * @param listDirs Whether to list the directories.
+     * @param parallel Whether the returned stream should be parallel.
+     * 
+     * @return A stream over all files in the given root directory.
+     * 
+     * @see FileSpliterator
+     */
+    public static Stream<PartFile> streamFileList(File root, boolean listDirs, boolean parallel) {
+        return FileSpliterator.stream(root, listDirs, parallel);
     }
     
     /**
@@ -416,6 +517,26 @@ public class FileTools {
         fileTreeAction(source, target, cmp, MOVE_FILES, options);
     }
     
+    /**
+     * Moves an entire file tree from {@code soruce} to {@code target},
+     * using multiple threads.
+     *
+     * @param source The source file/directory of the move.
+     * @param target The target file/directory of the move.
+     * @param cmp The comparator for ignoring files.
+     * @param parallelism The number of threads to use.
+     * @param options The copy options for moving the files.
+     * 
+     * @throws IOException If some IO error occured.
+     *
+     * @see FileTreeOperation#move(File, File, BoolEvaluator, CopyOption...)
+     */
+    public static void moveFileTree(File source, File target,
+            BoolEvaluator<File> cmp, int parallelism, CopyOption... options)
+            throws IOException {
+        new FileTreeOperation(parallelism).move(source, target, cmp, options);
+    }
+    
     /**
      * Copies an entire file tree from {@code soruce} to {@code target}.
      *
@@ -453,6 +574,26 @@ public class FileTools {
         fileTreeAction(source, target, cmp, COPY_FILES, options);
     }
     
+    /**
+     * Copies an entire file tree from {@code soruce} to {@code target},
+     * using multiple threads.
+     *
+     * @param source the source file/directory of the copy.
+     * @param target the target file/directory of the copy.
+     * @param cmp the comparator for ignoring files.
+     * @param parallelism The number of threads to use.
+     * @param options the copy options for moving the files.
+     * 
+     * @throws IOException If some IO error occured.
+     *
+     * @see FileTreeOperation#copy(File, File, BoolEvaluator, CopyOption...)
+     */
+    public static void copyFileTree(File source, File target,
+            BoolEvaluator<File> cmp, int parallelism, CopyOption... options)
+            throws IOException {
+        new FileTreeOperation(parallelism).copy(source, target, cmp, options);
+    }
+    
     /**
      * Deletes the entire file tree {@code soruce}.
      *
@@ -484,6 +625,22 @@ public class FileTools {
         fileTreeAction(source, null, cmp, DELETE_FILES);
     }
     
+    /**
+     * Deletes the entire file tree {@code soruce}, using multiple threads.
+     *
+     * @param source the source file/directory of the delete.
+     * @param cmp the comparator for ignoring files.
+     * @param parallelism The number of threads to use.
+     * 
+     * @throws IOException If some IO error occured.
+     * 
+     * @see FileTreeOperation#delete(File, BoolEvaluator)
+     */
+    public static void deleteFileTree(File source, BoolEvaluator<File> cmp, int parallelism)
+            throws IOException {
+        new FileTreeOperation(parallelism).delete(source, cmp);
+    }
+    
     /**
      * Performs an action on an entire file tree.
      * <br><br>
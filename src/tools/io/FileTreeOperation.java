@@ -0,0 +1,544 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Tools imports
+import tools.BoolEvaluator;
+import tools.data.ProgressTracker;
+
+
+/**
+ * Parallel engine for moving, copying and deleting entire file trees. <br>
+ * Every directory is processed as a separate task on a work-stealing {@link ForkJoinPool}.
+ * A directory task lists its children once, creates the target sub-directories before
+ * forking any work, and then forks the sub-directories and batches of files as new tasks. Idle
+ * workers steal these tasks, so the I/O operations of independent files are executed
+ * concurrently. <br>
+ * <br>
+ * Files are copied using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * which allows the operating system to copy the data without passing it through the JVM.
+ * If other options than {@link StandardCopyOption#REPLACE_EXISTING} are given, then
+ * {@link Files#copy(Path, Path, CopyOption...)} is used instead. In particular, if
+ * {@link StandardCopyOption#COPY_ATTRIBUTES} is given, then the files are copied with
+ * all attributes supported by the file system. The target directories then receive
+ * the time stamps, and the POSIX permissions or DOS attributes of their source
+ * directories after their contents have been processed. <br>
+ * <br>
+ * The filter semantics are equal to the ones of {@link FileTools#copyFileTree(File, File, BoolEvaluator, CopyOption...)}:
+ * a file or directory is ignored if the filter evaluates to {@code true}, and the contents
+ * of an ignored directory are ignored as well. Just as for the sequential functions, the
+ * root directory itself is never deleted when moving or deleting a tree.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see FileTools
+ */
+public class FileTreeOperation {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The number of files which are processed in a single task. */
+    private static final int BATCH_SIZE = 16;
+    /** The minimum time between two progress updates in nanoseconds. */
+    private static final long PROGRESS_INTERVAL = 100_000_000L;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Enum denoting the action to perform on each file.
+     */
+    private enum Action {
+        MOVE, COPY, DELETE;
+    }
+    
+    
+    /**
+     * Class containing the state of a single operation.
+     */
+    private final class Operation {
+        /** The action to perform. */
+        private final Action action;
+        /** The filter for ignoring files. */
+        private final BoolEvaluator<File> cmp;
+        /** The copy options. */
+        private final CopyOption[] options;
+        /** Whether files can be copied using channels. */
+        private final boolean transfer;
+        /** Whether existing files can be replaced. */
+        private final boolean replace;
+        /** Whether the attributes should be copied. */
+        private final boolean copyAttrs;
+        
+        /** The number of discovered files. */
+        private final AtomicLong discovered = new AtomicLong();
+        /** The number of processed files. */
+        private final AtomicLong processed = new AtomicLong();
+        /** The number of processed bytes. */
+        private final AtomicLong bytes = new AtomicLong();
+        /** The time stamp of the last progress update. */
+        private final AtomicLong lastUpdate = new AtomicLong(System.nanoTime());
+        
+        /**
+         * Creates a new operation.
+         * 
+         * @param action The action to perform.
+         * @param cmp The filter for ignoring files.
+         * @param options The copy options.
+         */
+        private Operation(Action action, BoolEvaluator<File> cmp, CopyOption[] options) {
+            this.action = action;
+            this.cmp = cmp;
+            this.options = (options == null ? new CopyOption[0] : options);
+            boolean replace = false;
+            boolean copyAttrs = false;
+            boolean transfer = true;
+            for (CopyOption option : this.options) {
+                if (option == StandardCopyOption.REPLACE_EXISTING) replace = true;
+                else if (option == StandardCopyOption.COPY_ATTRIBUTES) {
+                    // Let the file system copy all attributes of the files.
+                    copyAttrs = true;
+                    transfer = false;
+                    
+                } else {
+                    transfer = false;
+                }
+            }
+            this.replace = replace;
+            this.copyAttrs = copyAttrs;
+            this.transfer = transfer;
+        }
+        
+        /**
+         * @param file The file to check.
+         * 
+         * @return {@code true} if the file should be ignored. {@code false} otherwise.
+         */
+        private boolean ignore(File file) {
+            return cmp != null && cmp.evaluate(file);
+        }
+        
+        /**
+         * Performs the action on a single file.
+         * 
+         * @param source The source file.
+         * @param target The target file, or {@code null} if the files are deleted.
+         * @param size The size of the file.
+         * 
+         * @throws IOException If some IO error occured.
+         */
+        private void processFile(Path source, Path target, long size)
+                throws IOException {
+            if (action == Action.MOVE) {
+                Files.move(source, target, options);
+                
+            } else if (action == Action.COPY) {
+                if (transfer) transferFile(source, target);
+                else Files.copy(source, target, options);
+                
+            } else {
+                source.toFile().delete();
+            }
+            processed.incrementAndGet();
+            bytes.addAndGet(size);
+            updateProgress(false);
+        }
+        
+        /**
+         * Copies a single file using channels.
+         * 
+         * @param source The source file.
+         * @param target The target file.
+         * 
+         * @throws IOException If some IO error occured.
+         */
+        private void transferFile(Path source, Path target)
+                throws IOException {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                    FileChannel out = (replace
+                            ? FileChannel.open(target, StandardOpenOption.WRITE,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.TRUNCATE_EXISTING)
+                            : FileChannel.open(target, StandardOpenOption.WRITE,
+                                    StandardOpenOption.CREATE_NEW))) {
+                long pos = 0;
+                long len = in.size();
+                while (pos < len) {
+                    long amt = in.transferTo(pos, len - pos, out);
+                    if (amt <= 0) break;
+                    pos += amt;
+                }
+            }
+        }
+        
+        /**
+         * Copies the attributes of a directory. Must be invoked after the contents
+         * of the directory have been processed, since these modify the time stamps.
+         * 
+         * @param source The source directory.
+         * @param target The target directory.
+         * 
+         * @throws IOException If some IO error occured.
+         */
+        private void copyDirAttributes(Path source, Path target)
+                throws IOException {
+            PosixFileAttributeView srcPosix
+                    = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+            PosixFileAttributeView tarPosix
+                    = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+            if (srcPosix != null && tarPosix != null) {
+                tarPosix.setPermissions(srcPosix.readAttributes().permissions());
+            }
+            
+            DosFileAttributeView srcDos
+                    = Files.getFileAttributeView(source, DosFileAttributeView.class);
+            DosFileAttributeView tarDos
+                    = Files.getFileAttributeView(target, DosFileAttributeView.class);
+            if (srcPosix == null && srcDos != null && tarDos != null) {
+                DosFileAttributes dos = srcDos.readAttributes();
+                tarDos.setArchive(dos.isArchive());
+                tarDos.setHidden(dos.isHidden());
+                tarDos.setSystem(dos.isSystem());
+                tarDos.setReadOnly(dos.isReadOnly());
+            }
+            
+            BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+            Files.getFileAttributeView(target, BasicFileAttributeView.class).setTimes(
+                    attrs.lastModifiedTime(), attrs.lastAccessTime(), attrs.creationTime());
+        }
+        
+        /**
+         * Updates the progress tracker, if needed.
+         * 
+         * @param force Whether to force the update.
+         */
+        private void updateProgress(boolean force) {
+            if (tracker == null) return;
+            long now = System.nanoTime();
+            long last = lastUpdate.get();
+            if (!force && (now - last < PROGRESS_INTERVAL
+                    || !lastUpdate.compareAndSet(last, now))) {
+                return;
+            }
+            long done = processed.get();
+            long total = Math.max(done, discovered.get());
+            synchronized (tracker) {
+                tracker.replaceLastLine("Processed " + done + " of " + total
+                        + " discovered files (" + bytes.get() + " bytes)");
+                tracker.setProgress(total == 0 ? 100.0 : 100.0 * done / total);
+            }
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Task for processing a single directory.
+     */
+    private final class DirTask
+            extends RecursiveAction {
+        /** The serial version UID. The tasks are never serialized. */
+        private static final long serialVersionUID = 1L;
+        /** The operation state. */
+        private final Operation op;
+        /** The source directory. */
+        private final Path source;
+        /** The target directory, or {@code null} if the files are deleted. */
+        private final Path target;
+        
+        /**
+         * Creates a new directory task.
+         * 
+         * @param op The operation state.
+         * @param source The source directory.
+         * @param target The target directory, or {@code null} if the files are deleted.
+         */
+        private DirTask(Operation op, Path source, Path target) {
+            this.op = op;
+            this.source = source;
+            this.target = target;
+        }
+        
+        @Override
+        protected void compute() {
+            try {
+                List<Path> dirs = new ArrayList<>();
+                List<Path> files = new ArrayList<>();
+                List<Long> sizes = new ArrayList<>();
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(source)) {
+                    for (Path child : ds) {
+                        if (op.ignore(child.toFile())) continue;
+                        BasicFileAttributes attrs;
+                        try {
+                            attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                            
+                        } catch (IOException e) {
+                            continue;
+                        }
+                        if (attrs.isDirectory()) {
+                            dirs.add(child);
+                            
+                        } else {
+                            files.add(child);
+                            sizes.add(attrs.size());
+                        }
+                    }
+                }
+                op.discovered.addAndGet(files.size());
+                
+                // Create all target directories before forking, so they exist
+                // when the sub-tasks start.
+                if (target != null) {
+                    for (Path dir : dirs) {
+                        try {
+                            Files.createDirectory(target.resolve(dir.getFileName().toString()));
+                            
+                        } catch (FileAlreadyExistsException e) {
+                            // Ignore.
+                        }
+                    }
+                }
+                
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (Path dir : dirs) {
+                    tasks.add(new DirTask(op, dir, (target == null
+                            ? null
+                            : target.resolve(dir.getFileName().toString()))));
+                }
+                for (int i = 0; i < files.size(); i += BATCH_SIZE) {
+                    int from = i;
+                    int to = Math.min(files.size(), i + BATCH_SIZE);
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            try {
+                                for (int j = from; j < to; j++) {
+                                    Path file = files.get(j);
+                                    op.processFile(file, (target == null
+                                            ? null
+                                            : target.resolve(file.getFileName().toString())),
+                                            sizes.get(j));
+                                }
+                                
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    });
+                }
+                invokeAll(tasks);
+                
+                // Remove the empty source directories afterwards.
+                if (op.action != Action.COPY) {
+                    for (Path dir : dirs) {
+                        dir.toFile().delete();
+                    }
+                }
+                if (target != null && op.copyAttrs) op.copyDirAttributes(source, target);
+                
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The number of workers. */
+    private final int parallelism;
+    /** The tracker to report the progress to, or {@code null} if not used. */
+    private volatile ProgressTracker tracker = null;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new engine with one worker per available processor.
+     */
+    public FileTreeOperation() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Creates a new engine with the given number of workers. Since most of the time is
+     * spent waiting on I/O, using more workers than processors can be beneficial.
+     * 
+     * @param parallelism The number of workers.
+     * 
+     * @throws IllegalArgumentException If {@code parallelism <= 0}.
+     */
+    public FileTreeOperation(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism(" + parallelism + ") <= 0");
+        }
+        this.parallelism = parallelism;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Moves an entire file tree from {@code source} to {@code target}.
+     * 
+     * @param source The source file/directory of the move.
+     * @param target The target file/directory of the move.
+     * @param cmp The comparator for ignoring files, or {@code null}.
+     * @param options The copy options for moving the files.
+     * 
+     * @throws IOException If some IO error occured.
+     * 
+     * @see FileTools#moveFileTree(File, File, BoolEvaluator, CopyOption...)
+     */
+    public void move(File source, File target, BoolEvaluator<File> cmp,
+            CopyOption... options)
+            throws IOException {
+        run(new Operation(Action.MOVE, cmp, options), source, target);
+    }
+    
+    /**
+     * Copies an entire file tree from {@code source} to {@code target}.
+     * 
+     * @param source The source file/directory of the copy.
+     * @param target The target file/directory of the copy.
+     * @param cmp The comparator for ignoring files, or {@code null}.
+     * @param options The copy options for copying the files.
+     * 
+     * @throws IOException If some IO error occured.
+     * 
+     * @see FileTools#copyFileTree(File, File, BoolEvaluator, CopyOption...)
+     */
+    public void copy(File source, File target, BoolEvaluator<File> cmp,
+            CopyOption... options)
+            throws IOException {
+        run(new Operation(Action.COPY, cmp, options), source, target);
+    }
+    
+    /**
+     * Deletes the entire file tree {@code source}.
+     * 
+     * @param source The source file/directory of the delete.
+     * @param cmp The comparator for ignoring files, or {@code null}.
+     * 
+     * @throws IOException If some IO error occured.
+     * 
+     * @see FileTools#deleteFileTree(File, BoolEvaluator)
+     */
+    public void delete(File source, BoolEvaluator<File> cmp)
+            throws IOException {
+        run(new Operation(Action.DELETE, cmp, null), source, null);
+    }
+    
+    /**
+     * Executes the given operation.
+     * 
+     * @param op The operation to execute.
+     * @param source The root of the source file tree.
+     * @param target The root of the target file tree, or {@code null}
+     *     if the files are deleted.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void run(Operation op, File source, File target)
+            throws IOException {
+        if (!source.exists()) return;
+        if (tracker != null) {
+            synchronized (tracker) {
+                tracker.addLine("Processed 0 files");
+            }
+        }
+        
+        if (!source.isDirectory()) {
+            if (!op.ignore(source)) {
+                op.discovered.incrementAndGet();
+                op.processFile(source.toPath(), (target == null ? null : target.toPath()),
+                        source.length());
+            }
+            
+        } else {
+            if (target != null) target.mkdirs();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new DirTask(op, source.toPath(),
+                        (target == null ? null : target.toPath())));
+                
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+                
+            } finally {
+                pool.shutdown();
+            }
+        }
+        op.updateProgress(true);
+    }
+    
+    /**
+     * @return The number of workers.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    /**
+     * Sets the progress tracker. Since the tree is not listed in advance, the progress
+     * is the ratio between the processed files and the files discovered so far.
+     * 
+     * @param tracker The new progress tracker, or {@code null} to disable tracking.
+     */
+    public void setProgressTracker(ProgressTracker tracker) {
+        this.tracker = tracker;
+    }
+    
+    
+}
@@ -0,0 +1,419 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+
+// Tools imports
+import tools.concurrent.Scheduler;
+
+
+/**
+ * High-throughput line reader which memory-maps the file. <br>
+ * The file is split into chunks which end directly after a new line character.
+ * Every chunk is mapped and decoded as a separate task on the given {@link Scheduler}.
+ * The lines can be delivered in order on the calling thread, or out of order on
+ * the threads of the scheduler. <br>
+ * <br>
+ * Lines are terminated in the same way as {@link BufferedReader#readLine()}.
+ * Malformed input is replaced by the replacement character of the charset,
+ * similar to {@link InputStreamReader}. <br>
+ * <br>
+ * Splitting the file requires that the character set encodes a new line character
+ * as the single byte {@code 0x0A}, and that this byte does not occur in the encoding
+ * of any other character. Therefore only files using the UTF-8, US-ASCII or one of
+ * the ISO-8859 character sets are split. Files using other character sets, such as
+ * UTF-16, are read sequentially on the calling thread. <br>
+ * <br>
+ * The number of chunks which are read ahead is bounded. The given scheduler must be
+ * started before reading, and is not terminated afterwards. If no scheduler is given,
+ * then the chunks are read on the calling thread.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see FileTools#forEach(File, Charset, Consumer, boolean, Scheduler)
+ */
+public class MappedLineReader {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default size of a chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    /** The size of the buffer used to search for the end of a chunk. */
+    private static final int SCAN_SIZE = 8192;
+    /** The size of the buffer used when the file cannot be split. */
+    private static final int READER_BUFFER_SIZE = 64 * 1024;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The scheduler used to decode the chunks, or {@code null} to use the calling thread. */
+    private final Scheduler scheduler;
+    /** The character set of the files. */
+    private final Charset charset;
+    /** Whether files with the character set can be split on new line bytes. */
+    private final boolean splittable;
+    
+    /** The size of a chunk. */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    /** The maximum number of chunks which are read ahead. */
+    private int readAhead = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new line reader which uses the default character set.
+     * 
+     * @param scheduler The scheduler to use, or {@code null} to use the calling thread.
+     */
+    public MappedLineReader(Scheduler scheduler) {
+        this(scheduler, Charset.defaultCharset());
+    }
+    
+    /**
+     * Creates a new line reader which uses the given character set.
+     * 
+     * @param scheduler The scheduler to use, or {@code null} to use the calling thread.
+     * @param charset The character set of the files.
+     */
+    public MappedLineReader(Scheduler scheduler, Charset charset) {
+        if (charset == null) throw new NullPointerException();
+        this.scheduler = scheduler;
+        this.charset = charset;
+        this.splittable = isSplittable(charset);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Determines whether files with the given character set can be split
+     * directly after a {@code 0x0A} byte. <br>
+     * Probing the encoding of a few characters is not sufficient, since e.g. stateful
+     * encodings and multi-byte encodings might use the byte {@code 0x0A} as part of
+     * another character. Therefore only the known self-synchronizing character sets
+     * are accepted.
+     * 
+     * @param charset The character set to check.
+     * 
+     * @return {@code true} if the character set can be split. {@code false} otherwise.
+     */
+    private static boolean isSplittable(Charset charset) {
+        String name = charset.name();
+        return name.equals("US-ASCII") || name.equals("UTF-8") || name.startsWith("ISO-8859-");
+    }
+    
+    /**
+     * @param chunkSize The new size of a chunk.
+     * 
+     * @throws IllegalArgumentException If {@code chunkSize <= 0}.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize(" + chunkSize + ") <= 0");
+        }
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * @return The size of a chunk.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    /**
+     * @param readAhead The maximum number of chunks which are read ahead.
+     * 
+     * @throws IllegalArgumentException If {@code readAhead <= 0}.
+     */
+    public void setReadAhead(int readAhead) {
+        if (readAhead <= 0) {
+            throw new IllegalArgumentException("readAhead(" + readAhead + ") <= 0");
+        }
+        this.readAhead = readAhead;
+    }
+    
+    /**
+     * @return The character set of the files.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+    
+    /**
+     * Reads a file and parses it into an array.
+     * The data in the file is split on new line character in the array.
+     * 
+     * @param file The file to read from.
+     * 
+     * @return An array representing the file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    public String[] readFile(File file)
+            throws IOException {
+        List<String> data = new ArrayList<>();
+        forEach(file, data::add, true);
+        return data.toArray(new String[data.size()]);
+    }
+    
+    /**
+     * Passes each line of a file to a consumer. <br>
+     * If {@code ordered}, then the lines are passed in order on the calling thread.
+     * Otherwise the lines of a chunk are passed in order on the thread which decoded
+     * the chunk, but different chunks are processed concurrently. The consumer must
+     * be thread safe in this case. <br>
+     * This function returns after all lines have been passed to the consumer.
+     * 
+     * @param file The file to read from.
+     * @param action The consumer to give the lines to.
+     * @param ordered Whether the lines should be passed in order.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    public void forEach(File file, Consumer<String> action, boolean ordered)
+            throws IOException {
+        if (!splittable) {
+            readSequential(file, action);
+            return;
+        }
+        
+        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = fc.size();
+            if (scheduler == null) {
+                for (long start = 0; start < size; ) {
+                    long end = findEnd(fc, start, size);
+                    decodeChunk(fc, start, (int) (end - start), action);
+                    start = end;
+                }
+                return;
+            }
+            
+            Deque<FutureTask<List<String>>> pending = new ArrayDeque<>();
+            boolean success = false;
+            try {
+                for (long start = 0; start < size; ) {
+                    long end = findEnd(fc, start, size);
+                    final long chunkStart = start;
+                    final int len = (int) (end - start);
+                    FutureTask<List<String>> task;
+                    if (ordered) {
+                        task = new FutureTask<>(() -> {
+                            List<String> lines = new ArrayList<>();
+                            decodeChunk(fc, chunkStart, len, lines::add);
+                            return lines;
+                        });
+                        
+                    } else {
+                        task = new FutureTask<>(() -> {
+                            decodeChunk(fc, chunkStart, len, action);
+                            return null;
+                        });
+                    }
+                    scheduler.scheduleTask(task);
+                    pending.addLast(task);
+                    start = end;
+                    
+                    while (!pending.isEmpty() && (pending.size() > readAhead
+                            || pending.peekFirst().isDone())) {
+                        deliver(pending.pollFirst(), action);
+                    }
+                }
+                
+                while (!pending.isEmpty()) {
+                    deliver(pending.pollFirst(), action);
+                }
+                success = true;
+                
+            } finally {
+                if (!success) {
+                    for (FutureTask<List<String>> task : pending) {
+                        task.cancel(false);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Waits for the given task to finish, and passes the decoded lines to the consumer.
+     * 
+     * @param task The task to wait for.
+     * @param action The consumer to give the lines to.
+     * 
+     * @throws IOException If the chunk could not be read.
+     */
+    private static void deliver(FutureTask<List<String>> task, Consumer<String> action)
+            throws IOException {
+        List<String> lines;
+        try {
+            lines = task.get();
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading!");
+            
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException("Could not read chunk!", cause);
+        }
+        if (lines == null) return;
+        for (String line : lines) {
+            action.accept(line);
+        }
+    }
+    
+    /**
+     * Determines the end of the chunk starting at the given position. The end
+     * is the position directly after the first new line character which is at or
+     * after {@code start + chunkSize - 1}, or the end of the file.
+     * 
+     * @param fc The channel to read from.
+     * @param start The start of the chunk.
+     * @param size The size of the file.
+     * 
+     * @return The end of the chunk (exclusive).
+     * 
+     * @throws IOException If some IO error occured, or if a line is too long to be mapped.
+     */
+    private long findEnd(FileChannel fc, long start, long size)
+            throws IOException {
+        long pos = start + chunkSize - 1;
+        if (pos >= size - 1) return checkLength(start, size);
+        
+        ByteBuffer buf = ByteBuffer.allocate(SCAN_SIZE);
+        while (pos < size) {
+            buf.clear();
+            int read = fc.read(buf, pos);
+            if (read < 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) == '\n') return checkLength(start, pos + i + 1);
+            }
+            pos += read;
+            checkLength(start, pos);
+        }
+        return checkLength(start, size);
+    }
+    
+    /**
+     * Checks whether the chunk can be mapped.
+     * 
+     * @param start The start of the chunk.
+     * @param end The end of the chunk.
+     * 
+     * @return {@code end}.
+     * 
+     * @throws IOException If the chunk is too large to be mapped.
+     */
+    private static long checkLength(long start, long end)
+            throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("Line starting after offset " + start + " is too long!");
+        }
+        return end;
+    }
+    
+    /**
+     * Maps and decodes a single chunk, and passes all lines in the chunk
+     * to the given consumer.
+     * 
+     * @param fc The channel to read from.
+     * @param start The start of the chunk.
+     * @param len The length of the chunk.
+     * @param action The consumer to give the lines to.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void decodeChunk(FileChannel fc, long start, int len, Consumer<String> action)
+            throws IOException {
+        MappedByteBuffer mbb = fc.map(FileChannel.MapMode.READ_ONLY, start, len);
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer cb = decoder.decode(mbb);
+        
+        char[] arr = cb.array();
+        int off = cb.arrayOffset() + cb.position();
+        int end = off + cb.remaining();
+        int lineStart = off;
+        for (int i = off; i < end; i++) {
+            char c = arr[i];
+            if (c == '\n' || c == '\r') {
+                action.accept(new String(arr, lineStart, i - lineStart));
+                if (c == '\r' && i + 1 < end && arr[i + 1] == '\n') i++;
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < end) action.accept(new String(arr, lineStart, end - lineStart));
+    }
+    
+    /**
+     * Reads all lines of a file on the calling thread. Used for
+     * character sets which cannot be split.
+     * 
+     * @param file The file to read from.
+     * @param action The consumer to give the lines to.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void readSequential(File file, Consumer<String> action)
+            throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), charset), READER_BUFFER_SIZE)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                action.accept(line);
+            }
+        }
+    }
+    
+    
+}
@@ -0,0 +1,873 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+
+// Tools imports
+import tools.MultiTool;
+import tools.log.Logger;
+
+
+/**
+ * Random-access index for the zip files produced by {@link MultiZipOutputStream}. <br>
+ * The index stores for every entry the part files it is stored in, together with the
+ * offset of the data and the sizes in each part. Entries which continue in the next part
+ * are merged into a single entry, in the same way as {@link MultiZipInputStream} does. <br>
+ * <br>
+ * The index is built by reading only the central directories and the local headers of
+ * the part files, so no data has to be decompressed. The index can be stored in a sidecar
+ * file next to the zip files, which is validated against the sizes and modification times
+ * of the part files when it is loaded again. <br>
+ * <br>
+ * Opening an entry directly seeks to the data of the entry in the right part. All parts are
+ * read via {@link SlicedFile}s using positional reads, hence several entries can be opened
+ * and read concurrently by different threads, as long as every returned stream is only
+ * used by one thread at a time.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see MultiZipInputStream
+ * @see MultiZipOutputStream
+ */
+public class MultiZipIndex
+        implements Closeable {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The suffix of the sidecar file containing the index. */
+    public static final String INDEX_SUFFIX = ".idx";
+    /** The magic number at the start of a sidecar file. */
+    private static final int INDEX_MAGIC = 0x4D5A4958;
+    /** The version of the sidecar file format. */
+    private static final int INDEX_VERSION = 1;
+    
+    // Zip constants
+    private static final int LOC_SIG = 0x04034B50;
+    private static final int CEN_SIG = 0x02014B50;
+    private static final int END_SIG = 0x06054B50;
+    private static final int ZIP64_END_SIG = 0x06064B50;
+    private static final int ZIP64_LOC_SIG = 0x07064B50;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOC_SIZE = 20;
+    private static final int LOC_SIZE = 30;
+    private static final int CEN_SIZE = 46;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int EXTID_ZIP64 = 0x0001;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class describing the part of an entry which is stored in a single part file.
+     */
+    public static class Segment {
+        /** The number of the part file. */
+        private final int part;
+        /** The offset of the data in the part file. */
+        private final long offset;
+        /** The compressed size of the data. */
+        private final long compressedSize;
+        /** The uncompressed size of the data. */
+        private final long size;
+        /** The compression method of the data. */
+        private final int method;
+        /** The CRC of the uncompressed data. */
+        private final long crc;
+        
+        /**
+         * Creates a new segment.
+         * 
+         * @param part The number of the part file.
+         * @param offset The offset of the data in the part file.
+         * @param compressedSize The compressed size of the data.
+         * @param size The uncompressed size of the data.
+         * @param method The compression method of the data.
+         * @param crc The CRC of the uncompressed data.
+         */
+        private Segment(int part, long offset, long compressedSize, long size,
+                int method, long crc) {
+            this.part = part;
+            this.offset = offset;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.method = method;
+            this.crc = crc;
+        }
+        
+        /**
+         * @return The number of the part file.
+         */
+        public int getPart() {
+            return part;
+        }
+        
+        /**
+         * @return The offset of the data in the part file.
+         */
+        public long getOffset() {
+            return offset;
+        }
+        
+        /**
+         * @return The compressed size of the data.
+         */
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+        
+        /**
+         * @return The uncompressed size of the data.
+         */
+        public long getSize() {
+            return size;
+        }
+        
+        /**
+         * @return The compression method of the data.
+         * 
+         * @see ZipEntry#STORED
+         * @see ZipEntry#DEFLATED
+         */
+        public int getMethod() {
+            return method;
+        }
+        
+        /**
+         * @return The CRC of the uncompressed data.
+         */
+        public long getCrc() {
+            return crc;
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Class describing a single entry, which can be spread over multiple part files.
+     */
+    public static class Entry {
+        /** The name of the entry. */
+        private final String name;
+        /** The segments of the entry, in the order of the data. */
+        private final List<Segment> segments = new ArrayList<>(1);
+        /** The total uncompressed size of the entry. */
+        private long size = 0;
+        /** The total compressed size of the entry. */
+        private long compressedSize = 0;
+        
+        /**
+         * Creates a new entry without segments.
+         * 
+         * @param name The name of the entry.
+         */
+        private Entry(String name) {
+            this.name = name;
+        }
+        
+        /**
+         * Adds a segment to the end of this entry.
+         * 
+         * @param seg The segment to add.
+         */
+        private void add(Segment seg) {
+            segments.add(seg);
+            size += seg.size;
+            compressedSize += seg.compressedSize;
+        }
+        
+        /**
+         * @return The name of the entry.
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * @return The total uncompressed size of the entry.
+         */
+        public long getSize() {
+            return size;
+        }
+        
+        /**
+         * @return The total compressed size of the entry.
+         */
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+        
+        /**
+         * @return The number of the first part file containing data of this entry.
+         */
+        public int getFirstPart() {
+            return segments.get(0).part;
+        }
+        
+        /**
+         * @return An unmodifiable list containing the segments of this entry.
+         */
+        public List<Segment> getSegments() {
+            return Collections.unmodifiableList(segments);
+        }
+        
+        /**
+         * @return {@code true} if the entry is a directory. {@code false} otherwise.
+         */
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Inflater input stream which ends the inflater when it is closed, and provides
+     * the extra dummy byte which might be needed when inflating raw deflate data.
+     */
+    private static class SegmentInflaterStream
+            extends InflaterInputStream {
+        /** Whether the dummy byte has been provided. */
+        private boolean eof = false;
+        
+        /**
+         * Creates a new inflater stream for raw deflate data.
+         * 
+         * @param in The stream containing the compressed data.
+         * @param bufferSize The size of the input buffer.
+         */
+        private SegmentInflaterStream(InputStream in, int bufferSize) {
+            super(in, new Inflater(true), bufferSize);
+        }
+        
+        @Override
+        protected void fill()
+                throws IOException {
+            if (eof) throw new EOFException("Unexpected end of ZLIB input stream");
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+        
+        @Override
+        public void close()
+                throws IOException {
+            try {
+                super.close();
+                
+            } finally {
+                inf.end();
+            }
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The path of the zip file, or the prefix of the part files. */
+    private final String filePrefix;
+    /** Whether the data is spread over more than one file. */
+    private final boolean parted;
+    /** The files of all parts. */
+    private final File[] partFiles;
+    /** The entries, mapped by their names in the order of the data. */
+    private final Map<String, Entry> entries;
+    /** The opened part files. Are lazily opened. */
+    private final SlicedFile[] opened;
+    /** Whether the index has been closed. */
+    private volatile boolean closed = false;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new index.
+     * 
+     * @param filePrefix The path of the zip file, or the prefix of the part files.
+     * @param parted Whether the data is spread over more than one file.
+     * @param partFiles The files of all parts.
+     * @param entries The entries of the index.
+     */
+    private MultiZipIndex(String filePrefix, boolean parted, File[] partFiles,
+            Map<String, Entry> entries) {
+        this.filePrefix = filePrefix;
+        this.parted = parted;
+        this.partFiles = partFiles;
+        this.entries = entries;
+        this.opened = new SlicedFile[partFiles.length];
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Static functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Returns the file of the given part. Files with a four digit part number, as
+     * generated by {@link MultiZipOutputStream}, are preferred over files with a
+     * three digit part number.
+     * 
+     * @param filePrefix The path of the zip file, or the prefix of the part files.
+     * @param parted Whether the data is spread over more than one file.
+     * @param part The number of the part.
+     * 
+     * @return The file of the given part. The file might not exist.
+     */
+    static File partFile(String filePrefix, boolean parted, int part) {
+        if (!parted) return new File(filePrefix);
+        File file = new File(filePrefix + ".part" + MultiTool.fillZero(part, 4));
+        if (file.exists()) return file;
+        File old = new File(filePrefix + ".part" + MultiTool.fillZero(part, 3));
+        return (old.exists() ? old : file);
+    }
+    
+    /**
+     * @param filePrefix The path of the zip file, or the prefix of the part files.
+     * @param parted Whether the data is spread over more than one file.
+     * 
+     * @return All existing part files, in order.
+     */
+    private static File[] listParts(String filePrefix, boolean parted) {
+        if (!parted) {
+            File file = new File(filePrefix);
+            return (file.exists() ? new File[] {file} : new File[0]);
+        }
+        List<File> files = new ArrayList<>();
+        File file;
+        while ((file = partFile(filePrefix, true, files.size())).exists()) {
+            files.add(file);
+        }
+        return files.toArray(new File[files.size()]);
+    }
+    
+    /**
+     * @param filePrefix The path of the zip file, or the prefix of the part files.
+     * 
+     * @return The sidecar file of the index.
+     */
+    public static File indexFile(String filePrefix) {
+        return new File(filePrefix + INDEX_SUFFIX);
+    }
+    
+    /**
+     * Loads the index from the sidecar file if it exists and is still valid. Otherwise
+     * the index is built from the zip files and stored in the sidecar file. If the
+     * sidecar file could not be written, then the index is still returned.
+     * 
+     * @param filePrefix The path of the zip file, or the prefix of the part files.
+     * @param parted Whether the data is spread over more than one file.
+     * 
+     * @return The index of the given zip files.
+     * 
+     * @throws IOException If the index could not be built.
+     * 
+     * @see #load(String, boolean)
+     * @see #build(String, boolean)
+     */
+    public static MultiZipIndex open(String filePrefix, boolean parted)
+            throws IOException {
+        MultiZipIndex index = load(filePrefix, parted);
+        if (index != null) return index;
+        index = build(filePrefix, parted);
+        try {
+            index.save();
+            
+        } catch (IOException e) {
+            Logger.write(e, Logger.Type.WARNING);
+        }
+        return index;
+    }
+    
+    /**
+     * Builds the index by reading the central directories of the zip files.
+     * 
+     * @param filePrefix The path of the zip file, or the prefix of the part files.
+     * @param parted Whether the data is spread over more than one file.
+     * 
+     * @return The index of the given zip files.
+     * 
+     * @throws IOException If the first file doesn't exist, if one of the files is not
+     *     a valid zip file, or if some IO error occured.
+     */
+    public static MultiZipIndex build(String filePrefix, boolean parted)
+            throws IOException {
+        File[] parts = listParts(filePrefix, parted);
+        if (parts.length == 0) {
+            throw new IOException("File does not exist: "
+                    + partFile(filePrefix, parted, 0).getPath());
+        }
+        
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        Entry last = null;
+        for (int part = 0; part < parts.length; part++) {
+            try (SlicedFile file = new SlicedFile(parts[part])) {
+                boolean first = true;
+                for (Object[] data : readCentralDirectory(file, part)) {
+                    String name = (String) data[0];
+                    Segment seg = (Segment) data[1];
+                    if (!first || last == null || !last.name.equals(name)) {
+                        last = new Entry(name);
+                        if (entries.put(name, last) != null) {
+                            throw new ZipException("Duplicate entry: " + name);
+                        }
+                    }
+                    last.add(seg);
+                    first = false;
+                }
+            }
+        }
+        return new MultiZipIndex(filePrefix, parted, parts, entries);
+    }
+    
+    /**
+     * Reads the central directory of a single zip file.
+     * 
+     * @param file The zip file to read.
+     * @param part The number of the part.
+     * 
+     * @return A list containing, in the order of the central directory, pairs
+     *     of the name and segment of each entry.
+     * 
+     * @throws IOException If the file is not a valid zip file, or if some IO error occured.
+     */
+    private static List<Object[]> readCentralDirectory(SlicedFile file, int part)
+            throws IOException {
+        long size = file.size();
+        if (size < END_SIZE) throw new ZipException("Not a zip file!");
+        
+        // Find the end of central directory record.
+        int tailLen = (int) Math.min(size, END_SIZE + 0xFFFF + ZIP64_LOC_SIZE);
+        ByteBuffer tail = read(file, size - tailLen, tailLen);
+        int endPos = -1;
+        for (int i = tailLen - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIG) {
+                endPos = i;
+                break;
+            }
+        }
+        if (endPos == -1) throw new ZipException("End of central directory not found!");
+        long count = tail.getShort(endPos + 10) & 0xFFFF;
+        long cenLen = tail.getInt(endPos + 12) & 0xFFFFFFFFL;
+        long cenOffset = tail.getInt(endPos + 16) & 0xFFFFFFFFL;
+        
+        // Check for zip64 records.
+        if (endPos >= ZIP64_LOC_SIZE && tail.getInt(endPos - ZIP64_LOC_SIZE) == ZIP64_LOC_SIG) {
+            long zip64Pos = tail.getLong(endPos - ZIP64_LOC_SIZE + 8);
+            ByteBuffer zip64 = read(file, zip64Pos, 56);
+            if (zip64.getInt(0) != ZIP64_END_SIG) {
+                throw new ZipException("Invalid zip64 end of central directory!");
+            }
+            count = zip64.getLong(32);
+            cenLen = zip64.getLong(40);
+            cenOffset = zip64.getLong(48);
+        }
+        if (cenLen > Integer.MAX_VALUE || cenOffset + cenLen > size) {
+            throw new ZipException("Invalid central directory!");
+        }
+        
+        // Read all central directory headers.
+        ByteBuffer cen = read(file, cenOffset, (int) cenLen);
+        List<Object[]> result = new ArrayList<>((int) Math.min(count, 1 << 16));
+        ByteBuffer loc = ByteBuffer.allocate(LOC_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int pos = 0;
+        for (long i = 0; i < count; i++) {
+            if (pos + CEN_SIZE > cenLen || cen.getInt(pos) != CEN_SIG) {
+                throw new ZipException("Invalid central directory header!");
+            }
+            int method = cen.getShort(pos + 10) & 0xFFFF;
+            long crc = cen.getInt(pos + 16) & 0xFFFFFFFFL;
+            long csize = cen.getInt(pos + 20) & 0xFFFFFFFFL;
+            long usize = cen.getInt(pos + 24) & 0xFFFFFFFFL;
+            int nameLen = cen.getShort(pos + 28) & 0xFFFF;
+            int extraLen = cen.getShort(pos + 30) & 0xFFFF;
+            int commentLen = cen.getShort(pos + 32) & 0xFFFF;
+            long locOffset = cen.getInt(pos + 42) & 0xFFFFFFFFL;
+            
+            byte[] nameBytes = new byte[nameLen];
+            cen.position(pos + CEN_SIZE);
+            cen.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            
+            // Read the zip64 extra field, if needed.
+            int extraPos = pos + CEN_SIZE + nameLen;
+            int extraEnd = extraPos + extraLen;
+            while (extraPos + 4 <= extraEnd) {
+                int id = cen.getShort(extraPos) & 0xFFFF;
+                int len = cen.getShort(extraPos + 2) & 0xFFFF;
+                if (id == EXTID_ZIP64) {
+                    int p = extraPos + 4;
+                    if (usize == ZIP64_MAGIC) {
+                        usize = cen.getLong(p);
+                        p += 8;
+                    }
+                    if (csize == ZIP64_MAGIC) {
+                        csize = cen.getLong(p);
+                        p += 8;
+                    }
+                    if (locOffset == ZIP64_MAGIC) locOffset = cen.getLong(p);
+                    break;
+                }
+                extraPos += 4 + len;
+            }
+            
+            // Read the local header to determine the offset of the data.
+            loc.clear();
+            while (loc.hasRemaining()) {
+                if (file.read(loc, locOffset + loc.position()) < 0) {
+                    throw new EOFException("Unexpected end of zip file!");
+                }
+            }
+            if (loc.getInt(0) != LOC_SIG) throw new ZipException("Invalid local header!");
+            long dataOffset = locOffset + LOC_SIZE
+                    + (loc.getShort(26) & 0xFFFF) + (loc.getShort(28) & 0xFFFF);
+            
+            result.add(new Object[] {
+                name, new Segment(part, dataOffset, csize, usize, method, crc)
+            });
+            pos += CEN_SIZE + nameLen + extraLen + commentLen;
+        }
+        return result;
+    }
+    
+    /**
+     * Reads a region of a file into a new little endian buffer.
+     * 
+     * @param file The file to read from.
+     * @param offset The offset of the region.
+     * @param len The length of the region.
+     * 
+     * @return A buffer containing the region.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static ByteBuffer read(SlicedFile file, long offset, int len)
+            throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(len).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (file.read(buf, offset + buf.position()) < 0) {
+                throw new EOFException("Unexpected end of zip file!");
+            }
+        }
+        buf.clear();
+        return buf;
+    }
+    
+    /**
+     * Loads the index from the sidecar file.
+     * 
+     * @param filePrefix The path of the zip file, or the prefix of the part files.
+     * @param parted Whether the data is spread over more than one file.
+     * 
+     * @return The loaded index, or {@code null} if the sidecar file doesn't exist,
+     *     is invalid, or doesn't match the current part files.
+     */
+    public static MultiZipIndex load(String filePrefix, boolean parted) {
+        File indexFile = indexFile(filePrefix);
+        if (!indexFile.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) return null;
+            if (in.readBoolean() != parted) return null;
+            
+            File[] parts = listParts(filePrefix, parted);
+            if (in.readInt() != parts.length) return null;
+            for (File part : parts) {
+                if (in.readLong() != part.length() || in.readLong() != part.lastModified()) {
+                    return null;
+                }
+            }
+            
+            int entryCount = in.readInt();
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (int i = 0; i < entryCount; i++) {
+                Entry entry = new Entry(in.readUTF());
+                int segCount = in.readInt();
+                for (int j = 0; j < segCount; j++) {
+                    entry.add(new Segment(in.readInt(), in.readLong(), in.readLong(),
+                            in.readLong(), in.readInt(), in.readLong()));
+                }
+                entries.put(entry.name, entry);
+            }
+            return new MultiZipIndex(filePrefix, parted, parts, entries);
+            
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Stores the index in the sidecar file.
+     * 
+     * @throws IOException If some IO error occured.
+     * 
+     * @see #indexFile(String)
+     */
+    public void save()
+            throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(indexFile(filePrefix))))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeBoolean(parted);
+            out.writeInt(partFiles.length);
+            for (File part : partFiles) {
+                out.writeLong(part.length());
+                out.writeLong(part.lastModified());
+            }
+            
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                out.writeUTF(entry.name);
+                out.writeInt(entry.segments.size());
+                for (Segment seg : entry.segments) {
+                    out.writeInt(seg.part);
+                    out.writeLong(seg.offset);
+                    out.writeLong(seg.compressedSize);
+                    out.writeLong(seg.size);
+                    out.writeInt(seg.method);
+                    out.writeLong(seg.crc);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return The number of entries in the index.
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * @return The number of part files.
+     */
+    public int partCount() {
+        return partFiles.length;
+    }
+    
+    /**
+     * @param name The name of the entry.
+     * 
+     * @return The entry with the given name, or {@code null} if no such entry exists.
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+    
+    /**
+     * @return An unmodifiable list containing all entries in the order of the data.
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+    
+    /**
+     * Returns the opened part file with the given number. Opens the file if needed.
+     * 
+     * @param part The number of the part.
+     * 
+     * @return The opened part file.
+     * 
+     * @throws IOException If the file could not be opened.
+     */
+    private synchronized SlicedFile getPart(int part)
+            throws IOException {
+        if (closed) throw new IOException("The index has been closed!");
+        if (opened[part] == null) opened[part] = new SlicedFile(partFiles[part]);
+        return opened[part];
+    }
+    
+    /**
+     * Opens a stream containing the uncompressed data of the entry with the given name.
+     * 
+     * @param name The name of the entry.
+     * 
+     * @return A stream containing the data of the entry.
+     * 
+     * @throws NoSuchElementException If no entry with the given name exists.
+     * @throws IOException If some IO error occured.
+     * 
+     * @see #open(Entry)
+     */
+    public InputStream open(String name)
+            throws IOException {
+        Entry entry = entries.get(name);
+        if (entry == null) throw new NoSuchElementException("No such entry: " + name);
+        return open(entry);
+    }
+    
+    /**
+     * Opens a stream containing the uncompressed data of the given entry. The stream
+     * directly starts reading at the first segment of the entry, and continues with
+     * the next segments when needed. <br>
+     * This function is thread safe, and the returned streams are independent of each other.
+     * 
+     * @param entry The entry to open.
+     * 
+     * @return A stream containing the data of the entry.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    public InputStream open(Entry entry)
+            throws IOException {
+        if (entry.segments.size() == 1) return openSegment(entry.segments.get(0));
+        return new InputStream() {
+            /** The index of the next segment to open. */
+            private int index = 0;
+            /** The stream of the current segment. */
+            private InputStream in = openSegment(entry.segments.get(index++));
+            
+            @Override
+            public int read()
+                    throws IOException {
+                byte[] b = new byte[1];
+                return (read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF);
+            }
+            
+            @Override
+            public int read(byte[] b, int off, int len)
+                    throws IOException {
+                if (in == null) throw new IOException("The stream has been closed!");
+                if (len == 0) return 0;
+                int read;
+                while ((read = in.read(b, off, len)) == -1) {
+                    if (index >= entry.segments.size()) return -1;
+                    in.close();
+                    in = openSegment(entry.segments.get(index++));
+                }
+                return read;
+            }
+            
+            @Override
+            public void close()
+                    throws IOException {
+                if (in != null) in.close();
+                in = null;
+            }
+        };
+    }
+    
+    /**
+     * Opens a stream containing the uncompressed data of a single segment.
+     * 
+     * @param seg The segment to open.
+     * 
+     * @return A stream containing the data of the segment.
+     * 
+     * @throws ZipException If the compression method is not supported.
+     * @throws IOException If some IO error occured.
+     */
+    private InputStream openSegment(Segment seg)
+            throws IOException {
+        SlicedFile file = getPart(seg.part);
+        InputStream in = file.openSlice(seg.offset, seg.compressedSize);
+        if (seg.method == ZipEntry.STORED) return in;
+        if (seg.method == ZipEntry.DEFLATED) {
+            return new SegmentInflaterStream(in, (int) Math.max(64,
+                    Math.min(seg.compressedSize, FileSliceInputStream.DEFAULT_BUFFER_SIZE)));
+        }
+        throw new ZipException("Unsupported compression method: " + seg.method);
+    }
+    
+    /**
+     * @return The path of the zip file, or the prefix of the part files.
+     */
+    public String getFilePrefix() {
+        return filePrefix;
+    }
+    
+    /**
+     * @return {@code true} if the data is spread over more than one file.
+     *     {@code false} otherwise.
+     */
+    public boolean isParted() {
+        return parted;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Closes all opened part files, which invalidates all opened streams.
+     */
+    @Override
+    public synchronized void close()
+            throws IOException {
+        if (closed) return;
+        closed = true;
+        IOException ex = null;
+        for (int i = 0; i < opened.length; i++) {
+            if (opened[i] == null) continue;
+            try {
+                opened[i].close();
+                
+            } catch (IOException e) {
+                if (ex == null) ex = e;
+                
+            } finally {
+                opened[i] = null;
+            }
+        }
+        if (ex != null) throw ex;
+    }
+    
+    
+}
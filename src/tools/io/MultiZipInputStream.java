@@ -24,16 +24,14 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 
-// Tools imports
-import tools.MultiTool;
-
-
 /**
  * Input stream for multiple zip files.
  * It uses the {@link ZipInputStream} class to obtain data from a single zip file.
  * Additionally, multiple zip files can be read as if they are one big file.<br>
  * <br>
- * Accepts files in the same format as produced by {@link MultiZipOutputStream}.
+ * Accepts files in the same format as produced by {@link MultiZipOutputStream}. <br>
+ * This stream can only read the entries in sequence. Use {@link MultiZipIndex}
+ * for random access to the entries.
  * 
  * @todo
  * - Check all cases!
@@ -158,10 +156,7 @@ public class MultiZipInputStream
         }
         if (readSingleFile) return;
         
-        String fileName = (!parted
-                ? filePrefix
-                : filePrefix + ".part" + MultiTool.fillZero(fileCounter++, 3));
-        File file = new File(fileName);
+        File file = MultiZipIndex.partFile(filePrefix, parted, fileCounter++);
         
         zis = (file.exists()
                 ? new ZipInputStream(new FileInputStream(file))
@@ -26,6 +26,7 @@ import java.util.zip.ZipOutputStream;
 
 // Tools imports
 import tools.MultiTool;
+import tools.concurrent.Scheduler;
 
 
 /**
@@ -60,8 +61,16 @@ import tools.MultiTool;
  *   <li> "/some/path/data.zip.part999" </li>
  *   <li> "/some/path/data.zip.part1000" </li>
  * </ul>
+ * <br>
+ * <h2>Parallel compression</h2>
+ * If a {@link Scheduler} is given, then the {@link ParallelZipOutputStream} is used
+ * instead. The data is then split into blocks which are deflated in parallel on
+ * the scheduler, and reassembled in order. The scheduler must be started before
+ * writing data, and is not terminated when the stream is closed. <br>
+ * Note that the size limit is applied to the uncompressed data, both for the
+ * sequential and the parallel mode.
  * 
- * @version 1.0
+ * @version 1.1
  * @author Kaj Wortel
  */
 public class MultiZipOutputStream
@@ -77,9 +86,14 @@ public class MultiZipOutputStream
     private final boolean parted;
     /** Denotes the maximum file size if the stream should be parted. */
     private final long maxSize;
+    /** The scheduler used for parallel compression, or {@code null} for sequential compression. */
+    private final Scheduler scheduler;
     
-    /** The current zip output stream. */
-    private ZipOutputStream zos;
+    /**
+     * The current zip output stream. Either a {@link ZipOutputStream}
+     * or a {@link ParallelZipOutputStream}.
+     */
+    private OutputStream zos;
     /** The current entry of the zip output stream. */
     private ZipEntry entry;
     
@@ -103,9 +117,28 @@ public class MultiZipOutputStream
      *     {@code parted == true}.
      */
     public MultiZipOutputStream(String targetPath, boolean parted, long maxSize) {
+        this(targetPath, parted, maxSize, null);
+    }
+    
+    /**
+     * Creates a new output stream for multiple zip files which deflates the data
+     * in parallel on the given scheduler.
+     * 
+     * @param targetPath The path of the zip file.
+     * @param parted Whether the stream should be parted over multiple zip files.
+     * @param maxSize The maximum size of a zip file. Is only used when
+     *     {@code parted == true}.
+     * @param scheduler The scheduler used to deflate the data, or {@code null}
+     *     to deflate the data on the calling thread.
+     * 
+     * @see ParallelZipOutputStream
+     */
+    public MultiZipOutputStream(String targetPath, boolean parted, long maxSize,
+            Scheduler scheduler) {
         this.targetPath = targetPath;
         this.parted = parted;
         this.maxSize = maxSize;
+        this.scheduler = scheduler;
     }
     
     
@@ -129,7 +162,24 @@ public class MultiZipOutputStream
             nextStream();
             
         } else {
-            zos.putNextEntry(entry);
+            putNextEntry(entry);
+        }
+    }
+    
+    /**
+     * Starts a new entry in the current zip output stream.
+     * 
+     * @param entry The new entry.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void putNextEntry(ZipEntry entry)
+            throws IOException {
+        if (zos instanceof ParallelZipOutputStream) {
+            ((ParallelZipOutputStream) zos).putNextEntry(entry);
+            
+        } else {
+            ((ZipOutputStream) zos).putNextEntry(entry);
         }
     }
     
@@ -154,8 +204,11 @@ public class MultiZipOutputStream
         File file = new File(fileName);
         file.getParentFile().mkdirs();
         file.createNewFile();
-        zos = new ZipOutputStream(new FileOutputStream(file));
-        zos.putNextEntry(cloneEntry(entry));
+        OutputStream fos = new FileOutputStream(file);
+        zos = (scheduler == null
+                ? new ZipOutputStream(fos)
+                : new ParallelZipOutputStream(fos, scheduler));
+        putNextEntry(cloneEntry(entry));
     }
     
     /**
@@ -238,7 +291,7 @@ public class MultiZipOutputStream
             throws IOException {
         if (zos !=  null) zos.flush();
     }
-
+    
     @Override
     public void close()
             throws IOException {
@@ -0,0 +1,911 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+
+// Tools imports
+import tools.concurrent.Scheduler;
+
+
+/**
+ * Zip output stream which deflates the data of an entry in parallel. <br>
+ * The data of a deflated entry is split into blocks of equal size. Every block is
+ * deflated independently on the given {@link Scheduler}, using the last 32 KiB of the
+ * previous block as dictionary. All blocks, except for the last one, are ended with
+ * a sync flush, such that the compressed blocks can simply be concatenated into a
+ * single valid deflate stream. The compressed blocks are written in order as soon as
+ * they are available. <br>
+ * <br>
+ * The generated files are normal zip files which can be read by e.g. {@link java.util.zip.ZipFile}
+ * and {@link java.util.zip.ZipInputStream}. Just as with {@link java.util.zip.ZipOutputStream},
+ * the sizes and CRC of deflated entries are written in a data descriptor after the data,
+ * and stored entries must have their size and CRC set before the entry is started. <br>
+ * <br>
+ * Data which has already been deflated elsewhere can be appended to an entry using
+ * {@link #writeDeflated(byte[], int, int, long, long)}. <br>
+ * <br>
+ * The given scheduler must be started before writing any data, and is not terminated
+ * when the stream is closed. If a {@link tools.concurrent.SelfScheduler} is used,
+ * then all blocks are deflated on the calling thread. <br>
+ * This class is not thread safe.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see MultiZipOutputStream
+ */
+public class ParallelZipOutputStream
+        extends OutputStream {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default size of a single uncompressed block. */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+    /** The maximum size of the dictionary of a block. */
+    private static final int DICT_SIZE = 32 * 1024;
+    
+    /** The value denoting that a zip64 field is used instead. */
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    /** The value denoting that the number of entries is stored in the zip64 record. */
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    
+    // Signatures
+    private static final int LOC_SIG = 0x04034B50;
+    private static final int EXT_SIG = 0x08074B50;
+    private static final int CEN_SIG = 0x02014B50;
+    private static final int END_SIG = 0x06054B50;
+    private static final int ZIP64_END_SIG = 0x06064B50;
+    private static final int ZIP64_LOC_SIG = 0x07064B50;
+    
+    // Flags
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    
+    // Extra field IDs
+    private static final int EXTID_ZIP64 = 0x0001;
+    private static final int EXTID_NTFS = 0x000A;
+    private static final int EXTID_EXT_TIME = 0x5455;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class containing the data of a written entry which is needed
+     * for the central directory.
+     */
+    private static class EntryData {
+        /** The entry. */
+        private final ZipEntry entry;
+        /** The encoded name of the entry. */
+        private final byte[] name;
+        /** The encoded comment of the entry, or {@code null} if there is no comment. */
+        private final byte[] comment;
+        /** The extra data of the user, without the fields generated by this class. */
+        private final byte[] extra;
+        /** The method of the entry. */
+        private final int method;
+        /** The flag of the entry. */
+        private final int flag;
+        /** The DOS time of the entry. */
+        private final long dosTime;
+        /** The offset of the local header. */
+        private final long offset;
+        /** The CRC of the uncompressed data. */
+        private long crc;
+        /** The size of the uncompressed data. */
+        private long size;
+        /** The size of the compressed data. */
+        private long csize;
+        
+        /**
+         * Creates a new data object for the given entry.
+         * 
+         * @param entry The entry.
+         * @param method The method of the entry.
+         * @param offset The offset of the local header.
+         */
+        private EntryData(ZipEntry entry, int method, long offset) {
+            this.entry = entry;
+            this.name = entry.getName().getBytes(StandardCharsets.UTF_8);
+            this.comment = (entry.getComment() == null
+                    ? null
+                    : entry.getComment().getBytes(StandardCharsets.UTF_8));
+            this.extra = filterExtra(entry.getExtra());
+            this.method = method;
+            this.flag = FLAG_UTF8 | (method == ZipEntry.DEFLATED ? FLAG_DATA_DESCRIPTOR : 0);
+            this.dosTime = toDosTime(entry.getTime() == -1
+                    ? System.currentTimeMillis()
+                    : entry.getTime());
+            this.offset = offset;
+        }
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The stream to write the zip file to. */
+    private final OutputStream out;
+    /** The scheduler used to deflate the blocks. */
+    private final Scheduler scheduler;
+    /** The size of a single uncompressed block. */
+    private final int blockSize;
+    /** The maximum number of blocks which are being deflated at the same time. */
+    private final int maxPending;
+    /** The compression level. */
+    private final int level;
+    
+    /** The deflaters which are currently not in use. */
+    private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    /** The blocks which are being deflated, in the order of the data. */
+    private final Deque<FutureTask<byte[]>> pending = new ArrayDeque<>();
+    /** The data of all written entries. */
+    private final List<EntryData> entries = new ArrayList<>();
+    /** The names of all written entries. */
+    private final Set<String> names = new HashSet<>();
+    /** The CRC of the current entry. */
+    private final CRC32 crc = new CRC32();
+    
+    /** The data of the current entry, or {@code null} if there is no current entry. */
+    private EntryData current;
+    /** The block which is currently being filled. */
+    private byte[] block;
+    /** The number of bytes in the current block. */
+    private int blockPos;
+    /** The previous block of the current entry, used as dictionary for the next block. */
+    private byte[] prevBlock;
+    /** Whether already deflated data has been written to the current entry. */
+    private boolean raw = false;
+    /** The CRC of the already deflated data of the current entry. */
+    private long rawCrc;
+    
+    /** The number of bytes written to the underlying stream. */
+    private long written = 0;
+    /** Whether the central directory has been written. */
+    private boolean finished = false;
+    /** Whether the stream has been closed. */
+    private boolean closed = false;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new parallel zip output stream with the default block size
+     * and compression level.
+     * 
+     * @param out The stream to write the zip file to.
+     * @param scheduler The scheduler used to deflate the blocks.
+     */
+    public ParallelZipOutputStream(OutputStream out, Scheduler scheduler) {
+        this(out, scheduler, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+    }
+    
+    /**
+     * Creates a new parallel zip output stream.
+     * 
+     * @param out The stream to write the zip file to.
+     * @param scheduler The scheduler used to deflate the blocks.
+     * @param blockSize The size of a single uncompressed block.
+     * @param level The compression level.
+     * 
+     * @throws IllegalArgumentException If {@code blockSize <= 0}, or if the level is invalid.
+     */
+    public ParallelZipOutputStream(OutputStream out, Scheduler scheduler,
+            int blockSize, int level) {
+        if (out == null || scheduler == null) throw new NullPointerException();
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize(" + blockSize + ") <= 0");
+        }
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.scheduler = scheduler;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.maxPending = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Static functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Converts the given time to the MS-DOS date and time format.
+     * 
+     * @param time The time in milliseconds since the epoch.
+     * 
+     * @return The time in the MS-DOS format.
+     */
+    private static long toDosTime(long time) {
+        LocalDateTime ldt = LocalDateTime.ofInstant(
+                java.time.Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        int year = ldt.getYear() - 1980;
+        if (year < 0) return (1 << 21) | (1 << 16);
+        return ((year << 25 | ldt.getMonthValue() << 21 | ldt.getDayOfMonth() << 16
+                | ldt.getHour() << 11 | ldt.getMinute() << 5 | ldt.getSecond() >> 1)
+                & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Removes the extra fields which are generated by this class from the given extra data.
+     * 
+     * @param extra The extra data of the user.
+     * 
+     * @return The extra data without the generated fields.
+     */
+    private static byte[] filterExtra(byte[] extra) {
+        if (extra == null) return new byte[0];
+        byte[] result = new byte[extra.length];
+        int len = 0;
+        int off = 0;
+        while (off + 4 <= extra.length) {
+            int id = (extra[off] & 0xFF) | (extra[off + 1] & 0xFF) << 8;
+            int size = (extra[off + 2] & 0xFF) | (extra[off + 3] & 0xFF) << 8;
+            if (off + 4 + size > extra.length) break;
+            if (id != EXTID_ZIP64 && id != EXTID_NTFS && id != EXTID_EXT_TIME) {
+                System.arraycopy(extra, off, result, len, 4 + size);
+                len += 4 + size;
+            }
+            off += 4 + size;
+        }
+        return Arrays.copyOf(result, len);
+    }
+    
+    /**
+     * Multiplies the given vector with the given matrix over GF(2).
+     * 
+     * @param mat The matrix.
+     * @param vec The vector.
+     * 
+     * @return The product of the matrix and the vector.
+     */
+    private static long gf2MatrixTimes(long[] mat, long vec) {
+        long sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0) sum ^= mat[i];
+        }
+        return sum;
+    }
+    
+    /**
+     * Stores the square of the given matrix over GF(2) in {@code square}.
+     * 
+     * @param square The matrix to store the result in.
+     * @param mat The matrix to square.
+     */
+    private static void gf2MatrixSquare(long[] square, long[] mat) {
+        for (int i = 0; i < 32; i++) {
+            square[i] = gf2MatrixTimes(mat, mat[i]);
+        }
+    }
+    
+    /**
+     * Combines the CRC values of two consecutive sequences of data into
+     * the CRC value of the concatenated data.
+     * 
+     * @param crc1 The CRC of the first sequence.
+     * @param crc2 The CRC of the second sequence.
+     * @param len2 The length of the second sequence.
+     * 
+     * @return The CRC of the concatenation of both sequences.
+     */
+    static long crc32Combine(long crc1, long crc2, long len2) {
+        if (len2 <= 0) return crc1;
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xEDB88320L;
+        for (int i = 1; i < 32; i++) {
+            odd[i] = 1L << (i - 1);
+        }
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+        
+        while (true) {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0) crc1 = gf2MatrixTimes(even, crc1);
+            len2 >>>= 1;
+            if (len2 == 0) break;
+            
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0) crc1 = gf2MatrixTimes(odd, crc1);
+            len2 >>>= 1;
+            if (len2 == 0) break;
+        }
+        return crc1 ^ crc2;
+    }
+    
+    /**
+     * Deflates all input of the given deflater. If this is not the last block, then
+     * the output is ended with a sync flush. Otherwise the deflater is finished.
+     * 
+     * @param def The deflater containing the input.
+     * @param len The length of the input, used to estimate the size of the output.
+     * @param last Whether the input is the last block of an entry.
+     * 
+     * @return The compressed data.
+     */
+    static byte[] deflate(Deflater def, int len, boolean last) {
+        byte[] buf = new byte[len + (len >> 3) + 64];
+        int pos = 0;
+        if (last) {
+            def.finish();
+            while (!def.finished()) {
+                if (pos == buf.length) buf = Arrays.copyOf(buf, 2 * buf.length);
+                pos += def.deflate(buf, pos, buf.length - pos);
+            }
+            
+        } else {
+            while (true) {
+                int space = buf.length - pos;
+                int amt = def.deflate(buf, pos, space, Deflater.SYNC_FLUSH);
+                pos += amt;
+                if (amt < space) break;
+                buf = Arrays.copyOf(buf, 2 * buf.length);
+            }
+        }
+        return Arrays.copyOf(buf, pos);
+    }
+    
+    /**
+     * Converts the given file time to unix time, if it fits in 32 bits.
+     * 
+     * @param time The time to convert.
+     * 
+     * @return The unix time in seconds, or {@code -1} if the time is {@code null}
+     *     or doesn't fit in 32 bits.
+     */
+    private static long toUnixTime(FileTime time) {
+        if (time == null) return -1;
+        long sec = time.to(java.util.concurrent.TimeUnit.SECONDS);
+        return (sec < Integer.MIN_VALUE || sec > Integer.MAX_VALUE ? -1 : sec);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Checks whether the stream is still open.
+     * 
+     * @throws IOException If the stream has been closed.
+     */
+    private void checkStream()
+            throws IOException {
+        if (closed) throw new IOException("The stream has been closed!");
+    }
+    
+    /**
+     * Starts a new entry. The previous entry is closed if it is still open. <br>
+     * If the method of the entry is not set, then the data is deflated.
+     * 
+     * @param entry The new entry.
+     * 
+     * @throws ZipException If the entry has a duplicate name, or if the entry should be
+     *     stored and the size or CRC has not been set.
+     * @throws IOException If some IO error occured.
+     */
+    public void putNextEntry(ZipEntry entry)
+            throws IOException {
+        checkStream();
+        if (finished) throw new ZipException("The zip file has already been finished!");
+        if (current != null) closeEntry();
+        
+        int method = (entry.getMethod() == -1 ? ZipEntry.DEFLATED : entry.getMethod());
+        if (method == ZipEntry.STORED && (entry.getSize() == -1 || entry.getCrc() == -1)) {
+            throw new ZipException("The size and CRC must be set for stored entries!");
+        }
+        if (!names.add(entry.getName())) {
+            throw new ZipException("duplicate entry: " + entry.getName());
+        }
+        
+        current = new EntryData(entry, method, written);
+        writeLocalHeader(current);
+        crc.reset();
+        block = null;
+        blockPos = 0;
+        prevBlock = null;
+    }
+    
+    /**
+     * Closes the current entry. Waits until all blocks of the entry have been written.
+     * 
+     * @throws ZipException If the size or CRC of a stored entry doesn't match the data.
+     * @throws IOException If some IO error occured.
+     */
+    public void closeEntry()
+            throws IOException {
+        checkStream();
+        if (current == null) return;
+        EntryData data = current;
+        data.crc = (raw ? rawCrc : crc.getValue());
+        
+        if (data.method == ZipEntry.DEFLATED) {
+            if (!raw) {
+                submitBlock(true);
+                while (!pending.isEmpty()) {
+                    writeBlock(pending.pollFirst());
+                }
+            }
+            raw = false;
+            block = null;
+            prevBlock = null;
+            
+            writeInt(EXT_SIG);
+            writeInt(data.crc);
+            if (data.csize >= ZIP64_MAGIC || data.size >= ZIP64_MAGIC) {
+                writeLong(data.csize);
+                writeLong(data.size);
+                
+            } else {
+                writeInt(data.csize);
+                writeInt(data.size);
+            }
+            data.entry.setSize(data.size);
+            data.entry.setCompressedSize(data.csize);
+            data.entry.setCrc(data.crc);
+            
+        } else {
+            if (data.size != data.entry.getSize()) {
+                throw new ZipException("invalid entry size (expected " + data.entry.getSize()
+                        + " but got " + data.size + " bytes)");
+            }
+            if (data.crc != data.entry.getCrc()) {
+                throw new ZipException("invalid entry crc-32 (expected 0x"
+                        + Long.toHexString(data.entry.getCrc()) + " but got 0x"
+                        + Long.toHexString(data.crc) + ")");
+            }
+        }
+        entries.add(data);
+        current = null;
+    }
+    
+    @Override
+    public void write(int b)
+            throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len)
+            throws IOException {
+        checkStream();
+        if (b == null) throw new NullPointerException();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException("off(" + off + "), len(" + len
+                    + "), b.length(" + b.length + ")");
+        }
+        if (current == null) throw new ZipException("no current ZIP entry");
+        if (len == 0) return;
+        if (raw) {
+            throw new ZipException("Cannot mix deflated and uncompressed data in one entry!");
+        }
+        
+        crc.update(b, off, len);
+        current.size += len;
+        if (current.method == ZipEntry.STORED) {
+            current.csize += len;
+            written += len;
+            out.write(b, off, len);
+            return;
+        }
+        
+        if (block == null) block = new byte[blockSize];
+        while (len > 0) {
+            int amt = Math.min(len, blockSize - blockPos);
+            System.arraycopy(b, off, block, blockPos, amt);
+            blockPos += amt;
+            off += amt;
+            len -= amt;
+            if (blockPos == blockSize) submitBlock(false);
+        }
+    }
+    
+    /**
+     * Appends data which has already been deflated to the current entry. The data must
+     * be raw deflate data (without zlib header), and can be split over multiple calls.
+     * The caller must ensure that the last call contains the final deflate block,
+     * and that all other calls end on a byte boundary, e.g. by using
+     * {@link Deflater#SYNC_FLUSH}. <br>
+     * This function cannot be combined with uncompressed data in the same entry.
+     * 
+     * @param b The deflated data.
+     * @param off The offset of the data.
+     * @param len The length of the deflated data.
+     * @param size The length of the uncompressed data.
+     * @param dataCrc The CRC of the uncompressed data.
+     * 
+     * @throws ZipException If there is no current entry, if the current entry is not
+     *     deflated, or if uncompressed data was already written to the entry.
+     * @throws IOException If some IO error occured.
+     */
+    public void writeDeflated(byte[] b, int off, int len, long size, long dataCrc)
+            throws IOException {
+        checkStream();
+        if (b == null) throw new NullPointerException();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException("off(" + off + "), len(" + len
+                    + "), b.length(" + b.length + ")");
+        }
+        if (current == null) throw new ZipException("no current ZIP entry");
+        if (current.method != ZipEntry.DEFLATED) {
+            throw new ZipException("Deflated data can only be written to deflated entries!");
+        }
+        if (!raw) {
+            if (current.size != 0) {
+                throw new ZipException("Cannot mix deflated and uncompressed data in one entry!");
+            }
+            raw = true;
+            rawCrc = 0;
+            block = null;
+        }
+        
+        out.write(b, off, len);
+        written += len;
+        current.csize += len;
+        current.size += size;
+        rawCrc = crc32Combine(rawCrc, dataCrc, size);
+    }
+    
+    /**
+     * Submits the current block to the scheduler. Afterwards, writes all blocks which
+     * have been deflated from the head of the queue, and waits for the oldest blocks
+     * if too many blocks are pending.
+     * 
+     * @param last Whether the block is the last block of the entry.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void submitBlock(boolean last)
+            throws IOException {
+        final byte[] data = (block == null ? new byte[0] : block);
+        final int len = blockPos;
+        final byte[] dict = prevBlock;
+        FutureTask<byte[]> task = new FutureTask<>(() -> deflate(data, len, dict, last));
+        pending.addLast(task);
+        scheduler.scheduleTask(task);
+        
+        if (!last) {
+            prevBlock = data;
+            block = new byte[blockSize];
+            blockPos = 0;
+        }
+        while (!pending.isEmpty() &&
+                (pending.size() > maxPending || pending.peekFirst().isDone())) {
+            writeBlock(pending.pollFirst());
+        }
+    }
+    
+    /**
+     * Deflates a single block. This function is executed by the scheduler.
+     * 
+     * @param data The data of the block.
+     * @param len The number of bytes in the block.
+     * @param dict The previous block, or {@code null} if this is the first block.
+     * @param last Whether this is the last block of the entry.
+     * 
+     * @return The compressed data.
+     */
+    private byte[] deflate(byte[] data, int len, byte[] dict, boolean last) {
+        Deflater def = deflaters.poll();
+        if (def == null) def = new Deflater(level, true);
+        try {
+            if (dict != null) {
+                int dictLen = Math.min(DICT_SIZE, dict.length);
+                def.setDictionary(dict, dict.length - dictLen, dictLen);
+            }
+            def.setInput(data, 0, len);
+            return deflate(def, len, last);
+            
+        } finally {
+            def.reset();
+            deflaters.offer(def);
+        }
+    }
+    
+    /**
+     * Waits for the given block to be deflated and writes it to the stream.
+     * 
+     * @param task The task of the block.
+     * 
+     * @throws IOException If the block could not be deflated or written.
+     */
+    private void writeBlock(FutureTask<byte[]> task)
+            throws IOException {
+        byte[] data;
+        try {
+            data = task.get();
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while deflating!");
+            
+        } catch (ExecutionException e) {
+            throw new IOException("Could not deflate block!", e.getCause());
+        }
+        out.write(data);
+        written += data.length;
+        current.csize += data.length;
+    }
+    
+    /**
+     * Writes the local header of the given entry.
+     * 
+     * @param data The entry to write the header for.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void writeLocalHeader(EntryData data)
+            throws IOException {
+        ZipEntry e = data.entry;
+        boolean zip64 = data.method == ZipEntry.STORED && e.getSize() >= ZIP64_MAGIC;
+        long mtime = (e.getTime() == -1 ? -1 : toUnixTime(e.getLastModifiedTime()));
+        long atime = toUnixTime(e.getLastAccessTime());
+        long ctime = toUnixTime(e.getCreationTime());
+        int timeLen = (mtime != -1 ? 4 : 0) + (atime != -1 ? 4 : 0) + (ctime != -1 ? 4 : 0);
+        int extraLen = data.extra.length + (zip64 ? 20 : 0) + (timeLen > 0 ? 5 + timeLen : 0);
+        
+        writeInt(LOC_SIG);
+        writeShort(zip64 ? 45 : 20);
+        writeShort(data.flag);
+        writeShort(data.method);
+        writeInt(data.dosTime);
+        if (data.method == ZipEntry.DEFLATED) {
+            writeInt(0);
+            writeInt(0);
+            writeInt(0);
+            
+        } else {
+            writeInt(e.getCrc());
+            writeInt(zip64 ? ZIP64_MAGIC : e.getSize());
+            writeInt(zip64 ? ZIP64_MAGIC : e.getSize());
+        }
+        writeShort(data.name.length);
+        writeShort(extraLen);
+        writeBytes(data.name);
+        if (zip64) {
+            writeShort(EXTID_ZIP64);
+            writeShort(16);
+            writeLong(e.getSize());
+            writeLong(e.getSize());
+        }
+        if (timeLen > 0) {
+            writeShort(EXTID_EXT_TIME);
+            writeShort(1 + timeLen);
+            writeByte((mtime != -1 ? 1 : 0) | (atime != -1 ? 2 : 0) | (ctime != -1 ? 4 : 0));
+            if (mtime != -1) writeInt(mtime);
+            if (atime != -1) writeInt(atime);
+            if (ctime != -1) writeInt(ctime);
+        }
+        writeBytes(data.extra);
+    }
+    
+    /**
+     * Writes the central directory header of the given entry.
+     * 
+     * @param data The entry to write the header for.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void writeCentralHeader(EntryData data)
+            throws IOException {
+        ZipEntry e = data.entry;
+        boolean zip64Size = data.size >= ZIP64_MAGIC;
+        boolean zip64CSize = data.csize >= ZIP64_MAGIC;
+        boolean zip64Off = data.offset >= ZIP64_MAGIC;
+        int zip64Len = (zip64Size ? 8 : 0) + (zip64CSize ? 8 : 0) + (zip64Off ? 8 : 0);
+        long mtime = (e.getTime() == -1 ? -1 : toUnixTime(e.getLastModifiedTime()));
+        int timeFlag = (mtime != -1 ? 1 : 0)
+                | (toUnixTime(e.getLastAccessTime()) != -1 ? 2 : 0)
+                | (toUnixTime(e.getCreationTime()) != -1 ? 4 : 0);
+        int timeLen = (timeFlag == 0 ? 0 : (mtime != -1 ? 9 : 5));
+        int extraLen = data.extra.length + (zip64Len > 0 ? 4 + zip64Len : 0) + timeLen;
+        int version = (zip64Len > 0 ? 45 : 20);
+        
+        writeInt(CEN_SIG);
+        writeShort(version);
+        writeShort(version);
+        writeShort(data.flag);
+        writeShort(data.method);
+        writeInt(data.dosTime);
+        writeInt(data.crc);
+        writeInt(zip64CSize ? ZIP64_MAGIC : data.csize);
+        writeInt(zip64Size ? ZIP64_MAGIC : data.size);
+        writeShort(data.name.length);
+        writeShort(extraLen);
+        writeShort(data.comment == null ? 0 : data.comment.length);
+        writeShort(0);
+        writeShort(0);
+        writeInt(0);
+        writeInt(zip64Off ? ZIP64_MAGIC : data.offset);
+        writeBytes(data.name);
+        if (zip64Len > 0) {
+            writeShort(EXTID_ZIP64);
+            writeShort(zip64Len);
+            if (zip64Size) writeLong(data.size);
+            if (zip64CSize) writeLong(data.csize);
+            if (zip64Off) writeLong(data.offset);
+        }
+        if (timeLen > 0) {
+            writeShort(EXTID_EXT_TIME);
+            writeShort(timeLen - 4);
+            writeByte(timeFlag);
+            if (mtime != -1) writeInt(mtime);
+        }
+        writeBytes(data.extra);
+        if (data.comment != null) writeBytes(data.comment);
+    }
+    
+    /**
+     * Finishes writing the zip file without closing the underlying stream.
+     * Closes the current entry and writes the central directory.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    public void finish()
+            throws IOException {
+        checkStream();
+        if (finished) return;
+        closeEntry();
+        
+        long cenOffset = written;
+        for (EntryData data : entries) {
+            writeCentralHeader(data);
+        }
+        long cenLen = written - cenOffset;
+        int count = entries.size();
+        
+        if (count >= ZIP64_MAGIC_COUNT || cenOffset >= ZIP64_MAGIC || cenLen >= ZIP64_MAGIC) {
+            long zip64Offset = written;
+            writeInt(ZIP64_END_SIG);
+            writeLong(44);
+            writeShort(45);
+            writeShort(45);
+            writeInt(0);
+            writeInt(0);
+            writeLong(count);
+            writeLong(count);
+            writeLong(cenLen);
+            writeLong(cenOffset);
+            
+            writeInt(ZIP64_LOC_SIG);
+            writeInt(0);
+            writeLong(zip64Offset);
+            writeInt(1);
+        }
+        writeInt(END_SIG);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeInt(Math.min(cenLen, ZIP64_MAGIC));
+        writeInt(Math.min(cenOffset, ZIP64_MAGIC));
+        writeShort(0);
+        out.flush();
+        
+        finished = true;
+        Deflater def;
+        while ((def = deflaters.poll()) != null) {
+            def.end();
+        }
+    }
+    
+    /**
+     * @return The number of bytes which have been written to the underlying stream.
+     */
+    public long getWrittenBytes() {
+        return written;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Note that this function does not flush data of the current entry which
+     * has not yet been deflated.
+     */
+    @Override
+    public void flush()
+            throws IOException {
+        checkStream();
+        out.flush();
+    }
+    
+    @Override
+    public void close()
+            throws IOException {
+        if (closed) return;
+        try {
+            finish();
+            
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+    
+    /* -------------------------------------------------------------------------
+     * Write functions.
+     * -------------------------------------------------------------------------
+     */
+    private void writeByte(int v)
+            throws IOException {
+        out.write(v);
+        written++;
+    }
+    
+    private void writeShort(int v)
+            throws IOException {
+        out.write(v & 0xFF);
+        out.write((v >>> 8) & 0xFF);
+        written += 2;
+    }
+    
+    private void writeInt(long v)
+            throws IOException {
+        out.write((int) (v & 0xFF));
+        out.write((int) ((v >>> 8) & 0xFF));
+        out.write((int) ((v >>> 16) & 0xFF));
+        out.write((int) ((v >>> 24) & 0xFF));
+        written += 4;
+    }
+    
+    private void writeLong(long v)
+            throws IOException {
+        writeInt(v & 0xFFFFFFFFL);
+        writeInt(v >>> 32);
+    }
+    
+    private void writeBytes(byte[] b)
+            throws IOException {
+        out.write(b);
+        written += b.length;
+    }
+    
+    
+}
@@ -20,7 +20,9 @@ import java.io.InputStream;
 
 
 /**
- * Input stream for reading a part of another input stream.
+ * Input stream for reading a part of another input stream. <br>
+ * For reading (multiple) regions of a file with random access,
+ * use {@link SlicedFile} instead.
  * 
  * @todo
  * - Instead of an inputstream, use the virtual files (to be implemented).
@@ -39,6 +41,8 @@ public class PartialInputStream
     private InputStream is;
     /** The remaining number of bytes allowed to be read from the stream. */
     private long bytesRem;
+    /** The remaining number of bytes at the marked position. */
+    private long markRem = -1;
     /** Whether the underlying stream is still valid. */
     private boolean invalid = false;
     
@@ -75,8 +79,9 @@ public class PartialInputStream
             throws IOException {
         checkStream();
         if (bytesRem <= 0) return -1;
-        bytesRem--;
-        return is.read();
+        int b = is.read();
+        if (b >= 0) bytesRem--;
+        return b;
     }
     
     @Override
@@ -95,14 +100,9 @@ public class PartialInputStream
         if (off + len > b.length) throw new IllegalArgumentException("off + len > b.length");
         
         if (bytesRem <= 0) return -1;
-        if (bytesRem < len) {
-            int read = (int) bytesRem;
-            bytesRem = 0L;
-            return is.read(b, off, read);
-        }
-        // bytesRem >= len.
-        bytesRem -= len;
-        return is.read(b, off, len);
+        int read = is.read(b, off, (int) Math.min(bytesRem, len));
+        if (read > 0) bytesRem -= read;
+        return read;
     }
     
     @Override
@@ -121,6 +121,26 @@ public class PartialInputStream
         return skipped;
     }
     
+    @Override
+    public boolean markSupported() {
+        return is.markSupported();
+    }
+    
+    @Override
+    public void mark(int readlimit) {
+        is.mark(readlimit);
+        markRem = bytesRem;
+    }
+    
+    @Override
+    public void reset()
+            throws IOException {
+        checkStream();
+        if (markRem < 0) throw new IOException("The stream has not been marked!");
+        is.reset();
+        bytesRem = markRem;
+    }
+    
     /**
      * Skips the remainder of the stream.
      * 
@@ -0,0 +1,180 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Class for reading independent regions of a single file. <br>
+ * The file is opened only once. Every slice which is opened from this class has
+ * its own position, and reads the data using positional reads. Hence slices can be
+ * read concurrently by different threads without re-opening the file or sharing
+ * a file pointer. <br>
+ * <br>
+ * Closing this class closes the underlying channel, which invalidates all
+ * opened slices and mapped buffers.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see FileSliceInputStream
+ */
+public class SlicedFile
+        implements Closeable {
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The channel of the file. */
+    private final FileChannel channel;
+    /** The size of the file when it was opened. */
+    private final long size;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Opens the given file for reading slices.
+     * 
+     * @param file The file to open.
+     * 
+     * @throws IOException If the file could not be opened.
+     */
+    public SlicedFile(File file)
+            throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        size = channel.size();
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Checks whether the given region lies within the file.
+     * 
+     * @param offset The offset of the region.
+     * @param length The length of the region.
+     * 
+     * @throws IllegalArgumentException If the region does not lie within the file.
+     */
+    private void checkRegion(long offset, long length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IllegalArgumentException("offset(" + offset + "), length(" + length
+                    + "), size(" + size + ")");
+        }
+    }
+    
+    /**
+     * Opens a new stream over the given region of the file.
+     * 
+     * @param offset The offset of the region.
+     * @param length The length of the region.
+     * 
+     * @return A new stream over the given region.
+     * 
+     * @throws IllegalArgumentException If the region does not lie within the file.
+     */
+    public FileSliceInputStream openSlice(long offset, long length) {
+        checkRegion(offset, length);
+        return new FileSliceInputStream(channel, offset, length);
+    }
+    
+    /**
+     * Opens a new stream over the file from the given offset until the end of the file.
+     * 
+     * @param offset The offset of the region.
+     * 
+     * @return A new stream over the given region.
+     * 
+     * @see #openSlice(long, long)
+     */
+    public FileSliceInputStream openSlice(long offset) {
+        return openSlice(offset, size - offset);
+    }
+    
+    /**
+     * Maps the given region of the file read-only into memory. Every call returns a new
+     * buffer with its own position. Mapping is mostly useful for large regions which
+     * are read multiple times.
+     * 
+     * @param offset The offset of the region.
+     * @param length The length of the region.
+     * 
+     * @return A read-only buffer containing the given region.
+     * 
+     * @throws IOException If the region could not be mapped.
+     * @throws IllegalArgumentException If the region does not lie within the file,
+     *     or if {@code length > Integer.MAX_VALUE}.
+     */
+    public MappedByteBuffer map(long offset, long length)
+            throws IOException {
+        checkRegion(offset, length);
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("length(" + length + ") > Integer.MAX_VALUE");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+    
+    /**
+     * Reads bytes from the given position of the file into the given buffer.
+     * 
+     * @param dst The buffer to store the data in.
+     * @param position The position in the file.
+     * 
+     * @return The number of bytes read, or {@code -1} if the position
+     *     is at or beyond the end of the file.
+     * 
+     * @throws IOException If an IO error occurs.
+     */
+    public int read(ByteBuffer dst, long position)
+            throws IOException {
+        return channel.read(dst, position);
+    }
+    
+    /**
+     * @return The size of the file when it was opened.
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * @return {@code true} if the file is still open. {@code false} otherwise.
+     */
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+    
+    @Override
+    public void close()
+            throws IOException {
+        channel.close();
+    }
+    
+    
+}
@@ -0,0 +1,580 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+
+// Tools imports
+import tools.BoolEvaluator;
+import tools.concurrent.Scheduler;
+import tools.data.ProgressTracker;
+
+
+/**
+ * Streaming archiver which packs a directory tree into a zip file. <br>
+ * The tree is walked using {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)},
+ * so the files are never listed in advance. Every file is split into chunks. Each chunk
+ * is read into a direct buffer and deflated as a separate task on the given
+ * {@link Scheduler}, using the preceding 32 KiB of the file as dictionary. The compressed
+ * chunks are written in order to a {@link ParallelZipOutputStream}. <br>
+ * <br>
+ * The number of chunks which are read ahead is bounded, so the memory usage does not
+ * depend on the number or size of the files. The walker waits for the oldest chunk
+ * when the limit is reached. <br>
+ * <br>
+ * The given scheduler must be started before archiving, and is not terminated afterwards.
+ * The settings of this class should not be changed while archiving.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ * 
+ * @see ParallelZipOutputStream
+ */
+public class ZipArchiver {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default size of a chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    /** The size of the dictionary of a chunk. */
+    private static final int DICT_SIZE = 32 * 1024;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Class containing a deflated chunk.
+     */
+    private static class Chunk {
+        /** The deflated data. */
+        private final byte[] data;
+        /** The size of the uncompressed data. */
+        private final long size;
+        /** The CRC of the uncompressed data. */
+        private final long crc;
+        
+        /**
+         * Creates a new deflated chunk.
+         * 
+         * @param data The deflated data.
+         * @param size The size of the uncompressed data.
+         * @param crc The CRC of the uncompressed data.
+         */
+        private Chunk(byte[] data, long size, long crc) {
+            this.data = data;
+            this.size = size;
+            this.crc = crc;
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Class for an item in the pipeline.
+     */
+    private static class Item {
+        /** The entry to start, or {@code null} if the item continues the current entry. */
+        private final ZipEntry entry;
+        /** The task deflating the chunk, or {@code null} for directories. */
+        private final FutureTask<Chunk> task;
+        /** Whether this item is the last item of the entry. */
+        private final boolean last;
+        
+        /**
+         * Creates a new item.
+         * 
+         * @param entry The entry to start, or {@code null} if the item continues
+         *     the current entry.
+         * @param task The task deflating the chunk, or {@code null} for directories.
+         * @param last Whether this item is the last item of the entry.
+         */
+        private Item(ZipEntry entry, FutureTask<Chunk> task, boolean last) {
+            this.entry = entry;
+            this.task = task;
+            this.last = last;
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The scheduler used to read and deflate the chunks. */
+    private final Scheduler scheduler;
+    /** The direct buffers which are currently not in use. */
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    /** The deflaters which are currently not in use. */
+    private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    
+    /** The size of a chunk. */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    /** The maximum number of chunks which are read ahead. */
+    private int readAhead = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    /** The compression level. */
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    /** The comparator for ignoring files and directories, or {@code null} to add all files. */
+    private BoolEvaluator<File> cmp = null;
+    /** The tracker to report the progress to, or {@code null} if not used. */
+    private ProgressTracker tracker = null;
+    /** The expected total size of the files, or {@code -1} if unknown. */
+    private long expectedSize = -1;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new archiver which uses the given scheduler to read and deflate the files.
+     * 
+     * @param scheduler The scheduler to use.
+     */
+    public ZipArchiver(Scheduler scheduler) {
+        if (scheduler == null) throw new NullPointerException();
+        this.scheduler = scheduler;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Packs all files and directories in the given directory into the given zip file.
+     * The zip file itself is skipped if it is located in the directory.
+     * 
+     * @param rootDir The directory to pack.
+     * @param zipFile The zip file to create.
+     * 
+     * @throws IOException If some IO error occured.
+     * 
+     * @see #archive(Path, String, OutputStream)
+     */
+    public void archive(File rootDir, File zipFile)
+            throws IOException {
+        File parent = zipFile.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        Path zipPath = zipFile.toPath().toAbsolutePath().normalize();
+        try (OutputStream out = new FileOutputStream(zipFile)) {
+            archive(rootDir.toPath(), null, out, zipPath);
+        }
+    }
+    
+    /**
+     * Packs all files and directories in the given directory into a zip file,
+     * and writes the zip file to the given stream. The stream is not closed.
+     * 
+     * @param rootDir The directory to pack.
+     * @param pathInZip The directory in the zip file to store the files in,
+     *     or {@code null} to store the files at the root of the zip file.
+     * @param out The stream to write the zip file to.
+     * 
+     * @throws IllegalArgumentException If the given root is not a directory.
+     * @throws IOException If some IO error occured.
+     */
+    public void archive(Path rootDir, String pathInZip, OutputStream out)
+            throws IOException {
+        archive(rootDir, pathInZip, out, null);
+    }
+    
+    /**
+     * Packs all files and directories in the given directory into a zip file,
+     * and writes the zip file to the given stream. The stream is not closed.
+     * 
+     * @param rootDir The directory to pack.
+     * @param pathInZip The directory in the zip file to store the files in,
+     *     or {@code null} to store the files at the root of the zip file.
+     * @param out The stream to write the zip file to.
+     * @param skip The file to skip, or {@code null} if no file should be skipped.
+     * 
+     * @throws IllegalArgumentException If the given root is not a directory.
+     * @throws IOException If some IO error occured.
+     */
+    private void archive(Path rootDir, String pathInZip, OutputStream out, Path skip)
+            throws IOException {
+        if (!Files.isDirectory(rootDir)) {
+            throw new IllegalArgumentException("Given root dir is not a directory: " + rootDir);
+        }
+        final String prefix = (pathInZip == null || pathInZip.isEmpty()
+                ? ""
+                : (pathInZip.replace(File.separatorChar, '/') + "/").replaceAll("/+$", "/"));
+        final Path root = rootDir.toAbsolutePath().normalize();
+        final Deque<Item> pending = new ArrayDeque<>();
+        final long[] progress = new long[2];
+        if (tracker != null) {
+            tracker.setTitle("Creating zip file");
+            tracker.setProgress(0);
+            tracker.addLine("Added 0 files");
+        }
+        
+        // The stream is finished but not closed, to keep the given stream open.
+        ParallelZipOutputStream zos = new ParallelZipOutputStream(out, scheduler,
+                ParallelZipOutputStream.DEFAULT_BLOCK_SIZE, level);
+        boolean success = false;
+        try {
+            if (!prefix.isEmpty()) {
+                pending.addLast(new Item(createEntry(prefix, root), null, true));
+            }
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                        throws IOException {
+                    if (dir.equals(root)) return FileVisitResult.CONTINUE;
+                    if (cmp != null && cmp.evaluate(dir.toFile())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    String name = prefix + toEntryName(root.relativize(dir)) + "/";
+                    add(new Item(createEntry(name, attrs), null, true));
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                        throws IOException {
+                    if (!attrs.isRegularFile() || file.equals(skip)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (cmp != null && cmp.evaluate(file.toFile())) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    
+                    ZipEntry entry = createEntry(prefix + toEntryName(root.relativize(file)), attrs);
+                    long size = attrs.size();
+                    long chunks = Math.max(1, (size + chunkSize - 1) / chunkSize);
+                    for (long i = 0; i < chunks; i++) {
+                        long start = i * chunkSize;
+                        int len = (int) Math.min(chunkSize, size - start);
+                        boolean last = (i == chunks - 1);
+                        FutureTask<Chunk> task = new FutureTask<>(
+                                () -> deflateChunk(file, start, len, last));
+                        scheduler.scheduleTask(task);
+                        add(new Item((i == 0 ? entry : null), task, last));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                /**
+                 * Adds the item to the pipeline, and writes all items which are finished.
+                 * Waits for the oldest item if the pipeline is full.
+                 * 
+                 * @param item The item to add.
+                 * 
+                 * @throws IOException If some IO error occured.
+                 */
+                private void add(Item item)
+                        throws IOException {
+                    pending.addLast(item);
+                    while (!pending.isEmpty() && (pending.size() > readAhead
+                            || pending.peekFirst().task == null
+                            || pending.peekFirst().task.isDone())) {
+                        write(zos, pending.pollFirst(), progress);
+                    }
+                }
+            });
+            
+            while (!pending.isEmpty()) {
+                write(zos, pending.pollFirst(), progress);
+            }
+            zos.finish();
+            success = true;
+            if (tracker != null) tracker.setProgress(100);
+            
+        } finally {
+            if (!success) {
+                for (Item item : pending) {
+                    if (item.task != null) item.task.cancel(false);
+                }
+            }
+            release();
+        }
+    }
+    
+    /**
+     * Writes a single item of the pipeline to the stream.
+     * 
+     * @param zos The stream to write to.
+     * @param item The item to write.
+     * @param progress The number of written files and bytes.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private void write(ParallelZipOutputStream zos, Item item, long[] progress)
+            throws IOException {
+        if (item.entry != null) zos.putNextEntry(item.entry);
+        if (item.task != null) {
+            Chunk chunk;
+            try {
+                chunk = item.task.get();
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while archiving!");
+                
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw new IOException("Could not deflate chunk!", e.getCause());
+            }
+            zos.writeDeflated(chunk.data, 0, chunk.data.length, chunk.size, chunk.crc);
+            progress[1] += chunk.size;
+        }
+        if (item.last) {
+            zos.closeEntry();
+            progress[0]++;
+            if (tracker != null) {
+                tracker.replaceLastLine("Added " + progress[0] + " files");
+                if (expectedSize > 0) {
+                    tracker.setProgress(Math.min(100.0, 100.0 * progress[1] / expectedSize));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads and deflates a single chunk of a file. This function is executed by
+     * the scheduler.
+     * 
+     * @param file The file to read from.
+     * @param start The offset of the chunk in the file.
+     * @param len The length of the chunk.
+     * @param last Whether this is the last chunk of the file.
+     * 
+     * @return The deflated chunk.
+     * 
+     * @throws IOException If the file could not be read, or if the file became smaller.
+     */
+    private Chunk deflateChunk(Path file, long start, int len, boolean last)
+            throws IOException {
+        ByteBuffer buf = buffers.poll();
+        if (buf == null || buf.capacity() < DICT_SIZE + len) {
+            buf = ByteBuffer.allocateDirect(DICT_SIZE + chunkSize);
+        }
+        Deflater def = deflaters.poll();
+        if (def == null) def = new Deflater(level, true);
+        
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+            long readStart = Math.max(0, start - DICT_SIZE);
+            int dictLen = (int) (start - readStart);
+            buf.clear();
+            buf.limit(dictLen + len);
+            while (buf.hasRemaining()) {
+                if (fc.read(buf, readStart + buf.position()) < 0) {
+                    throw new ZipException("Tried to add a file that changed in size: " + file);
+                }
+            }
+            buf.flip();
+            
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().position(dictLen));
+            if (dictLen > 0) def.setDictionary(buf.duplicate().limit(dictLen));
+            def.setInput(buf.duplicate().position(dictLen));
+            return new Chunk(ParallelZipOutputStream.deflate(def, len, last), len, crc.getValue());
+            
+        } finally {
+            def.reset();
+            deflaters.offer(def);
+            buffers.offer(buf);
+        }
+    }
+    
+    /**
+     * Releases all pooled buffers and deflaters.
+     */
+    private void release() {
+        buffers.clear();
+        Deflater def;
+        while ((def = deflaters.poll()) != null) {
+            def.end();
+        }
+    }
+    
+    /**
+     * Converts the given relative path to a zip entry name.
+     * 
+     * @param path The relative path.
+     * 
+     * @return The name of the entry, using {@code '/'} as separator.
+     */
+    private static String toEntryName(Path path) {
+        StringBuilder sb = new StringBuilder();
+        for (Path p : path) {
+            if (sb.length() != 0) sb.append('/');
+            sb.append(p.toString());
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Creates a new entry with the given name and the time attributes of the given file.
+     * 
+     * @param name The name of the entry.
+     * @param file The file to copy the times from.
+     * 
+     * @return A new entry.
+     * 
+     * @throws IOException If the attributes could not be read.
+     */
+    private static ZipEntry createEntry(String name, Path file)
+            throws IOException {
+        return createEntry(name, Files.readAttributes(file, BasicFileAttributes.class));
+    }
+    
+    /**
+     * Creates a new entry with the given name and times.
+     * 
+     * @param name The name of the entry.
+     * @param attrs The attributes to copy the times from.
+     * 
+     * @return A new entry.
+     */
+    private static ZipEntry createEntry(String name, BasicFileAttributes attrs) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setLastModifiedTime(attrs.lastModifiedTime());
+        entry.setLastAccessTime(attrs.lastAccessTime());
+        entry.setCreationTime(attrs.creationTime());
+        return entry;
+    }
+    
+    /**
+     * Sets the size of a chunk. Larger chunks give slightly better compression,
+     * while smaller chunks give more parallelism for small trees.
+     * 
+     * @param chunkSize The new chunk size.
+     * 
+     * @throws IllegalArgumentException If {@code chunkSize <= 0}.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize(" + chunkSize + ") <= 0");
+        }
+        this.chunkSize = chunkSize;
+        buffers.clear();
+    }
+    
+    /**
+     * @return The size of a chunk.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    /**
+     * Sets the maximum number of chunks which are read ahead. The memory usage is
+     * bounded by roughly {@code readAhead * chunkSize} bytes.
+     * 
+     * @param readAhead The new maximum number of chunks to read ahead.
+     * 
+     * @throws IllegalArgumentException If {@code readAhead <= 0}.
+     */
+    public void setReadAhead(int readAhead) {
+        if (readAhead <= 0) {
+            throw new IllegalArgumentException("readAhead(" + readAhead + ") <= 0");
+        }
+        this.readAhead = readAhead;
+    }
+    
+    /**
+     * @return The maximum number of chunks which are read ahead.
+     */
+    public int getReadAhead() {
+        return readAhead;
+    }
+    
+    /**
+     * @param level The new compression level.
+     * 
+     * @throws IllegalArgumentException If the level is invalid.
+     */
+    public void setLevel(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+    }
+    
+    /**
+     * @return The compression level.
+     */
+    public int getLevel() {
+        return level;
+    }
+    
+    /**
+     * Sets the comparator for ignoring files. Files and directories for which the
+     * comparator evaluates to {@code true} are ignored, and if a directory is ignored,
+     * then its contents are ignored as well. This is the same convention as used by
+     * {@link FileTools} and {@link FileTreeOperation}, so the same comparator can be
+     * used for copying and archiving a file tree.
+     * 
+     * @param cmp The comparator for ignoring files, or {@code null} to add all files.
+     */
+    public void setIgnore(BoolEvaluator<File> cmp) {
+        this.cmp = cmp;
+    }
+    
+    /**
+     * Sets the progress tracker. The progress is reported in percentages
+     * if the expected size has been set.
+     * 
+     * @param tracker The new progress tracker, or {@code null} to disable tracking.
+     * 
+     * @see #setExpectedSize(long)
+     */
+    public void setProgressTracker(ProgressTracker tracker) {
+        this.tracker = tracker;
+    }
+    
+    /**
+     * Sets the expected total size of the files. Since the files are not listed in
+     * advance, this size is only used to report the progress.
+     * 
+     * @param expectedSize The expected total size, or {@code -1} if unknown.
+     */
+    public void setExpectedSize(long expectedSize) {
+        this.expectedSize = expectedSize;
+    }
+    
+    
+}
@@ -34,7 +34,8 @@ import java.util.zip.ZipOutputStream;
  * @version 0.0
  * @author Kaj Wortel
  * 
- * @deprecated Ancient class. Should be removed.
+ * @deprecated Ancient class. Should be removed. Use {@link ZipArchiver} to create
+ *     zip files from directories.
  */
 @Deprecated(forRemoval = true)
 public class ZipTool {
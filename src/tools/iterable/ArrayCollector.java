@@ -28,7 +28,9 @@ import java.util.List;
 
 /**
  * Collector class for creating an iterator over multiple arrays
- * and elements.
+ * and elements. <br>
+ * Each single appended element is stored in its own array. When collecting
+ * a large number of primitive values, use a {@link ChunkCollector} instead.
  * 
  * @version 1.0
  * @author Kaj Wortel
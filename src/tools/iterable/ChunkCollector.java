@@ -0,0 +1,410 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.iterable;
+
+
+// Java imports
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Spliterator;
+
+
+/**
+ * Abstract collector which stores the appended elements in a list of growing chunks. <br>
+ * Elements are written directly into the last chunk, so appending a single element
+ * does not allocate any objects. When the last chunk is full, a new chunk is allocated
+ * which is twice as large as the previous one, up to {@link #MAX_CHUNK_SIZE}.
+ * Existing chunks are never copied while collecting. <br>
+ * <br>
+ * This class is not thread safe.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @param <A> The array type of the chunks.
+ * 
+ * @see IntCollector
+ * @see LongCollector
+ * @see DoubleCollector
+ */
+public abstract class ChunkCollector<A> {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The default size of the first chunk. */
+    public static final int DEFAULT_INITIAL_CHUNK_SIZE = 16;
+    /** The maximum size of a chunk which is allocated by growing. */
+    public static final int MAX_CHUNK_SIZE = 1 << 16;
+    /** The maximum size of an array which can be allocated. */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner-classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Spliterator over the chunks of a collector. The spliterator is split
+     * on chunk boundaries first, and only splits a single chunk when one chunk remains.
+     * 
+     * @param <T> The boxed type of the elements.
+     * @param <C> The consumer type of the elements.
+     * @param <S> The spliterator type of the elements.
+     */
+    protected static abstract class ChunkSpliterator<T, C, S extends Spliterator.OfPrimitive<T, C, S>>
+            implements Spliterator.OfPrimitive<T, C, S> {
+        
+        /** The characteristics of this spliterator. */
+        protected static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED
+                | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        
+        /** The chunks of the collector. */
+        private final Object[] chunks;
+        /** The index of the last chunk of the collector. */
+        private final int lastChunk;
+        /** The number of used elements in the last chunk. */
+        private final int lastSize;
+        /** The spliterator over the current chunk. */
+        private S cur;
+        /** The index of the next chunk to iterate over. */
+        private int next;
+        /** The index of the chunk after the last chunk to iterate over. */
+        private final int end;
+        
+        /**
+         * Creates a new spliterator over all chunks of the given collector.
+         * 
+         * @param collector The collector to iterate over.
+         */
+        protected ChunkSpliterator(ChunkCollector<?> collector) {
+            this.chunks = collector.chunks;
+            this.lastChunk = collector.chunkCount - 1;
+            this.lastSize = collector.tailSize;
+            this.cur = null;
+            this.next = 0;
+            this.end = collector.chunkCount;
+        }
+        
+        /**
+         * Creates a new spliterator over a part of the chunks of the source spliterator.
+         * 
+         * @param src The source spliterator.
+         * @param cur The spliterator over the current chunk, or {@code null} if there is none.
+         * @param next The index of the next chunk to iterate over.
+         * @param end The index of the chunk after the last chunk to iterate over.
+         */
+        protected ChunkSpliterator(ChunkSpliterator<T, C, S> src, S cur, int next, int end) {
+            this.chunks = src.chunks;
+            this.lastChunk = src.lastChunk;
+            this.lastSize = src.lastSize;
+            this.cur = cur;
+            this.next = next;
+            this.end = end;
+        }
+        
+        /**
+         * Creates a spliterator over the first {@code len} elements of the given chunk.
+         * 
+         * @param chunk The chunk to iterate over.
+         * @param len The number of elements to iterate over.
+         * 
+         * @return A spliterator over the given chunk.
+         */
+        protected abstract S chunkSpliterator(Object chunk, int len);
+        
+        /**
+         * Creates a new spliterator over a part of the chunks of this spliterator.
+         * 
+         * @param cur The spliterator over the current chunk, or {@code null} if there is none.
+         * @param next The index of the next chunk to iterate over.
+         * @param end The index of the chunk after the last chunk to iterate over.
+         * 
+         * @return A new spliterator over the given chunks.
+         * 
+         * @see #ChunkSpliterator(ChunkSpliterator, OfPrimitive, int, int)
+         */
+        protected abstract S split(S cur, int next, int end);
+        
+        /**
+         * @param i The index of the chunk.
+         * 
+         * @return The number of used elements in the chunk.
+         */
+        private int chunkSize(int i) {
+            return (i == lastChunk ? lastSize : Array.getLength(chunks[i]));
+        }
+        
+        /**
+         * @param i The index of the chunk.
+         * 
+         * @return A spliterator over the used elements of the chunk.
+         */
+        private S chunkSpliterator(int i) {
+            return chunkSpliterator(chunks[i], chunkSize(i));
+        }
+        
+        @Override
+        public boolean tryAdvance(C action) {
+            if (action == null) throw new NullPointerException();
+            while (true) {
+                if (cur != null && cur.tryAdvance(action)) return true;
+                if (next >= end) return false;
+                cur = chunkSpliterator(next++);
+            }
+        }
+        
+        @Override
+        public void forEachRemaining(C action) {
+            if (action == null) throw new NullPointerException();
+            if (cur != null) {
+                cur.forEachRemaining(action);
+                cur = null;
+            }
+            while (next < end) {
+                chunkSpliterator(next++).forEachRemaining(action);
+            }
+        }
+        
+        @Override
+        public S trySplit() {
+            if (end - next >= 2) {
+                int mid = (next + end) >>> 1;
+                S prefix = split(cur, next, mid);
+                cur = null;
+                next = mid;
+                return prefix;
+            }
+            if (cur == null) {
+                if (next >= end) return null;
+                cur = chunkSpliterator(next++);
+                return cur.trySplit();
+            }
+            if (next >= end) return cur.trySplit();
+            S prefix = cur;
+            cur = null;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            long size = (cur == null ? 0 : cur.estimateSize());
+            for (int i = next; i < end; i++) {
+                size += chunkSize(i);
+            }
+            return size;
+        }
+        
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** The chunks containing the data. Only the first {@link #chunkCount} are used. */
+    private Object[] chunks = new Object[8];
+    /** The number of used chunks. */
+    private int chunkCount = 0;
+    /** The number of elements in all chunks except the last one. */
+    private long fullSize = 0;
+    /** The size of the next chunk to allocate. */
+    private int nextChunkSize;
+    /** The last chunk, where new elements are written to. */
+    protected A tail = null;
+    /** The number of used elements in the last chunk. */
+    protected int tailSize = 0;
+    /** The length of the last chunk. */
+    protected int tailCapacity = 0;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new collector with the default initial chunk size.
+     */
+    public ChunkCollector() {
+        this(DEFAULT_INITIAL_CHUNK_SIZE);
+    }
+    
+    /**
+     * Creates a new collector with the given initial chunk size.
+     * 
+     * @param initialChunkSize The size of the first chunk.
+     * 
+     * @throws IllegalArgumentException If {@code initialChunkSize <= 0}.
+     */
+    public ChunkCollector(int initialChunkSize) {
+        if (initialChunkSize <= 0) {
+            throw new IllegalArgumentException("Expected a positive chunk size, but found: "
+                    + initialChunkSize);
+        }
+        nextChunkSize = initialChunkSize;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new chunk with the given size.
+     * 
+     * @param size The size of the chunk.
+     * 
+     * @return A new array with the given size.
+     */
+    protected abstract A newChunk(int size);
+    
+    /**
+     * Allocates a new last chunk. The new chunk has at least size {@code minSize}.
+     * This function should only be called when the current last chunk is full.
+     * 
+     * @param minSize The minimal size of the new chunk.
+     */
+    protected final void grow(int minSize) {
+        int size = Math.max(nextChunkSize, minSize);
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount << 1);
+        }
+        fullSize += tailSize;
+        tail = newChunk(size);
+        chunks[chunkCount++] = tail;
+        tailSize = 0;
+        tailCapacity = size;
+        if (nextChunkSize < MAX_CHUNK_SIZE) {
+            nextChunkSize = Math.min(nextChunkSize << 1, MAX_CHUNK_SIZE);
+        }
+    }
+    
+    /**
+     * Appends {@code len} elements from the given array, starting at {@code off}.
+     * The elements are copied in at most two bulk copies.
+     * 
+     * @param arr The array to append the elements from.
+     * @param arrLength The length of the array.
+     * @param off The index of the first element to append.
+     * @param len The number of elements to append.
+     * 
+     * @throws IndexOutOfBoundsException If the range is not valid for the array.
+     */
+    protected final void appendArray(A arr, int arrLength, int off, int len) {
+        if (off < 0 || len < 0 || off > arrLength - len) {
+            throw new IndexOutOfBoundsException("off(" + off + "), len(" + len
+                    + "), length(" + arrLength + ")");
+        }
+        if (len == 0) return;
+        int room = tailCapacity - tailSize;
+        if (len <= room) {
+            System.arraycopy(arr, off, tail, tailSize, len);
+            tailSize += len;
+            return;
+        }
+        if (room > 0) {
+            System.arraycopy(arr, off, tail, tailSize, room);
+            tailSize += room;
+            off += room;
+            len -= room;
+        }
+        grow(len);
+        System.arraycopy(arr, off, tail, 0, len);
+        tailSize = len;
+    }
+    
+    /**
+     * @return The number of chunks.
+     */
+    protected final int chunkCount() {
+        return chunkCount;
+    }
+    
+    /**
+     * @param i The index of the chunk.
+     * 
+     * @return The chunk with the given index.
+     */
+    @SuppressWarnings("unchecked")
+    protected final A getChunk(int i) {
+        return (A) chunks[i];
+    }
+    
+    /**
+     * @param i The index of the chunk.
+     * 
+     * @return The number of used elements in the chunk with the given index.
+     */
+    protected final int chunkSize(int i) {
+        return (i == chunkCount - 1 ? tailSize : Array.getLength(chunks[i]));
+    }
+    
+    /**
+     * Copies all elements to a single array. Every chunk is copied exactly once.
+     * 
+     * @return An array containing all collected elements.
+     * 
+     * @throws IllegalStateException If there are too many elements to fit in an array.
+     */
+    protected final A toArray0() {
+        long size = size();
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Too many elements to fit in an array: " + size);
+        }
+        A arr = newChunk((int) size);
+        int pos = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            int len = chunkSize(i);
+            System.arraycopy(chunks[i], 0, arr, pos, len);
+            pos += len;
+        }
+        return arr;
+    }
+    
+    /**
+     * @return The number of collected elements.
+     */
+    public long size() {
+        return fullSize + tailSize;
+    }
+    
+    /**
+     * @return {@code true} if no elements have been collected. {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * Removes all collected elements. The chunks are released, but the
+     * size of the next chunk to allocate is kept.
+     */
+    public void clear() {
+        chunks = new Object[8];
+        chunkCount = 0;
+        fullSize = 0;
+        tail = null;
+        tailSize = 0;
+        tailCapacity = 0;
+    }
+    
+    
+}
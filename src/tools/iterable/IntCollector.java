@@ -0,0 +1,190 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.iterable;
+
+
+// Java imports
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Chunked collector for {@code int} values.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see ChunkCollector
+ */
+public class IntCollector
+        extends ChunkCollector<int[]> {
+    
+    /* -------------------------------------------------------------------------
+     * Inner-classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Spliterator over the chunks of an {@link IntCollector}.
+     */
+    private static class IntChunkSpliterator
+            extends ChunkSpliterator<Integer, IntConsumer, Spliterator.OfInt>
+            implements Spliterator.OfInt {
+        
+        private IntChunkSpliterator(IntCollector collector) {
+            super(collector);
+        }
+        
+        private IntChunkSpliterator(IntChunkSpliterator src, Spliterator.OfInt cur,
+                int next, int end) {
+            super(src, cur, next, end);
+        }
+        
+        @Override
+        protected Spliterator.OfInt chunkSpliterator(Object chunk, int len) {
+            return Spliterators.spliterator((int[]) chunk, 0, len, CHARACTERISTICS);
+        }
+        
+        @Override
+        protected Spliterator.OfInt split(Spliterator.OfInt cur, int next, int end) {
+            return new IntChunkSpliterator(this, cur, next, end);
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new collector with the default initial chunk size.
+     */
+    public IntCollector() {
+        super();
+    }
+    
+    /**
+     * Creates a new collector with the given initial chunk size.
+     * 
+     * @param initialChunkSize The size of the first chunk.
+     */
+    public IntCollector(int initialChunkSize) {
+        super(initialChunkSize);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    @Override
+    protected int[] newChunk(int size) {
+        return new int[size];
+    }
+    
+    /**
+     * Appends the value to the end of the collector.
+     * 
+     * @param value The value to append.
+     */
+    public void append(int value) {
+        if (tailSize == tailCapacity) grow(1);
+        tail[tailSize++] = value;
+    }
+    
+    /**
+     * Appends all values of the array to the end of the collector.
+     * 
+     * @param values The values to append.
+     * 
+     * @see #append(int[], int, int)
+     */
+    public void append(int[] values) {
+        append(values, 0, values.length);
+    }
+    
+    /**
+     * Appends {@code len} values from the index {@code off} onwards
+     * to the end of the collector.
+     * 
+     * @param values The values to append.
+     * @param off The index of the first value to append.
+     * @param len The number of values to append.
+     */
+    public void append(int[] values, int off, int len) {
+        if (values == null) throw new NullPointerException();
+        appendArray(values, values.length, off, len);
+    }
+    
+    /**
+     * @return An array containing all collected values.
+     */
+    public int[] toArray() {
+        return toArray0();
+    }
+    
+    /**
+     * Performs the given action on all collected values in order.
+     * 
+     * @param action The action to perform.
+     */
+    public void forEach(IntConsumer action) {
+        if (action == null) throw new NullPointerException();
+        for (int i = 0; i < chunkCount(); i++) {
+            int[] chunk = getChunk(i);
+            int len = chunkSize(i);
+            for (int j = 0; j < len; j++) {
+                action.accept(chunk[j]);
+            }
+        }
+    }
+    
+    /**
+     * @return An iterator over all collected values.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+    
+    /**
+     * Creates a spliterator over all collected values which is split on chunk boundaries.
+     * Values which are appended after creating the spliterator are not included.
+     * 
+     * @return A spliterator over all collected values.
+     */
+    public Spliterator.OfInt spliterator() {
+        return new IntChunkSpliterator(this);
+    }
+    
+    /**
+     * @return A sequential stream over all collected values.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+    
+    /**
+     * @return A parallel stream over all collected values.
+     */
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+    
+    
+}
@@ -0,0 +1,190 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.iterable;
+
+
+// Java imports
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Chunked collector for {@code long} values.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ * 
+ * @see ChunkCollector
+ */
+public class LongCollector
+        extends ChunkCollector<long[]> {
+    
+    /* -------------------------------------------------------------------------
+     * Inner-classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Spliterator over the chunks of an {@link LongCollector}.
+     */
+    private static class LongChunkSpliterator
+            extends ChunkSpliterator<Long, LongConsumer, Spliterator.OfLong>
+            implements Spliterator.OfLong {
+        
+        private LongChunkSpliterator(LongCollector collector) {
+            super(collector);
+        }
+        
+        private LongChunkSpliterator(LongChunkSpliterator src, Spliterator.OfLong cur,
+                int next, int end) {
+            super(src, cur, next, end);
+        }
+        
+        @Override
+        protected Spliterator.OfLong chunkSpliterator(Object chunk, int len) {
+            return Spliterators.spliterator((long[]) chunk, 0, len, CHARACTERISTICS);
+        }
+        
+        @Override
+        protected Spliterator.OfLong split(Spliterator.OfLong cur, int next, int end) {
+            return new LongChunkSpliterator(this, cur, next, end);
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Constructors.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a new collector with the default initial chunk size.
+     */
+    public LongCollector() {
+        super();
+    }
+    
+    /**
+     * Creates a new collector with the given initial chunk size.
+     * 
+     * @param initialChunkSize The size of the first chunk.
+     */
+    public LongCollector(int initialChunkSize) {
+        super(initialChunkSize);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    @Override
+    protected long[] newChunk(int size) {
+        return new long[size];
+    }
+    
+    /**
+     * Appends the value to the end of the collector.
+     * 
+     * @param value The value to append.
+     */
+    public void append(long value) {
+        if (tailSize == tailCapacity) grow(1);
+        tail[tailSize++] = value;
+    }
+    
+    /**
+     * Appends all values of the array to the end of the collector.
+     * 
+     * @param values The values to append.
+     * 
+     * @see #append(long[], int, int)
+     */
+    public void append(long[] values) {
+        append(values, 0, values.length);
+    }
+    
+    /**
+     * Appends {@code len} values from the index {@code off} onwards
+     * to the end of the collector.
+     * 
+     * @param values The values to append.
+     * @param off The index of the first value to append.
+     * @param len The number of values to append.
+     */
+    public void append(long[] values, int off, int len) {
+        if (values == null) throw new NullPointerException();
+        appendArray(values, values.length, off, len);
+    }
+    
+    /**
+     * @return An array containing all collected values.
+     */
+    public long[] toArray() {
+        return toArray0();
+    }
+    
+    /**
+     * Performs the given action on all collected values in order.
+     * 
+     * @param action The action to perform.
+     */
+    public void forEach(LongConsumer action) {
+        if (action == null) throw new NullPointerException();
+        for (int i = 0; i < chunkCount(); i++) {
+            long[] chunk = getChunk(i);
+            int len = chunkSize(i);
+            for (int j = 0; j < len; j++) {
+                action.accept(chunk[j]);
+            }
+        }
+    }
+    
+    /**
+     * @return An iterator over all collected values.
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+    
+    /**
+     * Creates a spliterator over all collected values which is split on chunk boundaries.
+     * Values which are appended after creating the spliterator are not included.
+     * 
+     * @return A spliterator over all collected values.
+     */
+    public Spliterator.OfLong spliterator() {
+        return new LongChunkSpliterator(this);
+    }
+    
+    /**
+     * @return A sequential stream over all collected values.
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+    
+    /**
+     * @return A parallel stream over all collected values.
+     */
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+    
+    
+}
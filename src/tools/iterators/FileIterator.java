@@ -15,16 +15,15 @@ package tools.iterators;
 
 
 // Java imports
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Stack;
 
 
 // Tools imports
 import tools.Var;
+import tools.io.FileSpliterator;
 import tools.io.PartFile;
 
 
@@ -40,25 +39,29 @@ import tools.io.PartFile;
  *   <li> All directory files are listed directly below the non-directory
  *        files of their root directory. </li>
  * </ul>
- * No other assumptions about the order of the files can be made.
+ * No other assumptions about the order of the files can be made. <br>
+ * <br>
+ * The directories are lazily read using a {@link FileSpliterator}. The relative
+ * path of the root is empty, and the relative path of every other file starts with
+ * a file separator, e.g. {@code /a} and {@code /a/f2}. If the iteration is aborted
+ * before all files have been returned, then {@link #close()} should be invoked
+ * to close the currently opened directory.
  * 
- * @version 1.0
+ * @version 1.1
  * @author Kaj Wortel
  */
 public class FileIterator
-        extends GeneratorIterator<PartFile> {
+        extends GeneratorIterator<PartFile>
+        implements Closeable {
     
     /* -------------------------------------------------------------------------
      * Variables.
      * -------------------------------------------------------------------------
      */
-    /** The root directory to iterate over. */
-    private final PartFile root;
-    /** Whether to list the directories or not. */
-    private final boolean listDirs;
-    
-    /** The stack for keeping track of which files to add. */
-    private final Stack<PartFile> stack = new Stack<>();
+    /** The spliterator used to list the files. */
+    private final FileSpliterator split;
+    /** The next file. */
+    private PartFile next;
     
     
     /* -------------------------------------------------------------------------
@@ -79,9 +82,7 @@ public class FileIterator
     public FileIterator(File root, boolean listDirs)
             throws IOException {
         if (!root.exists()) throw new FileNotFoundException(root.toString());
-        this.root = new PartFile(root.toString(), "");
-        this.listDirs = listDirs;
-        stack.push(this.root);
+        split = new FileSpliterator(root, listDirs);
     }
     
     
@@ -91,30 +92,22 @@ public class FileIterator
      */
     @Override
     protected PartFile generateNext() {
-        while (!stack.isEmpty()) {
-            PartFile file = stack.pop();
-            if (file.isFile()) {
-                return file;
-            }
-            
-            String prefix = file.getRelativeFileName();
-            List<PartFile> files = new LinkedList<>();
-            
-            // Add directories, remember files.
-            for (File child : file.listFiles()) {
-                PartFile childPartFile = new PartFile(file.getDirName(), prefix + Var.FS + child.getName());
-                if (child.isFile()) files.add(childPartFile);
-                else stack.push(childPartFile);
-            }
-            // Add files after the directories.
-            for (PartFile childDir : files) {
-                stack.push(childDir);
-            }
-            if (listDirs) return file;
+        if (split.tryAdvance((file) -> next = file)) {
+            // Convert the spliterator naming scheme (a/, a/f2) to the one
+            // used by this iterator (/a, /a/f2).
+            String name = next.getRelativeFileName();
+            if (name.isEmpty()) return next;
+            if (name.endsWith(Var.FS)) name = name.substring(0, name.length() - Var.FS.length());
+            return new PartFile(next.getDirName(), Var.FS + name);
         }
         done();
         return null;
     }
     
+    @Override
+    public void close() {
+        split.close();
+    }
+    
     
 }
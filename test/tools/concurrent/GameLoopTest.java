@@ -0,0 +1,178 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.event.KeyPressedDetector;
+
+
+/**
+ * Test class for the {@link GameLoop} class. <br>
+ * The timing assertions are kept loose, since they depend on the load of the machine.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class GameLoopTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Runs the given loop for the given time.
+     * 
+     * @param loop The loop to run.
+     * @param millis The time to run the loop in milliseconds.
+     * 
+     * @return The elapsed time in nanoseconds.
+     */
+    private static long run(GameLoop loop, long millis) {
+        long start = System.nanoTime();
+        loop.start();
+        try {
+            Thread.sleep(millis);
+            loop.stop();
+            
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        assertFalse(loop.isRunning());
+        return System.nanoTime() - start;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests the rates of the update ticks and renders, the interpolation factor,
+     * and the polling of the keys.
+     */
+    @Test
+    public void rates() {
+        AtomicInteger polls = new AtomicInteger();
+        KeyPressedDetector keys = new KeyPressedDetector() {
+            @Override
+            public synchronized void update() {
+                polls.incrementAndGet();
+                super.update();
+            }
+        };
+        AtomicBoolean alphaInRange = new AtomicBoolean(true);
+        AtomicInteger updates = new AtomicInteger();
+        GameLoop loop = new GameLoop(5_000_000L, 20_000_000L, keys, null,
+                updates::incrementAndGet, (alpha) -> {
+                    if (alpha < 0 || alpha > 1) alphaInRange.set(false);
+                });
+        
+        long elapsed = run(loop, 500);
+        FrameMetrics m = loop.getMetrics();
+        long expUpdates = elapsed / loop.getUpdateNanos();
+        assertTrue(m.toString(), m.getUpdates() >= expUpdates * 0.8);
+        assertTrue(m.toString(), m.getUpdates() <= expUpdates + 1);
+        assertTrue(m.toString(), m.getRenders() <= elapsed / loop.getFrameNanos() + 1);
+        assertTrue(m.toString(), m.getRenders() >= 10);
+        assertEquals(m.getUpdates(), updates.get());
+        assertEquals(updates.get(), polls.get());
+        assertTrue(alphaInRange.get());
+    }
+    
+    /**
+     * Tests whether renders are skipped instead of update ticks if the renders are slow.
+     */
+    @Test
+    public void slowRender() {
+        GameLoop loop = new GameLoop(100, 60, () -> { }, (alpha) -> {
+            try {
+                Thread.sleep(30);
+                
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        
+        long elapsed = run(loop, 600);
+        FrameMetrics m = loop.getMetrics();
+        long expUpdates = elapsed / loop.getUpdateNanos();
+        assertTrue(m.toString(), m.getUpdates() >= expUpdates * 0.8);
+        assertEquals(m.toString(), 0, m.getDroppedUpdates());
+        assertTrue(m.toString(), m.getSkippedRenders() > 0);
+        assertTrue(m.toString(), m.getRenderTime().getP50() >= 30_000_000L);
+    }
+    
+    /**
+     * Tests whether an unlimited frame rate with a slow render scheduler waits for
+     * the next update tick instead of retrying the render continuously.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void unlimitedScheduledRender()
+            throws InterruptedException {
+        ThreadScheduler sched = new ThreadScheduler();
+        sched.start();
+        try {
+            GameLoop loop = new GameLoop(5_000_000L, 0L, null, sched, () -> { }, (alpha) -> {
+                try {
+                    Thread.sleep(20);
+                    
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            
+            run(loop, 300);
+            FrameMetrics m = loop.getMetrics();
+            assertTrue(m.toString(), m.getRenders() >= 5);
+            assertTrue(m.toString(), m.getSkippedRenders() > 0);
+            assertTrue(m.toString(), m.getSkippedRenders() <= m.getUpdates() + 1);
+            
+        } finally {
+            sched.terminate();
+        }
+    }
+    
+    /**
+     * Tests the argument checks.
+     */
+    @Test
+    public void arguments() {
+        expEx(IllegalArgumentException.class, () -> new GameLoop(0, 60, () -> { }, (a) -> { }));
+        expEx(IllegalArgumentException.class, () -> new GameLoop(60, -1, () -> { }, (a) -> { }));
+        expEx(NullPointerException.class, () -> new GameLoop(60, 60, null, (a) -> { }));
+        GameLoop loop = new GameLoop(60, 0, () -> { }, (a) -> { });
+        expEx(IllegalArgumentException.class, () -> loop.setMaxUpdatesPerFrame(0));
+        expEx(IllegalArgumentException.class, () -> loop.setSpinNanos(-1));
+        assertEquals(0.5, GameLoop.lerp(0, 1, 0.5), 0);
+    }
+    
+    
+}
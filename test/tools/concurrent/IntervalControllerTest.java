@@ -0,0 +1,307 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link IntervalController} implementations. <br>
+ * <br>
+ * The controllers are tested by simulating a timer which is fed a synthetic
+ * load trace, which gives the execution time of every cycle. The results are
+ * compared against the AIMD constants which were previously used by
+ * {@link ThreadTimer} and {@link TimerTool}.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class IntervalControllerTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The target interval used in the simulations. */
+    private static final long TARGET = 16;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Controller with the constants which were previously used in {@link FPSState#AUTO}.
+     */
+    private static class LegacyController
+            implements IntervalController {
+        /** Keeps track of how many cycles must pass before the
+         *  additative increase is replaced by multiplicative increase. */
+        private int waitMul = 0;
+        
+        @Override
+        public long nextInterval(long interval, long targetInterval, double exeTime,
+                boolean overrun) {
+            if (interval - exeTime < 0) {
+                waitMul += 10;
+                return (long) Math.ceil(interval + Math.max(interval * 0.05, 1));
+            }
+            if (interval > targetInterval) {
+                if (--waitMul <= 0) {
+                    waitMul = 0;
+                    long sub = Math.max((long) Math.ceil(interval * 0.05), 1);
+                    return Math.max(interval - sub, targetInterval);
+                }
+                return interval - 1;
+            }
+            return targetInterval;
+        }
+        
+        
+    }
+    
+    /**
+     * The result of a simulation.
+     */
+    private static class Result {
+        /** The interval after every cycle. */
+        private final long[] intervals;
+        /** The number of overruns. */
+        private int overruns = 0;
+        
+        /**
+         * @param cycles The number of simulated cycles.
+         */
+        private Result(int cycles) {
+            intervals = new long[cycles];
+        }
+        
+        /**
+         * @param from The first cycle to consider.
+         * @param to The last cycle to consider (exclusive).
+         * 
+         * @return The sum of the absolute changes of the interval.
+         */
+        private long variation(int from, int to) {
+            long var = 0;
+            for (int i = from + 1; i < to; i++) {
+                var += Math.abs(intervals[i] - intervals[i - 1]);
+            }
+            return var;
+        }
+        
+        /**
+         * @param from The first cycle to consider.
+         * @param to The last cycle to consider (exclusive).
+         * 
+         * @return The mean interval in the given range.
+         */
+        private double mean(int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += intervals[i];
+            }
+            return sum / (to - from);
+        }
+        
+        /**
+         * @param from The first cycle to consider.
+         * @param to The last cycle to consider (exclusive).
+         * 
+         * @return The smallest interval in the given range.
+         */
+        private long min(int from, int to) {
+            long min = Long.MAX_VALUE;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, intervals[i]);
+            }
+            return min;
+        }
+        
+        /**
+         * @param from The first cycle to consider.
+         * @param to The last cycle to consider (exclusive).
+         * 
+         * @return The largest interval in the given range.
+         */
+        private long max(int from, int to) {
+            long max = Long.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                max = Math.max(max, intervals[i]);
+            }
+            return max;
+        }
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Simulates a timer in {@link FPSState#AUTO} mode.
+     * 
+     * @param controller The controller to simulate.
+     * @param cycles The number of cycles to simulate.
+     * @param trace The load trace, which maps a cycle to its execution time in ms.
+     * 
+     * @return The result of the simulation.
+     */
+    private static Result simulate(IntervalController controller, int cycles,
+            IntToDoubleFunction trace) {
+        Result res = new Result(cycles);
+        long interval = TARGET;
+        for (int i = 0; i < cycles; i++) {
+            double exe = trace.applyAsDouble(i);
+            boolean overrun = exe > interval;
+            if (overrun) res.overruns++;
+            interval = Math.max(1, controller.nextInterval(interval, TARGET, exe, overrun));
+            res.intervals[i] = interval;
+        }
+        return res;
+    }
+    
+    /**
+     * @param seed The seed of the random generator.
+     * 
+     * @return A noisy load trace with a mean of 20 ms.
+     */
+    private static IntToDoubleFunction noisyTrace(long seed) {
+        Random r = new Random(seed);
+        double[] values = new double[2000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.max(0, 20 + 3 * r.nextGaussian());
+        }
+        return (i) -> values[i];
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether the interval stays at the target interval under a light load.
+     */
+    @Test
+    public void lightLoad() {
+        for (IntervalController c : new IntervalController[] {
+            new AimdIntervalController(), new PidIntervalController()
+        }) {
+            Result res = simulate(c, 500, (i) -> 2 + (i % 3) * 0.5);
+            assertEquals(TARGET, res.min(0, 500));
+            assertEquals(TARGET, res.max(0, 500));
+            assertEquals(0, res.overruns);
+        }
+    }
+    
+    /**
+     * Tests the reaction to a step in the load, and the recovery afterwards.
+     */
+    @Test
+    public void stepLoad() {
+        IntToDoubleFunction trace = (i) -> (i >= 200 && i < 500 ? 30 : 2);
+        Result legacy = simulate(new LegacyController(), 900, trace);
+        for (IntervalController c : new IntervalController[] {
+            new AimdIntervalController(), new PidIntervalController()
+        }) {
+            String name = c.getClass().getSimpleName();
+            Result res = simulate(c, 900, trace);
+            assertTrue(name + ": " + res.overruns, res.overruns <= 25);
+            assertTrue(name + ": " + res.overruns, res.overruns < legacy.overruns / 4);
+            assertTrue(name, res.min(250, 500) >= 30);
+            assertTrue(name, res.max(250, 500) <= 36);
+            assertEquals(name, 0, res.variation(300, 500));
+            assertEquals(name, TARGET, res.max(700, 900));
+        }
+    }
+    
+    /**
+     * Tests whether the controllers tolerate a bursty load with a low average.
+     */
+    @Test
+    public void burstyLoad() {
+        IntToDoubleFunction trace = (i) -> (i % 10 == 0 ? 40 : 10);
+        Result legacy = simulate(new LegacyController(), 1000, trace);
+        for (IntervalController c : new IntervalController[] {
+            new AimdIntervalController(), new PidIntervalController()
+        }) {
+            String name = c.getClass().getSimpleName();
+            Result res = simulate(c, 1000, trace);
+            assertTrue(name, res.overruns <= legacy.overruns);
+            assertTrue(name, res.min(200, 1000) >= TARGET);
+            assertTrue(name, res.max(200, 1000) <= 20);
+            assertTrue(name + ": " + res.mean(200, 1000), res.mean(200, 1000) <= 17);
+        }
+    }
+    
+    /**
+     * Tests whether the controllers settle on a stable interval under a noisy load,
+     * and honour the bounds.
+     */
+    @Test
+    public void noisyLoad() {
+        Result legacy = simulate(new LegacyController(), 2000, noisyTrace(42));
+        for (IntervalController c : new IntervalController[] {
+            new AimdIntervalController(), new PidIntervalController()
+        }) {
+            String name = c.getClass().getSimpleName();
+            Result res = simulate(c, 2000, noisyTrace(42));
+            assertTrue(name, res.min(500, 2000) >= 20);
+            assertTrue(name, res.max(500, 2000) <= 30);
+            assertTrue(name + ": " + res.overruns, res.overruns < legacy.overruns / 2);
+            assertTrue(name + ": " + res.variation(500, 2000),
+                    res.variation(500, 2000) < legacy.variation(500, 2000) / 2);
+        }
+        for (IntervalController c : new IntervalController[] {
+            new AimdIntervalController(1, 25), new PidIntervalController(1, 25)
+        }) {
+            Result res = simulate(c, 2000, noisyTrace(7));
+            assertTrue(c.getClass().getSimpleName(), res.max(0, 2000) <= 25);
+        }
+    }
+    
+    /**
+     * Tests the argument checks of the controllers.
+     */
+    @Test
+    public void arguments() {
+        expEx(IllegalArgumentException.class, () -> new AimdIntervalController(0, 10));
+        expEx(IllegalArgumentException.class, () -> new AimdIntervalController(10, 5));
+        expEx(IllegalArgumentException.class, () -> new AimdIntervalController(
+                1, 10, 0.5, 0.2, 0.05, 1.25, 0.95, 10));
+        expEx(IllegalArgumentException.class, () -> new PidIntervalController(
+                1, 10, 1.1, 0, 0.05, 0.3, 0.5, 0.05));
+        expEx(IllegalArgumentException.class, () -> new PidIntervalController(
+                1, 10, 1.1, 0.2, 0.05, -1, 0.5, 0.05));
+    }
+    
+    
+}
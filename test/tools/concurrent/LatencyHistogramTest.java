@@ -0,0 +1,103 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link LatencyHistogram} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class LatencyHistogramTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Test for {@link LatencyHistogram.Snapshot#getValueAtPercentile(double)}
+     * with small values, which are recorded exactly.
+     */
+    @Test
+    public void exactValues() {
+        LatencyHistogram hist = new LatencyHistogram(4, 1000);
+        for (int i = 1; i <= 20; i++) {
+            hist.record(i);
+        }
+        LatencyHistogram.Snapshot snap = hist.snapshot();
+        assertEquals(20, snap.getCount());
+        assertEquals(1, snap.getMin());
+        assertEquals(20, snap.getMax());
+        assertEquals(10.5, snap.getMean(), 1e-9);
+        assertEquals(10, snap.getP50());
+        assertEquals(20, snap.getP99());
+        assertEquals(1, snap.getValueAtPercentile(0));
+        expEx(IllegalArgumentException.class, () -> snap.getValueAtPercentile(101));
+    }
+    
+    /**
+     * Test for the relative error of large values.
+     */
+    @Test
+    public void relativeError() {
+        LatencyHistogram hist = new LatencyHistogram();
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000L + 37L * i * i;
+            hist.record(values[i]);
+        }
+        LatencyHistogram.Snapshot snap = hist.snapshot();
+        double err = 1.0 / (1 << hist.getPrecisionBits());
+        for (double p : new double[] {10, 50, 90, 99, 99.9}) {
+            long exp = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long act = snap.getValueAtPercentile(p);
+            assertTrue("p" + p + ": expected " + exp + ", but found " + act,
+                    act >= exp && act <= exp * (1 + err));
+        }
+        assertEquals(values[values.length - 1], snap.getValueAtPercentile(100));
+    }
+    
+    /**
+     * Test for {@link LatencyHistogram#record(long)} with values which are out of range,
+     * and for {@link LatencyHistogram#reset()}.
+     */
+    @Test
+    public void rangeAndReset() {
+        LatencyHistogram hist = new LatencyHistogram(3, 100);
+        hist.record(-5);
+        hist.record(1000);
+        LatencyHistogram.Snapshot snap = hist.snapshot();
+        assertEquals(0, snap.getMin());
+        assertEquals(100, snap.getMax());
+        hist.reset();
+        snap = hist.snapshot();
+        assertEquals(0, snap.getCount());
+        assertEquals(0, snap.getP999());
+        assertEquals(0, snap.getMax());
+    }
+    
+    
+}
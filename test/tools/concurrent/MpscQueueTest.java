@@ -0,0 +1,123 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link MpscQueue} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class MpscQueueTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether the elements of a single producer are returned in order.
+     */
+    @Test
+    public void singleProducer() {
+        MpscQueue<Integer> queue = new MpscQueue<>();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        for (int i = 0; i < 100; i++) {
+            queue.offer(i);
+        }
+        assertFalse(queue.isEmpty());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        
+        Integer[] batch = new Integer[20];
+        assertEquals(20, queue.drain(batch, batch.length));
+        for (int i = 0; i < batch.length; i++) {
+            assertEquals(Integer.valueOf(50 + i), batch[i]);
+        }
+        assertEquals(5, queue.drain(batch, 5));
+        assertEquals(Integer.valueOf(74), batch[4]);
+        assertEquals(25, queue.clear());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertEquals(0, queue.drain(batch, batch.length));
+    }
+    
+    /**
+     * Tests whether the elements of multiple concurrent producers are all returned
+     * to a concurrent consumer, and whether the elements of every producer
+     * are returned in order.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void multiProducer()
+            throws InterruptedException {
+        int producers = 8;
+        int amt = 20_000;
+        MpscQueue<int[]> queue = new MpscQueue<>();
+        int[] next = new int[producers];
+        int[] received = new int[1];
+        Thread consumer = new Thread(() -> {
+            int[][] batch = new int[16][];
+            while (received[0] < producers * amt) {
+                int n = queue.drain(batch, batch.length);
+                for (int i = 0; i < n; i++) {
+                    int[] e = batch[i];
+                    assertEquals(genIndex(e[0]), next[e[0]], e[1]);
+                    next[e[0]]++;
+                }
+                received[0] += n;
+            }
+        });
+        consumer.start();
+        
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            int p = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < amt; j++) {
+                    queue.offer(new int[] {p, j});
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        consumer.join(5000);
+        assertFalse("The consumer did not receive all elements", consumer.isAlive());
+        assertEquals(producers * amt, received[0]);
+        for (int i = 0; i < producers; i++) {
+            assertEquals(genIndex(i), amt, next[i]);
+        }
+        assertTrue(queue.isEmpty());
+    }
+    
+    
+}
@@ -0,0 +1,198 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.observer.ToolObserver;
+
+
+/**
+ * Test class for the interest masks of the {@link SchedulerEvent} and
+ * {@link Scheduler} classes.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class SchedulerEventTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates an observer which stores all received event objects in the given list.
+     * 
+     * @param list The list to store the event objects in.
+     * 
+     * @return The created observer.
+     */
+    private static ToolObserver<Scheduler, SchedulerEventObject> collect(
+            List<SchedulerEventObject> list) {
+        return (s, e) -> list.add(e);
+    }
+    
+    /**
+     * @param list The event objects.
+     * 
+     * @return The events of the given event objects.
+     */
+    private static List<SchedulerEvent> events(List<SchedulerEventObject> list) {
+        List<SchedulerEvent> events = new ArrayList<>();
+        synchronized (list) {
+            for (SchedulerEventObject e : list) {
+                events.add(e.getEvent());
+            }
+        }
+        return events;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether the masks of the events are distinct bits.
+     */
+    @Test
+    public void masks() {
+        int all = 0;
+        for (SchedulerEvent event : SchedulerEvent.values()) {
+            assertEquals(event.toString(), 1, Integer.bitCount(event.mask()));
+            assertEquals(event.toString(), 0, all & event.mask());
+            all |= event.mask();
+        }
+        assertEquals(all, SchedulerEvent.maskOf(SchedulerEvent.values()));
+        assertEquals(0, SchedulerEvent.maskOf());
+        assertEquals(SchedulerEvent.STARTED.mask() | SchedulerEvent.OTHER.mask(),
+                SchedulerEvent.maskOf(SchedulerEvent.OTHER, SchedulerEvent.STARTED));
+        assertEquals(all, Scheduler.ALL_EVENTS & all);
+    }
+    
+    /**
+     * Tests whether observers only receive the events in their interest mask,
+     * and whether the same event object is used for every event of the same type.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void interestFiltering()
+            throws InterruptedException {
+        ThreadScheduler sched = new ThreadScheduler();
+        List<SchedulerEventObject> tasks = Collections.synchronizedList(new ArrayList<>());
+        List<SchedulerEventObject> lifecycle = Collections.synchronizedList(new ArrayList<>());
+        List<SchedulerEventObject> all = Collections.synchronizedList(new ArrayList<>());
+        List<SchedulerEventObject> none = Collections.synchronizedList(new ArrayList<>());
+        sched.addObserver(collect(tasks), SchedulerEvent.maskOf(SchedulerEvent.TASK_STARTED,
+                SchedulerEvent.TASK_FINISHED, SchedulerEvent.ALL_TASKS_FINISHED));
+        sched.addObserver(collect(lifecycle), SchedulerEvent.maskOf(SchedulerEvent.STARTED,
+                SchedulerEvent.TERMINATED));
+        sched.addObserver(collect(all));
+        sched.addObserver(collect(none), 0);
+        assertTrue(sched.hasObservers(SchedulerEvent.TASK_STARTED));
+        
+        sched.start();
+        for (int i = 0; i < 3; i++) {
+            sched.scheduleTask(() -> { });
+            sched.waitUntilDone();
+        }
+        assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        
+        assertEquals(Arrays.asList(SchedulerEvent.STARTED, SchedulerEvent.TERMINATED),
+                events(lifecycle));
+        // The update thread can fire additional ALL_TASKS_FINISHED events while idle,
+        // also before the STARTED event has been fired.
+        int taskMask = SchedulerEvent.maskOf(SchedulerEvent.TASK_STARTED,
+                SchedulerEvent.TASK_FINISHED, SchedulerEvent.ALL_TASKS_FINISHED);
+        List<SchedulerEvent> taskEvents = events(tasks);
+        int started = 0;
+        for (SchedulerEvent event : taskEvents) {
+            assertTrue(taskEvents.toString(), (event.mask() & taskMask) != 0);
+            if (event == SchedulerEvent.TASK_STARTED) started++;
+        }
+        assertEquals(taskEvents.toString(), 3, started);
+        
+        List<SchedulerEvent> allEvents = events(all);
+        assertEquals(SchedulerEvent.TERMINATED, allEvents.get(allEvents.size() - 1));
+        assertTrue(allEvents.remove(SchedulerEvent.STARTED));
+        assertTrue(allEvents.remove(SchedulerEvent.TERMINATED));
+        assertEquals(taskEvents, allEvents);
+        assertEquals(0, none.size());
+        
+        // The event objects are preallocated.
+        SchedulerEventObject first = null;
+        for (SchedulerEventObject e : tasks) {
+            if (e.getEvent() != SchedulerEvent.TASK_STARTED) continue;
+            if (first == null) first = e;
+            assertSame(first, e);
+            assertSame(sched, e.getScheduler());
+        }
+        assertTrue(all.contains(first));
+    }
+    
+    /**
+     * Tests whether the interest of the scheduler is updated when observers
+     * are removed, and whether forced notifications respect the masks.
+     */
+    @Test
+    public void removeObservers() {
+        ThreadScheduler sched = new ThreadScheduler();
+        List<SchedulerEventObject> started = Collections.synchronizedList(new ArrayList<>());
+        List<SchedulerEventObject> other = Collections.synchronizedList(new ArrayList<>());
+        ToolObserver<Scheduler, SchedulerEventObject> startedObs = collect(started);
+        ToolObserver<Scheduler, SchedulerEventObject> otherObs = collect(other);
+        assertFalse(sched.hasObservers(SchedulerEvent.STARTED));
+        sched.addObserver(startedObs, SchedulerEvent.TASK_STARTED.mask());
+        sched.addObserver(otherObs, SchedulerEvent.OTHER.mask(), Runnable::run);
+        assertTrue(sched.hasObservers(SchedulerEvent.TASK_STARTED));
+        assertTrue(sched.hasObservers(SchedulerEvent.OTHER));
+        assertFalse(sched.hasObservers(SchedulerEvent.TASK_FINISHED));
+        assertEquals(2, sched.countObservers());
+        
+        sched.forceNotifyObservers(new SchedulerEventObject(sched, SchedulerEvent.OTHER));
+        assertEquals(0, started.size());
+        assertEquals(1, other.size());
+        sched.forceNotifyObservers(null);
+        assertEquals(1, started.size());
+        assertEquals(2, other.size());
+        
+        sched.deleteObserver(startedObs);
+        assertFalse(sched.hasObservers(SchedulerEvent.TASK_STARTED));
+        assertTrue(sched.hasObservers(SchedulerEvent.OTHER));
+        sched.deleteObservers();
+        assertFalse(sched.hasObservers(SchedulerEvent.OTHER));
+        assertEquals(0, sched.countObservers());
+    }
+    
+    
+}
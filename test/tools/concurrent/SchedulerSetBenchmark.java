@@ -0,0 +1,272 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Throughput benchmark comparing the {@link SchedulerSet} modes with a {@link ForkJoinPool}. <br>
+ * <br>
+ * Two workloads are measured:
+ * <ul>
+ *   <li> <b>flat</b>: many small tasks are scheduled from a single external thread. </li>
+ *   <li> <b>fan-out</b>: each task schedules two child tasks until a fixed depth
+ *        has been reached, so most tasks are scheduled from the workers themselves. </li>
+ * </ul>
+ * Each measurement is repeated several times, and the best run is reported.
+ * Run using {@code java tools.concurrent.SchedulerSetBenchmark [workers] [tasks]}.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class SchedulerSetBenchmark {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The number of runs per measurement. */
+    private static final int RUNS = 5;
+    /** The amount of work done per task. */
+    private static final int WORK = 200;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Variables.
+     * -------------------------------------------------------------------------
+     */
+    /** Variable used to prevent the work from being optimized away. */
+    private static volatile long sink;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Inner classes.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Interface for the executors under test.
+     */
+    private interface Target {
+        
+        /**
+         * Schedules a task.
+         * 
+         * @param task The task to schedule.
+         */
+        void submit(Runnable task);
+        
+        /**
+         * Waits until all tasks are done.
+         * 
+         * @throws InterruptedException If the current thread was interrupted.
+         */
+        void await()
+                throws InterruptedException;
+        
+        /**
+         * Shuts down the executor.
+         * 
+         * @throws InterruptedException If the current thread was interrupted.
+         */
+        void close()
+                throws InterruptedException;
+        
+        
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Performs a small amount of work.
+     */
+    private static void work() {
+        long x = sink;
+        for (int i = 0; i < WORK; i++) {
+            x = x * 31 + i;
+        }
+        sink = x;
+    }
+    
+    /**
+     * Creates a target backed by a started scheduler set.
+     * 
+     * @param workers The number of schedulers.
+     * @param workStealing Whether to use the work-stealing mode.
+     * 
+     * @return The created target.
+     */
+    private static Target schedulerSet(int workers, boolean workStealing) {
+        ThreadScheduler[] schedulers = new ThreadScheduler[workers];
+        for (int i = 0; i < workers; i++) {
+            schedulers[i] = new ThreadScheduler(Thread.NORM_PRIORITY, workStealing);
+        }
+        SchedulerSet<ThreadScheduler> set = new SchedulerSet<>(workStealing, schedulers);
+        set.start();
+        return new Target() {
+            @Override
+            public void submit(Runnable task) {
+                set.scheduleTask(task);
+            }
+            
+            @Override
+            public void await()
+                    throws InterruptedException {
+                set.waitUntilDone();
+            }
+            
+            @Override
+            public void close()
+                    throws InterruptedException {
+                set.terminate(1, TimeUnit.SECONDS);
+            }
+        };
+    }
+    
+    /**
+     * Creates a target backed by a fork join pool.
+     * 
+     * @param workers The parallelism of the pool.
+     * 
+     * @return The created target.
+     */
+    private static Target forkJoinPool(int workers) {
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        return new Target() {
+            @Override
+            public void submit(Runnable task) {
+                pool.execute(task);
+            }
+            
+            @Override
+            public void await() {
+                pool.awaitQuiescence(1, TimeUnit.MINUTES);
+            }
+            
+            @Override
+            public void close() {
+                pool.shutdownNow();
+            }
+        };
+    }
+    
+    /**
+     * Schedules the flat workload.
+     * 
+     * @param target The target to schedule on.
+     * @param tasks The number of tasks.
+     * @param counter The counter of executed tasks.
+     */
+    private static void flat(Target target, int tasks, LongAdder counter) {
+        for (int i = 0; i < tasks; i++) {
+            target.submit(() -> {
+                work();
+                counter.increment();
+            });
+        }
+    }
+    
+    /**
+     * Schedules a task of the fan-out workload.
+     * 
+     * @param target The target to schedule on.
+     * @param depth The remaining depth of the task.
+     * @param counter The counter of executed tasks.
+     */
+    private static void fanOut(Target target, int depth, LongAdder counter) {
+        target.submit(() -> {
+            work();
+            counter.increment();
+            if (depth > 0) {
+                fanOut(target, depth - 1, counter);
+                fanOut(target, depth - 1, counter);
+            }
+        });
+    }
+    
+    /**
+     * Measures the throughput of a workload on a target.
+     * 
+     * @param name The name of the measurement.
+     * @param target The target to measure.
+     * @param expected The expected number of executed tasks.
+     * @param workload The workload to schedule.
+     * 
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    private static void measure(String name, Target target, long expected,
+            BiConsumer<Target, LongAdder> workload)
+            throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        try {
+            for (int run = 0; run < RUNS; run++) {
+                LongAdder counter = new LongAdder();
+                long start = System.nanoTime();
+                workload.accept(target, counter);
+                while (counter.sum() < expected) {
+                    target.await();
+                    if (counter.sum() < expected) Thread.onSpinWait();
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            
+        } finally {
+            target.close();
+        }
+        System.out.printf("%-28s %10.0f tasks/s (%d ms)%n", name,
+                expected * 1e9 / best, TimeUnit.NANOSECONDS.toMillis(best));
+    }
+    
+    /**
+     * Runs the benchmark.
+     * 
+     * @param args The number of workers and the number of tasks. Both are optional.
+     * 
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    public static void main(String[] args)
+            throws InterruptedException {
+        int workers = (args.length > 0
+                ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors());
+        int tasks = (args.length > 1 ? Integer.parseInt(args[1]) : 200_000);
+        int depth = 31 - Integer.numberOfLeadingZeros(tasks);
+        long fanOutTasks = (1L << (depth + 1)) - 1;
+        System.out.println("workers: " + workers + ", tasks: " + tasks
+                + ", fan-out tasks: " + fanOutTasks);
+        
+        BiConsumer<Target, LongAdder> flat = (t, c) -> flat(t, tasks, c);
+        BiConsumer<Target, LongAdder> fanOut = (t, c) -> fanOut(t, depth, c);
+        for (int i = 0; i < 2; i++) {
+            System.out.println(i == 0 ? "warm-up:" : "results:");
+            measure("flat    SchedulerSet", schedulerSet(workers, false), tasks, flat);
+            measure("flat    SchedulerSet stealing", schedulerSet(workers, true), tasks, flat);
+            measure("flat    ForkJoinPool", forkJoinPool(workers), tasks, flat);
+            measure("fan-out SchedulerSet", schedulerSet(workers, false), fanOutTasks, fanOut);
+            measure("fan-out SchedulerSet stealing", schedulerSet(workers, true),
+                    fanOutTasks, fanOut);
+            measure("fan-out ForkJoinPool", forkJoinPool(workers), fanOutTasks, fanOut);
+        }
+    }
+    
+    
+}
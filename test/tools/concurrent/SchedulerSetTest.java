@@ -0,0 +1,174 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the work-stealing mode of the {@link SchedulerSet} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class SchedulerSetTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Sleeps the given amount of milliseconds.
+     * 
+     * @param millis The time to sleep in milliseconds.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether a scheduler executes the tasks it forked itself in
+     * last-in-first-out order.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void ownerOrder()
+            throws InterruptedException {
+        SchedulerSet<ThreadScheduler> set = new SchedulerSet<>(ThreadScheduler.class, 1, true);
+        assertTrue(set.isWorkStealing());
+        set.start();
+        try {
+            List<Integer> order = new ArrayList<>();
+            set.scheduleTask(() -> {
+                for (int i = 0; i < 10; i++) {
+                    int index = i;
+                    set.scheduleTask(() -> order.add(index));
+                }
+            });
+            set.waitUntilDone();
+            assertTrue(set.isDone());
+            assertEquals(10, order.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(genIndex(i), Integer.valueOf(9 - i), order.get(i));
+            }
+            
+        } finally {
+            assertTrue(set.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Tests whether tasks forked by a single scheduler are stolen by the idle
+     * schedulers, and whether all tasks are executed.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void fanOut()
+            throws InterruptedException {
+        SchedulerSet<ThreadScheduler> set = new SchedulerSet<>(ThreadScheduler.class, 4, true);
+        set.start();
+        try {
+            int amt = 64;
+            AtomicInteger executed = new AtomicInteger();
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            Thread[] root = new Thread[1];
+            set.scheduleTask(() -> {
+                root[0] = Thread.currentThread();
+                for (int i = 0; i < amt; i++) {
+                    set.scheduleTask(() -> {
+                        threads.add(Thread.currentThread());
+                        sleep(2);
+                        executed.incrementAndGet();
+                    });
+                }
+            });
+            set.waitUntilDone();
+            assertEquals(amt, executed.get());
+            assertEquals(0, set.queueSize());
+            assertTrue(set.isDone());
+            // The forked tasks were all added to the deque of the root scheduler,
+            // so the other schedulers can only have executed stolen tasks.
+            threads.remove(root[0]);
+            assertTrue(threads.size() >= 1);
+            
+        } finally {
+            assertTrue(set.terminate(1, TimeUnit.SECONDS));
+        }
+        assertTrue(set.isTerminated());
+        for (ThreadScheduler s : set.getSchedulers()) {
+            assertTrue(s.isTerminated());
+        }
+    }
+    
+    /**
+     * Tests whether tasks from many external threads, which fork new tasks
+     * themselves, are all executed.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void externalProducers()
+            throws InterruptedException {
+        SchedulerSet<ThreadScheduler> set = new SchedulerSet<>(ThreadScheduler.class, 4, true);
+        set.start();
+        try {
+            int producers = 4;
+            int amt = 500;
+            AtomicInteger executed = new AtomicInteger();
+            runAndWait(() -> {
+                for (int i = 0; i < amt; i++) {
+                    set.scheduleTask(() -> set.scheduleTask(executed::incrementAndGet));
+                }
+            }, producers, 5000L);
+            set.waitUntilDone();
+            assertEquals(producers * amt, executed.get());
+            assertEquals(0, set.queueSize());
+            
+        } finally {
+            assertTrue(set.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    
+}
@@ -0,0 +1,313 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link ThreadScheduler} class.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class ThreadSchedulerTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Blocks the update thread of the given scheduler until the returned latch
+     * is released, so that the tasks scheduled in the mean time are all queued.
+     * 
+     * @param sched The scheduler to block.
+     * 
+     * @return The latch which releases the update thread.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    private static CountDownLatch block(ThreadScheduler sched)
+            throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        sched.scheduleTask(() -> {
+            blocked.countDown();
+            try {
+                gate.await();
+                
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(blocked.await(1, TimeUnit.SECONDS));
+        return gate;
+    }
+    
+    /**
+     * Releases the update thread, waits until all tasks are executed and
+     * checks the order in which they were executed.
+     * 
+     * @param sched The scheduler.
+     * @param gate The latch which blocks the update thread.
+     * @param order The list the tasks add their ID to.
+     * @param expected The expected order of the IDs.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    private static void checkOrder(ThreadScheduler sched, CountDownLatch gate,
+            List<Integer> order, Integer... expected)
+            throws InterruptedException {
+        gate.countDown();
+        sched.waitUntilDone();
+        assertEquals(Arrays.asList(expected), order);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether the parked update thread of a lock-free scheduler wakes up
+     * for every newly scheduled task, and for termination.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void lockFreeWakeup()
+            throws InterruptedException {
+        ThreadScheduler sched = new ThreadScheduler(Thread.NORM_PRIORITY, true);
+        assertTrue(sched.isLockFree());
+        sched.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                CountDownLatch latch = new CountDownLatch(1);
+                sched.scheduleTask(latch::countDown);
+                assertTrue(genIndex(i), latch.await(1, TimeUnit.SECONDS));
+                sched.waitUntilDone();
+                assertTrue(genIndex(i), sched.isDone());
+                // Give the update thread time to park before scheduling the next task.
+                if (i % 10 == 0) Thread.sleep(2);
+            }
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+        assertTrue(sched.isTerminated());
+    }
+    
+    /**
+     * Tests whether the tasks of multiple producers are all executed by a lock-free
+     * scheduler, and whether the tasks of every producer are executed in order.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void lockFreeProducers()
+            throws InterruptedException {
+        ThreadScheduler sched = new ThreadScheduler(Thread.NORM_PRIORITY, true, 8);
+        assertEquals(8, sched.getBatchSize());
+        sched.start();
+        try {
+            int producers = 8;
+            int amt = 5_000;
+            AtomicInteger id = new AtomicInteger();
+            // Only accessed by the update thread.
+            int[] next = new int[producers];
+            AtomicInteger errors = new AtomicInteger();
+            AtomicInteger executed = new AtomicInteger();
+            runAndWait(() -> {
+                int p = id.getAndIncrement();
+                for (int i = 0; i < amt; i++) {
+                    int seq = i;
+                    sched.scheduleTask(() -> {
+                        if (next[p]++ != seq) errors.incrementAndGet();
+                        executed.incrementAndGet();
+                    });
+                }
+            }, producers, 5000L);
+            sched.waitUntilDone();
+            assertEquals(producers * amt, executed.get());
+            assertEquals(0, errors.get());
+            assertEquals(0, sched.queueSize());
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Tests whether tasks are executed in order of their priority, and in the order
+     * in which they were scheduled for equal priorities.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void priorityOrder()
+            throws InterruptedException {
+        // Use a large aging interval, so aging doesn't change the order.
+        ThreadScheduler sched = new ThreadScheduler(Thread.NORM_PRIORITY,
+                SchedulingPolicy.PRIORITY, 1_000_000_000L);
+        assertEquals(SchedulingPolicy.PRIORITY, sched.getPolicy());
+        sched.start();
+        try {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch gate = block(sched);
+            int[] priorities = new int[] {0, 5, -3, 5, 2, Integer.MIN_VALUE, Integer.MAX_VALUE};
+            for (int i = 0; i < priorities.length; i++) {
+                int id = i;
+                sched.scheduleTask(() -> order.add(id), priorities[i]);
+            }
+            sched.scheduleTask(() -> order.add(7));
+            
+            SortedMap<Integer, Integer> depths = new TreeMap<>();
+            depths.put(Integer.MIN_VALUE, 1);
+            depths.put(-3, 1);
+            depths.put(0, 2);
+            depths.put(2, 1);
+            depths.put(5, 2);
+            depths.put(Integer.MAX_VALUE, 1);
+            assertEquals(depths, sched.getQueueDepths());
+            assertEquals(2, sched.getQueueDepth(ThreadScheduler.NORM_TASK_PRIORITY));
+            assertEquals(8, sched.queueSize());
+            
+            checkOrder(sched, gate, order, 6, 1, 3, 4, 0, 7, 2, 5);
+            assertTrue(sched.getQueueDepths().isEmpty());
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Tests whether tasks with a deadline are executed in order of their deadline,
+     * and interleaved with the virtual deadlines of the tasks with a priority.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void deadlineOrder()
+            throws InterruptedException {
+        long aging = 100_000_000L;
+        ThreadScheduler sched = new ThreadScheduler(Thread.NORM_PRIORITY,
+                SchedulingPolicy.PRIORITY, aging);
+        assertEquals(aging, sched.getAgingNanos());
+        sched.start();
+        try {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch gate = block(sched);
+            long now = System.nanoTime();
+            long[] deadlines = new long[] {
+                now + 5 * aging, now + 3 * aging / 2, now - aging / 2, now + 5 * aging / 2
+            };
+            for (int i = 0; i < deadlines.length; i++) {
+                int id = i;
+                sched.scheduleTask(() -> order.add(id), deadlines[i]);
+            }
+            // Virtual deadlines of about now, now - 2 * aging and now + 2 * aging.
+            sched.scheduleTask(() -> order.add(4), 0);
+            sched.scheduleTask(() -> order.add(5), 2);
+            sched.scheduleTask(() -> order.add(6), -2);
+            assertEquals(4, sched.getDeadlineQueueDepth());
+            assertEquals(7, sched.queueSize());
+            
+            checkOrder(sched, gate, order, 5, 2, 4, 1, 6, 3, 0);
+            assertEquals(0, sched.getDeadlineQueueDepth());
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Tests whether a task with a low priority is executed before tasks with a
+     * higher priority which were scheduled later than the difference in priority
+     * times the aging interval.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void aging()
+            throws InterruptedException {
+        ThreadScheduler sched = new ThreadScheduler(Thread.NORM_PRIORITY,
+                SchedulingPolicy.PRIORITY, 1_000_000L);
+        sched.start();
+        try {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch gate = block(sched);
+            sched.scheduleTask(() -> order.add(0), 0);
+            Thread.sleep(30);
+            // Waited at least 30 ms, which is more than 5 priority levels,
+            // but less than 60 priority levels.
+            sched.scheduleTask(() -> order.add(1), 5);
+            sched.scheduleTask(() -> order.add(2), 60);
+            checkOrder(sched, gate, order, 2, 0, 1);
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Tests whether the priorities and deadlines are ignored when the
+     * {@link SchedulingPolicy#FIFO} policy is used.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void fifoIgnoresPriority()
+            throws InterruptedException {
+        ThreadScheduler sched = new ThreadScheduler(Thread.NORM_PRIORITY, SchedulingPolicy.FIFO);
+        expEx(IllegalArgumentException.class,
+                () -> new ThreadScheduler(Thread.NORM_PRIORITY, SchedulingPolicy.PRIORITY, 0));
+        sched.start();
+        try {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch gate = block(sched);
+            sched.scheduleTask(() -> order.add(0), -10);
+            sched.scheduleTask(() -> order.add(1), 10);
+            sched.scheduleTask(() -> order.add(2), System.nanoTime() - 1_000_000_000L);
+            sched.scheduleTask(() -> order.add(3));
+            assertTrue(sched.getQueueDepths().isEmpty());
+            checkOrder(sched, gate, order, 0, 1, 2, 3);
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    
+}
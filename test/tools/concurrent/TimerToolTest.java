@@ -0,0 +1,176 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the executor backend of the {@link TimerTool} class. <br>
+ * The timing assertions are kept loose, since they depend on the load of the machine.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class TimerToolTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Sleeps the given amount of milliseconds.
+     * 
+     * @param millis The time to sleep in milliseconds.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether a slow timer does not delay the other timers on the same executor.
+     */
+    @Test
+    public void sharedExecutor() {
+        ScheduledThreadPoolExecutor exec = new ScheduledThreadPoolExecutor(2);
+        try {
+            AtomicInteger fast = new AtomicInteger();
+            TimerTool slow = new TimerTool(0, 10, exec, () -> sleep(200));
+            TimerTool[] timers = new TimerTool[10];
+            for (int i = 0; i < timers.length; i++) {
+                timers[i] = new TimerTool(0, 10, exec, fast::incrementAndGet);
+                assertSame(exec, timers[i].getExecutor());
+            }
+            slow.start();
+            for (TimerTool t : timers) {
+                t.start();
+            }
+            sleep(500);
+            slow.cancel();
+            for (TimerTool t : timers) {
+                t.cancel();
+            }
+            // About 50 updates per timer are expected.
+            assertTrue("" + fast.get(), fast.get() >= timers.length * 25);
+            expEx(NullPointerException.class, () -> new TimerTool(0, 10,
+                    (ScheduledExecutorService) null, fast::incrementAndGet));
+            
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+    
+    /**
+     * Tests whether a paused timer does not execute updates, and continues afterwards.
+     */
+    @Test
+    public void pauseResume() {
+        AtomicInteger count = new AtomicInteger();
+        TimerTool timer = new TimerTool(0, 10, TimerTool.getSharedExecutor(),
+                count::incrementAndGet);
+        assertSame(TimerTool.getSharedExecutor(), timer.getExecutor());
+        timer.start();
+        sleep(200);
+        timer.pause();
+        assertEquals(TimerTool.TimerState.PAUSED, timer.getState());
+        sleep(20);
+        int paused = count.get();
+        sleep(200);
+        assertEquals(paused, count.get());
+        timer.resume();
+        sleep(200);
+        timer.cancel();
+        assertTrue(paused + " -> " + count.get(), count.get() - paused >= 10);
+        int canceled = count.get();
+        sleep(100);
+        assertTrue(count.get() - canceled <= 1);
+    }
+    
+    /**
+     * Tests the skip and catch up policies for missed updates.
+     */
+    @Test
+    public void missedTicks() {
+        AtomicInteger skipCount = new AtomicInteger();
+        AtomicInteger catchUpCount = new AtomicInteger();
+        TimerTool skip = new TimerTool(0, 20, TimerTool.getSharedExecutor(), () -> {
+            if (skipCount.getAndIncrement() == 0) sleep(200);
+        });
+        TimerTool catchUp = new TimerTool(0, 20, TimerTool.getSharedExecutor(), () -> {
+            if (catchUpCount.getAndIncrement() == 0) sleep(200);
+        });
+        catchUp.setMissedTickPolicy(TimerTool.MissedTickPolicy.CATCH_UP);
+        skip.start();
+        catchUp.start();
+        sleep(500);
+        skip.cancel();
+        catchUp.cancel();
+        
+        // The catch up timer should have executed about 25 updates, and the
+        // skip timer about 15.
+        assertTrue(skip.getSkippedTicks() >= 5);
+        assertEquals(0, catchUp.getSkippedTicks());
+        assertTrue(skipCount + " vs " + catchUpCount,
+                catchUpCount.get() - skipCount.get() >= 5);
+    }
+    
+    /**
+     * Tests whether updates in fixed delay mode never start within the interval
+     * after the end of the previous update.
+     */
+    @Test
+    public void fixedDelay() {
+        AtomicInteger count = new AtomicInteger();
+        TimerTool timer = new TimerTool(0, 20, TimerTool.getSharedExecutor(), () -> {
+            count.incrementAndGet();
+            sleep(20);
+        });
+        timer.setRateMode(TimerTool.RateMode.FIXED_DELAY);
+        timer.start();
+        sleep(500);
+        timer.cancel();
+        // About 12 updates are expected, and at most 25 in fixed rate mode.
+        assertTrue("" + count.get(), count.get() >= 6 && count.get() <= 14);
+        expEx(NullPointerException.class, () -> timer.setRateMode(null));
+        expEx(NullPointerException.class, () -> timer.setMissedTickPolicy(null));
+    }
+    
+    
+}
@@ -0,0 +1,279 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link TimingWheel} class, and the {@link ThreadTimer}
+ * class when it uses a timing wheel. <br>
+ * The timing assertions are kept loose, since they depend on the load of the machine.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class TimingWheelTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The number of nanoseconds in a millisecond. */
+    private static final long MS = 1_000_000L;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Sleeps the given amount of milliseconds.
+     * 
+     * @param millis The time to sleep in milliseconds.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * Schedules tasks with the given delays, and checks whether they are executed
+     * in the order of their deadlines and not before their deadline.
+     * 
+     * @param wheel The wheel to schedule the tasks on.
+     * @param delays The delays of the tasks in milliseconds.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    private static void checkOrder(TimingWheel wheel, long... delays)
+            throws InterruptedException {
+        int n = delays.length;
+        long[] deadlines = new long[n];
+        long[] executed = new long[n];
+        List<Integer> order = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(n);
+        Runnable[] tasks = new Runnable[n];
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            tasks[i] = () -> {
+                executed[index] = System.nanoTime();
+                order.add(index);
+                latch.countDown();
+            };
+        }
+        // The tasks are created beforehand, so the deadlines don't pass while scheduling.
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            deadlines[i] = start + delays[i] * MS;
+            wheel.schedule(tasks[i], deadlines[i]);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, wheel.pendingTimeouts());
+        
+        // The latch makes the writes of the ticker thread visible.
+        for (int i = 0; i < n; i++) {
+            assertTrue(genIndex(i) + "Executed early", executed[i] - deadlines[i] >= 0);
+        }
+        for (int i = 1; i < n; i++) {
+            assertTrue(genIndex(i) + order, deadlines[order.get(i - 1)] <= deadlines[order.get(i)]);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether timeouts are executed in the order of their deadlines.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void ordering()
+            throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(MS, 64);
+        try {
+            long[] delays = new long[20];
+            for (int i = 0; i < delays.length; i++) {
+                delays[i] = 5 * (delays.length - i);
+            }
+            checkOrder(wheel, delays);
+            // Deadlines which have already passed are executed on the next tick.
+            checkOrder(wheel, -10, 0, 3);
+            
+        } finally {
+            wheel.stop();
+        }
+    }
+    
+    /**
+     * Tests whether timeouts which are more than one revolution of the wheel
+     * ahead are not executed before their deadline.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void wrapAround()
+            throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(MS, 4);
+        try {
+            assertEquals(4, wheel.getWheelSize());
+            // The wheel makes a single revolution every 4 ms.
+            checkOrder(wheel, 50, 2, 17, 33, 9, 4, 8);
+            // The deadlines map to the same bucket, but are in a different revolution.
+            checkOrder(wheel, 42, 30, 6, 18);
+            
+        } finally {
+            wheel.stop();
+        }
+        assertEquals(8, new TimingWheel(MS, 5).getWheelSize());
+    }
+    
+    /**
+     * Tests whether canceled timeouts are not executed.
+     */
+    @Test
+    public void cancel() {
+        TimingWheel wheel = new TimingWheel(MS, 16);
+        try {
+            AtomicInteger count = new AtomicInteger();
+            long now = System.nanoTime();
+            TimingWheel.Timeout canceled = wheel.schedule(count::incrementAndGet, now + 200 * MS);
+            TimingWheel.Timeout expired = wheel.schedule(count::incrementAndGet, now + 100 * MS);
+            assertEquals(2, wheel.pendingTimeouts());
+            assertTrue(canceled.cancel());
+            assertFalse(canceled.cancel());
+            assertTrue(canceled.isCanceled());
+            assertEquals(1, wheel.pendingTimeouts());
+            
+            sleep(300);
+            assertEquals(1, count.get());
+            assertTrue(expired.isExpired());
+            assertFalse(expired.cancel());
+            assertFalse(expired.isCanceled());
+            assertFalse(canceled.isExpired());
+            assertEquals(0, wheel.pendingTimeouts());
+            
+        } finally {
+            wheel.stop();
+        }
+        assertTrue(wheel.isStopped());
+        expEx(IllegalStateException.class, () -> wheel.schedule(() -> { }, 0));
+    }
+    
+    /**
+     * Tests whether all timeouts which are scheduled while the wheel is stopped
+     * are either executed, dropped or rejected, and whether none of them
+     * remains pending.
+     */
+    @Test
+    public void scheduleStopRace() {
+        for (int i = 0; i < 200; i++) {
+            TimingWheel wheel = new TimingWheel(MS, 16);
+            ConcurrentLinkedQueue<TimingWheel.Timeout> timeouts = new ConcurrentLinkedQueue<>();
+            CountDownLatch started = new CountDownLatch(1);
+            Thread t = new Thread(() -> {
+                try {
+                    while (true) {
+                        timeouts.add(wheel.schedule(() -> { }, System.nanoTime() + MS));
+                        started.countDown();
+                    }
+                    
+                } catch (IllegalStateException e) {
+                    // The wheel was stopped.
+                }
+            });
+            t.start();
+            try {
+                started.await();
+                wheel.stop();
+                t.join();
+                
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            
+            long deadline = System.nanoTime() + 1000 * MS;
+            while (wheel.pendingTimeouts() != 0 && System.nanoTime() - deadline < 0) {
+                sleep(1);
+            }
+            assertEquals(genIndex(i), 0, wheel.pendingTimeouts());
+            for (TimingWheel.Timeout timeout : timeouts) {
+                assertTrue(genIndex(i), timeout.isCanceled() || timeout.isExpired());
+            }
+        }
+    }
+    
+    /**
+     * Tests whether a timer using a timing wheel does not execute updates while
+     * it is paused, and continues afterwards.
+     */
+    @Test
+    public void pauseResume() {
+        TimingWheel wheel = new TimingWheel(MS, 64);
+        try {
+            AtomicInteger count = new AtomicInteger();
+            ThreadTimer timer = new ThreadTimer(0, 10, null, wheel, count::incrementAndGet);
+            timer.start();
+            sleep(200);
+            timer.pause();
+            assertEquals(ThreadTimer.TimerState.PAUSED, timer.getState());
+            assertEquals(0, wheel.pendingTimeouts());
+            sleep(20);
+            int paused = count.get();
+            assertTrue("" + paused, paused >= 5);
+            sleep(200);
+            assertEquals(paused, count.get());
+            
+            timer.resume();
+            sleep(200);
+            timer.cancel();
+            assertEquals(0, wheel.pendingTimeouts());
+            assertTrue(paused + " -> " + count.get(), count.get() - paused >= 10);
+            int canceled = count.get();
+            sleep(100);
+            assertTrue(count.get() - canceled <= 1);
+            
+        } finally {
+            wheel.stop();
+        }
+    }
+    
+    
+}
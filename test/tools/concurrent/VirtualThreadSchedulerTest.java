@@ -0,0 +1,189 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.concurrent;
+
+
+// Java imports
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link VirtualThreadScheduler} class. <br>
+ * On runtimes without virtual threads, these tests cover the fallback
+ * to a pool of platform threads.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class VirtualThreadSchedulerTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether virtual threads are only reported as supported if the runtime
+     * supports them, and whether the fallback executes the tasks concurrently
+     * on daemon platform threads.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void fallback()
+            throws InterruptedException {
+        if (Runtime.version().feature() < 19) {
+            assertFalse(VirtualThreadScheduler.isVirtualThreadsSupported());
+        }
+        
+        VirtualThreadScheduler sched = new VirtualThreadScheduler();
+        sched.start();
+        try {
+            int amt = 50;
+            CountDownLatch running = new CountDownLatch(amt);
+            AtomicInteger blocked = new AtomicInteger();
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < amt; i++) {
+                sched.scheduleTask(() -> {
+                    threads.add(Thread.currentThread());
+                    running.countDown();
+                    try {
+                        // Only succeeds if all tasks are executing concurrently.
+                        if (!running.await(5, TimeUnit.SECONDS)) blocked.incrementAndGet();
+                        
+                    } catch (InterruptedException e) {
+                        blocked.incrementAndGet();
+                    }
+                });
+            }
+            sched.waitUntilDone();
+            assertTrue(sched.isDone());
+            assertEquals(0, blocked.get());
+            assertEquals(0, sched.queueSize());
+            assertEquals(0, sched.activeCount());
+            assertEquals(amt, threads.size());
+            if (!VirtualThreadScheduler.isVirtualThreadsSupported()) {
+                for (Thread t : threads) {
+                    assertTrue(t.getName(), t.getName().startsWith("Virtual-fallback-"));
+                    assertTrue(t.getName(), t.isDaemon());
+                }
+            }
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Tests whether the number of concurrently executing tasks does not exceed
+     * the concurrency limit, and whether all waiting tasks are executed.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void concurrencyLimit()
+            throws InterruptedException {
+        VirtualThreadScheduler sched = new VirtualThreadScheduler(3);
+        assertEquals(3, sched.getMaxConcurrency());
+        sched.start();
+        try {
+            int amt = 30;
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger max = new AtomicInteger();
+            AtomicInteger executed = new AtomicInteger();
+            for (int i = 0; i < amt; i++) {
+                sched.scheduleTask(() -> {
+                    max.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                        
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    active.decrementAndGet();
+                    executed.incrementAndGet();
+                });
+            }
+            assertTrue(sched.activeCount() <= 3);
+            sched.waitUntilDone();
+            assertEquals(amt, executed.get());
+            assertTrue("" + max.get(), max.get() <= 3);
+            assertTrue("" + max.get(), max.get() >= 1);
+            assertEquals(0, sched.queueSize());
+            
+        } finally {
+            assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    /**
+     * Tests the life cycle of the scheduler.
+     * 
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void lifeCycle()
+            throws InterruptedException {
+        expEx(IllegalArgumentException.class, () -> new VirtualThreadScheduler(-1));
+        VirtualThreadScheduler sched = new VirtualThreadScheduler(2);
+        assertFalse(sched.isStarted());
+        expEx(IllegalStateException.class, () -> sched.scheduleTask(() -> { }));
+        expEx(NullPointerException.class, () -> sched.scheduleTask(null));
+        
+        sched.start();
+        assertTrue(sched.isStarted());
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            sched.scheduleTask(() -> {
+                try {
+                    release.await();
+                    
+                } catch (InterruptedException e) {
+                    // Terminated.
+                }
+            });
+        }
+        assertFalse(sched.isDone());
+        for (int i = 0; i < 1000 && sched.activeCount() != 2; i++) {
+            Thread.sleep(1);
+        }
+        assertEquals(2, sched.activeCount());
+        assertEquals(2, sched.queueSize());
+        
+        // The waiting tasks are dropped.
+        assertFalse(sched.tryTerminate());
+        assertTrue(sched.isTerminated());
+        assertEquals(0, sched.queueSize());
+        expEx(IllegalStateException.class, () -> sched.scheduleTask(() -> { }));
+        release.countDown();
+        assertTrue(sched.terminate(1, TimeUnit.SECONDS));
+    }
+    
+    
+}
@@ -0,0 +1,164 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.array;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+// Java imports
+import java.util.NoSuchElementException;
+
+
+/**
+ * Test class for the {@link RingBuffer}, {@link IntRingBuffer} and {@link CycleArray} classes.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class RingBufferTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Test for {@link IntRingBuffer#offerLast(int)} and {@link IntRingBuffer#pollFirst()}.
+     */
+    @Test
+    public void offerPoll() {
+        IntRingBuffer buf = new IntRingBuffer(4);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buf.offerLast(round + i));
+            }
+            assertEquals(round, buf.peekFirst());
+            assertEquals(round + 2, buf.peekLast());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(round + i, buf.pollFirst());
+            }
+            assertTrue(buf.isEmpty());
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buf.offerFirst(i));
+        }
+        assertTrue(buf.isFull());
+        assertFalse(buf.offerLast(4));
+        assertArrayEquals(new int[] {3, 2, 1, 0}, buf.toArray());
+        assertEquals(0, buf.pollLast());
+        expEx(NoSuchElementException.class, () -> new IntRingBuffer(1).pollFirst());
+    }
+    
+    /**
+     * Test for {@link IntRingBuffer#pushLast(int)}.
+     */
+    @Test
+    public void pushLast() {
+        IntRingBuffer buf = new IntRingBuffer(3);
+        for (int i = 0; i < 10; i++) {
+            buf.pushLast(i);
+        }
+        assertEquals(3, buf.size());
+        assertArrayEquals(new int[] {7, 8, 9}, buf.toArray());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(genIndex(i), 7 + i, buf.get(i));
+        }
+    }
+    
+    /**
+     * Test for {@link IntRingBuffer#rotate(int)} on a full and a partially filled buffer.
+     */
+    @Test
+    public void rotate() {
+        for (int len : new int[] {5, 3}) {
+            IntRingBuffer buf = new IntRingBuffer(5);
+            buf.offerLast(-1);
+            buf.pollFirst();
+            for (int i = 0; i < len; i++) {
+                buf.offerLast(i);
+            }
+            for (int k = -7; k <= 7; k++) {
+                buf.rotate(k);
+                for (int i = 0; i < len; i++) {
+                    assertEquals(genIndex(len, k, i), Math.floorMod(i + k, len), buf.get(i));
+                }
+                buf.rotate(-k);
+            }
+        }
+    }
+    
+    /**
+     * Test for {@link IntRingBuffer#drainTo(int[], int, int)}.
+     */
+    @Test
+    public void drainTo() {
+        IntRingBuffer buf = new IntRingBuffer(5);
+        for (int i = 0; i < 8; i++) {
+            buf.pushLast(i);
+        }
+        int[] dest = new int[4];
+        assertEquals(3, buf.drainTo(dest, 1, 3));
+        assertArrayEquals(new int[] {0, 3, 4, 5}, dest);
+        assertEquals(2, buf.drainTo(dest));
+        assertArrayEquals(new int[] {6, 7, 4, 5}, dest);
+        assertTrue(buf.isEmpty());
+    }
+    
+    /**
+     * Test for the {@link RingBuffer} class.
+     */
+    @Test
+    public void objectBuffer() {
+        RingBuffer<String> buf = new RingBuffer<>(3);
+        expEx(NoSuchElementException.class, () -> buf.pollFirst());
+        expEx(NoSuchElementException.class, () -> buf.peekLast());
+        for (String str : genStrArr(4)) {
+            buf.pushLast(str);
+        }
+        assertArrayEquals(new Object[] {"1", "2", "3"}, buf.toArray());
+        buf.rotate(1);
+        assertEquals("2", buf.pollFirst());
+        int i = 0;
+        for (String str : buf) {
+            assertEquals(new String[] {"3", "1"}[i++], str);
+        }
+    }
+    
+    /**
+     * Test for {@link CycleArray#rotate(int)}.
+     */
+    @Test
+    public void cycleRotate() {
+        CycleArray<Integer> cycle = new CycleArray<>(0, 1, 2);
+        cycle.rotate(4);
+        assertEquals(1, (int) cycle.get(0));
+        assertEquals(0, (int) cycle.get(-1));
+        cycle.set(5, 2);
+        assertEquals(5, (int) cycle.get(-1));
+        cycle.rotate(-1);
+        assertEquals(5, (int) cycle.get(0));
+    }
+    
+    
+}
@@ -0,0 +1,234 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.Var;
+import tools.io.FileTools;
+
+
+/**
+ * Test class for the {@link CachedFileTree} and {@link FileContentCache} classes.
+ * 
+ * @version 1.1
+ * @author Kaj Wortel
+ */
+public class CachedFileTreeTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Generates an array with the given length and value.
+     * 
+     * @param len The length of the array.
+     * @param val The value of the elements.
+     * 
+     * @return An array with the given length and value.
+     */
+    private static byte[] genData(int len, int val) {
+        byte[] data = new byte[len];
+        for (int i = 0; i < len; i++) {
+            data[i] = (byte) (val + i);
+        }
+        return data;
+    }
+    
+    /**
+     * Reads the given file using an input stream.
+     * 
+     * @param tree The tree to read from.
+     * @param file The file to read.
+     * 
+     * @return The contents of the file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static byte[] readStream(FileTree tree, TreeFile file)
+            throws IOException {
+        try (InputStream is = tree.getInputStream(file)) {
+            return is.readAllBytes();
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether repeated reads are served from the cache.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void hitMiss()
+            throws IOException {
+        MemoryFileTree mem = MemoryFileTree.getTree("cached-hit-miss");
+        FileContentCache cache = new FileContentCache(100, 10);
+        CachedFileTree tree = CachedFileTree.getTree(mem, cache);
+        TreeFile file = new TreeFile("dir/file");
+        byte[] data = genData(10, 0);
+        mem.writeFile(file, data);
+        
+        assertArrayEquals(data, tree.readAllBytes(file));
+        assertArrayEquals(data, readStream(tree, file));
+        ByteBuffer buf = tree.readBuffer(file);
+        assertTrue(buf.isReadOnly());
+        assertEquals(data.length, buf.remaining());
+        
+        FileContentCache.Statistics stats = cache.getStatistics();
+        assertEquals(stats.toString(), 1, stats.getMisses());
+        assertEquals(stats.toString(), 2, stats.getHits());
+        assertEquals(stats.toString(), 1, stats.getFileCount());
+        assertEquals(stats.toString(), data.length, stats.getSize());
+        
+        // The returned arrays should not be shared with the cache.
+        tree.readAllBytes(file)[0] = 100;
+        assertArrayEquals(data, tree.readAllBytes(file));
+        tree.release();
+        mem.release();
+    }
+    
+    /**
+     * Tests whether files larger than the maximum entry size are not cached,
+     * and whether the least recently used files are evicted.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void sizeLimit()
+            throws IOException {
+        MemoryFileTree mem = MemoryFileTree.getTree("cached-size-limit");
+        FileContentCache cache = new FileContentCache(30, 10);
+        CachedFileTree tree = CachedFileTree.getTree(mem, cache);
+        TreeFile large = new TreeFile("large");
+        byte[] data = genData(11, 5);
+        mem.writeFile(large, data);
+        
+        assertArrayEquals(data, readStream(tree, large));
+        assertArrayEquals(data, readStream(tree, large));
+        assertArrayEquals(data, tree.readAllBytes(large));
+        FileContentCache.Statistics stats = cache.getStatistics();
+        assertEquals(stats.toString(), 3, stats.getMisses());
+        assertEquals(stats.toString(), 0, stats.getFileCount());
+        
+        TreeFile[] files = new TreeFile[4];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new TreeFile("file" + i);
+            mem.writeFile(files[i], genData(10, i));
+            tree.readAllBytes(files[i]);
+        }
+        stats = cache.getStatistics();
+        assertEquals(stats.toString(), 1, stats.getEvictions());
+        assertEquals(stats.toString(), 3, stats.getFileCount());
+        assertEquals(stats.toString(), 30, stats.getSize());
+        
+        cache.resetStatistics();
+        tree.readAllBytes(files[0]);
+        tree.readAllBytes(files[3]);
+        stats = cache.getStatistics();
+        assertEquals(stats.toString(), 1, stats.getMisses());
+        assertEquals(stats.toString(), 1, stats.getHits());
+        tree.release();
+        mem.release();
+    }
+    
+    /**
+     * Tests whether modified and invalidated files are read again.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void invalidation()
+            throws IOException {
+        MemoryFileTree mem = MemoryFileTree.getTree("cached-invalidation");
+        FileContentCache cache = new FileContentCache(100, 10);
+        CachedFileTree tree = CachedFileTree.getTree(mem, cache);
+        TreeFile file = new TreeFile("file");
+        mem.writeFile(file, genData(5, 0));
+        tree.readAllBytes(file);
+        
+        byte[] data = genData(5, 1);
+        mem.writeFile(file, data);
+        assertArrayEquals(data, tree.readAllBytes(file));
+        FileContentCache.Statistics stats = cache.getStatistics();
+        assertEquals(stats.toString(), 1, stats.getInvalidations());
+        assertEquals(stats.toString(), 2, stats.getMisses());
+        assertEquals(stats.toString(), 5, stats.getSize());
+        
+        cache.invalidate(tree, file);
+        assertEquals(0, cache.getSize());
+        assertArrayEquals(data, tree.readAllBytes(file));
+        assertEquals(3, cache.getStatistics().getMisses());
+        
+        cache.invalidate(mem);
+        assertEquals(0, cache.getStatistics().getFileCount());
+        tree.release();
+        mem.release();
+    }
+    
+    /**
+     * Tests whether files of a {@link DirFileTree} which are modified directly
+     * after each other are read again.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void dirTreeModification()
+            throws IOException {
+        File dir = Files.createTempDirectory("cached-dir-tree").toFile();
+        try {
+            DirFileTree dirTree = DirFileTree.getTree(new TreeFile(dir.getPath() + Var.FS));
+            FileContentCache cache = new FileContentCache(100, 20);
+            CachedFileTree tree = CachedFileTree.getTree(dirTree, cache);
+            TreeFile file = new TreeFile("file");
+            for (int i = 0; i < 100; i++) {
+                byte[] data = genData(i % 10 + 1, i);
+                dirTree.writeFile(file, false, new ByteArrayInputStream(data));
+                assertArrayEquals(genIndex(i), data, tree.readAllBytes(file));
+            }
+            assertEquals(100, cache.getStatistics().getMisses());
+            assertArrayEquals(genData(10, 99), tree.readAllBytes(file));
+            assertEquals(1, cache.getStatistics().getHits());
+            tree.release();
+            dirTree.release();
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
@@ -14,9 +14,20 @@
 package tools.data.file;
 
 
-// JUnit imports
+// Java imports
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -32,7 +43,7 @@ import tools.MultiTool;
  * @todo
  * - Add more tests.
  * 
- * @version 1.0
+ * @version 1.2
  * @author Kaj Wortel
  */
 public class FileTreeTest
@@ -45,48 +56,49 @@ public class FileTreeTest
      */
     @Test
     public void lockTest0() {
-        FileTree tree = FileTree.getLocalFileTree();
-        TreeFile lockFile = new TreeFile("/some/file/");
-        TreeFile[] lockedFiles = new TreeFile[] {
-            lockFile,
-            new TreeFile("/some/file"),
-            new TreeFile("some/file/"),
-            new TreeFile("some/file"),
-            new TreeFile("some/file/tmp"),
-            new TreeFile("/some/file/tmp")
-        };
-        TreeFile[] unlockedFiles = new TreeFile[] {
-            new TreeFile("/some/"),
-            new TreeFile("/some"),
-            new TreeFile("some/"),
-            new TreeFile("some"),
-            new TreeFile("some/filex"),
-            new TreeFile("some/filex/tmp.txt"),
-            new TreeFile("somex/file/tmp"),
-        };
-        
-        tree.lock(lockFile);
-        try {
+        try (FileTree tree = FileTree.getLocalFileTree()) {
+            TreeFile lockFile = new TreeFile("/some/file/");
+            TreeFile[] lockedFiles = new TreeFile[] {
+                lockFile,
+                new TreeFile("/some/file"),
+                new TreeFile("some/file/"),
+                new TreeFile("some/file"),
+                new TreeFile("some/file/tmp"),
+                new TreeFile("/some/file/tmp")
+            };
+            TreeFile[] unlockedFiles = new TreeFile[] {
+                new TreeFile("/some/"),
+                new TreeFile("/some"),
+                new TreeFile("some/"),
+                new TreeFile("some"),
+                new TreeFile("some/filex"),
+                new TreeFile("some/filex/tmp.txt"),
+                new TreeFile("somex/file/tmp"),
+            };
+            
+            tree.lock(lockFile);
+            try {
+                for (int i = 0; i < lockedFiles.length; i++) {
+                    assertTrue(genIndex(i) + "Expected to be locked for file '" + lockedFiles[i] + "'",
+                            tree.isLocked(lockedFiles[i]));
+                }
+                for (int i = 0; i < unlockedFiles.length; i++) {
+                    assertFalse("Expected to be unlocked for file '" + unlockedFiles[i] + "'",
+                            tree.isLocked(unlockedFiles[i]));
+                }
+                
+            } finally {
+                tree.unlock(lockFile);
+            }
+            
             for (int i = 0; i < lockedFiles.length; i++) {
-                assertTrue(genIndex(i) + "Expected to be locked for file '" + lockedFiles[i] + "'",
+                assertFalse("Expected to be unlocked for file '" + lockedFiles[i] + "'",
                         tree.isLocked(lockedFiles[i]));
             }
             for (int i = 0; i < unlockedFiles.length; i++) {
                 assertFalse("Expected to be unlocked for file '" + unlockedFiles[i] + "'",
                         tree.isLocked(unlockedFiles[i]));
             }
-            
-        } finally {
-            tree.unlock(lockFile);
-        }
-        
-        for (int i = 0; i < lockedFiles.length; i++) {
-            assertFalse("Expected to be unlocked for file '" + lockedFiles[i] + "'",
-                    tree.isLocked(lockedFiles[i]));
-        }
-        for (int i = 0; i < unlockedFiles.length; i++) {
-            assertFalse("Expected to be unlocked for file '" + unlockedFiles[i] + "'",
-                    tree.isLocked(unlockedFiles[i]));
         }
     }
     
@@ -95,25 +107,142 @@ public class FileTreeTest
         ReentrantLock lock = new ReentrantLock();
         TreeFile file = new TreeFile("test/path");
         runAndWait(() -> {
-            FileTree tree = FileTree.getLocalFileTree();
-            tree.lock(file);
-            try {
-                assertTrue(tree.isLocked(file));
-                assertFalse(lock.isLocked());
-                lock.lock();
+            try (FileTree tree = FileTree.getLocalFileTree()) {
+                tree.lock(file);
                 try {
-                    MultiTool.sleepThread(1);
+                    assertTrue(tree.isLocked(file));
+                    assertFalse(lock.isLocked());
+                    lock.lock();
+                    try {
+                        MultiTool.sleepThread(1);
+                        
+                    } finally {
+                        lock.unlock();
+                    }
+                    assertTrue(tree.isLocked(file));
+                    assertFalse(lock.isLocked());
                     
                 } finally {
-                    lock.unlock();
+                    tree.unlock(file);
                 }
-                assertTrue(tree.isLocked(file));
-                assertFalse(lock.isLocked());
+            }
+        }, 50, 1000L);
+    }
+    
+    /**
+     * Test for {@link FileTree#lock(FileTree, TreeFile, FileLockManager.Mode)} and
+     * {@link FileTree#tryLock(FileTree, TreeFile, FileLockManager.Mode, long, TimeUnit)}. <br>
+     * Tests whether shared locks are compatible and exclusive locks are not.
+     */
+    @Test
+    public void lockTest2()
+            throws InterruptedException {
+        try (FileTree tree = FileTree.getLocalFileTree()) {
+            TreeFile dir = new TreeFile("shared/dir");
+            TreeFile child = new TreeFile("shared/dir/child");
+            AtomicBoolean shared = new AtomicBoolean();
+            AtomicBoolean exclusive = new AtomicBoolean(true);
+            
+            FileTree.lock(tree, dir, FileLockManager.Mode.SHARED);
+            try {
+                Thread t = new Thread(() -> {
+                    try {
+                        if (FileTree.tryLock(tree, child, FileLockManager.Mode.SHARED,
+                                1, TimeUnit.SECONDS)) {
+                            shared.set(true);
+                            tree.unlock(child);
+                        }
+                        exclusive.set(FileTree.tryLock(tree, child, FileLockManager.Mode.EXCLUSIVE,
+                                10, TimeUnit.MILLISECONDS));
+                        
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                t.start();
+                t.join();
                 
             } finally {
-                tree.unlock(file);
+                tree.unlock(dir);
             }
-        }, 50, 1000L);
+            assertTrue("Expected the shared lock to be obtained", shared.get());
+            assertFalse("Expected the exclusive lock to time out", exclusive.get());
+            assertFalse(tree.isLocked(child));
+        }
+    }
+    
+    /**
+     * Test for {@link FileTree#getFileTree(FileTreeToken)}, {@link FileTree#release()},
+     * {@link FileTree#close()} and {@link FileTree#evictIdleTrees()}. <br>
+     * Tests whether every getter acquires a reference and whether only idle trees
+     * are evicted.
+     */
+    @Test
+    public void referenceCount() {
+        MemoryFileTree tree = MemoryFileTree.getTree("file-tree-ref-count");
+        FileTreeToken<? extends FileTree, ?> token = tree.getToken();
+        assertEquals(1, tree.getReferenceCount());
+        try (FileTree same = FileTree.getFileTree(token)) {
+            assertSame(tree, same);
+            assertEquals(2, tree.getReferenceCount());
+            FileTree.evictIdleTrees();
+            try (FileTree again = FileTree.getFileTree(token)) {
+                assertSame(tree, again);
+            }
+        }
+        assertEquals(1, tree.getReferenceCount());
+        tree.release();
+        assertEquals(0, tree.getReferenceCount());
+        expEx(IllegalStateException.class, () -> tree.release());
+        
+        assertTrue(FileTree.evictIdleTrees() >= 1);
+        assertNull(FileTree.getFileTree(token));
+    }
+    
+    /**
+     * Tests whether concurrently obtaining a file tree creates a single tree
+     * and acquires a reference for each thread.
+     */
+    @Test
+    public void concurrentCreation() {
+        String name = "file-tree-concurrent";
+        Set<FileTree> trees = ConcurrentHashMap.newKeySet();
+        runAndWait(() -> trees.add(MemoryFileTree.getTree(name)), 50, 1000L);
+        assertEquals(1, trees.size());
+        MemoryFileTree tree = MemoryFileTree.getTree(name);
+        assertEquals(51, tree.getReferenceCount());
+        for (int i = 0; i < 51; i++) {
+            tree.release();
+        }
+    }
+    
+    /**
+     * Test for {@link FileTree#getOrCreateTree(FileTreeToken, FileTree.TreeFactory)}. <br>
+     * Tests whether file trees can be obtained while creating another file tree.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void recursiveCreation()
+            throws IOException {
+        FileTreeToken<MemoryFileTree, String> token
+                = new FileTreeToken<>(MemoryFileTree.class, "file-tree-recursive");
+        MemoryFileTree[] inner = new MemoryFileTree[100];
+        MemoryFileTree tree = FileTree.getOrCreateTree(token, () -> {
+            for (int i = 0; i < inner.length; i++) {
+                inner[i] = MemoryFileTree.getTree("file-tree-recursive-" + i);
+            }
+            return inner[0];
+        });
+        assertSame(inner[0], tree);
+        assertEquals(2, tree.getReferenceCount());
+        for (int i = 0; i < inner.length; i++) {
+            try (FileTree t = FileTree.getFileTree(inner[i].getToken())) {
+                assertSame(inner[i], t);
+            }
+            inner[i].release();
+        }
+        tree.release();
     }
     
     
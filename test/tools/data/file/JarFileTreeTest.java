@@ -0,0 +1,278 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.io.FileTools;
+
+
+/**
+ * Test class for the {@link JarFileTree} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class JarFileTreeTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The names of the entries of the test jar file, in order. Directories end with
+     *  a {@code '/'}. The directories {@code dir/sub/}, {@code x/} and {@code x/y/}
+     *  have no entry, and the entry of {@code late/} is added after its child. */
+    private static final String[] ENTRIES = new String[] {
+        "a.txt",
+        "dir/",
+        "dir/b.txt",
+        "dir/sub/c.txt",
+        "x/y/z.txt",
+        "late/f.txt",
+        "late/",
+        "empty/"
+    };
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @param name The name of the entry.
+     * 
+     * @return The data of the entry with the given name.
+     */
+    private static byte[] data(String name) {
+        byte[] data = new byte[10 * name.length()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (name.charAt(i % name.length()) + i);
+        }
+        return data;
+    }
+    
+    /**
+     * Creates a jar file containing the entries in {@link #ENTRIES}.
+     * 
+     * @param dir The directory to create the jar file in.
+     * 
+     * @return The created jar file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static File createJar(File dir)
+            throws IOException {
+        File jar = new File(dir, "test.jar");
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar))) {
+            for (String name : ENTRIES) {
+                jos.putNextEntry(new JarEntry(name));
+                if (!name.endsWith("/")) jos.write(data(name));
+                jos.closeEntry();
+            }
+        }
+        return jar;
+    }
+    
+    /**
+     * @param files The files to convert.
+     * 
+     * @return The path names of the given files.
+     */
+    private static List<String> names(TreeFile... files) {
+        List<String> names = new ArrayList<>();
+        for (TreeFile file : files) {
+            names.add(file.getPathName());
+        }
+        return names;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether files, directories with and without an entry, and missing
+     * paths are looked up correctly in the index.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void lookup()
+            throws IOException {
+        File dir = Files.createTempDirectory("jar-file-tree").toFile();
+        try {
+            File jar = createJar(dir);
+            try (JarFileTree tree = JarFileTree.getTree(new TreeFile(jar))) {
+                for (String name : ENTRIES) {
+                    TreeFile file = new TreeFile(name);
+                    boolean isDir = name.endsWith("/");
+                    assertTrue(name, tree.exists(file));
+                    assertEquals(name, isDir, tree.isDirectory(file));
+                    if (!isDir) {
+                        assertEquals(name, data(name).length, tree.size(file));
+                        assertArrayEquals(name, data(name), tree.readAllBytes(file));
+                        try (InputStream is = tree.getInputStream(file)) {
+                            assertArrayEquals(name, data(name), is.readAllBytes());
+                        }
+                    }
+                }
+                
+                // Directories without an entry.
+                for (String name : new String[] {"dir/sub", "x", "x/y/", ""}) {
+                    TreeFile file = new TreeFile(name);
+                    assertTrue(name, tree.exists(file));
+                    assertTrue(name, tree.isDirectory(file));
+                    assertEquals(name, 0, tree.size(file));
+                    expEx(FileNotFoundException.class, () -> tree.getInputStream(file));
+                }
+                
+                // Equivalent notations of the same path.
+                byte[] b = data("dir/b.txt");
+                assertArrayEquals(b, tree.readAllBytes(new TreeFile("/dir/b.txt")));
+                assertArrayEquals(b, tree.readAllBytes(new TreeFile("dir\\b.txt")));
+                assertArrayEquals(b, tree.readAllBytes(tree.getBasePath() + "dir/b.txt"));
+                assertTrue(tree.isDirectory(new TreeFile("dir")));
+                assertTrue(tree.isDirectory(new TreeFile("/dir//")));
+                assertTrue(tree.isDirectory(tree.getBasePath() + "late"));
+                
+                // Missing paths.
+                for (String name : new String[] {"missing", "dir/missing", "di", "dir/b",
+                        "x/y/z", "a.txt/a.txt"}) {
+                    TreeFile file = new TreeFile(name);
+                    assertFalse(name, tree.exists(file));
+                    assertEquals(name, 0, tree.size(file));
+                    expEx(FileNotFoundException.class, () -> tree.isDirectory(file));
+                    expEx(FileNotFoundException.class, () -> tree.list(file));
+                    expEx(FileNotFoundException.class, () -> tree.readAllBytes(file));
+                    expEx(FileNotFoundException.class, () -> tree.walk(file));
+                }
+            }
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether the children of the directories are listed in the order of
+     * the entries, and whether walking visits the nodes depth first.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void listAndWalk()
+            throws IOException {
+        File dir = Files.createTempDirectory("jar-file-tree").toFile();
+        try {
+            File jar = createJar(dir);
+            try (JarFileTree tree = JarFileTree.getTree(new TreeFile(jar))) {
+                assertEquals(Arrays.asList("a.txt", "dir/", "x/", "late/", "empty/"),
+                        names(tree.list(new TreeFile(""))));
+                assertEquals(Arrays.asList("dir/b.txt", "dir/sub/"),
+                        names(tree.list(new TreeFile("dir"))));
+                assertEquals(Arrays.asList("dir/sub/c.txt"), names(tree.list("/dir/sub/")));
+                assertEquals(Arrays.asList("x/y/"), names(tree.list(new TreeFile("x"))));
+                assertEquals(Arrays.asList("late/f.txt"), names(tree.list(new TreeFile("late/"))));
+                assertEquals(0, tree.list(new TreeFile("empty")).length);
+                assertEquals(0, tree.list(new TreeFile("a.txt")).length);
+                
+                List<String> walked = new ArrayList<>();
+                Iterator<TreeFile> it = tree.walk(new TreeFile(""));
+                while (it.hasNext()) {
+                    walked.add(tree.toLocalPath(it.next().getPathName()));
+                }
+                assertEquals(Arrays.asList("a.txt", "dir/", "dir/b.txt", "dir/sub/",
+                        "dir/sub/c.txt", "x/", "x/y/", "x/y/z.txt", "late/", "late/f.txt",
+                        "empty/"), walked);
+                
+                walked.clear();
+                it = tree.walk(new TreeFile("dir/sub"));
+                while (it.hasNext()) {
+                    walked.add(tree.toLocalPath(it.next().getPathName()));
+                }
+                assertEquals(Arrays.asList("dir/sub/", "dir/sub/c.txt"), walked);
+            }
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether the tree is shared while it is referenced, and whether the
+     * data can still be read after the jar file was closed because the tree was idle.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void reopen()
+            throws IOException {
+        File dir = Files.createTempDirectory("jar-file-tree").toFile();
+        try {
+            File jar = createJar(dir);
+            TreeFile file = new TreeFile("dir/sub/c.txt");
+            JarFileTree tree = JarFileTree.getTree(new TreeFile(jar));
+            try (JarFileTree other = JarFileTree.getTree(new TreeFile(jar))) {
+                assertSame(tree, other);
+                assertEquals(2, tree.getReferenceCount());
+            }
+            tree.release();
+            assertEquals(0, tree.getReferenceCount());
+            
+            // The index remains usable, and the jar file is opened again for reading.
+            assertTrue(tree.exists(file));
+            assertArrayEquals(data("dir/sub/c.txt"), tree.readAllBytes(file));
+            expEx(IllegalStateException.class, tree::release);
+            
+            // Releasing the tree again closes the jar file again.
+            try (JarFileTree again = JarFileTree.getTree(new TreeFile(jar))) {
+                assertSame(tree, again);
+                assertArrayEquals(data("a.txt"), again.readAllBytes(new TreeFile("a.txt")));
+            }
+            assertEquals(0, tree.getReferenceCount());
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
@@ -0,0 +1,309 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.data.file;
+
+
+// Java imports
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link OverlayFileTree} and {@link MemoryFileTree} classes.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class OverlayFileTreeTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @param text The text to convert.
+     * 
+     * @return The bytes of the given text.
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Writes the given text to the given file of the tree.
+     * 
+     * @param tree The tree to write to.
+     * @param path The path of the file.
+     * @param text The text to write.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static void write(MemoryFileTree tree, String path, String text)
+            throws IOException {
+        tree.writeFile(new TreeFile(path), bytes(text));
+    }
+    
+    /**
+     * Checks whether the given file in the overlay contains the given text, and
+     * is provided by the given layer.
+     * 
+     * @param overlay The overlay to read from.
+     * @param path The path of the file.
+     * @param layer The expected layer of the file.
+     * @param text The expected text.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static void assertFile(OverlayFileTree overlay, String path, FileTree layer,
+            String text)
+            throws IOException {
+        TreeFile file = new TreeFile(path);
+        assertTrue(path, overlay.exists(file));
+        assertFalse(path, overlay.isDirectory(file));
+        assertSame(layer, overlay.getLayer(file));
+        assertEquals(path, text.length(), overlay.size(file));
+        assertArrayEquals(path, bytes(text), overlay.readAllBytes(file));
+        assertEquals(path, layer.lastModified(overlay.tolocalFile(file)),
+                overlay.lastModified(file));
+    }
+    
+    /**
+     * @param files The files to convert.
+     * 
+     * @return The path names of the given files.
+     */
+    private static List<String> names(TreeFile... files) {
+        List<String> names = new ArrayList<>();
+        for (TreeFile file : files) {
+            names.add(file.getPathName());
+        }
+        return names;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether files in higher layers shadow the files in lower layers, whether
+     * lookups fall through to lower layers, and whether directories are merged
+     * unless they are hidden by a file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void shadowing()
+            throws IOException {
+        try (MemoryFileTree top = MemoryFileTree.getTree("overlay-shadow-top");
+                MemoryFileTree mid = MemoryFileTree.getTree("overlay-shadow-mid");
+                MemoryFileTree bottom = MemoryFileTree.getTree("overlay-shadow-bottom")) {
+            write(top, "a.txt", "top a");
+            write(top, "dir/x", "top x");
+            write(top, "hidden", "top file");
+            write(top, "shadow/q", "top q");
+            write(mid, "a.txt", "mid a");
+            write(mid, "b.txt", "mid b");
+            write(mid, "dir/y", "mid y");
+            write(mid, "dir/x", "mid x");
+            mid.mkdirs(new TreeFile("dir/empty"));
+            write(bottom, "a.txt", "bottom a");
+            write(bottom, "b.txt", "bottom b");
+            write(bottom, "c.txt", "bottom c");
+            write(bottom, "dir/z", "bottom z");
+            write(bottom, "hidden/z", "bottom hidden");
+            write(bottom, "shadow", "bottom file");
+            
+            try (OverlayFileTree overlay = OverlayFileTree.getTree(top, mid, bottom)) {
+                assertArrayEquals(new FileTree[] {top, mid, bottom}, overlay.getLayers());
+                
+                // The top-most layer determines the file.
+                assertFile(overlay, "a.txt", top, "top a");
+                assertFile(overlay, "b.txt", mid, "mid b");
+                assertFile(overlay, "c.txt", bottom, "bottom c");
+                assertFile(overlay, "dir/x", top, "top x");
+                assertFile(overlay, "dir/y", mid, "mid y");
+                assertFile(overlay, "dir/z", bottom, "bottom z");
+                assertFile(overlay, "/dir/z/", bottom, "bottom z");
+                assertFile(overlay, overlay.getBasePath() + "dir/z", bottom, "bottom z");
+                
+                // Directories are merged over all layers.
+                assertTrue(overlay.isDirectory(new TreeFile("dir")));
+                assertEquals(Arrays.asList("dir/empty/", "dir/x", "dir/y", "dir/z"),
+                        names(overlay.list(new TreeFile("dir/"))));
+                assertEquals(0, overlay.list(new TreeFile("dir/empty")).length);
+                
+                // A file hides a directory in a lower layer, and vice versa.
+                assertFile(overlay, "hidden", top, "top file");
+                assertFalse(overlay.exists(new TreeFile("hidden/z")));
+                assertEquals(0, overlay.list(new TreeFile("hidden")).length);
+                assertTrue(overlay.isDirectory(new TreeFile("shadow")));
+                assertSame(top, overlay.getLayer(new TreeFile("shadow")));
+                assertEquals(0, overlay.size(new TreeFile("shadow")));
+                expEx(FileNotFoundException.class,
+                        () -> overlay.readAllBytes(new TreeFile("shadow")));
+                assertFile(overlay, "shadow/q", top, "top q");
+                
+                assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt", "dir/", "hidden",
+                        "shadow/"), names(overlay.list(new TreeFile(""))));
+                List<String> walked = new ArrayList<>();
+                Iterator<TreeFile> it = overlay.walk(new TreeFile(""));
+                while (it.hasNext()) {
+                    walked.add(overlay.toLocalPath(it.next().getPathName()));
+                }
+                assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt", "dir/", "dir/empty/",
+                        "dir/x", "dir/y", "dir/z", "hidden", "shadow/", "shadow/q"), walked);
+                
+                // Missing paths.
+                for (String name : new String[] {"missing", "dir/missing", "a.txt/x"}) {
+                    TreeFile file = new TreeFile(name);
+                    assertFalse(name, overlay.exists(file));
+                    assertFalse(name, overlay.isDirectory(file));
+                    assertNull(overlay.getLayer(file));
+                    assertEquals(name, 0, overlay.size(file));
+                    expEx(FileNotFoundException.class, () -> overlay.readAllBytes(file));
+                    expEx(FileNotFoundException.class, () -> overlay.getInputStream(file));
+                    expEx(FileNotFoundException.class, () -> overlay.list(file));
+                    expEx(FileNotFoundException.class, () -> overlay.walk(file));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Tests whether changes to the contents of a file are visible immediately,
+     * and whether added and removed files are visible after refreshing. A removed
+     * file falls through to the next layer containing the file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void fallThrough()
+            throws IOException {
+        try (MemoryFileTree top = MemoryFileTree.getTree("overlay-fall-top");
+                MemoryFileTree bottom = MemoryFileTree.getTree("overlay-fall-bottom")) {
+            write(top, "a.txt", "top a");
+            write(bottom, "a.txt", "bottom a");
+            write(top, "dir/t", "top t");
+            
+            try (OverlayFileTree overlay = OverlayFileTree.getTree(top, bottom)) {
+                assertFile(overlay, "a.txt", top, "top a");
+                write(top, "a.txt", "new top a");
+                assertFile(overlay, "a.txt", top, "new top a");
+                
+                // Added files are not visible before refreshing.
+                write(bottom, "b.txt", "bottom b");
+                write(bottom, "dir/u", "bottom u");
+                assertFalse(overlay.exists(new TreeFile("b.txt")));
+                overlay.refresh();
+                assertFile(overlay, "b.txt", bottom, "bottom b");
+                assertFile(overlay, "dir/u", bottom, "bottom u");
+                assertEquals(Arrays.asList("dir/t", "dir/u"),
+                        names(overlay.list(new TreeFile("dir"))));
+                
+                // Removing a file of the top layer reveals the file of the bottom layer.
+                assertTrue(top.delete(new TreeFile("a.txt")));
+                overlay.refresh();
+                assertFile(overlay, "a.txt", bottom, "bottom a");
+                
+                // Removing a directory of the top layer keeps the bottom directory.
+                assertTrue(top.deleteDir(new TreeFile("dir"), true));
+                overlay.refresh();
+                assertSame(bottom, overlay.getLayer(new TreeFile("dir")));
+                assertEquals(Arrays.asList("dir/u"), names(overlay.list(new TreeFile("dir"))));
+                assertFalse(overlay.exists(new TreeFile("dir/t")));
+                
+                // The overlay is shared for the same layers in the same order only.
+                try (OverlayFileTree same = OverlayFileTree.getTree(top, bottom);
+                        OverlayFileTree reversed = OverlayFileTree.getTree(bottom, top)) {
+                    assertSame(overlay, same);
+                    assertNotSame(overlay, reversed);
+                    assertEquals(2, overlay.getReferenceCount());
+                }
+                expEx(IllegalArgumentException.class, () -> OverlayFileTree.getTree());
+            }
+        }
+    }
+    
+    /**
+     * Tests whether the contents of a {@link MemoryFileTree} are replaced when
+     * writing, and whether buffers of the old contents remain valid.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void memoryTree()
+            throws IOException {
+        try (MemoryFileTree tree = MemoryFileTree.getTree("overlay-memory")) {
+            TreeFile file = new TreeFile("dir/sub/file");
+            write(tree, "dir/sub/file", "first");
+            assertTrue(tree.isDirectory(new TreeFile("dir/sub")));
+            long stamp = tree.lastModified(file);
+            ByteBuffer buf = tree.readBuffer(file);
+            assertTrue(buf.isReadOnly());
+            
+            try (OutputStream os = tree.getOutputStream(file, true)) {
+                os.write(bytes(" second"));
+                // The contents are replaced when the stream is closed.
+                assertArrayEquals(bytes("first"), tree.readAllBytes(file));
+            }
+            assertArrayEquals(bytes("first second"), tree.readAllBytes(file));
+            assertTrue(tree.lastModified(file) > stamp);
+            byte[] old = new byte[buf.remaining()];
+            buf.get(old);
+            assertArrayEquals(bytes("first"), old);
+            
+            // The returned array is a copy.
+            tree.readAllBytes(file)[0] = 'x';
+            assertArrayEquals(bytes("first second"), tree.readAllBytes(file));
+            
+            assertFalse(tree.mkdir(new TreeFile("dir")));
+            assertFalse(tree.mkdir(new TreeFile("a/b")));
+            assertTrue(tree.mkdirs(new TreeFile("a/b")));
+            assertEquals(Arrays.asList("a/", "dir/"), names(tree.list(new TreeFile(""))));
+            expEx(IOException.class, () -> write(tree, "dir", "data"));
+            expEx(IOException.class, () -> write(tree, "dir/sub/file/x", "data"));
+            expEx(IllegalArgumentException.class, () -> tree.deleteFile(new TreeFile("a")));
+            assertFalse(tree.deleteDir(new TreeFile("dir"), false));
+            assertTrue(tree.deleteDir(new TreeFile("dir"), true));
+            assertFalse(tree.exists(file));
+            assertEquals(Arrays.asList("a/"), names(tree.list(new TreeFile(""))));
+        }
+    }
+    
+    
+}
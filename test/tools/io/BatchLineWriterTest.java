@@ -0,0 +1,135 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link BatchLineWriter} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class BatchLineWriterTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @return A new empty temporary file which is deleted on exit.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static File tempFile()
+            throws IOException {
+        File file = Files.createTempFile("batch-line-writer", ".txt").toFile();
+        file.deleteOnExit();
+        return file;
+    }
+    
+    /**
+     * Reads all lines of the given file.
+     * 
+     * @param file The file to read.
+     * 
+     * @return The lines of the file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static List<String> read(File file)
+            throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether appending lines to a file results in the concatenation of the lines.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void appendRoundTrip()
+            throws IOException {
+        File file = tempFile();
+        FileTools.writeFile(file, new String[] {"a", "b"}, true, StandardCharsets.UTF_8);
+        FileTools.writeFile(file, new String[] {"c", "d"}, true, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), read(file));
+        
+        FileTools.writeFile(file, new String[] {"", "e"}, true, StandardCharsets.UTF_8);
+        FileTools.writeFile(file, new String[0], true, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "", "e"), read(file));
+        
+        FileTools.writeFile(file, new String[] {"f"}, false, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("f"), read(file));
+        file.delete();
+    }
+    
+    /**
+     * Tests whether text which is larger than all buffers, and characters which are
+     * split over two buffers, are written correctly.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void smallBuffers()
+            throws IOException {
+        File file = tempFile();
+        String[] lines = new String[200];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = i + "é€😀";
+        }
+        try (BatchLineWriter writer = new BatchLineWriter(file, false,
+                StandardCharsets.UTF_8, 16, 2)) {
+            writer.writeLines(Arrays.copyOf(lines, 100));
+            writer.write("");
+            writer.writeLines(Arrays.copyOfRange(lines, 100, lines.length));
+        }
+        assertEquals(Arrays.asList(lines), read(file));
+        
+        try (BatchLineWriter writer = new BatchLineWriter(file, true,
+                StandardCharsets.UTF_8, 16, 1)) {
+            writer.writeLine("");
+            writer.writeLines(new String[] {"x"});
+        }
+        List<String> result = read(file);
+        assertEquals(lines.length + 1, result.size());
+        assertEquals("x", result.get(lines.length));
+        file.delete();
+    }
+    
+    
+}
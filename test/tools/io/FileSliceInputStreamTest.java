@@ -0,0 +1,284 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link FileSliceInputStream} and {@link SlicedFile} classes.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class FileSliceInputStreamTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The size of the test file. */
+    private static final int SIZE = 10_000;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * @param len The number of bytes to generate.
+     * 
+     * @return An array with random bytes.
+     */
+    private static byte[] genBytes(int len) {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+        return data;
+    }
+    
+    /**
+     * Creates a temporary file containing the given data.
+     * 
+     * @param data The data of the file.
+     * 
+     * @return A new temporary file which is deleted on exit.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static File tempFile(byte[] data)
+            throws IOException {
+        File file = Files.createTempFile("file-slice", ".bin").toFile();
+        file.deleteOnExit();
+        Files.write(file.toPath(), data);
+        return file;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether a slice returns exactly the bytes of its region for single
+     * byte reads, reads smaller than the buffer and reads larger than the buffer.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void sliceBounds()
+            throws IOException {
+        byte[] data = genBytes(SIZE);
+        File file = tempFile(data);
+        try (FileChannel channel = FileChannel.open(file.toPath());
+                FileSliceInputStream is = new FileSliceInputStream(channel, 1000, 3000, 64)) {
+            assertEquals(1000, is.getStart());
+            assertEquals(3000, is.length());
+            assertEquals(3000, is.available());
+            byte[] read = new byte[3000];
+            read[0] = (byte) is.read();
+            assertEquals(1, is.read(read, 1, 1));
+            int off = 2;
+            // Reads smaller and larger than the internal buffer.
+            for (int len : new int[] {10, 1000, 7, 100, 20_000}) {
+                int n = is.read(read, off, Math.min(len, read.length - off));
+                assertTrue(n > 0);
+                off += n;
+            }
+            while (off < read.length) {
+                off += is.read(read, off, read.length - off);
+            }
+            assertArrayEquals(Arrays.copyOfRange(data, 1000, 4000), read);
+            assertEquals(3000, is.position());
+            assertEquals(0, is.available());
+            assertEquals(-1, is.read());
+            assertEquals(-1, is.read(read, 0, 10));
+            assertEquals(0, is.read(read, 0, 0));
+            expEx(IndexOutOfBoundsException.class, () -> is.read(new byte[10], 5, 6));
+            // Positional reads don't change the position of the channel.
+            assertEquals(0, channel.position());
+        }
+        
+        try (SlicedFile sf = new SlicedFile(file)) {
+            assertEquals(SIZE, sf.size());
+            // The slice at the end of the file.
+            try (FileSliceInputStream is = sf.openSlice(SIZE - 10)) {
+                assertArrayEquals(Arrays.copyOfRange(data, SIZE - 10, SIZE), is.readAllBytes());
+            }
+            try (FileSliceInputStream is = sf.openSlice(SIZE, 0)) {
+                assertEquals(-1, is.read());
+            }
+            expEx(IllegalArgumentException.class, () -> sf.openSlice(SIZE - 10, 11));
+            expEx(IllegalArgumentException.class, () -> sf.openSlice(-1, 10));
+            expEx(IllegalArgumentException.class, () -> sf.openSlice(0, -1));
+        }
+    }
+    
+    /**
+     * Tests whether seeking, skipping and marking move the position of the
+     * stream within the slice only.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void seekSkipMark()
+            throws IOException {
+        byte[] data = genBytes(SIZE);
+        File file = tempFile(data);
+        try (SlicedFile sf = new SlicedFile(file);
+                FileSliceInputStream is = sf.openSlice(500, 1000)) {
+            assertTrue(is.markSupported());
+            assertEquals(data[500] & 0xFF, is.read());
+            assertEquals(0, is.skip(0));
+            assertEquals(0, is.skip(-5));
+            assertEquals(9, is.skip(9));
+            assertEquals(data[510] & 0xFF, is.read());
+            
+            is.mark(0);
+            byte[] first = new byte[100];
+            assertEquals(100, is.read(first));
+            is.reset();
+            byte[] second = new byte[100];
+            assertEquals(100, is.read(second));
+            assertArrayEquals(first, second);
+            assertArrayEquals(Arrays.copyOfRange(data, 511, 611), first);
+            
+            // Seek forwards and backwards, up to the end of the slice.
+            is.seek(600);
+            assertEquals(data[1100] & 0xFF, is.read());
+            is.seek(3);
+            assertEquals(data[503] & 0xFF, is.read());
+            is.seek(999);
+            assertEquals(data[1499] & 0xFF, is.read());
+            assertEquals(-1, is.read());
+            is.seek(1000);
+            assertEquals(-1, is.read());
+            expEx(IllegalArgumentException.class, () -> is.seek(1001));
+            expEx(IllegalArgumentException.class, () -> is.seek(-1));
+            
+            // Skipping is limited to the end of the slice.
+            is.seek(900);
+            assertEquals(100, is.skip(1_000_000));
+            assertEquals(1000, is.position());
+            assertEquals(-1, is.read());
+        }
+    }
+    
+    /**
+     * Tests whether positional reads do not change the position of the stream,
+     * and whether they are limited to the slice.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void positionalRead()
+            throws IOException {
+        byte[] data = genBytes(SIZE);
+        File file = tempFile(data);
+        try (SlicedFile sf = new SlicedFile(file);
+                FileSliceInputStream is = sf.openSlice(2000, 100)) {
+            is.skip(10);
+            ByteBuffer buf = ByteBuffer.allocate(50);
+            assertEquals(50, is.read(buf, 20));
+            assertArrayEquals(Arrays.copyOfRange(data, 2020, 2070), buf.array());
+            assertEquals(10, is.position());
+            
+            buf.clear();
+            assertEquals(10, is.read(buf, 90));
+            assertEquals(10, buf.position());
+            assertEquals(50, buf.limit());
+            buf.clear();
+            assertEquals(-1, is.read(buf, 100));
+            expEx(IllegalArgumentException.class, () -> is.read(ByteBuffer.allocate(1), -1));
+            assertEquals(data[2010] & 0xFF, is.read());
+        }
+    }
+    
+    /**
+     * Tests whether multiple slices of the same file can be read concurrently.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void concurrentSlices()
+            throws IOException {
+        byte[] data = genBytes(SIZE);
+        File file = tempFile(data);
+        try (SlicedFile sf = new SlicedFile(file)) {
+            int threads = 8;
+            int len = SIZE / threads;
+            AtomicInteger id = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            runAndWait(() -> {
+                int i = id.getAndIncrement();
+                for (int j = 0; j < 50; j++) {
+                    try (FileSliceInputStream is = sf.openSlice(i * len, len)) {
+                        byte[] read = is.readAllBytes();
+                        if (!Arrays.equals(Arrays.copyOfRange(data, i * len, (i + 1) * len), read)) {
+                            errors.incrementAndGet();
+                        }
+                        
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }, threads, 5000L);
+            assertEquals(0, errors.get());
+        }
+    }
+    
+    /**
+     * Tests whether the stream cannot be used after closing it, and whether
+     * closing it does not close the file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void closed()
+            throws IOException {
+        File file = tempFile(genBytes(100));
+        SlicedFile sf = new SlicedFile(file);
+        FileSliceInputStream is = sf.openSlice(0, 100);
+        is.close();
+        assertTrue(sf.isOpen());
+        expEx(IOException.class, () -> is.read());
+        expEx(IOException.class, () -> is.skip(1));
+        expEx(IOException.class, () -> is.available());
+        sf.close();
+        assertFalse(sf.isOpen());
+    }
+    
+    
+}
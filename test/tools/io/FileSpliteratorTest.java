@@ -0,0 +1,286 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.Var;
+
+
+/**
+ * Test class for the {@link FileSpliterator} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class FileSpliteratorTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a tree with {@code 5} directories containing {@code 4} sub-directories,
+     * which each contain {@code 3} files. Additionally, each directory contains one file,
+     * and the root contains one file and one empty directory.
+     * 
+     * @param root The root of the tree.
+     * 
+     * @return The relative names of all files and directories in the tree, including
+     *     the root. The names of the directories end with a file separator.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static Set<String> createTree(File root)
+            throws IOException {
+        Set<String> names = new HashSet<>();
+        names.add("");
+        List<String> files = new ArrayList<>();
+        files.add("f");
+        names.add("empty" + Var.FS);
+        for (int i = 0; i < 5; i++) {
+            String dir = "d" + i + Var.FS;
+            names.add(dir);
+            files.add(dir + "f");
+            for (int j = 0; j < 4; j++) {
+                String sub = dir + "s" + j + Var.FS;
+                names.add(sub);
+                for (int k = 0; k < 3; k++) {
+                    files.add(sub + "f" + k);
+                }
+            }
+        }
+        for (String name : names) {
+            new File(root, name).mkdirs();
+        }
+        for (String file : files) {
+            Files.write(new File(root, file).toPath(), new byte[] {1});
+        }
+        names.addAll(files);
+        return names;
+    }
+    
+    /**
+     * Splits the given spliterator as often as possible.
+     * 
+     * @param split The spliterator to split.
+     * 
+     * @return All spliterators obtained by splitting, including the given one.
+     */
+    private static List<Spliterator<PartFile>> splitAll(Spliterator<PartFile> split) {
+        List<Spliterator<PartFile>> done = new ArrayList<>();
+        Deque<Spliterator<PartFile>> todo = new ArrayDeque<>();
+        todo.add(split);
+        while (!todo.isEmpty()) {
+            Spliterator<PartFile> s = todo.poll();
+            Spliterator<PartFile> other = s.trySplit();
+            if (other == null) {
+                done.add(s);
+                
+            } else {
+                todo.add(s);
+                todo.add(other);
+            }
+        }
+        return done;
+    }
+    
+    /**
+     * @param files The files to convert.
+     * 
+     * @return The relative names of the given files.
+     */
+    private static List<String> names(List<PartFile> files) {
+        return files.stream().map(PartFile::getRelativeFileName).collect(Collectors.toList());
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether a sequential traversal lists every file once, with a directory
+     * before its contents and the files of a directory before its sub-directories.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void sequentialOrder()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-spliterator").toFile();
+        try {
+            Set<String> expected = createTree(dir);
+            List<String> list = names(FileTools.getFileList(dir, true));
+            assertEquals(expected.size(), list.size());
+            assertEquals(expected, new HashSet<>(list));
+            assertEquals("", list.get(0));
+            
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < list.size(); i++) {
+                index.put(list.get(i), i);
+            }
+            for (String name : list) {
+                if (name.isEmpty()) continue;
+                boolean isDir = name.endsWith(Var.FS);
+                String trimmed = (isDir ? name.substring(0, name.length() - 1) : name);
+                int sep = trimmed.lastIndexOf(Var.FS);
+                String parent = (sep < 0 ? "" : trimmed.substring(0, sep + 1));
+                assertTrue(name, index.get(parent) < index.get(name));
+                if (isDir) {
+                    // All files of the parent are listed before this directory.
+                    for (String other : list) {
+                        if (other.startsWith(parent) && !other.endsWith(Var.FS)
+                                && other.indexOf(Var.FS, parent.length()) < 0) {
+                            assertTrue(other + " " + name, index.get(other) < index.get(name));
+                        }
+                    }
+                }
+            }
+            
+            List<String> files = names(FileTools.getFileList(dir, false));
+            expected.removeIf(n -> n.isEmpty() || n.endsWith(Var.FS));
+            assertEquals(expected, new HashSet<>(files));
+            assertEquals(expected.size(), files.size());
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether the sizes of all parts obtained by splitting sum up to the
+     * total number of files, and whether every file is listed by exactly one part.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void splitSizes()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-spliterator").toFile();
+        try {
+            Set<String> expected = createTree(dir);
+            for (boolean listDirs : new boolean[] {true, false}) {
+                Set<String> exp = new HashSet<>(expected);
+                if (!listDirs) exp.removeIf(n -> n.isEmpty() || n.endsWith(Var.FS));
+                FileSpliterator root = new FileSpliterator(dir, listDirs);
+                assertEquals(Long.MAX_VALUE, root.estimateSize());
+                List<Spliterator<PartFile>> parts = splitAll(root);
+                assertTrue("" + parts.size(), parts.size() > 1);
+                
+                List<String> all = new ArrayList<>();
+                for (Spliterator<PartFile> part : parts) {
+                    List<PartFile> files = new ArrayList<>();
+                    part.forEachRemaining(files::add);
+                    assertEquals(0, part.estimateSize());
+                    for (PartFile file : files) {
+                        assertEquals(dir, file.getDir());
+                    }
+                    all.addAll(names(files));
+                    ((FileSpliterator) part).close();
+                }
+                assertEquals(exp.size(), all.size());
+                assertEquals(exp, new HashSet<>(all));
+            }
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether a parallel stream lists the same files as a sequential stream.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void parallelStream()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-spliterator").toFile();
+        try {
+            Set<String> expected = createTree(dir);
+            List<String> list;
+            try (Stream<PartFile> stream = FileTools.streamFileList(dir, true, true)) {
+                assertTrue(stream.isParallel());
+                list = stream.map(PartFile::getRelativeFileName).collect(Collectors.toList());
+            }
+            assertEquals(expected.size(), list.size());
+            assertEquals(expected, new HashSet<>(list));
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests a root which is a file, a root which doesn't exist, and closing
+     * a spliterator before it is completely traversed.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void edgeCases()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-spliterator").toFile();
+        try {
+            createTree(dir);
+            File file = new File(dir, "f");
+            FileSpliterator split = new FileSpliterator(file, true);
+            assertEquals(1, split.estimateSize());
+            assertTrue(split.tryAdvance(f -> assertEquals(file, f)));
+            assertFalse(split.tryAdvance(f -> { }));
+            assertEquals(0, new FileSpliterator(new File(dir, "missing"), true).estimateSize());
+            assertFalse(new FileSpliterator(new File(dir, "missing"), true).tryAdvance(f -> { }));
+            
+            split = new FileSpliterator(dir, true);
+            assertTrue(split.tryAdvance(f -> { }));
+            assertTrue(split.tryAdvance(f -> { }));
+            split.close();
+            assertFalse(split.tryAdvance(f -> { }));
+            assertNull(split.trySplit());
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
@@ -0,0 +1,280 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link FileTreeOperation} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class FileTreeOperationTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The entries of the tree created by {@link ZipArchiverTest#createTree(File)}
+     *  which are ignored by {@link ZipArchiverTest#IGNORE}. */
+    private static final List<String> IGNORED = Arrays.asList(
+            "ignored/", "ignored/x.txt", "skip.log", "sub/skip.log");
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Reads the file tree with the given root.
+     * 
+     * @param root The root of the tree.
+     * 
+     * @return The relative paths of all files and directories in the tree, using
+     *     {@code '/'} as separator, and the data of the files. Directories end
+     *     with a {@code '/'} and have no data.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static Map<String, byte[]> readTree(File root)
+            throws IOException {
+        Path rootPath = root.toPath();
+        Map<String, byte[]> tree = new TreeMap<>();
+        List<Path> paths;
+        try (Stream<Path> stream = Files.walk(rootPath)) {
+            paths = stream.collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            if (path.equals(rootPath)) continue;
+            String name = rootPath.relativize(path).toString().replace(File.separatorChar, '/');
+            if (Files.isDirectory(path)) {
+                tree.put(name + "/", new byte[0]);
+                
+            } else {
+                tree.put(name, Files.readAllBytes(path));
+            }
+        }
+        return tree;
+    }
+    
+    /**
+     * @param tree The tree to check.
+     * 
+     * @return A sorted copy of the given tree containing only the ignored entries.
+     */
+    private static Map<String, byte[]> ignoredOnly(Map<String, byte[]> tree) {
+        Map<String, byte[]> ignored = new TreeMap<>(tree);
+        ignored.keySet().retainAll(IGNORED);
+        return ignored;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether copying a tree results in the same tree without the ignored
+     * files, and leaves the source tree unchanged.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void copy()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-tree-op").toFile();
+        try {
+            File src = new File(dir, "src");
+            File dst = new File(dir, "dst");
+            Map<String, byte[]> tree = ZipArchiverTest.createTree(src);
+            Map<String, byte[]> before = readTree(src);
+            FileTreeOperation op = new FileTreeOperation(4);
+            assertEquals(4, op.getParallelism());
+            op.copy(src, dst, ZipArchiverTest.IGNORE);
+            ZipArchiverTest.assertTree(tree, readTree(dst));
+            ZipArchiverTest.assertTree(before, readTree(src));
+            assertEquals(tree.size() + IGNORED.size(), before.size());
+            
+            // Copying again fails without replacing, and succeeds with replacing.
+            expEx(IOException.class, () -> op.copy(src, dst, ZipArchiverTest.IGNORE));
+            File a = new File(src, "a.txt");
+            Files.write(a.toPath(), new byte[] {1, 2, 3});
+            op.copy(src, dst, ZipArchiverTest.IGNORE, StandardCopyOption.REPLACE_EXISTING);
+            assertArrayEquals(new byte[] {1, 2, 3},
+                    Files.readAllBytes(new File(dst, "a.txt").toPath()));
+            
+            // Copying a single file.
+            File single = new File(dir, "single.bin");
+            op.copy(new File(src, "big.bin"), single, null);
+            assertArrayEquals(tree.get("big.bin"), Files.readAllBytes(single.toPath()));
+            expEx(IllegalArgumentException.class, () -> new FileTreeOperation(0));
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether the time stamps of the files and directories are copied
+     * if {@link StandardCopyOption#COPY_ATTRIBUTES} is given.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void copyAttributes()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-tree-op").toFile();
+        try {
+            File src = new File(dir, "src");
+            File dst = new File(dir, "dst");
+            ZipArchiverTest.createTree(src);
+            long time = 1_000_000_000_000L;
+            String[] names = new String[] {"a.txt", "sub/b.txt", "sub/deep", "sub", "sub/empty"};
+            for (int i = 0; i < names.length; i++) {
+                assertTrue(new File(src, names[i]).setLastModified(time + i * 1000));
+            }
+            new FileTreeOperation(4).copy(src, dst, null, StandardCopyOption.COPY_ATTRIBUTES);
+            for (int i = 0; i < names.length; i++) {
+                assertEquals(names[i], time + i * 1000, new File(dst, names[i]).lastModified());
+            }
+            ZipArchiverTest.assertTree(readTree(src), readTree(dst));
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether moving a tree moves all files which are not ignored,
+     * and leaves the ignored files and the source root in place.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void move()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-tree-op").toFile();
+        try {
+            File src = new File(dir, "src");
+            File dst = new File(dir, "dst");
+            Map<String, byte[]> tree = ZipArchiverTest.createTree(src);
+            Map<String, byte[]> before = readTree(src);
+            new FileTreeOperation(4).move(src, dst, ZipArchiverTest.IGNORE);
+            ZipArchiverTest.assertTree(tree, readTree(dst));
+            
+            // The directory containing an ignored file can't be removed.
+            Map<String, byte[]> remaining = ignoredOnly(before);
+            remaining.put("sub/", new byte[0]);
+            ZipArchiverTest.assertTree(remaining, readTree(src));
+            assertTrue(src.isDirectory());
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether deleting a tree deletes all files and directories which are
+     * not ignored, but never the root itself.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void delete()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-tree-op").toFile();
+        try {
+            ZipArchiverTest.createTree(dir);
+            Map<String, byte[]> before = readTree(dir);
+            new FileTreeOperation(4).delete(dir, ZipArchiverTest.IGNORE);
+            Map<String, byte[]> remaining = ignoredOnly(before);
+            remaining.put("sub/", new byte[0]);
+            ZipArchiverTest.assertTree(remaining, readTree(dir));
+            
+            FileTools.deleteFileTree(dir, null, 4);
+            assertTrue(dir.isDirectory());
+            assertEquals(0, dir.list().length);
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether directories with more files than fit in a single batch are
+     * processed completely.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void manyFiles()
+            throws IOException {
+        File dir = Files.createTempDirectory("file-tree-op").toFile();
+        try {
+            File src = new File(dir, "src");
+            File dst = new File(dir, "dst");
+            Map<String, byte[]> tree = new TreeMap<>();
+            for (int i = 0; i < 4; i++) {
+                tree.put("d" + i + "/", new byte[0]);
+                for (int j = 0; j < 50; j++) {
+                    tree.put("d" + i + "/f" + j, ParallelZipOutputStreamTest.genData(j, i * 50 + j));
+                }
+            }
+            for (Map.Entry<String, byte[]> entry : tree.entrySet()) {
+                File file = new File(src, entry.getKey());
+                if (entry.getKey().endsWith("/")) {
+                    file.mkdirs();
+                    
+                } else {
+                    Files.write(file.toPath(), entry.getValue());
+                }
+            }
+            FileTools.copyFileTree(src, dst, null, 8);
+            ZipArchiverTest.assertTree(tree, readTree(dst));
+            new FileTreeOperation(8).delete(dst, null);
+            assertEquals(0, dst.list().length);
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
@@ -0,0 +1,255 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.concurrent.SchedulerSet;
+import tools.concurrent.ThreadScheduler;
+
+
+/**
+ * Test class for the {@link MappedLineReader} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class MappedLineReaderTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The characters used to generate lines, including multi-byte characters. */
+    private static final char[] CHARS = "abcdefgh \u00E9\u20AC".toCharArray();
+    /** The line terminators used to generate files. */
+    private static final String[] TERMINATORS = new String[] {"\n", "\r\n", "\r"};
+    /** The chunk sizes to test. Small sizes force lines to cross chunk boundaries. */
+    private static final int[] CHUNK_SIZES = new int[] {
+        1, 7, 64, 1000, MappedLineReader.DEFAULT_CHUNK_SIZE
+    };
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Generates the contents of a file with lines of random length, including empty
+     * lines, which are terminated by random line terminators.
+     * 
+     * @param amt The number of lines.
+     * @param seed The seed of the generator.
+     * @param trailing Whether the last line is terminated.
+     * 
+     * @return The contents of the file.
+     */
+    private static String genText(int amt, long seed, boolean trailing) {
+        Random r = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < amt; i++) {
+            int len = (r.nextInt(4) == 0 ? 0 : r.nextInt(100));
+            for (int j = 0; j < len; j++) {
+                sb.append(CHARS[r.nextInt(CHARS.length)]);
+            }
+            if (i < amt - 1 || trailing) {
+                sb.append(TERMINATORS[r.nextInt(TERMINATORS.length)]);
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Creates a temporary file containing the given text.
+     * 
+     * @param dir The directory to create the file in.
+     * @param text The text of the file.
+     * @param charset The character set of the file.
+     * 
+     * @return The created file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static File write(File dir, String text, Charset charset)
+            throws IOException {
+        File file = File.createTempFile("lines", ".txt", dir);
+        Files.write(file.toPath(), text.getBytes(charset));
+        return file;
+    }
+    
+    /**
+     * Checks whether the given reader reads the same lines as {@link Files#readAllLines}
+     * for all chunk sizes, both in order and out of order.
+     * 
+     * @param reader The reader to check.
+     * @param file The file to read.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static void assertLines(MappedLineReader reader, File file)
+            throws IOException {
+        List<String> expected = Files.readAllLines(file.toPath(), reader.getCharset());
+        List<String> sorted = new ArrayList<>(expected);
+        Collections.sort(sorted);
+        for (int chunkSize : CHUNK_SIZES) {
+            reader.setChunkSize(chunkSize);
+            assertEquals(chunkSize, reader.getChunkSize());
+            assertEquals("" + chunkSize, expected, Arrays.asList(reader.readFile(file)));
+            
+            List<String> lines = Collections.synchronizedList(new ArrayList<>());
+            reader.forEach(file, lines::add, false);
+            Collections.sort(lines);
+            assertEquals("" + chunkSize, sorted, lines);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether lines crossing the boundaries of the mapped chunks are read
+     * completely, including multi-byte characters and mixed line terminators,
+     * both on a scheduler and on the calling thread.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void chunkBoundaries()
+            throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("mapped-line-reader").toFile();
+        SchedulerSet<ThreadScheduler> scheduler = ParallelZipOutputStreamTest.createScheduler();
+        try {
+            for (boolean trailing : new boolean[] {true, false}) {
+                File file = write(dir, genText(500, trailing ? 1 : 2, trailing),
+                        StandardCharsets.UTF_8);
+                MappedLineReader reader = new MappedLineReader(scheduler, StandardCharsets.UTF_8);
+                reader.setReadAhead(2);
+                assertLines(reader, file);
+                assertLines(new MappedLineReader(null, StandardCharsets.UTF_8), file);
+            }
+            
+        } finally {
+            assertTrue(scheduler.terminate(1, TimeUnit.SECONDS));
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether {@code "\r\n"} is read as a single line terminator, also if
+     * the chunk would end in between, and whether a single {@code '\r'} and a
+     * missing terminator at the end of the file are handled.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void crlf()
+            throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("mapped-line-reader").toFile();
+        SchedulerSet<ThreadScheduler> scheduler = ParallelZipOutputStreamTest.createScheduler();
+        try {
+            MappedLineReader reader = new MappedLineReader(scheduler, StandardCharsets.US_ASCII);
+            String[][] cases = new String[][] {
+                {"ab\r\ncd\r\n", "ab", "cd"},
+                {"ab\r\ncd", "ab", "cd"},
+                {"ab\r\n\r\n\r\ncd\r\n", "ab", "", "", "cd"},
+                {"\r\n", ""},
+                {"ab\rcd\r\r\nef\n\r", "ab", "cd", "", "ef", ""},
+                {""}
+            };
+            for (String[] c : cases) {
+                File file = write(dir, c[0], StandardCharsets.US_ASCII);
+                List<String> expected = Arrays.asList(c).subList(1, c.length);
+                // A chunk size of 3 lets the first chunk end at the '\r' of "ab\r\n".
+                for (int chunkSize : new int[] {1, 2, 3, 4, 100}) {
+                    reader.setChunkSize(chunkSize);
+                    assertEquals(c[0], expected, Arrays.asList(reader.readFile(file)));
+                }
+                assertLines(reader, file);
+            }
+            
+        } finally {
+            assertTrue(scheduler.terminate(1, TimeUnit.SECONDS));
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether files using a character set which cannot be split on
+     * new line bytes are read as correctly as files using one which can be split,
+     * and whether invalid arguments are rejected.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void notSplittable()
+            throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("mapped-line-reader").toFile();
+        SchedulerSet<ThreadScheduler> scheduler = ParallelZipOutputStreamTest.createScheduler();
+        try {
+            // In UTF-16 the byte 0x0A also occurs in other characters, e.g. U+0A00.
+            String text = "a\u0A00b\r\n\u010A\nc" + genText(100, 3, true);
+            for (Charset charset : new Charset[] {StandardCharsets.UTF_16LE,
+                    StandardCharsets.UTF_16BE, StandardCharsets.ISO_8859_1}) {
+                if (charset == StandardCharsets.ISO_8859_1) {
+                    text = text.replace('\u0A00', 'x').replace('\u010A', 'y')
+                            .replace('\u20AC', 'z');
+                }
+                File file = write(dir, text, charset);
+                MappedLineReader reader = new MappedLineReader(scheduler, charset);
+                assertEquals(charset, reader.getCharset());
+                assertLines(reader, file);
+            }
+            
+            MappedLineReader reader = new MappedLineReader(null);
+            assertEquals(Charset.defaultCharset(), reader.getCharset());
+            assertEquals(MappedLineReader.DEFAULT_CHUNK_SIZE, reader.getChunkSize());
+            expEx(IllegalArgumentException.class, () -> reader.setChunkSize(0));
+            expEx(IllegalArgumentException.class, () -> reader.setReadAhead(0));
+            expEx(NullPointerException.class, () -> new MappedLineReader(null, null));
+            
+        } finally {
+            assertTrue(scheduler.terminate(1, TimeUnit.SECONDS));
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
@@ -0,0 +1,294 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+/**
+ * Test class for the {@link MultiZipIndex} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class MultiZipIndexTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Writes the given entries to a (parted) zip file with a maximum part size of 1000 bytes.
+     * 
+     * @param path The path of the zip file.
+     * @param parted Whether the zip file should be parted.
+     * @param entries The entries to write.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static void write(String path, boolean parted, Map<String, byte[]> entries)
+            throws IOException {
+        try (MultiZipOutputStream mzos = new MultiZipOutputStream(path, parted, 1000)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                mzos.setEntry(new ZipEntry(entry.getKey()));
+                mzos.write(entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * @return The entries used for the tests, in order.
+     */
+    private static Map<String, byte[]> genEntries() {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("first", ParallelZipOutputStreamTest.genData(4500, 0));
+        entries.put("second", ParallelZipOutputStreamTest.genData(700, 1));
+        entries.put("dir/third", ParallelZipOutputStreamTest.genData(20, 2));
+        return entries;
+    }
+    
+    /**
+     * Reads all data of the entry with the given name and compares it with the expected data.
+     * 
+     * @param index The index to read from.
+     * @param name The name of the entry.
+     * @param expected The expected data.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static void assertData(MultiZipIndex index, String name, byte[] expected)
+            throws IOException {
+        try (InputStream in = index.open(name)) {
+            assertArrayEquals(name, expected, in.readAllBytes());
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether the entries of a parted zip file are merged over the parts,
+     * and whether every entry can be read directly in any order.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void partedLookup()
+            throws IOException {
+        File dir = Files.createTempDirectory("multi-zip-index").toFile();
+        try {
+            String path = new File(dir, "data.zip").getPath();
+            Map<String, byte[]> entries = genEntries();
+            write(path, true, entries);
+            try (MultiZipIndex index = MultiZipIndex.build(path, true)) {
+                assertTrue(index.isParted());
+                assertEquals(path, index.getFilePrefix());
+                assertEquals(3, index.size());
+                assertEquals(6, index.partCount());
+                
+                List<MultiZipIndex.Entry> list = index.getEntries();
+                assertEquals(Arrays.asList("first", "second", "dir/third"),
+                        Arrays.asList(list.get(0).getName(), list.get(1).getName(),
+                                list.get(2).getName()));
+                expEx(UnsupportedOperationException.class, () -> list.remove(0));
+                
+                // The parts are expected to contain (in bytes):
+                // [first: 1000], [first: 1000], [first: 1000], [first: 1000],
+                // [first: 500, second: 500], [second: 200, dir/third: 20].
+                MultiZipIndex.Entry first = index.getEntry("first");
+                assertEquals(4500, first.getSize());
+                assertEquals(0, first.getFirstPart());
+                assertEquals(5, first.getSegments().size());
+                MultiZipIndex.Entry second = index.getEntry("second");
+                assertEquals(700, second.getSize());
+                assertEquals(4, second.getFirstPart());
+                assertEquals(2, second.getSegments().size());
+                assertEquals(500, second.getSegments().get(0).getSize());
+                assertEquals(200, second.getSegments().get(1).getSize());
+                assertEquals(5, index.getEntry("dir/third").getFirstPart());
+                assertFalse(first.isDirectory());
+                
+                for (MultiZipIndex.Entry entry : list) {
+                    long compressed = 0;
+                    int part = entry.getFirstPart();
+                    for (MultiZipIndex.Segment seg : entry.getSegments()) {
+                        assertEquals(entry.getName(), part++, seg.getPart());
+                        assertEquals(ZipEntry.DEFLATED, seg.getMethod());
+                        compressed += seg.getCompressedSize();
+                    }
+                    assertEquals(compressed, entry.getCompressedSize());
+                }
+                
+                assertData(index, "dir/third", entries.get("dir/third"));
+                assertData(index, "first", entries.get("first"));
+                assertData(index, "second", entries.get("second"));
+                try (InputStream in = index.open(second)) {
+                    assertArrayEquals(entries.get("second"), in.readAllBytes());
+                }
+                
+                assertNull(index.getEntry("missing"));
+                expEx(NoSuchElementException.class, () -> index.open("missing"));
+            }
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether a zip file which is not parted is indexed.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void notParted()
+            throws IOException {
+        File dir = Files.createTempDirectory("multi-zip-index").toFile();
+        try {
+            String path = new File(dir, "data.zip").getPath();
+            Map<String, byte[]> entries = genEntries();
+            write(path, false, entries);
+            try (MultiZipIndex index = MultiZipIndex.build(path, false)) {
+                assertFalse(index.isParted());
+                assertEquals(1, index.partCount());
+                assertEquals(3, index.size());
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    assertEquals(1, index.getEntry(entry.getKey()).getSegments().size());
+                    assertData(index, entry.getKey(), entry.getValue());
+                }
+            }
+            expEx(IOException.class, () -> MultiZipIndex.build(path + ".missing", false));
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether the sidecar file is written and reused, and whether it is
+     * discarded when a part file changes.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void sidecar()
+            throws IOException {
+        File dir = Files.createTempDirectory("multi-zip-index").toFile();
+        try {
+            String path = new File(dir, "data.zip").getPath();
+            Map<String, byte[]> entries = genEntries();
+            write(path, true, entries);
+            File sidecar = MultiZipIndex.indexFile(path);
+            assertFalse(sidecar.exists());
+            assertNull(MultiZipIndex.load(path, true));
+            
+            try (MultiZipIndex index = MultiZipIndex.open(path, true)) {
+                assertEquals(3, index.size());
+            }
+            assertTrue(sidecar.exists());
+            try (MultiZipIndex index = MultiZipIndex.load(path, true)) {
+                assertNotNull(index);
+                assertEquals(6, index.partCount());
+                assertEquals(4500, index.getEntry("first").getSize());
+                assertEquals(2, index.getEntry("second").getSegments().size());
+                assertData(index, "second", entries.get("second"));
+            }
+            assertNull(MultiZipIndex.load(path, false));
+            
+            // Changing a part invalidates the sidecar file.
+            File part = new File(path + ".part0003");
+            assertTrue(part.setLastModified(part.lastModified() - 10_000));
+            assertNull(MultiZipIndex.load(path, true));
+            try (MultiZipIndex index = MultiZipIndex.open(path, true)) {
+                assertData(index, "first", entries.get("first"));
+            }
+            MultiZipIndex index = MultiZipIndex.load(path, true);
+            assertNotNull(index);
+            index.close();
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether multiple entries of the same index can be read concurrently.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void concurrentReads()
+            throws IOException {
+        File dir = Files.createTempDirectory("multi-zip-index").toFile();
+        try {
+            String path = new File(dir, "data.zip").getPath();
+            Map<String, byte[]> entries = genEntries();
+            write(path, true, entries);
+            try (MultiZipIndex index = MultiZipIndex.build(path, true)) {
+                String[] names = entries.keySet().toArray(new String[0]);
+                AtomicInteger id = new AtomicInteger();
+                AtomicInteger errors = new AtomicInteger();
+                runAndWait(() -> {
+                    int t = id.getAndIncrement();
+                    for (int i = 0; i < 50; i++) {
+                        String name = names[(t + i) % names.length];
+                        try (InputStream in = index.open(name)) {
+                            if (!Arrays.equals(entries.get(name), in.readAllBytes())) {
+                                errors.incrementAndGet();
+                            }
+                            
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }, 8, 5000L);
+                assertEquals(0, errors.get());
+            }
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
@@ -0,0 +1,187 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.MultiTool;
+import tools.concurrent.Scheduler;
+import tools.concurrent.SchedulerSet;
+import tools.concurrent.ThreadScheduler;
+
+
+/**
+ * Test class for the {@link MultiZipOutputStream} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class MultiZipOutputStreamTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Writes two entries to a parted zip file and checks whether the parts
+     * contain the data in order.
+     * 
+     * @param scheduler The scheduler to use, or {@code null} for sequential compression.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static void checkParted(Scheduler scheduler)
+            throws IOException {
+        File dir = Files.createTempDirectory("multi-zip").toFile();
+        try {
+            String path = new File(dir, "data.zip").getPath();
+            byte[] first = ParallelZipOutputStreamTest.genData(4500, 0);
+            byte[] second = ParallelZipOutputStreamTest.genData(700, 1);
+            try (MultiZipOutputStream mzos = new MultiZipOutputStream(path, true, 1000, scheduler)) {
+                mzos.setEntry(new ZipEntry("first"));
+                mzos.write(first, 0, 2000);
+                mzos.write(first, 2000, first.length - 2000);
+                mzos.setEntry(new ZipEntry("second"));
+                mzos.write(second);
+            }
+            
+            // The parts are expected to contain (in bytes):
+            // [first: 1000], [first: 1000], [first: 1000], [first: 1000], [first: 500, second: 500],
+            // [second: 200].
+            int[][] sizes = new int[][] {
+                {1000}, {1000}, {1000}, {1000}, {500, 500}, {200}
+            };
+            ByteArrayOutputStream[] data = new ByteArrayOutputStream[] {
+                new ByteArrayOutputStream(), new ByteArrayOutputStream()
+            };
+            for (int i = 0; i < sizes.length; i++) {
+                File part = new File(path + ".part" + MultiTool.fillZero(i, 4));
+                assertTrue(part.getName(), part.exists());
+                Map<String, byte[]> entries = ParallelZipOutputStreamTest.readFile(part);
+                int j = 0;
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    assertEquals(genIndex(i, j), sizes[i][j], entry.getValue().length);
+                    int index = (entry.getKey().equals("first") ? 0 : 1);
+                    data[index].write(entry.getValue());
+                    j++;
+                }
+                assertEquals(genIndex(i), sizes[i].length, j);
+            }
+            assertFalse(new File(path + ".part" + MultiTool.fillZero(sizes.length, 4)).exists());
+            assertArrayEquals(first, data[0].toByteArray());
+            assertArrayEquals(second, data[1].toByteArray());
+            
+        } finally {
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether the data is split over multiple zip files when compressing
+     * the data sequentially.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void partedSequential()
+            throws IOException {
+        checkParted(null);
+    }
+    
+    /**
+     * Tests whether the data is split over multiple zip files when compressing
+     * the data in parallel on a {@link SchedulerSet}, and whether the scheduler set
+     * can be terminated afterwards.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void partedParallel()
+            throws IOException, InterruptedException {
+        SchedulerSet<ThreadScheduler> scheduler = ParallelZipOutputStreamTest.createScheduler();
+        try {
+            assertTrue(scheduler.isStarted());
+            checkParted(scheduler);
+            
+        } finally {
+            assertTrue(scheduler.terminate(1, TimeUnit.SECONDS));
+        }
+        assertTrue(scheduler.isTerminated());
+        for (ThreadScheduler s : scheduler.getSchedulers()) {
+            assertTrue(s.isTerminated());
+        }
+    }
+    
+    /**
+     * Tests whether a single zip file is written if the stream is not parted.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void notParted()
+            throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("multi-zip").toFile();
+        SchedulerSet<ThreadScheduler> scheduler = ParallelZipOutputStreamTest.createScheduler();
+        try {
+            String path = new File(dir, "data.zip").getPath();
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            entries.put("a", ParallelZipOutputStreamTest.genData(300_000, 2));
+            entries.put("b", new byte[0]);
+            entries.put("c", ParallelZipOutputStreamTest.genData(10, 3));
+            try (MultiZipOutputStream mzos = new MultiZipOutputStream(path, false, 1000, scheduler)) {
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    mzos.setEntry(new ZipEntry(entry.getKey()));
+                    mzos.write(entry.getValue());
+                }
+            }
+            assertEquals(1, dir.list().length);
+            ParallelZipOutputStreamTest.assertEntries(entries,
+                    ParallelZipOutputStreamTest.readFile(new File(path)));
+            
+        } finally {
+            scheduler.terminate();
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
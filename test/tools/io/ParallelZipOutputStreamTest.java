@@ -0,0 +1,470 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.concurrent.Scheduler;
+import tools.concurrent.SchedulerSet;
+import tools.concurrent.SelfScheduler;
+import tools.concurrent.ThreadScheduler;
+
+
+/**
+ * Test class for the {@link ParallelZipOutputStream} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class ParallelZipOutputStreamTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The block size used by the tests. */
+    private static final int BLOCK_SIZE = 4096;
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Generates compressible data with the given length.
+     * 
+     * @param len The length of the data.
+     * @param seed The seed of the data.
+     * 
+     * @return The generated data.
+     */
+    static byte[] genData(int len, long seed) {
+        Random r = new Random(seed);
+        byte[] data = new byte[len];
+        for (int i = 0; i < len; i++) {
+            data[i] = (byte) ('a' + r.nextInt(8));
+        }
+        return data;
+    }
+    
+    /**
+     * @return A started scheduler set with four schedulers.
+     */
+    static SchedulerSet<ThreadScheduler> createScheduler() {
+        SchedulerSet<ThreadScheduler> set = new SchedulerSet<>(ThreadScheduler.class, 4);
+        set.start();
+        return set;
+    }
+    
+    /**
+     * Writes the given entries to a zip file in memory.
+     * 
+     * @param scheduler The scheduler to deflate the data on.
+     * @param blockSize The block size to use.
+     * @param entries The names and data of the entries.
+     * 
+     * @return The bytes of the zip file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static byte[] write(Scheduler scheduler, int blockSize, Map<String, byte[]> entries)
+            throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelZipOutputStream zos = new ParallelZipOutputStream(bos, scheduler,
+                blockSize, Deflater.DEFAULT_COMPRESSION)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zos.putNextEntry(new ZipEntry(entry.getKey()));
+                byte[] data = entry.getValue();
+                // Use an odd chunk size, such that the writes cross the block boundaries.
+                for (int off = 0; off < data.length; off += 777) {
+                    zos.write(data, off, Math.min(777, data.length - off));
+                }
+                zos.closeEntry();
+            }
+        }
+        return bos.toByteArray();
+    }
+    
+    /**
+     * Reads all entries of the given zip file using a {@link ZipInputStream}.
+     * 
+     * @param zip The bytes of the zip file.
+     * 
+     * @return The names and data of the entries.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static Map<String, byte[]> readStream(byte[] zip)
+            throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), zis.readAllBytes());
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Reads all entries of the given zip file using a {@link ZipFile}.
+     * 
+     * @param file The zip file.
+     * 
+     * @return The names and data of the entries.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    static Map<String, byte[]> readFile(File file)
+            throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zf = new ZipFile(file)) {
+            Enumeration<? extends ZipEntry> it = zf.entries();
+            while (it.hasMoreElements()) {
+                ZipEntry entry = it.nextElement();
+                try (InputStream is = zf.getInputStream(entry)) {
+                    byte[] data = is.readAllBytes();
+                    assertEquals(entry.getName(), entry.getSize(), data.length);
+                    entries.put(entry.getName(), data);
+                }
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Reads all entries of the given zip file using a {@link ZipFile}.
+     * 
+     * @param zip The bytes of the zip file.
+     * 
+     * @return The names and data of the entries.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static Map<String, byte[]> readFile(byte[] zip)
+            throws IOException {
+        File file = Files.createTempFile("parallel-zip", ".zip").toFile();
+        try {
+            Files.write(file.toPath(), zip);
+            return readFile(file);
+            
+        } finally {
+            file.delete();
+        }
+    }
+    
+    /**
+     * Checks whether the given entries are equal.
+     * 
+     * @param exp The expected entries.
+     * @param act The actual entries.
+     */
+    static void assertEntries(Map<String, byte[]> exp, Map<String, byte[]> act) {
+        assertEquals(exp.keySet().toString(), act.keySet().toString());
+        for (Map.Entry<String, byte[]> entry : exp.entrySet()) {
+            assertArrayEquals(entry.getKey(), entry.getValue(), act.get(entry.getKey()));
+        }
+    }
+    
+    /**
+     * Writes the given entries and checks whether both the {@link ZipInputStream}
+     * and the {@link ZipFile} read them back.
+     * 
+     * @param scheduler The scheduler to deflate the data on.
+     * @param blockSize The block size to use.
+     * @param entries The names and data of the entries.
+     * 
+     * @return The bytes of the zip file.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static byte[] roundTrip(Scheduler scheduler, int blockSize,
+            Map<String, byte[]> entries)
+            throws IOException {
+        byte[] zip = write(scheduler, blockSize, entries);
+        assertEntries(entries, readStream(zip));
+        assertEntries(entries, readFile(zip));
+        return zip;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether empty entries and directories are written correctly.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void emptyEntry()
+            throws IOException, InterruptedException {
+        SchedulerSet<ThreadScheduler> scheduler = createScheduler();
+        try {
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            entries.put("empty", new byte[0]);
+            entries.put("dir/", new byte[0]);
+            entries.put("dir/empty", new byte[0]);
+            roundTrip(scheduler, BLOCK_SIZE, entries);
+            
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ParallelZipOutputStream zos = new ParallelZipOutputStream(bos, scheduler)) {
+                ZipEntry entry = new ZipEntry("stored");
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(0);
+                entry.setCrc(0);
+                zos.putNextEntry(entry);
+            }
+            Map<String, byte[]> stored = new LinkedHashMap<>();
+            stored.put("stored", new byte[0]);
+            assertEntries(stored, readStream(bos.toByteArray()));
+            assertEntries(stored, readFile(bos.toByteArray()));
+            
+            bos = new ByteArrayOutputStream();
+            new ParallelZipOutputStream(bos, scheduler).close();
+            assertEquals(0, readFile(bos.toByteArray()).size());
+            
+        } finally {
+            scheduler.terminate();
+        }
+    }
+    
+    /**
+     * Tests whether entries which fit in a single block are written correctly.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void singleBlock()
+            throws IOException, InterruptedException {
+        SchedulerSet<ThreadScheduler> scheduler = createScheduler();
+        try {
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            entries.put("one", new byte[] {42});
+            entries.put("small", genData(1000, 0));
+            entries.put("full", genData(BLOCK_SIZE, 1));
+            roundTrip(scheduler, BLOCK_SIZE, entries);
+            
+        } finally {
+            scheduler.terminate();
+        }
+    }
+    
+    /**
+     * Tests whether entries which span multiple blocks are written correctly,
+     * both with a scheduler set and with a {@link SelfScheduler}.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void multiBlock()
+            throws IOException, InterruptedException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a", genData(BLOCK_SIZE * 3, 2));
+        entries.put("b", genData(BLOCK_SIZE * 25 + 123, 3));
+        entries.put("c", genData(BLOCK_SIZE + 1, 4));
+        
+        SchedulerSet<ThreadScheduler> scheduler = createScheduler();
+        try {
+            roundTrip(scheduler, BLOCK_SIZE, entries);
+            
+        } finally {
+            scheduler.terminate();
+        }
+        
+        SelfScheduler self = new SelfScheduler();
+        self.start();
+        roundTrip(self, BLOCK_SIZE, entries);
+    }
+    
+    /**
+     * Tests whether every block uses the previous block as dictionary, such that
+     * data repeated across a block boundary is compressed as a back reference.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void dictionary()
+            throws IOException, InterruptedException {
+        byte[] pattern = new byte[1000];
+        new Random(5).nextBytes(pattern);
+        byte[] data = new byte[BLOCK_SIZE * 10];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = pattern[i % pattern.length];
+        }
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("repeated", data);
+        
+        SchedulerSet<ThreadScheduler> scheduler = createScheduler();
+        try {
+            byte[] zip = roundTrip(scheduler, BLOCK_SIZE, entries);
+            try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+                ZipEntry entry = zis.getNextEntry();
+                zis.readAllBytes();
+                // Without a dictionary, every block would contain the random pattern once.
+                assertTrue("Compressed size: " + entry.getCompressedSize(),
+                        entry.getCompressedSize() < 2 * pattern.length);
+            }
+            
+        } finally {
+            scheduler.terminate();
+        }
+    }
+    
+    /**
+     * Tests whether data which is already deflated can be appended to an entry.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void writeDeflated()
+            throws IOException {
+        byte[] data = genData(10_000, 6);
+        Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        byte[] buf = new byte[2 * data.length];
+        def.setInput(data, 0, 6000);
+        int len0 = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+        def.setInput(data, 6000, 4000);
+        def.finish();
+        int len1 = def.deflate(buf, len0, buf.length - len0);
+        def.end();
+        CRC32 crc0 = new CRC32();
+        crc0.update(data, 0, 6000);
+        CRC32 crc1 = new CRC32();
+        crc1.update(data, 6000, 4000);
+        
+        SelfScheduler self = new SelfScheduler();
+        self.start();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelZipOutputStream zos = new ParallelZipOutputStream(bos, self)) {
+            zos.putNextEntry(new ZipEntry("raw"));
+            zos.writeDeflated(buf, 0, len0, 6000, crc0.getValue());
+            zos.writeDeflated(buf, len0, len1, 4000, crc1.getValue());
+            expEx(ZipException.class, () -> zos.write(1));
+        }
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("raw", data);
+        assertEntries(entries, readStream(bos.toByteArray()));
+        assertEntries(entries, readFile(bos.toByteArray()));
+    }
+    
+    /**
+     * Tests whether a zip64 end record is written for more than 65535 entries.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void zip64Entries()
+            throws IOException {
+        int amt = 70_000;
+        SelfScheduler self = new SelfScheduler();
+        self.start();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelZipOutputStream zos = new ParallelZipOutputStream(bos, self)) {
+            for (int i = 0; i < amt; i++) {
+                zos.putNextEntry(new ZipEntry("e" + i));
+                if (i % 1000 == 0) zos.write(i / 1000);
+            }
+        }
+        byte[] zip = bos.toByteArray();
+        
+        int count = 0;
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                assertEquals("e" + count, entry.getName());
+                assertEquals(count % 1000 == 0 ? 1 : 0, zis.readAllBytes().length);
+                count++;
+            }
+        }
+        assertEquals(amt, count);
+        
+        File file = Files.createTempFile("parallel-zip64", ".zip").toFile();
+        try {
+            Files.write(file.toPath(), zip);
+            try (ZipFile zf = new ZipFile(file)) {
+                assertEquals(amt, zf.size());
+                for (int i = 0; i < amt; i += 1000) {
+                    try (InputStream is = zf.getInputStream(zf.getEntry("e" + i))) {
+                        assertArrayEquals(genIndex(i), new byte[] {(byte) (i / 1000)},
+                                is.readAllBytes());
+                    }
+                }
+            }
+            
+        } finally {
+            file.delete();
+        }
+    }
+    
+    /**
+     * Tests whether invalid entries are rejected.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    @Test
+    public void invalidEntries()
+            throws IOException {
+        SelfScheduler self = new SelfScheduler();
+        self.start();
+        try (ParallelZipOutputStream zos
+                = new ParallelZipOutputStream(new ByteArrayOutputStream(), self)) {
+            expEx(ZipException.class, () -> zos.write(1));
+            ZipEntry stored = new ZipEntry("stored");
+            stored.setMethod(ZipEntry.STORED);
+            expEx(ZipException.class, () -> zos.putNextEntry(stored));
+            zos.putNextEntry(new ZipEntry("name"));
+            expEx(ZipException.class, () -> zos.putNextEntry(new ZipEntry("name")));
+        }
+        expEx(IllegalArgumentException.class, () -> new ParallelZipOutputStream(
+                new ByteArrayOutputStream(), self, 0, Deflater.DEFAULT_COMPRESSION));
+        expEx(IllegalArgumentException.class, () -> new ParallelZipOutputStream(
+                new ByteArrayOutputStream(), self, BLOCK_SIZE, 10));
+    }
+    
+    
+}
@@ -0,0 +1,238 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.io;
+
+
+// Java imports
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+
+// JUnit imports
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+import tools.BoolEvaluator;
+import tools.concurrent.SchedulerSet;
+import tools.concurrent.ThreadScheduler;
+
+
+/**
+ * Test class for the {@link ZipArchiver} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class ZipArchiverTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Constants.
+     * -------------------------------------------------------------------------
+     */
+    /** The comparator ignoring the {@code ignored} directory and all {@code .log} files. */
+    static final BoolEvaluator<File> IGNORE =
+            (f) -> f.getName().equals("ignored") || f.getName().endsWith(".log");
+    
+    
+    /* -------------------------------------------------------------------------
+     * Functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a file tree in the given directory. The files and directories for which
+     * {@link #IGNORE} evaluates to {@code true} are not included in the returned map.
+     * 
+     * @param root The directory to create the tree in.
+     * 
+     * @return The relative paths of the files and directories which are not ignored,
+     *     using {@code '/'} as separator, and the data of the files. Directories end
+     *     with a {@code '/'} and have no data.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    static Map<String, byte[]> createTree(File root)
+            throws IOException {
+        Map<String, byte[]> tree = new LinkedHashMap<>();
+        tree.put("a.txt", ParallelZipOutputStreamTest.genData(100, 10));
+        tree.put("big.bin", ParallelZipOutputStreamTest.genData(150_000, 11));
+        tree.put("empty.txt", new byte[0]);
+        tree.put("sub/", new byte[0]);
+        tree.put("sub/b.txt", ParallelZipOutputStreamTest.genData(5000, 12));
+        tree.put("sub/deep/", new byte[0]);
+        tree.put("sub/deep/c.txt", ParallelZipOutputStreamTest.genData(1, 13));
+        tree.put("sub/empty/", new byte[0]);
+        for (Map.Entry<String, byte[]> entry : tree.entrySet()) {
+            write(root, entry.getKey(), entry.getValue());
+        }
+        write(root, "skip.log", new byte[10]);
+        write(root, "sub/skip.log", new byte[10]);
+        write(root, "ignored/", null);
+        write(root, "ignored/x.txt", new byte[10]);
+        return tree;
+    }
+    
+    /**
+     * Creates the given file or directory.
+     * 
+     * @param root The root directory.
+     * @param name The relative path of the file or directory.
+     * @param data The data of the file, or {@code null} if the path denotes a directory.
+     * 
+     * @throws IOException If some IO error occured.
+     */
+    private static void write(File root, String name, byte[] data)
+            throws IOException {
+        File file = new File(root, name);
+        if (name.endsWith("/")) {
+            file.mkdirs();
+            
+        } else {
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), data);
+        }
+    }
+    
+    /**
+     * Checks whether the given trees are equal. The order of the entries is ignored,
+     * since the order of walking a directory depends on the file system.
+     * 
+     * @param exp The expected tree.
+     * @param act The actual tree.
+     */
+    static void assertTree(Map<String, byte[]> exp, Map<String, byte[]> act) {
+        ParallelZipOutputStreamTest.assertEntries(new TreeMap<>(exp), new TreeMap<>(act));
+    }
+    
+    /**
+     * Adds the given prefix to all keys of the given map.
+     * 
+     * @param prefix The prefix to add.
+     * @param tree The map to prefix.
+     * 
+     * @return A new map with prefixed keys.
+     */
+    private static Map<String, byte[]> prefix(String prefix, Map<String, byte[]> tree) {
+        Map<String, byte[]> prefixed = new LinkedHashMap<>();
+        prefixed.put(prefix, new byte[0]);
+        for (Map.Entry<String, byte[]> entry : tree.entrySet()) {
+            prefixed.put(prefix + entry.getKey(), entry.getValue());
+        }
+        return prefixed;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Tests whether archiving a directory and reading back the zip file results
+     * in the same files, with files spread over multiple chunks, and without
+     * the ignored files and the zip file itself.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void roundTrip()
+            throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("zip-archiver").toFile();
+        SchedulerSet<ThreadScheduler> scheduler = ParallelZipOutputStreamTest.createScheduler();
+        try {
+            Map<String, byte[]> tree = createTree(dir);
+            ZipArchiver archiver = new ZipArchiver(scheduler);
+            // Chunks smaller than the dictionary, and a small read ahead, such
+            // that the pipeline has to wait for the chunks.
+            archiver.setChunkSize(16 * 1024);
+            archiver.setReadAhead(2);
+            archiver.setIgnore(IGNORE);
+            assertEquals(16 * 1024, archiver.getChunkSize());
+            assertEquals(2, archiver.getReadAhead());
+            
+            // The zip file is placed in the archived directory, and should be skipped.
+            File zip = new File(dir, "out.zip");
+            archiver.archive(dir, zip);
+            assertTree(tree, ParallelZipOutputStreamTest.readFile(zip));
+            
+            // Without ignoring.
+            archiver.setIgnore(null);
+            archiver.setLevel(9);
+            archiver.setChunkSize(ZipArchiver.DEFAULT_CHUNK_SIZE);
+            File zip2 = new File(dir, "out2.zip");
+            archiver.archive(dir, zip2);
+            Map<String, byte[]> entries = ParallelZipOutputStreamTest.readFile(zip2);
+            assertTrue(entries.containsKey("ignored/x.txt"));
+            assertTrue(entries.containsKey("sub/skip.log"));
+            assertTrue(entries.containsKey("out.zip"));
+            assertEquals(tree.size() + 5, entries.size());
+            
+        } finally {
+            assertTrue(scheduler.terminate(1, TimeUnit.SECONDS));
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    /**
+     * Tests whether the files are stored in the given directory of the zip file
+     * when archiving to a stream.
+     * 
+     * @throws IOException If some IO error occured.
+     * @throws InterruptedException If the test was interrupted.
+     */
+    @Test
+    public void pathInZip()
+            throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("zip-archiver").toFile();
+        SchedulerSet<ThreadScheduler> scheduler = ParallelZipOutputStreamTest.createScheduler();
+        try {
+            Map<String, byte[]> tree = createTree(dir);
+            ZipArchiver archiver = new ZipArchiver(scheduler);
+            archiver.setIgnore(IGNORE);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            archiver.archive(dir.toPath(), "base//", bos);
+            File zip = Files.createTempFile("zip-archiver", ".zip").toFile();
+            try {
+                Files.write(zip.toPath(), bos.toByteArray());
+                assertTree(prefix("base/", tree), ParallelZipOutputStreamTest.readFile(zip));
+                
+            } finally {
+                zip.delete();
+            }
+            
+            expEx(IllegalArgumentException.class, () -> archiver.archive(
+                    new File(dir, "a.txt").toPath(), null, new ByteArrayOutputStream()));
+            expEx(IllegalArgumentException.class, () -> archiver.setChunkSize(0));
+            expEx(IllegalArgumentException.class, () -> archiver.setReadAhead(0));
+            expEx(IllegalArgumentException.class, () -> archiver.setLevel(10));
+            expEx(NullPointerException.class, () -> new ZipArchiver(null));
+            
+        } finally {
+            assertTrue(scheduler.terminate(1, TimeUnit.SECONDS));
+            FileTools.deleteAll(dir, true);
+        }
+    }
+    
+    
+}
@@ -0,0 +1,169 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * Copyright (C) October 2026 by Kaj Wortel - all rights reserved            *
+ * Contact: kaj.wortel@gmail.com                                             *
+ *                                                                           *
+ * This file is part of the tools project, which can be found on github:     *
+ * https://github.com/Kaj0Wortel/tools                                       *
+ *                                                                           *
+ * It is allowed to use, (partially) copy and modify this file               *
+ * in any way for private use only by using this header.                     *
+ * It is not allowed to redistribute any (modified) versions of this file    *
+ * without my permission.                                                    *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package tools.iterable;
+
+
+// JUnit imports
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+// Tools imports
+import tools.AbstractTestClass;
+
+
+// Java imports
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+
+
+/**
+ * Test class for the {@link IntCollector} class.
+ * 
+ * @version 1.0
+ * @author Kaj Wortel
+ */
+public class IntCollectorTest
+        extends AbstractTestClass {
+    
+    /* -------------------------------------------------------------------------
+     * Helper functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Creates a collector containing the values {@code 0} up to {@code len},
+     * appending single values and small arrays alternately.
+     * 
+     * @param len The number of values to append.
+     * 
+     * @return A collector containing the values {@code 0} up to {@code len}.
+     */
+    private static IntCollector genCollector(int len) {
+        IntCollector col = new IntCollector(4);
+        int i = 0;
+        while (i < len) {
+            if (i % 3 == 0 && i + 5 <= len) {
+                int[] part = new int[5];
+                for (int j = 0; j < part.length; j++) {
+                    part[j] = i + j;
+                }
+                col.append(part);
+                i += part.length;
+            } else {
+                col.append(i++);
+            }
+        }
+        return col;
+    }
+    
+    
+    /* -------------------------------------------------------------------------
+     * Test functions.
+     * -------------------------------------------------------------------------
+     */
+    /**
+     * Test for {@link IntCollector#toArray()} and {@link IntCollector#size()}.
+     */
+    @Test
+    public void toArray() {
+        for (int len : new int[] {0, 1, 4, 5, 100, 10_000}) {
+            IntCollector col = genCollector(len);
+            assertEquals(len, col.size());
+            assertArrayEquals(genIntArr(len), col.toArray());
+        }
+    }
+    
+    /**
+     * Test for {@link IntCollector#append(int[], int, int)} with a large array.
+     */
+    @Test
+    public void appendLarge() {
+        IntCollector col = new IntCollector(4);
+        col.append(-1);
+        col.append(genIntArr(1000), 10, 500);
+        int[] arr = col.toArray();
+        assertEquals(501, arr.length);
+        assertEquals(-1, arr[0]);
+        for (int i = 1; i < arr.length; i++) {
+            assertEquals(genIndex(i), i + 9, arr[i]);
+        }
+        expEx(IndexOutOfBoundsException.class, () -> col.append(new int[5], 3, 3));
+    }
+    
+    /**
+     * Test for {@link IntCollector#append(int[])} with empty arrays.
+     */
+    @Test
+    public void appendEmpty() {
+        IntCollector col = new IntCollector();
+        col.append(new int[0]);
+        assertEquals(0, col.size());
+        col.append(1);
+        col.append(new int[5], 5, 0);
+        col.append(new int[0]);
+        assertArrayEquals(new int[] {1}, col.toArray());
+        LongCollector lCol = new LongCollector();
+        lCol.append(new long[0]);
+        assertEquals(0, lCol.size());
+        DoubleCollector dCol = new DoubleCollector();
+        dCol.append(new double[0]);
+        assertEquals(0, dCol.size());
+    }
+    
+    /**
+     * Test for {@link IntCollector#iterator()}.
+     */
+    @Test
+    public void iterator() {
+        IntCollector col = genCollector(1000);
+        PrimitiveIterator.OfInt it = col.iterator();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(it.hasNext());
+            assertEquals(i, it.nextInt());
+        }
+        assertTrue(!it.hasNext());
+    }
+    
+    /**
+     * Test for {@link IntCollector#spliterator()}.
+     */
+    @Test
+    public void spliterator() {
+        IntCollector col = genCollector(1000);
+        Spliterator.OfInt right = col.spliterator();
+        assertEquals(1000, right.estimateSize());
+        Spliterator.OfInt left = right.trySplit();
+        assertEquals(1000, left.estimateSize() + right.estimateSize());
+        int[] next = new int[1];
+        left.forEachRemaining((int i) -> assertEquals(next[0]++, i));
+        right.forEachRemaining((int i) -> assertEquals(next[0]++, i));
+        assertEquals(1000, next[0]);
+        assertNull(new IntCollector().spliterator().trySplit());
+    }
+    
+    /**
+     * Test for {@link IntCollector#parallelStream()}.
+     */
+    @Test
+    public void parallelStream() {
+        IntCollector col = genCollector(100_000);
+        assertArrayEquals(genIntArr(100_000), col.parallelStream().toArray());
+        assertEquals(col.stream().asLongStream().sum(), col.parallelStream().asLongStream().sum());
+    }
+    
+    
+}